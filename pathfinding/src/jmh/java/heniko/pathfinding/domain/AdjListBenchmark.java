@@ -0,0 +1,68 @@
+package heniko.pathfinding.domain;
+
+import heniko.pathfinding.util.Node;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for Pathfinder.getAdjList() against iterating the neighbour mask
+ * that the pathfinders use. Both go through every node of one row of the map.
+ *
+ * @author Niko Hernesniemi
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class AdjListBenchmark {
+
+    @Param({"Berlin_0_1024.map", "16room_001.map", "64room_009.map"})
+    String map;
+
+    private Pathfinder pf;
+    private int row;
+    private int width;
+
+    @Setup
+    public void setup() {
+        GridMap gridMap = BenchmarkMaps.load(map);
+        pf = new AStar(new Node(0, 0), new Node(0, 0), gridMap, new DiagonalHeuristic());
+        row = gridMap.getHeight() / 2;
+        width = gridMap.getWidth();
+    }
+
+    @Benchmark
+    public void adjList(Blackhole bh) {
+        for (int x = 0; x < width; x++) {
+            List<Node> adjList = pf.getAdjList(x, row);
+            for (int i = 0; i < adjList.size(); i++) {
+                bh.consume(adjList.get(i));
+            }
+        }
+    }
+
+    @Benchmark
+    public void neighbourMask(Blackhole bh) {
+        for (int x = 0; x < width; x++) {
+            int mask = pf.getNeighbourMask(x, row);
+            while (mask != 0) {
+                int d = Integer.numberOfTrailingZeros(mask);
+                mask &= mask - 1;
+                bh.consume(pf.toCell(x + Directions.DX[d], row + Directions.DY[d]));
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package heniko.pathfinding.domain;
+
+import heniko.pathfinding.io.MapReader;
+import heniko.pathfinding.util.Node;
+import java.io.File;
+import java.util.Random;
+
+/**
+ * Maps and queries for the benchmarks. Maps are read from folder data.
+ *
+ * @author Niko Hernesniemi
+ */
+final class BenchmarkMaps {
+
+    private BenchmarkMaps() {
+    }
+
+    /**
+     * Reads map from folder data.
+     *
+     * @param name File name of the map, for example "16room_001.map"
+     * @return Map.
+     * @throws IllegalArgumentException Map could not be read.
+     */
+    static GridMap load(String name) throws IllegalArgumentException {
+        GridMap map = new MapReader(new File("data", name)).getGridMap();
+        if (map == null) {
+            throw new IllegalArgumentException("Could not read map: " + name);
+        }
+        return map;
+    }
+
+    /**
+     * Makes queries for the map. Query set "corners" has one query between
+     * opposite corners like the performance tests in Tester, "random" has
+     * queries between random empty nodes in the same connected component.
+     * Same seed gives same queries so runs can be compared.
+     *
+     * @param map Map
+     * @param querySet "corners" or "random"
+     * @param count Number of random queries
+     * @return Start and end of each query.
+     * @throws IllegalArgumentException Unknown query set.
+     */
+    static Node[][] queries(GridMap map, String querySet, int count) throws IllegalArgumentException {
+        if (querySet.equals("corners")) {
+            // Moving AI maps have walls on the edges
+            return new Node[][]{{new Node(5, 5), new Node(map.getWidth() - 6, map.getHeight() - 6)}};
+        }
+        if (!querySet.equals("random")) {
+            throw new IllegalArgumentException("Unknown query set: " + querySet);
+        }
+        ComponentIndex components = ComponentIndex.build(map);
+        Random rnd = new Random(1234);
+        Node[][] queries = new Node[count][];
+        int i = 0;
+        while (i < count) {
+            Node start = new Node(rnd.nextInt(map.getWidth()), rnd.nextInt(map.getHeight()));
+            Node end = new Node(rnd.nextInt(map.getWidth()), rnd.nextInt(map.getHeight()));
+            int component = components.getComponent(start.getX(), start.getY());
+            if (component != -1 && component == components.getComponent(end.getX(), end.getY())) {
+                queries[i++] = new Node[]{start, end};
+            }
+        }
+        return queries;
+    }
+}
@@ -0,0 +1,95 @@
+package heniko.pathfinding.domain;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for List used as list, stack and queue.
+ *
+ * @author Niko Hernesniemi
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ListBenchmark {
+
+    @Param({"8", "1000", "100000"})
+    int size;
+
+    private Integer[] elements;
+    private List<Integer> full;
+
+    @Setup
+    public void setup() {
+        elements = new Integer[size];
+        full = new List<>();
+        for (int i = 0; i < size; i++) {
+            elements[i] = i;
+            full.add(elements[i]);
+        }
+    }
+
+    /*
+    Adding to the list that starts from default size so it grows.
+     */
+    @Benchmark
+    public List<Integer> add() {
+        List<Integer> list = new List<>();
+        for (Integer e : elements) {
+            list.add(e);
+        }
+        return list;
+    }
+
+    @Benchmark
+    public void get(Blackhole bh) {
+        for (int i = 0; i < size; i++) {
+            bh.consume(full.get(i));
+        }
+    }
+
+    @Benchmark
+    public void pushAndPop(Blackhole bh) {
+        List<Integer> list = new List<>();
+        for (Integer e : elements) {
+            list.push(e);
+        }
+        while (!list.isEmpty()) {
+            bh.consume(list.pop());
+        }
+    }
+
+    @Benchmark
+    public void enqueueAndDequeue(Blackhole bh) {
+        List<Integer> list = new List<>();
+        for (Integer e : elements) {
+            list.enqueue(e);
+        }
+        while (!list.isEmpty()) {
+            bh.consume(list.dequeue());
+        }
+    }
+
+    /*
+    Path reconstruction reverses the path once.
+     */
+    @Benchmark
+    public List<Integer> reverse() {
+        full.reverse();
+        return full;
+    }
+}
@@ -0,0 +1,103 @@
+package heniko.pathfinding.domain;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for the open lists used by the pathfinders, CellHeap and
+ * IndexedCellHeap, with different mixes of add and poll. Open list is cleared
+ * and reused on every call like the open list of a SearchWorkspace.
+ *
+ * @author Niko Hernesniemi
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class OpenListBenchmark {
+
+    @Param({"CellHeap", "IndexedCellHeap"})
+    String openList;
+
+    @Param({"1000", "100000"})
+    int size;
+
+    private OpenList heap;
+    private double[] priorities;
+
+    @Setup
+    public void setup() {
+        heap = openList.equals("CellHeap") ? new CellHeap() : new IndexedCellHeap(size);
+        Random rnd = new Random(1234);
+        priorities = new double[size];
+        for (int i = 0; i < size; i++) {
+            priorities[i] = rnd.nextDouble() * size;
+        }
+    }
+
+    /*
+    All cells are added before polling them.
+     */
+    @Benchmark
+    public void addAllThenPoll(Blackhole bh) {
+        heap.clear();
+        for (int cell = 0; cell < size; cell++) {
+            heap.add(cell, priorities[cell]);
+        }
+        while (!heap.isEmpty()) {
+            bh.consume(heap.poll());
+        }
+    }
+
+    /*
+    Two adds for each poll like open list of A* where node usually has more
+    than one new neighbour.
+     */
+    @Benchmark
+    public void addTwicePollOnce(Blackhole bh) {
+        heap.clear();
+        for (int cell = 0; cell < size; cell += 2) {
+            heap.add(cell, priorities[cell]);
+            if (cell + 1 < size) {
+                heap.add(cell + 1, priorities[cell + 1]);
+            }
+            bh.consume(heap.poll());
+        }
+        while (!heap.isEmpty()) {
+            bh.consume(heap.poll());
+        }
+    }
+
+    /*
+    Every cell is added again with lower priority like when A* finds shorter
+    path to a node. CellHeap keeps both entries and IndexedCellHeap decreases
+    the priority of the existing one.
+     */
+    @Benchmark
+    public void addAgainWithLowerPriority(Blackhole bh) {
+        heap.clear();
+        for (int cell = 0; cell < size; cell++) {
+            heap.add(cell, priorities[cell]);
+        }
+        for (int cell = 0; cell < size; cell++) {
+            heap.add(cell, priorities[cell] / 2);
+        }
+        while (!heap.isEmpty()) {
+            bh.consume(heap.poll());
+        }
+    }
+}
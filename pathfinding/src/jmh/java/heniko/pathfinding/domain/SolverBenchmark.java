@@ -0,0 +1,92 @@
+package heniko.pathfinding.domain;
+
+import heniko.pathfinding.util.Node;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for A* and JPS with each heuristic. Each benchmark call solves
+ * the next query of the query set.
+ *
+ * @author Niko Hernesniemi
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class SolverBenchmark {
+
+    // Parameters are package-private so generated benchmark code can set them
+    @Param({"Berlin_0_1024.map", "16room_001.map", "64room_009.map"})
+    String map;
+
+    @Param({"corners", "random"})
+    String querySet;
+
+    @Param({"100"})
+    int queryCount;
+
+    @Param({"djikstra", "euclidean", "diagonal"})
+    String heuristic;
+
+    private GridMap gridMap;
+    private Node[][] queries;
+    private Heuristic h;
+    private int next;
+
+    @Setup
+    public void setup() {
+        gridMap = BenchmarkMaps.load(map);
+        queries = BenchmarkMaps.queries(gridMap, querySet, queryCount);
+        switch (heuristic) {
+            case "djikstra":
+                h = new DjikstraHeuristic();
+                break;
+            case "euclidean":
+                h = new EuclideanHeuristic();
+                break;
+            case "diagonal":
+                h = new DiagonalHeuristic();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown heuristic: " + heuristic);
+        }
+    }
+
+    private Node[] nextQuery() {
+        Node[] query = queries[next];
+        next = (next + 1) % queries.length;
+        return query;
+    }
+
+    /*
+    Path length is returned so JIT can't remove the search.
+     */
+    @Benchmark
+    public double aStar() {
+        Node[] query = nextQuery();
+        Pathfinder pf = new AStar(query[0], query[1], gridMap, h);
+        pf.solve();
+        return pf.getPathLength();
+    }
+
+    @Benchmark
+    public double jps() {
+        Node[] query = nextQuery();
+        Pathfinder pf = new JPS(query[0], query[1], gridMap, h);
+        pf.solve();
+        return pf.getPathLength();
+    }
+}
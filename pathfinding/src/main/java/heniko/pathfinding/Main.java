@@ -1,6 +1,13 @@
 package heniko.pathfinding;
 
+import heniko.pathfinding.domain.GridMap;
+import heniko.pathfinding.io.BinaryMapFile;
+import heniko.pathfinding.io.FirstMoveTableFile;
+import heniko.pathfinding.io.MapReader;
 import heniko.pathfinding.util.Tester;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
 import javafx.application.Application;
 import heniko.pathfinding.ui.GUI;
 
@@ -8,9 +15,69 @@ public class Main {
 
     public static void main(String[] args) {
         if (args.length > 0 && args[0].equals("test")) {
-            new Tester().test();
+            test(args);
+        } else if (args.length > 0 && args[0].equals("convert")) {
+            convert(args);
+        } else if (args.length > 0 && args[0].equals("cpd")) {
+            buildFirstMoveTables(args);
+        } else if (args.length > 2 && args[0].equals("scen")) {
+            new Tester().testScenarios(new File(args[1]), new File(args[2]));
         } else {
             Application.launch(GUI.class, args);
         }
     }
+
+    /*
+    Runs performance tests with the options given after "test", see Tester.
+     */
+    private static void test(String[] args) {
+        Tester tester;
+        try {
+            tester = new Tester(Arrays.copyOfRange(args, 1, args.length));
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+            System.out.println("Options: --maps <map,...> --iterations <n> --warmup <n> "
+                    + "--algorithms <djikstra,euclidean,diagonal,jps,blockjps,bidirectional,parallel,hpa> "
+                    + "--format <markdown|csv|json>");
+            return;
+        }
+        tester.test();
+    }
+
+    /*
+    Converts the maps given after "convert" to binary format next to the map
+    files.
+     */
+    private static void convert(String[] args) {
+        for (int i = 1; i < args.length; i++) {
+            File mapFile = new File(args[i]);
+            File file = BinaryMapFile.binaryFile(mapFile);
+            try {
+                BinaryMapFile.convert(mapFile, file);
+                System.out.println(mapFile + " -> " + file);
+            } catch (IOException e) {
+                System.out.println(e.getMessage());
+            }
+        }
+    }
+
+    /*
+    Builds first move tables of the maps given after "cpd" next to the map
+    files. Tables that are up to date are only loaded.
+     */
+    private static void buildFirstMoveTables(String[] args) {
+        for (int i = 1; i < args.length; i++) {
+            File mapFile = new File(args[i]);
+            GridMap map = new MapReader(mapFile).getGridMap();
+            if (map == null) {
+                continue;
+            }
+            try {
+                FirstMoveTableFile.loadOrBuild(mapFile, map);
+                System.out.println(mapFile + " -> " + FirstMoveTableFile.sidecarFile(mapFile));
+            } catch (IOException e) {
+                System.out.println(e.getMessage());
+            }
+        }
+    }
 }
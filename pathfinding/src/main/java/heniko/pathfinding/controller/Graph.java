@@ -1,14 +1,26 @@
 package heniko.pathfinding.controller;
 
-import heniko.pathfinding.util.ColouredNode;
 import heniko.pathfinding.util.Node;
 import heniko.pathfinding.domain.AStar;
+import heniko.pathfinding.domain.BidirectionalAStar;
+import heniko.pathfinding.domain.BlockJPS;
+import heniko.pathfinding.domain.CachedPath;
+import heniko.pathfinding.domain.ChangeLog;
+import heniko.pathfinding.domain.ClusterGraph;
+import heniko.pathfinding.domain.ComponentIndex;
+import heniko.pathfinding.domain.DStarLite;
 import heniko.pathfinding.domain.DiagonalHeuristic;
 import heniko.pathfinding.domain.DjikstraHeuristic;
 import heniko.pathfinding.domain.EuclideanHeuristic;
+import heniko.pathfinding.domain.GridMap;
+import heniko.pathfinding.domain.HPAStar;
 import heniko.pathfinding.domain.JPS;
 import heniko.pathfinding.domain.List;
+import heniko.pathfinding.domain.MapSnapshot;
+import heniko.pathfinding.domain.ParallelBidirectionalAStar;
+import heniko.pathfinding.domain.PathCache;
 import heniko.pathfinding.domain.Pathfinder;
+import heniko.pathfinding.domain.VersionedMap;
 
 /**
  * Handles changes to graph.
@@ -17,11 +29,32 @@ import heniko.pathfinding.domain.Pathfinder;
  */
 public final class Graph {
 
+    // Width and height of HPA* clusters
+    private static final int CLUSTER_SIZE = 16;
+    // Number of ticks it takes to draw the changes of large searches
+    private static final int VISUALISATION_TICKS = 1000;
+
     private int startX, startY, endX, endY, sizeX, sizeY;
     private int[][] guiState;
     private boolean[][] isWall;
-    private List<ColouredNode> changes;
+    private GridMap map;
+    // Same walls as map, for searches that run in other threads
+    private VersionedMap versionedMap;
+    private ChangeLog changes;
+    // Changes are drawn in batches so visualisation takes about the same
+    // number of ticks for every search
+    private int[] changeBatch;
     private List<Node> path;
+    private PathCache pathCache;
+    private boolean useComponentIndex;
+    private ComponentIndex componentIndex;
+    // Map version the component index was built for
+    private long componentIndexVersion;
+    // Built on the first HPA* search and updated when walls change
+    private ClusterGraph clusterGraph;
+    // Created on the first D* Lite search and kept up to date after that so
+    // later searches only repair what has changed
+    private DStarLite dStarLite;
 
     /**
      * Constructor for Graph.
@@ -39,9 +72,13 @@ public final class Graph {
         this.sizeY = sizeY;
         this.guiState = guiState;
         this.isWall = new boolean[sizeX][sizeY];
+        this.map = new GridMap(sizeX, sizeY);
+        this.versionedMap = new VersionedMap(map);
         changeNode(this.startX, this.startY, 1);
         changeNode(this.endX, this.endY, 2);
-        this.changes = new List<>();
+        this.changes = new ChangeLog();
+        this.changes.setCoalescing(sizeX, sizeY);
+        this.changeBatch = new int[1];
         this.path = new List<>();
     }
 
@@ -54,6 +91,81 @@ public final class Graph {
         return isWall;
     }
 
+    /**
+     * Gets walls as GridMap. Changes made to graph are also made to GridMap.
+     *
+     * @return GridMap that contains information about walls
+     */
+    public GridMap getMap() {
+        return map;
+    }
+
+    /**
+     * Gets snapshot of the current walls. Snapshot doesn't change when graph
+     * changes so it can be searched in other threads while walls are edited.
+     *
+     * @return Snapshot of the walls
+     */
+    public MapSnapshot getSnapshot() {
+        return versionedMap.snapshot();
+    }
+
+    /**
+     * Gets version of the walls. Version changes every time a wall is added or
+     * removed.
+     *
+     * @return Version of the map
+     */
+    public long getMapVersion() {
+        return versionedMap.getVersion();
+    }
+
+    /**
+     * Sets cache for paths found by solve(). Cache is cleared when walls
+     * change. Paths found from the cache are drawn without visualising the
+     * algorithm.
+     *
+     * @param pathCache Cache or null for no caching
+     */
+    public void setPathCache(PathCache pathCache) {
+        this.pathCache = pathCache;
+    }
+
+    /**
+     * Gets cache used by solve().
+     *
+     * @return Cache or null if paths are not cached
+     */
+    public PathCache getPathCache() {
+        return pathCache;
+    }
+
+    /**
+     * Sets whether solve() checks connected components before searching. Index
+     * is rebuilt on the next solve after walls have changed. When start and
+     * end are in different components nothing is visualised.
+     *
+     * @param useComponentIndex True to check components
+     */
+    public void setUseComponentIndex(boolean useComponentIndex) {
+        this.useComponentIndex = useComponentIndex;
+    }
+
+    /**
+     * Gets component index for the current walls. Index is built if walls have
+     * changed since it was last built.
+     *
+     * @return Component index of the current map
+     */
+    public ComponentIndex getComponentIndex() {
+        long version = versionedMap.getVersion();
+        if (componentIndex == null || componentIndexVersion != version) {
+            componentIndex = ComponentIndex.build(map);
+            componentIndexVersion = version;
+        }
+        return componentIndex;
+    }
+
     /**
      * Gets width of the graph.
      *
@@ -143,10 +255,13 @@ public final class Graph {
             // Change old start to empty in guiState
             guiState[startX][startY] = 0;
             // Change isWall of new start to false since wall can't be over start
-            isWall[x][y] = false;
+            updateWall(x, y, false);
             // Change start position
             startX = x;
             startY = y;
+            if (dStarLite != null) {
+                dStarLite.setStart(x, y);
+            }
             // Change start position in guiState
             guiState[x][y] = 1;
         }
@@ -155,9 +270,12 @@ public final class Graph {
     private void setEnd(int x, int y) {
         if (!isStart(x, y)) {
             guiState[endX][endY] = 0;
-            isWall[x][y] = false;
+            updateWall(x, y, false);
             endX = x;
             endY = y;
+            if (dStarLite != null) {
+                dStarLite.setEnd(x, y);
+            }
             guiState[x][y] = 2;
         }
     }
@@ -165,7 +283,7 @@ public final class Graph {
     private void setWall(int x, int y) {
         // Check that wall is not set over start or end
         if (!isStart(x, y) && !isEnd(x, y)) {
-            isWall[x][y] = true;
+            updateWall(x, y, true);
             guiState[x][y] = 3;
         }
     }
@@ -173,11 +291,28 @@ public final class Graph {
     private void setEmpty(int x, int y) {
         // Check that empty spot is not set over start or end
         if (!isStart(x, y) && !isEnd(x, y)) {
-            isWall[x][y] = false;
+            updateWall(x, y, false);
             guiState[x][y] = 0;
         }
     }
 
+    private void updateWall(int x, int y, boolean wall) {
+        if (isWall[x][y] != wall) {
+            isWall[x][y] = wall;
+            map.setWall(x, y, wall);
+            versionedMap.setWall(x, y, wall);
+            if (clusterGraph != null) {
+                clusterGraph.update(x, y);
+            }
+            if (dStarLite != null) {
+                dStarLite.updateNode(x, y);
+            }
+            if (pathCache != null) {
+                pathCache.clear();
+            }
+        }
+    }
+
     private boolean isStart(int x, int y) {
         return x == startX && y == startY;
     }
@@ -188,48 +323,117 @@ public final class Graph {
 
     /**
      * Solves graph using algorithm given as parameter. 0 / Default = Djikstra,
-     * 1 = Euclidean distance A*, 2 = Diagonal distance A*, 3 = JPS.
+     * 1 = Euclidean distance A*, 2 = Diagonal distance A*, 3 = JPS, 4 = Block
+     * JPS, 5 = Bidirectional A*, 6 = Parallel bidirectional A*, 7 = HPA*, 8 =
+     * D* Lite. D* Lite keeps its search between solves and only repairs the
+     * parts affected by changes, so it doesn't use the path cache or the
+     * component index. HPA* and D* Lite keep state that is updated with the
+     * walls so they search the map itself, other algorithms search a snapshot
+     * of the walls.
      *
      * @param algorithm chosen algorithm.
      */
     public void solve(int algorithm) {
         clean();
 
+        if (algorithm == 8) {
+            if (dStarLite == null) {
+                dStarLite = new DStarLite(map, new DiagonalHeuristic());
+                dStarLite.setStart(startX, startY);
+                dStarLite.setEnd(endX, endY);
+            }
+            dStarLite.setChangeLog(changes);
+            path = dStarLite.solve();
+            // Wall updates between solves are not visualised
+            dStarLite.setChangeLog(null);
+            setChangeBatch();
+            return;
+        }
+
         Node start = new Node(startX, startY);
         Node end = new Node(endX, endY);
+        // Searches that keep no state between solves pin the current snapshot
+        // so they see the same walls even if walls are edited while they run
+        MapSnapshot snapshot = versionedMap.snapshot();
         Pathfinder pf;
 
         switch (algorithm) {
             case 1:
-                pf = new AStar(start, end, sizeX, sizeY, isWall, changes, new EuclideanHeuristic());
+                pf = new AStar(start, end, snapshot, changes, new EuclideanHeuristic());
                 break;
             case 2:
-                pf = new AStar(start, end, sizeX, sizeY, isWall, changes, new DiagonalHeuristic());
+                pf = new AStar(start, end, snapshot, changes, new DiagonalHeuristic());
                 break;
             case 3:
-                pf = new JPS(start, end, sizeX, sizeY, isWall, changes, new EuclideanHeuristic());
+                pf = new JPS(start, end, snapshot, changes, new EuclideanHeuristic());
+                break;
+            case 4:
+                pf = new BlockJPS(start, end, snapshot, changes, new EuclideanHeuristic());
+                break;
+            case 5:
+                pf = new BidirectionalAStar(start, end, snapshot, changes, new DiagonalHeuristic());
+                break;
+            case 6:
+                pf = new ParallelBidirectionalAStar(start, end, snapshot, changes, new DiagonalHeuristic());
+                break;
+            case 7:
+                if (clusterGraph == null) {
+                    clusterGraph = ClusterGraph.build(map, CLUSTER_SIZE);
+                }
+                pf = new HPAStar(start, end, map, clusterGraph, changes, new DiagonalHeuristic());
                 break;
             default:
-                pf = new AStar(start, end, sizeX, sizeY, isWall, changes, new DjikstraHeuristic());
+                pf = new AStar(start, end, snapshot, changes, new DjikstraHeuristic());
                 break;
         }
 
-        path = pf.solve();
+        if (useComponentIndex) {
+            pf.setComponentIndex(getComponentIndex());
+        }
+
+        if (pathCache != null) {
+            CachedPath cached = pathCache.solve(pf, versionedMap.getVersion(), algorithm);
+            path = cached.toList();
+        } else {
+            path = pf.solve();
+        }
+        setChangeBatch();
+    }
+
+    private void setChangeBatch() {
+        int batch = Math.max(1, changes.size() / VISUALISATION_TICKS);
+        if (changeBatch.length != batch) {
+            changeBatch = new int[batch];
+        }
+    }
+
+    /**
+     * Gets the incremental D* Lite search used by solve(8).
+     *
+     * @return D* Lite search or null if it hasn't been used yet
+     */
+    public DStarLite getDStarLite() {
+        return dStarLite;
     }
 
     /**
-     * Visualisation tick will advance algorithm simulation by one change and at
-     * the end path will be drawn.
+     * Visualisation tick will advance algorithm simulation by a batch of
+     * changes and at the end path will be drawn. Batch is one change for
+     * small searches and grows with the number of changes so that large
+     * searches are drawn in about thousand ticks.
      */
     public void visualisationTick() {
         // First we visualise how algorithm discovers and handles nodes and
         // after that we show the path algorithm found
         if (!changes.isEmpty()) {
-            ColouredNode change = changes.dequeue();
-            int cx = change.getX();
-            int cy = change.getY();
-            if (!isStart(cx, cy) && !isEnd(cx, cy)) {
-                guiState[cx][cy] = change.getColor();
+            int count = changes.drain(changeBatch);
+            for (int i = 0; i < count; i++) {
+                int change = changeBatch[i];
+                int cx = ChangeLog.getX(change);
+                int cy = ChangeLog.getY(change);
+                if (!isStart(cx, cy) && !isEnd(cx, cy)) {
+                    guiState[cx][cy] = ChangeLog.getColor(change);
+                }
             }
         } else if (!path.isEmpty()) {
             for (int i = 0; i < path.size(); i++) {
@@ -241,7 +445,7 @@ public final class Graph {
                 }
             }
             path = new List<>();
-            changes = new List<>();
+            changes.clear();
         }
     }
 
@@ -250,7 +454,7 @@ public final class Graph {
      */
     public void clean() {
         path = new List<>();
-        changes = new List<>();
+        changes.clear();
         for (int x = 0; x < sizeX; x++) {
             for (int y = 0; y < sizeY; y++) {
                 guiState[x][y] = isWall[x][y] ? 3 : 0;
@@ -2,7 +2,6 @@ package heniko.pathfinding.domain;
 
 import heniko.pathfinding.util.ColouredNode;
 import heniko.pathfinding.util.Node;
-import heniko.pathfinding.util.PriorityNode;
 
 /**
  * {@inheritDoc} This implementation uses A*.
@@ -11,6 +10,52 @@ import heniko.pathfinding.util.PriorityNode;
  */
 public final class AStar extends Pathfinder {
 
+    // Area the search is restricted to, see setBounds()
+    private boolean bounded;
+    private int minX, minY, maxX, maxY;
+
+    /**
+     * Constructor for A* pathfinding algorithm.
+     *
+     * @param start Start node
+     * @param end End node
+     * @param map Information about walls for algorithm
+     * @param changes Logger for keeping track of the changes needed in order to
+     * visualise the algorithm
+     * @param heuristic Heuristic for calculating h-value of the node
+     */
+    public AStar(Node start, Node end, GridMap map, List<ColouredNode> changes, Heuristic heuristic) {
+        super(start, end, map, changes, heuristic);
+    }
+
+    /**
+     * Constructor for A* pathfinding algorithm. Changes are logged to
+     * change log.
+     *
+     * @param start Start node
+     * @param end End node
+     * @param map Information about walls for algorithm
+     * @param changeLog Log for keeping track of the changes needed in order
+     * to visualise the algorithm
+     * @param heuristic Heuristic for calculating h-value of the node
+     */
+    public AStar(Node start, Node end, GridMap map, ChangeLog changeLog, Heuristic heuristic) {
+        super(start, end, map, changeLog, heuristic);
+    }
+
+    /**
+     * Constructor for A* pathfinding algorithm. A* constructed with this
+     * constructor will not log changes.
+     *
+     * @param start Start node
+     * @param end End node
+     * @param map Information about walls for algorithm
+     * @param heuristic Heuristic for calculating h-value of the node
+     */
+    public AStar(Node start, Node end, GridMap map, Heuristic heuristic) {
+        super(start, end, map, heuristic);
+    }
+
     /**
      * Constructor for A* pathfinding algorithm.
      *
@@ -42,92 +87,110 @@ public final class AStar extends Pathfinder {
         super(start, end, sizeX, sizeY, isWall, heuristic);
     }
 
+    /**
+     * Restricts search to a rectangle so nodes outside it are never opened.
+     * Used for searching inside one cluster. Start and end should be inside
+     * the rectangle.
+     *
+     * @param minX Smallest x-coordinate
+     * @param minY Smallest y-coordinate
+     * @param maxX Largest x-coordinate
+     * @param maxY Largest y-coordinate
+     */
+    public void setBounds(int minX, int minY, int maxX, int maxY) {
+        this.bounded = true;
+        this.minX = minX;
+        this.minY = minY;
+        this.maxX = maxX;
+        this.maxY = maxY;
+    }
+
     /**
      * {@inheritDoc} A* pathfinding algorithm will be used.
      */
     @Override
-    public List<Node> solve() {
-        // Keeps track of nodes that have been opened. This was needed because
-        // gScore values are initialized to 0.
-        boolean[][] opened = new boolean[sizeX][sizeY];
-        // Keeps track of nodes that have been already handled.
-        boolean[][] closed = new boolean[sizeX][sizeY];
-        // Holds discovered nodes
-        NodeHeap openList = new NodeHeap();
-        // This will keep track of the path
-        Node[][] parent = new Node[sizeX][sizeY];
-        // Keeps track of the current g of each node
-        double[][] gScore = new double[sizeX][sizeY];
+    protected List<Node> search() {
+        if (isKnownUnreachable()) {
+            return new List<>();
+        }
+        // Keeps track of opened and closed nodes, g values and parents. Opened
+        // was needed because gScore values are not initialized between searches.
+        SearchWorkspace ws = borrowWorkspace();
+        // Holds discovered nodes. Heap is owned by workspace so its arrays are
+        // reused between searches.
+        OpenList openList = ws.getHeap();
+        int startCell = toCell(start.getX(), start.getY());
 
         // Start algorithms from start node
-        gScore[start.getX()][start.getY()] = 0;
-        opened[start.getX()][start.getY()] = true;
-        openList.add(new PriorityNode(start.getX(), start.getY(), heuristic.getHValue(start.getX(), start.getY(), end.getX(), end.getY())));
+        ws.setG(startCell, 0);
+        ws.setParent(startCell, -1);
+        ws.open(startCell);
+        countGenerated();
+        openList.add(startCell, heuristic.getHValue(start.getX(), start.getY(), end.getX(), end.getY()));
 
         while (!openList.isEmpty()) {
-            PriorityNode current = openList.poll();
-            int cx = current.getX();
-            int cy = current.getY();
-
-            // Since the algorithm just adds new nodes of the same spot to heap
-            // instead of updating the priority we may get the same node more than once.
-            // There is no need to handle the same node more than once.
-            if (closed[cx][cy]) {
+            int cCell = openList.poll();
+            int cx = cellX(cCell);
+            int cy = cellY(cCell);
+
+            // Unless open list is IndexedCellHeap the algorithm just adds new
+            // nodes of the same spot to heap instead of updating the priority so
+            // we may get the same node more than once. There is no need to
+            // handle the same node more than once.
+            if (ws.isClosed(cCell)) {
+                stalePops++;
                 continue;
             }
 
             // Add node to changes list as handled
             logChange(cx, cy, 6);
 
-            closed[cx][cy] = true;
+            ws.close(cCell);
+            expandedCount++;
             // Check if we have reached the end
             if (cx == end.getX() && cy == end.getY()) {
-                pathLength = gScore[end.getX()][end.getY()];
-                return reconstructPath(parent);
+                pathLength = ws.getG(cCell);
+                peakOpenListSize = openList.getPeakSize();
+                return reconstructPath(ws);
             }
-            List<Node> adjList = getAdjList(cx, cy);
-            for (int i = 0; i < adjList.size(); i++) {
-                Node neighbor = adjList.get(i);
-                int nx = neighbor.getX();
-                int ny = neighbor.getY();
-
-                if (closed[nx][ny]) {
+            // Neighbours are iterated from bits so no objects are allocated
+            int mask = getNeighbourMask(cx, cy);
+            while (mask != 0) {
+                int d = Integer.numberOfTrailingZeros(mask);
+                mask &= mask - 1;
+                int nx = cx + Directions.DX[d];
+                int ny = cy + Directions.DY[d];
+                if (bounded && (nx < minX || ny < minY || nx > maxX || ny > maxY)) {
                     continue;
                 }
 
-                // For moving vertically or horizontally the cost is 1. For
-                // diagonal moves the cost is sqrt(2).
-                double cnCost = (cx - nx == 0 || cy - ny == 0) ? 1 : SQRT2;
-                double ng = gScore[cx][cy] + cnCost;
-
-                if (!opened[nx][ny]) {
-                    // Add node to changes list as discovered. Node will be added
-                    // to the list only when it is discovered for the first time
-                    // since discovering it again wouldn't make any changes to GUI.
+                int result = relax(ws, openList, cCell, nx, ny, d, end);
+                if (result == GENERATED) {
+                    // Add node to changes list as discovered. Node will be
+                    // added to the list only when it is discovered for the
+                    // first time since discovering it again wouldn't make any
+                    // changes to GUI.
                     logChange(nx, ny, 5);
-                }
-                // Changes are made to neighbor if this is the first time we
-                // discover it or if the new g is lower than the previously stored one.
-                if (!opened[nx][ny] || ng < gScore[nx][ny]) {
-                    gScore[nx][ny] = ng;
-                    double nh = heuristic.getHValue(nx, ny, end.getX(), end.getY());
-                    parent[nx][ny] = new Node(cx, cy);
-                    opened[nx][ny] = true;
-                    openList.add(new PriorityNode(nx, ny, ng + nh));
+                    countGenerated();
+                } else if (result == IMPROVED) {
+                    countPush();
                 }
             }
         }
 
         // If we do not find a path empty list will be returned
+        peakOpenListSize = openList.getPeakSize();
         return new List<>();
     }
 
-    private List<Node> reconstructPath(Node[][] parent) {
+    private List<Node> reconstructPath(SearchWorkspace ws) {
+        enterPhase(SearchStats.PATH);
         List<Node> path = new List<>();
-        Node current = end;
-        while (current != null) {
-            path.add(current);
-            current = parent[current.getX()][current.getY()];
+        path.add(end);
+        int current = ws.getParent(toCell(end.getX(), end.getY()));
+        while (current != -1) {
+            path.add(new Node(cellX(current), cellY(current)));
+            current = ws.getParent(current);
         }
         path.reverse();
         return path;
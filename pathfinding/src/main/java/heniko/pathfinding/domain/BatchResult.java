@@ -0,0 +1,85 @@
+package heniko.pathfinding.domain;
+
+import heniko.pathfinding.util.Node;
+
+/**
+ * Paths and path lengths of a batch of queries solved by BatchSolver. Index i
+ * has the result of query i.
+ *
+ * @author Niko Hernesniemi
+ */
+public class BatchResult {
+
+    private final List<Node>[] paths;
+    private final double[] lengths;
+
+    /**
+     * Constructor for BatchResult.
+     *
+     * @param size Number of queries.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public BatchResult(int size) {
+        this.paths = (List<Node>[]) new List[size];
+        this.lengths = new double[size];
+    }
+
+    /**
+     * Gets the number of queries.
+     *
+     * @return Number of queries.
+     */
+    public int size() {
+        return lengths.length;
+    }
+
+    /**
+     * Gets path of the query.
+     *
+     * @param i Index of the query.
+     * @return Path, empty list if path doesn't exist.
+     */
+    public List<Node> getPath(int i) {
+        return paths[i];
+    }
+
+    /**
+     * Gets path length of the query.
+     *
+     * @param i Index of the query.
+     * @return Length of the path, 0 if path doesn't exist.
+     */
+    public double getLength(int i) {
+        return lengths[i];
+    }
+
+    /**
+     * Gets all paths.
+     *
+     * @return Array of paths.
+     */
+    public List<Node>[] getPaths() {
+        return paths;
+    }
+
+    /**
+     * Gets all path lengths.
+     *
+     * @return Array of path lengths.
+     */
+    public double[] getLengths() {
+        return lengths;
+    }
+
+    /**
+     * Sets result of the query.
+     *
+     * @param i Index of the query.
+     * @param path Path found.
+     * @param length Length of the path.
+     */
+    public void set(int i, List<Node> path, double length) {
+        paths[i] = path;
+        lengths[i] = length;
+    }
+}
@@ -0,0 +1,146 @@
+package heniko.pathfinding.domain;
+
+import heniko.pathfinding.util.Node;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Solves many independent queries on the same map in parallel. Queries are
+ * split between the threads of a ForkJoinPool. Each range of queries borrows a
+ * SearchWorkspace from the solver and gives it back when it is done, so only
+ * the small pathfinder objects are created for each query. Workspaces belong
+ * to the solver, not to the threads of the pool, so they are not left
+ * attached to pool threads after the batch. GridMap must not be changed while
+ * batch is being solved. With VersionedMap every batch pins the snapshot that
+ * is current when solve() is called, so walls can be changed during the
+ * batch.
+ *
+ * @author Niko Hernesniemi
+ */
+public class BatchSolver {
+
+    // Ranges smaller than this are solved without splitting further
+    private static final int THRESHOLD = 8;
+
+    private final GridMap map;
+    private final VersionedMap versionedMap;
+    private final PathfinderFactory factory;
+    private final ForkJoinPool pool;
+    // Workspaces that no range is using at the moment
+    private final ConcurrentLinkedQueue<SearchWorkspace> workspaces;
+
+    /**
+     * Constructor for BatchSolver.
+     *
+     * @param map Map shared by all queries
+     * @param factory Creates pathfinder for each query
+     * @param pool Pool queries are solved in
+     */
+    public BatchSolver(GridMap map, PathfinderFactory factory, ForkJoinPool pool) {
+        this(map, null, factory, pool);
+    }
+
+    /**
+     * Constructor for BatchSolver. Every batch searches the snapshot that is
+     * current when the batch is started.
+     *
+     * @param versionedMap Map shared by all queries
+     * @param factory Creates pathfinder for each query
+     * @param pool Pool queries are solved in
+     */
+    public BatchSolver(VersionedMap versionedMap, PathfinderFactory factory, ForkJoinPool pool) {
+        this(null, versionedMap, factory, pool);
+    }
+
+    /**
+     * Constructor for BatchSolver. Queries are solved in the common pool.
+     *
+     * @param map Map shared by all queries
+     * @param factory Creates pathfinder for each query
+     */
+    public BatchSolver(GridMap map, PathfinderFactory factory) {
+        this(map, factory, ForkJoinPool.commonPool());
+    }
+
+    private BatchSolver(GridMap map, VersionedMap versionedMap, PathfinderFactory factory, ForkJoinPool pool) {
+        this.map = map;
+        this.versionedMap = versionedMap;
+        this.factory = factory;
+        this.pool = pool;
+        this.workspaces = new ConcurrentLinkedQueue<>();
+    }
+
+    /**
+     * Solves all queries. Query i goes from starts[i] to ends[i].
+     *
+     * @param starts Start nodes
+     * @param ends End nodes
+     * @return Paths and lengths in the same order as queries.
+     * @throws IllegalArgumentException Arrays have different lengths.
+     */
+    public BatchResult solve(Node[] starts, Node[] ends) throws IllegalArgumentException {
+        if (starts.length != ends.length) {
+            throw new IllegalArgumentException();
+        }
+        BatchResult result = new BatchResult(starts.length);
+        GridMap batchMap = versionedMap != null ? versionedMap.snapshot() : map;
+        pool.invoke(new SolveRange(batchMap, starts, ends, result, 0, starts.length));
+        return result;
+    }
+
+    private void solveRange(GridMap batchMap, Node[] starts, Node[] ends, BatchResult result, int from, int to) {
+        // At most one workspace per thread that runs ranges at the same time
+        // is ever made
+        SearchWorkspace ws = workspaces.poll();
+        if (ws == null) {
+            ws = new SearchWorkspace(batchMap.getWidth(), batchMap.getHeight());
+        }
+        try {
+            for (int i = from; i < to; i++) {
+                Pathfinder pf = factory.create(starts[i], ends[i], batchMap);
+                pf.setWorkspace(ws);
+                List<Node> path = pf.solve();
+                result.set(i, path, pf.getPathLength());
+            }
+        } finally {
+            workspaces.add(ws);
+        }
+    }
+
+    /**
+     * Solves queries from index from (inclusive) to index to (exclusive) by
+     * splitting the range in halves.
+     */
+    private final class SolveRange extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final GridMap batchMap;
+        private final Node[] starts;
+        private final Node[] ends;
+        private final BatchResult result;
+        private final int from;
+        private final int to;
+
+        SolveRange(GridMap batchMap, Node[] starts, Node[] ends, BatchResult result, int from, int to) {
+            this.batchMap = batchMap;
+            this.starts = starts;
+            this.ends = ends;
+            this.result = result;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= THRESHOLD) {
+                solveRange(batchMap, starts, ends, result, from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new SolveRange(batchMap, starts, ends, result, from, mid),
+                    new SolveRange(batchMap, starts, ends, result, mid, to));
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package heniko.pathfinding.domain;
+
+import heniko.pathfinding.util.ColouredNode;
+import heniko.pathfinding.util.Node;
+
+/**
+ * {@inheritDoc} This implementation uses bidirectional A*. Forward search
+ * starts from start node and backward search from end node. Each step expands
+ * one node from the side that has smaller open list so if one of the nodes is
+ * in a small closed area search ends as soon as that area has been explored.
+ *
+ * Heuristic has to be consistent (all heuristics in this project are) so that
+ * search can be stopped when the best f value of either side is at least the
+ * length of the best path found through a node seen by both searches.
+ *
+ * @author Niko Hernesniemi
+ */
+public final class BidirectionalAStar extends Pathfinder {
+
+    private SearchWorkspace backwardWorkspace;
+    // Length of the best path found so far and node where the searches met
+    private double bestLength;
+    private int meetCell;
+
+    /**
+     * Constructor for bidirectional A* pathfinding algorithm.
+     *
+     * @param start Start node
+     * @param end End node
+     * @param map Information about walls for algorithm
+     * @param changes Logger for keeping track of the changes needed in order to
+     * visualise the algorithm
+     * @param heuristic Heuristic for calculating h-value of the node
+     */
+    public BidirectionalAStar(Node start, Node end, GridMap map, List<ColouredNode> changes, Heuristic heuristic) {
+        super(start, end, map, changes, heuristic);
+    }
+
+    /**
+     * Constructor for bidirectional A* pathfinding algorithm.
+     * Changes are logged to change log.
+     *
+     * @param start Start node
+     * @param end End node
+     * @param map Information about walls for algorithm
+     * @param changeLog Log for keeping track of the changes needed in order
+     * to visualise the algorithm
+     * @param heuristic Heuristic for calculating h-value of the node
+     */
+    public BidirectionalAStar(Node start, Node end, GridMap map, ChangeLog changeLog, Heuristic heuristic) {
+        super(start, end, map, changeLog, heuristic);
+    }
+
+    /**
+     * Constructor for bidirectional A* pathfinding algorithm.
+     * BidirectionalAStar constructed with this constructor will not have
+     * change logger.
+     *
+     * @param start Start node
+     * @param end End node
+     * @param map Information about walls for algorithm
+     * @param heuristic Heuristic for calculating h-value of the node
+     */
+    public BidirectionalAStar(Node start, Node end, GridMap map, Heuristic heuristic) {
+        super(start, end, map, heuristic);
+    }
+
+    /**
+     * Sets workspace for backward search. Workspace set with setWorkspace() is
+     * used by forward search so these must be different workspaces.
+     *
+     * @param workspace Workspace made for graph of the same size.
+     * @throws IllegalArgumentException Workspace was made for graph of
+     * different size.
+     */
+    public void setBackwardWorkspace(SearchWorkspace workspace) throws IllegalArgumentException {
+        if (!workspace.fits(sizeX, sizeY)) {
+            throw new IllegalArgumentException();
+        }
+        this.backwardWorkspace = workspace;
+    }
+
+    /**
+     * {@inheritDoc} Bidirectional A* pathfinding algorithm will be used.
+     * Peak open list size is the sum of the peaks of both searches.
+     */
+    @Override
+    protected List<Node> search() {
+        if (isKnownUnreachable()) {
+            return new List<>();
+        }
+        SearchWorkspace fws = borrowWorkspace();
+        // Backward workspace is part of the setup too
+        enterPhase(SearchStats.SETUP);
+        SearchWorkspace bws = backwardWorkspace != null ? backwardWorkspace : new SearchWorkspace(sizeX, sizeY);
+        bws.reset();
+        enterPhase(SearchStats.SEARCH);
+        OpenList fOpen = fws.getHeap();
+        OpenList bOpen = bws.getHeap();
+        int startCell = toCell(start.getX(), start.getY());
+        int endCell = toCell(end.getX(), end.getY());
+        bestLength = Double.POSITIVE_INFINITY;
+        meetCell = -1;
+
+        // Forward search can't enter walls so there is no path to wall
+        if (map.isWall(end.getX(), end.getY())) {
+            return new List<>();
+        }
+
+        fws.setG(startCell, 0);
+        fws.setParent(startCell, -1);
+        fws.open(startCell);
+        countGenerated();
+        fOpen.add(startCell, heuristic.getHValue(start.getX(), start.getY(), end.getX(), end.getY()));
+        bws.setG(endCell, 0);
+        bws.setParent(endCell, -1);
+        bws.open(endCell);
+        countGenerated();
+        bOpen.add(endCell, heuristic.getHValue(end.getX(), end.getY(), start.getX(), start.getY()));
+        if (startCell == endCell) {
+            bestLength = 0;
+            meetCell = startCell;
+        }
+
+        // If either side runs out of nodes everything reachable from it has
+        // been handled
+        while (!fOpen.isEmpty() && !bOpen.isEmpty()) {
+            boolean forward = fOpen.size() <= bOpen.size();
+            SearchWorkspace ws = forward ? fws : bws;
+            SearchWorkspace other = forward ? bws : fws;
+            OpenList openList = forward ? fOpen : bOpen;
+            Node target = forward ? end : start;
+
+            int cCell = openList.poll();
+            if (ws.isClosed(cCell)) {
+                stalePops++;
+                continue;
+            }
+            int cx = cellX(cCell);
+            int cy = cellY(cCell);
+
+            // All paths through nodes left in this open list are at least as
+            // long as the one already found
+            if (ws.getG(cCell) + heuristic.getHValue(cx, cy, target.getX(), target.getY()) >= bestLength) {
+                break;
+            }
+
+            logChange(cx, cy, 6);
+            ws.close(cCell);
+            expandedCount++;
+            expand(ws, openList, other, cCell, target);
+        }
+
+        peakOpenListSize = fOpen.getPeakSize() + bOpen.getPeakSize();
+        if (meetCell == -1) {
+            return new List<>();
+        }
+        pathLength = bestLength;
+        return reconstructPath(fws, bws);
+    }
+
+    private void expand(SearchWorkspace ws, OpenList openList, SearchWorkspace other, int cCell, Node target) {
+        int cx = cellX(cCell);
+        int cy = cellY(cCell);
+        // Moves are symmetric so backward search can use the same neighbours
+        int mask = getNeighbourMask(cx, cy);
+        while (mask != 0) {
+            int d = Integer.numberOfTrailingZeros(mask);
+            mask &= mask - 1;
+            int nx = cx + Directions.DX[d];
+            int ny = cy + Directions.DY[d];
+
+            int result = relax(ws, openList, cCell, nx, ny, d, target);
+            if (result == CLOSED) {
+                continue;
+            }
+            if (result == GENERATED) {
+                logChange(nx, ny, 5);
+                countGenerated();
+            } else if (result == IMPROVED) {
+                countPush();
+            }
+
+            // Node seen by both searches gives a path from start to end
+            int nCell = toCell(nx, ny);
+            if (other.isOpened(nCell) && ws.getG(nCell) + other.getG(nCell) < bestLength) {
+                bestLength = ws.getG(nCell) + other.getG(nCell);
+                meetCell = nCell;
+            }
+        }
+    }
+
+    private List<Node> reconstructPath(SearchWorkspace fws, SearchWorkspace bws) {
+        enterPhase(SearchStats.PATH);
+        List<Node> path = new List<>();
+        // From meeting node to start with forward parents
+        int current = meetCell;
+        while (current != -1) {
+            path.add(new Node(cellX(current), cellY(current)));
+            current = fws.getParent(current);
+        }
+        path.reverse();
+        // From meeting node to end with backward parents
+        current = bws.getParent(meetCell);
+        while (current != -1) {
+            path.add(new Node(cellX(current), cellY(current)));
+            current = bws.getParent(current);
+        }
+        return path;
+    }
+}
@@ -0,0 +1,303 @@
+package heniko.pathfinding.domain;
+
+import heniko.pathfinding.util.ColouredNode;
+import heniko.pathfinding.util.Node;
+
+/**
+ * {@inheritDoc} This implementation uses block-based jump point search.
+ * Straight scans check 64 nodes at once using row words of GridMap. Vertical
+ * scans use transposed copy of the map so columns can be read as rows. Found
+ * jump points are the same as with JPS.
+ *
+ * @author Niko Hernesniemi
+ */
+public final class BlockJPS extends Pathfinder {
+
+    private GridMap transposed;
+    // Last node visited by the latest scan, used only for logging
+    private int lastScanned;
+
+    /**
+     * Constructor for block-based jump point search pathfinding algorithm.
+     *
+     * @param start Start node
+     * @param end End node
+     * @param map Information about walls for algorithm
+     * @param changes Logger for keeping track of the changes needed in order to
+     * visualise the algorithm
+     * @param heuristic Heuristic for calculating h-value of the node
+     */
+    public BlockJPS(Node start, Node end, GridMap map, List<ColouredNode> changes, Heuristic heuristic) {
+        super(start, end, map, changes, heuristic);
+    }
+
+    /**
+     * Constructor for block-based jump point search pathfinding algorithm.
+     * Changes are logged to change log.
+     *
+     * @param start Start node
+     * @param end End node
+     * @param map Information about walls for algorithm
+     * @param changeLog Log for keeping track of the changes needed in order
+     * to visualise the algorithm
+     * @param heuristic Heuristic for calculating h-value of the node
+     */
+    public BlockJPS(Node start, Node end, GridMap map, ChangeLog changeLog, Heuristic heuristic) {
+        super(start, end, map, changeLog, heuristic);
+    }
+
+    /**
+     * Constructor for block-based jump point search pathfinding algorithm.
+     * BlockJPS constructed with this constructor will not have change logger.
+     *
+     * @param start Start node
+     * @param end End node
+     * @param map Information about walls for algorithm
+     * @param heuristic Heuristic for calculating h-value of the node
+     */
+    public BlockJPS(Node start, Node end, GridMap map, Heuristic heuristic) {
+        super(start, end, map, heuristic);
+    }
+
+    /**
+     * {@inheritDoc} Block-based jump point search pathfinding algorithm will
+     * be used.
+     */
+    @Override
+    protected List<Node> search() {
+        if (isKnownUnreachable()) {
+            return new List<>();
+        }
+        Heuristic jumpCostHeuristic = new DiagonalHeuristic();
+        SearchWorkspace ws = borrowWorkspace();
+        OpenList openList = ws.getHeap();
+        int startCell = toCell(start.getX(), start.getY());
+        transposed = map.transposed();
+
+        ws.setG(startCell, 0);
+        ws.setParent(startCell, -1);
+        ws.open(startCell);
+        countGenerated();
+        openList.add(startCell, heuristic.getHValue(start.getX(), start.getY(), end.getX(), end.getY()));
+
+        while (!openList.isEmpty()) {
+            int cCell = openList.poll();
+
+            int cx = cellX(cCell);
+            int cy = cellY(cCell);
+
+            if (ws.isClosed(cCell)) {
+                stalePops++;
+                continue;
+            }
+
+            logChange(cx, cy, 6);
+
+            ws.close(cCell);
+            expandedCount++;
+
+            if (cx == end.getX() && cy == end.getY()) {
+                pathLength = ws.getG(cCell);
+                peakOpenListSize = openList.getPeakSize();
+                return reconstructJumpPath(ws);
+            }
+
+            int mask = getPrunedMask(cx, cy, ws);
+            while (mask != 0) {
+                int d = Integer.numberOfTrailingZeros(mask);
+                mask &= mask - 1;
+                int nx = cx + Directions.DX[d];
+                int ny = cy + Directions.DY[d];
+
+                int jCell = jump(nx, ny, cx, cy);
+
+                if (jCell == -1 || ws.isClosed(toCell(nx, ny))) {
+                    continue;
+                }
+                int jx = cellX(jCell);
+                int jy = cellY(jCell);
+
+                double jg = ws.getG(cCell) + jumpCostHeuristic.getHValue(cx, cy, jx, jy);
+                boolean opened = ws.isOpened(jCell);
+
+                if (!opened) {
+                    logChange(jx, jy, 5);
+                }
+
+                if (!opened || jg < ws.getG(jCell)) {
+                    ws.setG(jCell, jg);
+                    double jh = heuristic.getHValue(jx, jy, end.getX(), end.getY());
+                    ws.setParent(jCell, cCell);
+                    ws.open(jCell);
+                    if (opened) {
+                        countPush();
+                    } else {
+                        countGenerated();
+                    }
+                    openList.add(jCell, jg + jh);
+                }
+            }
+        }
+        peakOpenListSize = openList.getPeakSize();
+        return new List<>();
+    }
+
+    /**
+     * Finds next jump point when moving from (px, py) to (x, y) and onwards to
+     * the same direction.
+     *
+     * @return Cell id of the jump point or -1 if there is none.
+     */
+    private int jump(int x, int y, int px, int py) {
+        countJump();
+        int dx = x - px;
+        int dy = y - py;
+
+        if (dx != 0 && dy != 0) {
+            return jumpDiagonal(x, y, dx, dy);
+        }
+        // Straight edge also needs walkable source, see JPS
+        if (map.isWall(px, py)) {
+            return -1;
+        }
+        if (dx != 0) {
+            return jumpHorizontal(x, y, dx);
+        }
+        return jumpVertical(x, y, dy);
+    }
+
+    private int jumpDiagonal(int x, int y, int dx, int dy) {
+        // Diagonal moves are still taken one node at a time but the straight
+        // scans from every node are done in blocks
+        int from = x;
+        int jump = -1;
+        while (true) {
+            if (!isInsideGraph(x, y) || map.isWall(x - dx, y) || map.isWall(x, y - dy) || map.isWall(x, y)) {
+                break;
+            }
+            logChange(x, y, 7);
+            if (x == end.getX() && y == end.getY()) {
+                jump = toCell(x, y);
+                break;
+            }
+            if (jumpHorizontal(x + dx, y, dx) != -1 || jumpVertical(x, y + dy, dy) != -1) {
+                jump = toCell(x, y);
+                break;
+            }
+            x += dx;
+            y += dy;
+        }
+        countScanned((x - from) * dx + (jump == -1 ? 0 : 1));
+        return jump;
+    }
+
+    private int jumpHorizontal(int x, int y, int dx) {
+        int jx = scan(map, y, x, dx, end.getY(), end.getX());
+        countScanned((lastScanned - x) * dx + 1);
+        if (logging) {
+            for (int i = x; i != lastScanned + dx; i += dx) {
+                logChange(i, y, 7);
+            }
+        }
+        return jx == -1 ? -1 : toCell(jx, y);
+    }
+
+    private int jumpVertical(int x, int y, int dy) {
+        int jy = scan(transposed, x, y, dy, end.getX(), end.getY());
+        countScanned((lastScanned - y) * dy + 1);
+        if (logging) {
+            for (int i = y; i != lastScanned + dy; i += dy) {
+                logChange(x, i, 7);
+            }
+        }
+        return jy == -1 ? -1 : toCell(x, jy);
+    }
+
+    /**
+     * Scans row of the map starting from col to direction dir. Node is a jump
+     * point if it is the end or the node behind it has wall over or under it
+     * and the node itself doesn't.
+     *
+     * @return Column of the jump point or -1 if wall or edge of the map was
+     * reached first.
+     */
+    private int scan(GridMap g, int row, int col, int dir, int endRow, int endCol) {
+        int width = g.getWidth();
+        boolean hasUp = row + 1 < g.getHeight();
+        boolean hasDown = row > 0;
+        if (col < 0 || col >= width) {
+            lastScanned = col - dir;
+            return -1;
+        }
+        while (col >= 0 && col < width) {
+            int base = col & ~63;
+            long walls = g.rowWord(row, col);
+            long up = hasUp ? g.rowWord(row + 1, col) : 0;
+            long down = hasDown ? g.rowWord(row - 1, col) : 0;
+            if (dir > 0) {
+                // Bit 0 is compared to the last node of the previous word
+                long upCarry = hasUp && base > 0 ? g.rowWord(row + 1, base - 1) >>> 63 : 0;
+                long downCarry = hasDown && base > 0 ? g.rowWord(row - 1, base - 1) >>> 63 : 0;
+                long forced = (((up << 1) | upCarry) & ~up) | (((down << 1) | downCarry) & ~down);
+                long stop = walls;
+                if (base + 64 > width) {
+                    // Nodes outside the map stop the scan like walls
+                    stop |= -1L << (width - base);
+                }
+                long from = -1L << (col - base);
+                forced &= from;
+                stop &= from;
+                if (endRow == row && endCol >= col && endCol < base + 64) {
+                    forced |= 1L << (endCol - base);
+                }
+                int f = Long.numberOfTrailingZeros(forced);
+                int s = Long.numberOfTrailingZeros(stop);
+                if (f < s) {
+                    lastScanned = base + f;
+                    return base + f;
+                }
+                if (s < 64) {
+                    lastScanned = base + s - 1;
+                    return -1;
+                }
+                col = base + 64;
+            } else {
+                // Bit 63 is compared to the first node of the next word
+                long upCarry = hasUp && base + 64 < width ? g.rowWord(row + 1, base + 64) << 63 : 0;
+                long downCarry = hasDown && base + 64 < width ? g.rowWord(row - 1, base + 64) << 63 : 0;
+                long forced = (((up >>> 1) | upCarry) & ~up) | (((down >>> 1) | downCarry) & ~down);
+                long stop = walls;
+                long from = -1L >>> (63 - (col - base));
+                forced &= from;
+                stop &= from;
+                if (endRow == row && endCol <= col && endCol >= base) {
+                    forced |= 1L << (endCol - base);
+                }
+                int f = 63 - Long.numberOfLeadingZeros(forced);
+                int s = 63 - Long.numberOfLeadingZeros(stop);
+                if (f > s) {
+                    lastScanned = base + f;
+                    return base + f;
+                }
+                if (s >= 0) {
+                    lastScanned = base + s + 1;
+                    return -1;
+                }
+                col = base - 1;
+            }
+        }
+        lastScanned = dir > 0 ? width - 1 : 0;
+        return -1;
+    }
+
+    private int getPrunedMask(int x, int y, SearchWorkspace ws) {
+        int parent = ws.getParent(toCell(x, y));
+        // For start we need all adjacent nodes.
+        if (parent == -1) {
+            return getNeighbourMask(x, y);
+        }
+        int dx = getNormalizedDirection(cellX(parent), x);
+        int dy = getNormalizedDirection(cellY(parent), y);
+        return getNeighbourMask(x, y) & Directions.PRUNED[Directions.index(dx, dy)];
+    }
+}
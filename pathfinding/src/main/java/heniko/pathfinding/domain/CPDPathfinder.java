@@ -0,0 +1,102 @@
+package heniko.pathfinding.domain;
+
+import heniko.pathfinding.util.ColouredNode;
+import heniko.pathfinding.util.Node;
+
+/**
+ * {@inheritDoc} This implementation doesn't search at all. Path is followed
+ * one move at a time by reading the first move towards the end from
+ * FirstMoveTable, so the time is proportional to the length of the path. The
+ * map must not change after the table has been built.
+ *
+ * Table has no rows for walls so start inside a wall has no path.
+ *
+ * @author Niko Hernesniemi
+ */
+public final class CPDPathfinder extends Pathfinder {
+
+    private final FirstMoveTable table;
+
+    /**
+     * Constructor for compressed path database pathfinder.
+     *
+     * @param start Start node
+     * @param end End node
+     * @param map Information about walls for algorithm
+     * @param table First move table built from the same map
+     * @param changes Logger for keeping track of the changes needed in order to
+     * visualise the algorithm
+     * @throws IllegalArgumentException Table was built for different size of
+     * map.
+     */
+    public CPDPathfinder(Node start, Node end, GridMap map, FirstMoveTable table, List<ColouredNode> changes) throws IllegalArgumentException {
+        // Heuristic is not needed since nothing is searched
+        super(start, end, map, changes, new DjikstraHeuristic());
+        if (table.getWidth() != sizeX || table.getHeight() != sizeY) {
+            throw new IllegalArgumentException();
+        }
+        this.table = table;
+    }
+
+    /**
+     * Constructor for compressed path database pathfinder. CPDPathfinder
+     * constructed with this constructor will not have change logger.
+     *
+     * @param start Start node
+     * @param end End node
+     * @param map Information about walls for algorithm
+     * @param table First move table built from the same map
+     * @throws IllegalArgumentException Table was built for different size of
+     * map.
+     */
+    public CPDPathfinder(Node start, Node end, GridMap map, FirstMoveTable table) throws IllegalArgumentException {
+        this(start, end, map, table, new List<>());
+        this.logging = false;
+    }
+
+    /**
+     * {@inheritDoc} Path is read from the first move table.
+     */
+    @Override
+    protected List<Node> search() {
+        if (isKnownUnreachable()) {
+            return new List<>();
+        }
+        stalePops = 0;
+        peakOpenListSize = 0;
+        expandedCount = 0;
+        pathLength = 0;
+        // Path is made while the moves are read so there is no search phase
+        enterPhase(SearchStats.PATH);
+        if (map.isWall(end.getX(), end.getY())) {
+            return new List<>();
+        }
+        int endCell = toCell(end.getX(), end.getY());
+        int x = start.getX();
+        int y = start.getY();
+        List<Node> path = new List<>();
+        path.add(new Node(x, y));
+
+        // Every move makes the remaining path shorter so a path can't be
+        // longer than the number of nodes. Longer walk means the table was
+        // built for different walls.
+        for (int steps = 0; steps < sizeX * sizeY; steps++) {
+            int cell = toCell(x, y);
+            if (cell == endCell) {
+                return path;
+            }
+            int d = table.getMove(cell, endCell);
+            if (d < 0 || d == FirstMoveTable.NO_MOVE) {
+                pathLength = 0;
+                return new List<>();
+            }
+            x += Directions.DX[d];
+            y += Directions.DY[d];
+            pathLength += Directions.COST[d];
+            logChange(x, y, 6);
+            path.add(new Node(x, y));
+        }
+        pathLength = 0;
+        return new List<>();
+    }
+}
@@ -0,0 +1,107 @@
+package heniko.pathfinding.domain;
+
+import heniko.pathfinding.util.Node;
+
+/**
+ * Path stored compactly for PathCache. Only the first node is stored as
+ * coordinates and every step after it takes 4 bits: direction number (see
+ * Directions) or 8 if the same node is repeated.
+ *
+ * @author Niko Hernesniemi
+ */
+public final class CachedPath {
+
+    private static final int STAY = 8;
+
+    private final int startX;
+    private final int startY;
+    private final int nodes;
+    private final byte[] steps;
+    private final double length;
+
+    private CachedPath(int startX, int startY, int nodes, byte[] steps, double length) {
+        this.startX = startX;
+        this.startY = startY;
+        this.nodes = nodes;
+        this.steps = steps;
+        this.length = length;
+    }
+
+    /**
+     * Creates compact copy of the path.
+     *
+     * @param path Path where consecutive nodes are adjacent or the same.
+     * @param length Length of the path.
+     * @return New CachedPath.
+     * @throws IllegalArgumentException Path has a step longer than one node.
+     */
+    public static CachedPath encode(List<Node> path, double length) throws IllegalArgumentException {
+        if (path.isEmpty()) {
+            return new CachedPath(0, 0, 0, new byte[0], length);
+        }
+        byte[] steps = new byte[path.size() / 2];
+        for (int i = 1; i < path.size(); i++) {
+            int dx = path.get(i).getX() - path.get(i - 1).getX();
+            int dy = path.get(i).getY() - path.get(i - 1).getY();
+            if (dx < -1 || dx > 1 || dy < -1 || dy > 1) {
+                throw new IllegalArgumentException();
+            }
+            int code = dx == 0 && dy == 0 ? STAY : Directions.index(dx, dy);
+            // Step i goes to the low bits of byte (i - 1) / 2 if i is odd
+            steps[(i - 1) >> 1] |= (byte) (code << (((i - 1) & 1) << 2));
+        }
+        return new CachedPath(path.get(0).getX(), path.get(0).getY(), path.size(), steps, length);
+    }
+
+    /**
+     * Creates list of nodes from the compact path.
+     *
+     * @return Path as a list of nodes.
+     */
+    public List<Node> toList() {
+        List<Node> path = new List<>(Math.max(nodes, 1));
+        if (nodes == 0) {
+            return path;
+        }
+        int x = startX;
+        int y = startY;
+        path.add(new Node(x, y));
+        for (int i = 1; i < nodes; i++) {
+            int code = (steps[(i - 1) >> 1] >> (((i - 1) & 1) << 2)) & 0xF;
+            if (code != STAY) {
+                x += Directions.DX[code];
+                y += Directions.DY[code];
+            }
+            path.add(new Node(x, y));
+        }
+        return path;
+    }
+
+    /**
+     * Gets length of the path.
+     *
+     * @return Length of the path, 0 if path doesn't exist.
+     */
+    public double getLength() {
+        return length;
+    }
+
+    /**
+     * Gets the number of nodes in path.
+     *
+     * @return Number of nodes.
+     */
+    public int size() {
+        return nodes;
+    }
+
+    /**
+     * Gets estimated memory used by this path.
+     *
+     * @return Size in bytes.
+     */
+    public long getSizeInBytes() {
+        // Object header and fields plus the step array with its header
+        return 40 + 16 + steps.length;
+    }
+}
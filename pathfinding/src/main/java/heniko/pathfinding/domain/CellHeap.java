@@ -0,0 +1,191 @@
+package heniko.pathfinding.domain;
+
+/**
+ * Priority queue for cell ids. Works like NodeHeap but cell ids and
+ * priorities are kept in parallel primitive arrays so adding a node doesn't
+ * allocate objects. Adding a cell that is already in the heap adds a second
+ * entry so algorithms have to skip already handled cells after poll().
+ *
+ * @author Niko Hernesniemi
+ */
+public class CellHeap implements OpenList {
+
+    private int[] cells;
+    private double[] priorities;
+    private int size;
+    private int peakSize;
+
+    /**
+     * Constructor for CellHeap.
+     *
+     * @param initialSize Initial size of the heap arrays. This should be more
+     * than 0.
+     * @throws IllegalArgumentException Initial size of the heap was too low.
+     */
+    public CellHeap(int initialSize) throws IllegalArgumentException {
+        if (initialSize < 1) {
+            throw new IllegalArgumentException();
+        }
+        this.cells = new int[initialSize];
+        this.priorities = new double[initialSize];
+        this.size = 0;
+        this.peakSize = 0;
+    }
+
+    /**
+     * Default constructor for CellHeap.
+     */
+    public CellHeap() {
+        this(32);
+    }
+
+    /**
+     * Gets the number of cells in heap.
+     *
+     * @return Number of cells.
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks if heap is empty.
+     *
+     * @return True if heap is empty.
+     */
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes all cells from the heap. Arrays are kept for reuse.
+     */
+    @Override
+    public void clear() {
+        size = 0;
+        peakSize = 0;
+    }
+
+    /**
+     * Gets the largest size heap has had since it was created or cleared.
+     *
+     * @return Peak size.
+     */
+    @Override
+    public int getPeakSize() {
+        return peakSize;
+    }
+
+    /**
+     * Returns the highest priority cell but doesn't remove it from the heap.
+     *
+     * @return Highest priority cell or -1 if heap is empty.
+     */
+    public int peek() {
+        if (isEmpty()) {
+            return -1;
+        }
+        return cells[0];
+    }
+
+    /**
+     * Returns priority of the highest priority cell.
+     *
+     * @return Lowest priority value in heap.
+     * @throws IndexOutOfBoundsException Heap is empty.
+     */
+    @Override
+    public double peekPriority() throws IndexOutOfBoundsException {
+        if (isEmpty()) {
+            throw new IndexOutOfBoundsException();
+        }
+        return priorities[0];
+    }
+
+    /**
+     * Returns the highest priority cell and removes it from the heap.
+     *
+     * @return Highest priority cell or -1 if heap is empty.
+     */
+    @Override
+    public int poll() {
+        if (isEmpty()) {
+            return -1;
+        }
+        int res = cells[0];
+        size--;
+        if (size > 0) {
+            // Move last to the top and let it sink to its place
+            shiftDown(0, cells[size], priorities[size]);
+        }
+        return res;
+    }
+
+    /**
+     * Adds new cell to heap. Same cell can be added more than once.
+     *
+     * @param cell Cell id.
+     * @param priority Priority of the cell, lower value is handled first.
+     */
+    @Override
+    public void add(int cell, double priority) {
+        if (size == cells.length) {
+            grow();
+        }
+        size++;
+        if (size > peakSize) {
+            peakSize = size;
+        }
+        shiftUp(size - 1, cell, priority);
+    }
+
+    private void shiftUp(int i, int cell, double priority) {
+        // Instead of swapping we move parents down until the place for the
+        // new cell is found
+        while (i > 0) {
+            int parentPos = (i - 1) >>> 1;
+            if (priority >= priorities[parentPos]) {
+                break;
+            }
+            cells[i] = cells[parentPos];
+            priorities[i] = priorities[parentPos];
+            i = parentPos;
+        }
+        cells[i] = cell;
+        priorities[i] = priority;
+    }
+
+    private void shiftDown(int i, int cell, double priority) {
+        int half = size >>> 1;
+        // Nodes at positions >= half have no children
+        while (i < half) {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if (right < size && priorities[right] < priorities[child]) {
+                child = right;
+            }
+            if (priority <= priorities[child]) {
+                break;
+            }
+            cells[i] = cells[child];
+            priorities[i] = priorities[child];
+            i = child;
+        }
+        cells[i] = cell;
+        priorities[i] = priority;
+    }
+
+    private void grow() {
+        int newSize = cells.length * 2;
+        int[] newCells = new int[newSize];
+        double[] newPriorities = new double[newSize];
+        for (int i = 0; i < size; i++) {
+            newCells[i] = cells[i];
+            newPriorities[i] = priorities[i];
+        }
+        cells = newCells;
+        priorities = newPriorities;
+    }
+}
@@ -0,0 +1,301 @@
+package heniko.pathfinding.domain;
+
+import java.util.Arrays;
+
+/**
+ * Log of GUI changes needed for visualising pathfinding algorithms. Every
+ * change is packed to one int (x, y and colour) and stored in a ring buffer
+ * so logging doesn't create an object for every change.
+ *
+ * Buffer grows until it has maxSize changes. After that the policy decides
+ * what is kept: DROP_OLDEST overwrites the oldest changes, DROP_NEWEST stops
+ * logging and SAMPLE drops every second change and logs only every second
+ * change from then on, so the whole search is still shown but with fewer
+ * nodes. Coalescing can be turned on to skip changes that would give a node
+ * the same colour it already got from this log. Colour of a dropped change is
+ * forgotten, so the same change is logged again later.
+ *
+ * @author Niko Hernesniemi
+ */
+public final class ChangeLog {
+
+    public static final int DROP_OLDEST = 0;
+    public static final int DROP_NEWEST = 1;
+    public static final int SAMPLE = 2;
+    // Coordinates have 14 bits and colour 4 bits
+    public static final int MAX_COORDINATE = (1 << 14) - 1;
+    private static final int DEFAULT_MAX_SIZE = 1 << 20;
+    private static final int INITIAL_SIZE = 64;
+
+    private final int maxSize;
+    private final int policy;
+    private int[] buffer;
+    private int head;
+    private int size;
+    // Every step:th change is logged
+    private int step;
+    private int skipped;
+    private long dropped;
+    // Colour every node last got from this log, null if not coalescing
+    private byte[] lastColor;
+    private int width;
+
+    /**
+     * Constructor for ChangeLog.
+     *
+     * @param maxSize Maximum number of changes kept in memory
+     * @param policy DROP_OLDEST, DROP_NEWEST or SAMPLE
+     * @throws IllegalArgumentException Max size is less than 2 or policy is
+     * unknown.
+     */
+    public ChangeLog(int maxSize, int policy) throws IllegalArgumentException {
+        if (maxSize < 2 || policy < DROP_OLDEST || policy > SAMPLE) {
+            throw new IllegalArgumentException();
+        }
+        this.maxSize = maxSize;
+        this.policy = policy;
+        this.buffer = new int[Math.min(INITIAL_SIZE, maxSize)];
+        this.step = 1;
+    }
+
+    /**
+     * Creates log that keeps at most about million changes and samples them
+     * when it is full.
+     */
+    public ChangeLog() {
+        this(DEFAULT_MAX_SIZE, SAMPLE);
+    }
+
+    /**
+     * Turns on coalescing for map of the given size. Change is skipped if
+     * the node already got the same colour from this log.
+     *
+     * @param width Width of the map
+     * @param height Height of the map
+     */
+    public void setCoalescing(int width, int height) {
+        this.width = width;
+        this.lastColor = new byte[width * height];
+    }
+
+    /**
+     * Packs change to int.
+     *
+     * @param x x-coordinate, at most MAX_COORDINATE
+     * @param y y-coordinate, at most MAX_COORDINATE
+     * @param color Colour from 0 to 15
+     * @return Packed change.
+     */
+    public static int pack(int x, int y, int color) {
+        return (x << 18) | (y << 4) | color;
+    }
+
+    /**
+     * Gets x-coordinate of packed change.
+     *
+     * @param change Packed change
+     * @return x-coordinate.
+     */
+    public static int getX(int change) {
+        return change >>> 18;
+    }
+
+    /**
+     * Gets y-coordinate of packed change.
+     *
+     * @param change Packed change
+     * @return y-coordinate.
+     */
+    public static int getY(int change) {
+        return (change >>> 4) & MAX_COORDINATE;
+    }
+
+    /**
+     * Gets colour of packed change.
+     *
+     * @param change Packed change
+     * @return Colour.
+     */
+    public static int getColor(int change) {
+        return change & 15;
+    }
+
+    /**
+     * Logs change. Change may be skipped because of coalescing, sampling or
+     * full log.
+     *
+     * @param x x-coordinate
+     * @param y y-coordinate
+     * @param color Colour from 0 to 15
+     * @throws IllegalArgumentException Coordinate or colour can't be packed.
+     */
+    public void add(int x, int y, int color) throws IllegalArgumentException {
+        if (x < 0 || y < 0 || x > MAX_COORDINATE || y > MAX_COORDINATE || color < 0 || color > 15) {
+            throw new IllegalArgumentException();
+        }
+        int cell = x + y * width;
+        if (lastColor != null && lastColor[cell] == color + 1) {
+            return;
+        }
+        if (++skipped < step) {
+            dropped++;
+            return;
+        }
+        skipped = 0;
+        if (size == buffer.length && !makeRoom()) {
+            dropped++;
+            return;
+        }
+        buffer[(head + size) % buffer.length] = pack(x, y, color);
+        size++;
+        // Colour is recorded only when the change was kept, so a dropped
+        // change doesn't make the same change later look like a duplicate
+        if (lastColor != null) {
+            lastColor[cell] = (byte) (color + 1);
+        }
+    }
+
+    /**
+     * Makes room for one change.
+     *
+     * @return False if the change should not be logged.
+     */
+    private boolean makeRoom() {
+        if (buffer.length < maxSize) {
+            grow();
+            return true;
+        }
+        if (policy == DROP_NEWEST) {
+            return false;
+        }
+        if (policy == DROP_OLDEST) {
+            forget(buffer[head]);
+            head = (head + 1) % buffer.length;
+            size--;
+            dropped++;
+            return true;
+        }
+        // Keep every second change in order and log every second one from
+        // now on
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            int change = buffer[(head + i) % buffer.length];
+            if (i % 2 == 0) {
+                buffer[kept++] = change;
+            } else {
+                forget(change);
+            }
+        }
+        dropped += size - kept;
+        head = 0;
+        size = kept;
+        step *= 2;
+        return true;
+    }
+
+    /**
+     * Forgets colour of the dropped change so the same change is logged
+     * again instead of being coalesced away.
+     */
+    private void forget(int change) {
+        if (lastColor == null) {
+            return;
+        }
+        int cell = getX(change) + getY(change) * width;
+        if (lastColor[cell] == getColor(change) + 1) {
+            lastColor[cell] = 0;
+        }
+    }
+
+    private void grow() {
+        int[] newBuffer = new int[(int) Math.min((long) buffer.length * 2, maxSize)];
+        for (int i = 0; i < size; i++) {
+            newBuffer[i] = buffer[(head + i) % buffer.length];
+        }
+        buffer = newBuffer;
+        head = 0;
+    }
+
+    /**
+     * Gets the number of changes in the log.
+     *
+     * @return Number of changes.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks if log has no changes.
+     *
+     * @return True if log is empty.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Gets and removes the oldest change.
+     *
+     * @return Packed change.
+     * @throws IndexOutOfBoundsException Log is empty.
+     */
+    public int poll() throws IndexOutOfBoundsException {
+        if (size == 0) {
+            throw new IndexOutOfBoundsException();
+        }
+        int change = buffer[head];
+        head = (head + 1) % buffer.length;
+        size--;
+        return change;
+    }
+
+    /**
+     * Removes the oldest changes to the array.
+     *
+     * @param target Array for the packed changes
+     * @return Number of changes removed, at most length of the array.
+     */
+    public int drain(int[] target) {
+        int count = Math.min(size, target.length);
+        for (int i = 0; i < count; i++) {
+            target[i] = buffer[(head + i) % buffer.length];
+        }
+        head = (head + count) % buffer.length;
+        size -= count;
+        return count;
+    }
+
+    /**
+     * Gets the number of changes that were not kept because of sampling or
+     * full log. Changes skipped by coalescing are not counted.
+     *
+     * @return Number of dropped changes.
+     */
+    public long getDropped() {
+        return dropped;
+    }
+
+    /**
+     * Gets how often changes are logged, 1 means every change.
+     *
+     * @return Sampling step.
+     */
+    public int getSamplingStep() {
+        return step;
+    }
+
+    /**
+     * Removes all changes and starts logging every change again.
+     */
+    public void clear() {
+        head = 0;
+        size = 0;
+        step = 1;
+        skipped = 0;
+        dropped = 0;
+        if (lastColor != null) {
+            Arrays.fill(lastColor, (byte) 0);
+        }
+    }
+}
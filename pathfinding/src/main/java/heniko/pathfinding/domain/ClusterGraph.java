@@ -0,0 +1,404 @@
+package heniko.pathfinding.domain;
+
+import java.util.stream.IntStream;
+
+/**
+ * Abstract graph used by HPAStar. Map is split into square clusters. Where
+ * two clusters touch, every continuous run of empty node pairs over the border
+ * is an entrance. Short entrances get one pair of nodes in the middle and
+ * long ones a pair at both ends. Nodes of a pair are connected with an edge of
+ * length 1 and nodes inside the same cluster with the length of the shortest
+ * path that stays inside the cluster.
+ *
+ * When walls change update() rebuilds only the clusters that were affected.
+ *
+ * @author Niko Hernesniemi
+ */
+public class ClusterGraph {
+
+    // Entrances at least this long get two pairs of nodes
+    private static final int LONG_ENTRANCE = 6;
+
+    private final GridMap map;
+    private final int clusterSize;
+    private final int clustersX;
+    private final int clustersY;
+    // Node pairs of each border as (cell on the left or top side, cell on the
+    // other side). Borders between horizontal neighbours come first.
+    private final int[][] borders;
+    // Cells of the abstract nodes of each cluster
+    private final int[][] nodes;
+    // Distances between nodes of a cluster, nodes[c].length squared values
+    private final double[][] distances;
+    // Edges to other clusters as (index in nodes, cell on the other side)
+    private final int[][] links;
+
+    private ClusterGraph(GridMap map, int clusterSize) {
+        this.map = map;
+        this.clusterSize = clusterSize;
+        this.clustersX = (map.getWidth() + clusterSize - 1) / clusterSize;
+        this.clustersY = (map.getHeight() + clusterSize - 1) / clusterSize;
+        this.borders = new int[(clustersX - 1) * clustersY + clustersX * (clustersY - 1)][];
+        this.nodes = new int[clustersX * clustersY][];
+        this.distances = new double[clustersX * clustersY][];
+        this.links = new int[clustersX * clustersY][];
+    }
+
+    /**
+     * Builds abstract graph for the map. Borders and clusters are independent
+     * so they are processed in parallel. Graph keeps reference to the map and
+     * update() must be called after walls of the map have changed.
+     *
+     * @param map Map.
+     * @param clusterSize Width and height of a cluster.
+     * @return New ClusterGraph.
+     * @throws IllegalArgumentException Cluster size is less than 1.
+     */
+    public static ClusterGraph build(GridMap map, int clusterSize) throws IllegalArgumentException {
+        if (clusterSize < 1) {
+            throw new IllegalArgumentException();
+        }
+        ClusterGraph graph = new ClusterGraph(map, clusterSize);
+        IntStream.range(0, graph.borders.length).parallel().forEach(graph::buildBorder);
+        IntStream.range(0, graph.nodes.length).parallel().forEach(graph::buildCluster);
+        return graph;
+    }
+
+    /**
+     * Updates graph after node (x, y) has changed. Only the cluster of the
+     * node is rebuilt, and if the node is on a border also the cluster on the
+     * other side.
+     *
+     * @param x x-coordinate.
+     * @param y y-coordinate.
+     */
+    public void update(int x, int y) {
+        int cx = x / clusterSize;
+        int cy = y / clusterSize;
+        int cluster = cx + cy * clustersX;
+        // Borders first since nodes of the clusters come from them
+        boolean left = x == cx * clusterSize && cx > 0;
+        boolean right = x == (cx + 1) * clusterSize - 1 && cx + 1 < clustersX;
+        boolean top = y == cy * clusterSize && cy > 0;
+        boolean bottom = y == (cy + 1) * clusterSize - 1 && cy + 1 < clustersY;
+        if (left) {
+            buildBorder(verticalBorder(cx - 1, cy));
+            buildCluster(cluster - 1);
+        }
+        if (right) {
+            buildBorder(verticalBorder(cx, cy));
+            buildCluster(cluster + 1);
+        }
+        if (top) {
+            buildBorder(horizontalBorder(cx, cy - 1));
+            buildCluster(cluster - clustersX);
+        }
+        if (bottom) {
+            buildBorder(horizontalBorder(cx, cy));
+            buildCluster(cluster + clustersX);
+        }
+        buildCluster(cluster);
+    }
+
+    /**
+     * Gets map the graph was built for.
+     *
+     * @return Map.
+     */
+    public GridMap getMap() {
+        return map;
+    }
+
+    /**
+     * Gets width and height of a cluster.
+     *
+     * @return Cluster size.
+     */
+    public int getClusterSize() {
+        return clusterSize;
+    }
+
+    /**
+     * Gets the number of clusters.
+     *
+     * @return Number of clusters.
+     */
+    public int getClusterCount() {
+        return nodes.length;
+    }
+
+    /**
+     * Gets the number of abstract nodes in all clusters.
+     *
+     * @return Number of abstract nodes.
+     */
+    public int getNodeCount() {
+        int count = 0;
+        for (int[] clusterNodes : nodes) {
+            count += clusterNodes.length;
+        }
+        return count;
+    }
+
+    /**
+     * Gets cluster of the node.
+     *
+     * @param x x-coordinate.
+     * @param y y-coordinate.
+     * @return Cluster number.
+     */
+    public int getCluster(int x, int y) {
+        return x / clusterSize + (y / clusterSize) * clustersX;
+    }
+
+    /**
+     * Gets smallest x-coordinate of the cluster.
+     */
+    int minX(int cluster) {
+        return (cluster % clustersX) * clusterSize;
+    }
+
+    /**
+     * Gets smallest y-coordinate of the cluster.
+     */
+    int minY(int cluster) {
+        return (cluster / clustersX) * clusterSize;
+    }
+
+    /**
+     * Gets largest x-coordinate of the cluster.
+     */
+    int maxX(int cluster) {
+        return Math.min(map.getWidth(), minX(cluster) + clusterSize) - 1;
+    }
+
+    /**
+     * Gets largest y-coordinate of the cluster.
+     */
+    int maxY(int cluster) {
+        return Math.min(map.getHeight(), minY(cluster) + clusterSize) - 1;
+    }
+
+    /**
+     * Gets cells of the abstract nodes of the cluster.
+     */
+    int[] getNodes(int cluster) {
+        return nodes[cluster];
+    }
+
+    /**
+     * Gets index of the cell in the nodes of the cluster.
+     *
+     * @return Index or -1 if cell is not an abstract node.
+     */
+    int indexOf(int cluster, int cell) {
+        int[] clusterNodes = nodes[cluster];
+        for (int i = 0; i < clusterNodes.length; i++) {
+            if (clusterNodes[i] == cell) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Gets distance between two nodes of the cluster.
+     *
+     * @return Distance or Double.POSITIVE_INFINITY if there is no path inside
+     * the cluster.
+     */
+    double getDistance(int cluster, int i, int j) {
+        return distances[cluster][i * nodes[cluster].length + j];
+    }
+
+    /**
+     * Gets edges to other clusters as pairs of index in nodes and cell on the
+     * other side of the border.
+     */
+    int[] getLinks(int cluster) {
+        return links[cluster];
+    }
+
+    /**
+     * Dijkstra's algorithm from source to every node of the cluster without
+     * leaving the cluster.
+     *
+     * @return Distances indexed by (x - minX) + (y - minY) * cluster width,
+     * Double.POSITIVE_INFINITY for unreachable nodes.
+     */
+    double[] distancesInCluster(int cluster, int source) {
+        int w = map.getWidth();
+        int minX = minX(cluster);
+        int minY = minY(cluster);
+        int maxX = maxX(cluster);
+        int maxY = maxY(cluster);
+        int bw = maxX - minX + 1;
+        double[] dist = new double[bw * (maxY - minY + 1)];
+        for (int i = 0; i < dist.length; i++) {
+            dist[i] = Double.POSITIVE_INFINITY;
+        }
+        CellHeap heap = new CellHeap();
+        int sx = source % w;
+        int sy = source / w;
+        dist[(sx - minX) + (sy - minY) * bw] = 0;
+        heap.add((sx - minX) + (sy - minY) * bw, 0);
+
+        while (!heap.isEmpty()) {
+            double d = heap.peekPriority();
+            int local = heap.poll();
+            if (d > dist[local]) {
+                continue;
+            }
+            int x = minX + local % bw;
+            int y = minY + local / bw;
+            int mask = map.getNeighbourMask(x, y);
+            while (mask != 0) {
+                int dir = Integer.numberOfTrailingZeros(mask);
+                mask &= mask - 1;
+                int nx = x + Directions.DX[dir];
+                int ny = y + Directions.DY[dir];
+                if (nx < minX || ny < minY || nx > maxX || ny > maxY) {
+                    continue;
+                }
+                int nLocal = (nx - minX) + (ny - minY) * bw;
+                double nd = d + Directions.COST[dir];
+                if (nd < dist[nLocal]) {
+                    dist[nLocal] = nd;
+                    heap.add(nLocal, nd);
+                }
+            }
+        }
+        return dist;
+    }
+
+    private int verticalBorder(int cx, int cy) {
+        return cx + cy * (clustersX - 1);
+    }
+
+    private int horizontalBorder(int cx, int cy) {
+        return (clustersX - 1) * clustersY + cx + cy * clustersX;
+    }
+
+    private void buildBorder(int border) {
+        int w = map.getWidth();
+        int vertical = (clustersX - 1) * clustersY;
+        // Border is walked along the edge of the first cluster, other side is
+        // one step away to direction (ox, oy)
+        int x;
+        int y;
+        int ox;
+        int oy;
+        int length;
+        if (border < vertical) {
+            int cx = border % (clustersX - 1);
+            int cy = border / (clustersX - 1);
+            x = (cx + 1) * clusterSize - 1;
+            y = cy * clusterSize;
+            ox = 1;
+            oy = 0;
+            length = Math.min(map.getHeight(), y + clusterSize) - y;
+        } else {
+            int cx = (border - vertical) % clustersX;
+            int cy = (border - vertical) / clustersX;
+            x = cx * clusterSize;
+            y = (cy + 1) * clusterSize - 1;
+            ox = 0;
+            oy = 1;
+            length = Math.min(w, x + clusterSize) - x;
+        }
+        // Step along the border
+        int sx = oy;
+        int sy = ox;
+
+        int[] pairs = new int[length * 2];
+        int size = 0;
+        int runStart = -1;
+        for (int i = 0; i <= length; i++) {
+            int ax = x + sx * i;
+            int ay = y + sy * i;
+            boolean open = i < length && !map.isWall(ax, ay) && !map.isWall(ax + ox, ay + oy);
+            if (open && runStart == -1) {
+                runStart = i;
+            } else if (!open && runStart != -1) {
+                int runEnd = i - 1;
+                if (runEnd - runStart + 1 >= LONG_ENTRANCE) {
+                    size = addPair(pairs, size, x + sx * runStart, y + sy * runStart, ox, oy);
+                    size = addPair(pairs, size, x + sx * runEnd, y + sy * runEnd, ox, oy);
+                } else {
+                    int mid = (runStart + runEnd) / 2;
+                    size = addPair(pairs, size, x + sx * mid, y + sy * mid, ox, oy);
+                }
+                runStart = -1;
+            }
+        }
+        int[] used = new int[size];
+        System.arraycopy(pairs, 0, used, 0, size);
+        borders[border] = used;
+    }
+
+    private int addPair(int[] pairs, int size, int x, int y, int ox, int oy) {
+        int w = map.getWidth();
+        pairs[size] = x + y * w;
+        pairs[size + 1] = (x + ox) + (y + oy) * w;
+        return size + 2;
+    }
+
+    private void buildCluster(int cluster) {
+        int cx = cluster % clustersX;
+        int cy = cluster / clustersX;
+        int[] clusterNodes = new int[0];
+        int[] clusterLinks = new int[0];
+        // Pairs of the border are (first side, second side)
+        int[][] sides = new int[][]{
+            cx > 0 ? new int[]{verticalBorder(cx - 1, cy), 1} : null,
+            cx + 1 < clustersX ? new int[]{verticalBorder(cx, cy), 0} : null,
+            cy > 0 ? new int[]{horizontalBorder(cx, cy - 1), 1} : null,
+            cy + 1 < clustersY ? new int[]{horizontalBorder(cx, cy), 0} : null
+        };
+        for (int[] side : sides) {
+            if (side == null) {
+                continue;
+            }
+            int[] pairs = borders[side[0]];
+            for (int p = 0; p < pairs.length; p += 2) {
+                int own = pairs[p + side[1]];
+                int other = pairs[p + 1 - side[1]];
+                int index = -1;
+                for (int i = 0; i < clusterNodes.length; i++) {
+                    if (clusterNodes[i] == own) {
+                        index = i;
+                    }
+                }
+                // Corner node can be on two borders
+                if (index == -1) {
+                    index = clusterNodes.length;
+                    clusterNodes = append(clusterNodes, own);
+                }
+                clusterLinks = append(append(clusterLinks, index), other);
+            }
+        }
+
+        int k = clusterNodes.length;
+        double[] clusterDistances = new double[k * k];
+        int bw = maxX(cluster) - minX(cluster) + 1;
+        int w = map.getWidth();
+        for (int i = 0; i < k; i++) {
+            double[] dist = distancesInCluster(cluster, clusterNodes[i]);
+            for (int j = 0; j < k; j++) {
+                int x = clusterNodes[j] % w;
+                int y = clusterNodes[j] / w;
+                clusterDistances[i * k + j] = dist[(x - minX(cluster)) + (y - minY(cluster)) * bw];
+            }
+        }
+        nodes[cluster] = clusterNodes;
+        links[cluster] = clusterLinks;
+        distances[cluster] = clusterDistances;
+    }
+
+    private static int[] append(int[] array, int value) {
+        int[] longer = new int[array.length + 1];
+        System.arraycopy(array, 0, longer, 0, array.length);
+        longer[array.length] = value;
+        return longer;
+    }
+}
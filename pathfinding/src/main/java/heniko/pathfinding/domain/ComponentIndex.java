@@ -0,0 +1,179 @@
+package heniko.pathfinding.domain;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Connected components of the empty nodes of a map. Pathfinders can check
+ * this before searching so queries between different components end without
+ * exploring the map.
+ *
+ * Corners can't be cut so diagonal move is possible only if both straight
+ * moves next to it are possible. Because of that two nodes are connected
+ * with eight directions exactly when they are connected with the four
+ * straight directions, which is what the labelling uses.
+ *
+ * @author Niko Hernesniemi
+ */
+public final class ComponentIndex {
+
+    private final int width;
+    private final int height;
+    // Component of each node (x + y * width), -1 for walls
+    private final int[] labels;
+    private final int componentCount;
+
+    private ComponentIndex(int width, int height, int[] labels, int componentCount) {
+        this.width = width;
+        this.height = height;
+        this.labels = labels;
+        this.componentCount = componentCount;
+    }
+
+    /**
+     * Builds component index for the map. Map is split into horizontal stripes
+     * that are labelled in parallel with union-find and then joined.
+     *
+     * @param map Map.
+     * @return New ComponentIndex.
+     */
+    public static ComponentIndex build(GridMap map) {
+        int w = map.getWidth();
+        int h = map.getHeight();
+        int[] parent = new int[w * h];
+        int stripes = Math.max(1, Math.min(h, ForkJoinPool.getCommonPoolParallelism() * 4));
+        int stripeHeight = (h + stripes - 1) / stripes;
+
+        // Unions inside a stripe only touch nodes of that stripe so stripes
+        // can be handled at the same time
+        IntStream.range(0, stripes).parallel().forEach(s -> {
+            int y0 = s * stripeHeight;
+            int y1 = Math.min(h, y0 + stripeHeight);
+            for (int y = y0; y < y1; y++) {
+                for (int x = 0; x < w; x++) {
+                    int cell = x + y * w;
+                    if (map.isWall(x, y)) {
+                        parent[cell] = -1;
+                        continue;
+                    }
+                    parent[cell] = cell;
+                    if (x > 0 && parent[cell - 1] != -1) {
+                        union(parent, cell - 1, cell);
+                    }
+                    if (y > y0 && parent[cell - w] != -1) {
+                        union(parent, cell - w, cell);
+                    }
+                }
+            }
+        });
+        // Join stripes along their first rows
+        for (int s = 1; s < stripes; s++) {
+            int y = s * stripeHeight;
+            if (y >= h) {
+                break;
+            }
+            for (int x = 0; x < w; x++) {
+                int cell = x + y * w;
+                if (parent[cell] != -1 && parent[cell - w] != -1) {
+                    union(parent, cell - w, cell);
+                }
+            }
+        }
+
+        /*
+        Parents always have smaller index than their children so when nodes
+        are handled in order the parent already has its final label. Labels
+        can be written over the parent array.
+         */
+        int count = 0;
+        for (int cell = 0; cell < parent.length; cell++) {
+            int p = parent[cell];
+            if (p == -1) {
+                continue;
+            }
+            parent[cell] = p == cell ? count++ : parent[p];
+        }
+        return new ComponentIndex(w, h, parent, count);
+    }
+
+    /**
+     * Gets width of the map index was built for.
+     *
+     * @return Width of the map.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Gets height of the map index was built for.
+     *
+     * @return Height of the map.
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Gets the number of components.
+     *
+     * @return Number of components.
+     */
+    public int getComponentCount() {
+        return componentCount;
+    }
+
+    /**
+     * Gets component of the node.
+     *
+     * @param x x-coordinate.
+     * @param y y-coordinate.
+     * @return Component number or -1 if node is a wall.
+     */
+    public int getComponent(int x, int y) {
+        return labels[x + y * width];
+    }
+
+    /**
+     * Checks if it is known that there is no path between nodes. Start inside
+     * a wall can have edges to several components so it is never known to be
+     * unreachable.
+     *
+     * @param sx Start x-coordinate
+     * @param sy Start y-coordinate
+     * @param ex End x-coordinate
+     * @param ey End y-coordinate
+     * @return True if path can't exist.
+     */
+    public boolean isUnreachable(int sx, int sy, int ex, int ey) {
+        if (sx == ex && sy == ey) {
+            return false;
+        }
+        int endComponent = getComponent(ex, ey);
+        if (endComponent == -1) {
+            return true;
+        }
+        int startComponent = getComponent(sx, sy);
+        return startComponent != -1 && startComponent != endComponent;
+    }
+
+    private static int find(int[] parent, int cell) {
+        while (parent[cell] != cell) {
+            // Path halving
+            parent[cell] = parent[parent[cell]];
+            cell = parent[cell];
+        }
+        return cell;
+    }
+
+    private static void union(int[] parent, int a, int b) {
+        int ra = find(parent, a);
+        int rb = find(parent, b);
+        // Root with larger index is linked to the smaller one
+        if (ra < rb) {
+            parent[rb] = ra;
+        } else if (rb < ra) {
+            parent[ra] = rb;
+        }
+    }
+}
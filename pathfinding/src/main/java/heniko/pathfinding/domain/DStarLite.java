@@ -0,0 +1,306 @@
+package heniko.pathfinding.domain;
+
+import heniko.pathfinding.util.ColouredNode;
+import heniko.pathfinding.util.Node;
+
+/**
+ * Incremental pathfinding with D* Lite. Search is run backwards from the end
+ * so g-value of a node is its distance to the end. Search state is kept
+ * between solves and when walls change only the g-values that depend on the
+ * changed nodes are repaired, so replanning takes time proportional to the
+ * effect of the change instead of the size of the map. Start can move between
+ * solves without losing the state, but changing the end starts over.
+ *
+ * After changing walls of the map updateNode() has to be called for every
+ * changed node before the next solve.
+ *
+ * @author Niko Hernesniemi
+ */
+public class DStarLite {
+
+    private static final double INF = Double.POSITIVE_INFINITY;
+    private static final double EPSILON = 1e-9;
+
+    private final GridMap map;
+    private final Heuristic heuristic;
+    private final int width;
+    private final double[] g;
+    // One step lookahead of g, rhs(u) = min(cost(u, s) + g(s))
+    private final double[] rhs;
+    private final IndexedCellHeap open;
+    private int startX, startY, endX, endY;
+    // Sum of heuristic distances start has moved, keeps old keys valid
+    private double km;
+    private boolean initialized;
+    private List<ColouredNode> changes;
+    private ChangeLog changeLog;
+    private double pathLength;
+    private int expandedCount;
+
+    /**
+     * Constructor for DStarLite. Start is the top left corner and end the
+     * bottom right corner until they are set.
+     *
+     * @param map Information about walls for algorithm
+     * @param heuristic Heuristic for calculating h-value of the node, has to
+     * be consistent
+     */
+    public DStarLite(GridMap map, Heuristic heuristic) {
+        this.map = map;
+        this.heuristic = heuristic;
+        this.width = map.getWidth();
+        int n = width * map.getHeight();
+        this.g = new double[n];
+        this.rhs = new double[n];
+        this.open = new IndexedCellHeap(n);
+        this.endX = width - 1;
+        this.endY = map.getHeight() - 1;
+    }
+
+    /**
+     * Sets logger for visualising the next solves. Only the nodes the search
+     * handles are logged so repairs show only the nodes that were affected.
+     *
+     * @param changes Logger or null for no logging
+     */
+    public void setChanges(List<ColouredNode> changes) {
+        this.changes = changes;
+    }
+
+    /**
+     * Sets change log for visualising the next solves. Change log is used
+     * instead of the logger set with setChanges().
+     *
+     * @param changeLog Change log or null for no logging
+     */
+    public void setChangeLog(ChangeLog changeLog) {
+        this.changeLog = changeLog;
+    }
+
+    /**
+     * Moves the start. Search state is kept.
+     *
+     * @param x x-coordinate
+     * @param y y-coordinate
+     */
+    public void setStart(int x, int y) {
+        if (initialized) {
+            km += heuristic.getHValue(startX, startY, x, y);
+        }
+        startX = x;
+        startY = y;
+    }
+
+    /**
+     * Moves the end. Search state is thrown away since all g-values are
+     * distances to the end.
+     *
+     * @param x x-coordinate
+     * @param y y-coordinate
+     */
+    public void setEnd(int x, int y) {
+        if (x != endX || y != endY) {
+            endX = x;
+            endY = y;
+            initialized = false;
+        }
+    }
+
+    /**
+     * Tells that wall of the node has changed. Node and its neighbours are
+     * checked since diagonal moves past the node may also have changed.
+     *
+     * @param x x-coordinate of the changed node
+     * @param y y-coordinate of the changed node
+     */
+    public void updateNode(int x, int y) {
+        if (!initialized) {
+            return;
+        }
+        for (int nx = x - 1; nx <= x + 1; nx++) {
+            for (int ny = y - 1; ny <= y + 1; ny++) {
+                if (nx >= 0 && ny >= 0 && nx < width && ny < map.getHeight()) {
+                    updateVertex(nx + ny * width);
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the shortest path from start to end. First solve searches like
+     * backward A*, later solves only repair what has changed.
+     *
+     * @return List containing nodes of the path from start to end or empty
+     * list if there is no path.
+     */
+    public List<Node> solve() {
+        expandedCount = 0;
+        pathLength = 0;
+        if (map.isWall(startX, startY) || map.isWall(endX, endY)) {
+            return new List<>();
+        }
+        if (!initialized) {
+            initialize();
+        }
+        computeShortestPath();
+        return extractPath();
+    }
+
+    /**
+     * Gets the length of the path found by the last solve.
+     *
+     * @return Path length, 0 if there was no path.
+     */
+    public double getPathLength() {
+        return pathLength;
+    }
+
+    /**
+     * Gets the number of nodes the last solve expanded. Repairs after small
+     * changes expand only a few nodes.
+     *
+     * @return Number of expanded nodes.
+     */
+    public int getExpandedCount() {
+        return expandedCount;
+    }
+
+    private void initialize() {
+        for (int cell = 0; cell < g.length; cell++) {
+            g[cell] = INF;
+            rhs[cell] = INF;
+        }
+        open.clear();
+        km = 0;
+        int endCell = endX + endY * width;
+        rhs[endCell] = 0;
+        open.add(endCell, key(endCell));
+        initialized = true;
+    }
+
+    private void computeShortestPath() {
+        int startCell = startX + startY * width;
+        // Keys are only compared by their first part so nodes that tie with
+        // the start are also handled. Same lengths summed in different order
+        // can differ by rounding so ties are compared with a tolerance.
+        while (!open.isEmpty()
+                && (open.peekPriority() <= key(startCell) + EPSILON || rhs[startCell] > g[startCell])) {
+            double oldKey = open.peekPriority();
+            int u = open.poll();
+            double newKey = key(u);
+            if (oldKey < newKey) {
+                // Start has moved since the key was calculated
+                open.add(u, newKey);
+                continue;
+            }
+            expandedCount++;
+            if (g[u] > rhs[u]) {
+                g[u] = rhs[u];
+                log(u, 6);
+                updateNeighbours(u);
+            } else {
+                g[u] = INF;
+                updateVertex(u);
+                updateNeighbours(u);
+            }
+        }
+    }
+
+    private void updateNeighbours(int cell) {
+        int x = cell % width;
+        int y = cell / width;
+        // Costs are symmetric so successors are also the predecessors
+        int mask = map.getNeighbourMask(x, y);
+        while (mask != 0) {
+            int d = Integer.numberOfTrailingZeros(mask);
+            mask &= mask - 1;
+            updateVertex((x + Directions.DX[d]) + (y + Directions.DY[d]) * width);
+        }
+    }
+
+    private void updateVertex(int cell) {
+        int x = cell % width;
+        int y = cell / width;
+        if (x != endX || y != endY) {
+            rhs[cell] = map.isWall(x, y) ? INF : lookahead(x, y);
+        }
+        if (g[cell] != rhs[cell]) {
+            if (!open.contains(cell)) {
+                log(cell, 5);
+            }
+            open.update(cell, key(cell));
+        } else {
+            open.remove(cell);
+        }
+    }
+
+    /**
+     * Calculates the length of the shortest path to the end through the best
+     * neighbour.
+     */
+    private double lookahead(int x, int y) {
+        double best = INF;
+        int mask = map.getNeighbourMask(x, y);
+        while (mask != 0) {
+            int d = Integer.numberOfTrailingZeros(mask);
+            mask &= mask - 1;
+            double value = Directions.COST[d] + g[(x + Directions.DX[d]) + (y + Directions.DY[d]) * width];
+            if (value < best) {
+                best = value;
+            }
+        }
+        return best;
+    }
+
+    private double key(int cell) {
+        double value = Math.min(g[cell], rhs[cell]);
+        return value + heuristic.getHValue(startX, startY, cell % width, cell / width) + km;
+    }
+
+    private List<Node> extractPath() {
+        List<Node> path = new List<>();
+        int x = startX;
+        int y = startY;
+        if (rhs[x + y * width] == INF) {
+            return path;
+        }
+        path.add(new Node(x, y));
+        // Following g-values downhill always ends at the end, the limit only
+        // protects against an inconsistent state
+        for (int steps = 0; steps < g.length && (x != endX || y != endY); steps++) {
+            double best = INF;
+            int d = -1;
+            int mask = map.getNeighbourMask(x, y);
+            while (mask != 0) {
+                int dir = Integer.numberOfTrailingZeros(mask);
+                mask &= mask - 1;
+                double value = Directions.COST[dir] + g[(x + Directions.DX[dir]) + (y + Directions.DY[dir]) * width];
+                if (value < best) {
+                    best = value;
+                    d = dir;
+                }
+            }
+            if (d == -1) {
+                pathLength = 0;
+                return new List<>();
+            }
+            x += Directions.DX[d];
+            y += Directions.DY[d];
+            pathLength += Directions.COST[d];
+            path.add(new Node(x, y));
+        }
+        if (x != endX || y != endY) {
+            pathLength = 0;
+            return new List<>();
+        }
+        return path;
+    }
+
+    private void log(int cell, int color) {
+        if (changeLog != null) {
+            changeLog.add(cell % width, cell / width, color);
+        } else if (changes != null) {
+            changes.enqueue(new ColouredNode(cell % width, cell / width, color));
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package heniko.pathfinding.domain;
+
+/**
+ * Precomputed tables for the eight directions used by neighbour masks. Bit d
+ * of a neighbour mask tells if node can move to direction d.
+ *
+ * <pre>
+ * Direction numbers
+ * 7 |  0  | 4
+ * 3 |node | 1
+ * 6 |  2  | 5
+ * </pre>
+ *
+ * Straight directions are 0-3 and diagonal directions 4-7 so iterating mask
+ * from the lowest bit gives neighbours in the same order as
+ * Pathfinder.getAdjList().
+ *
+ * @author Niko Hernesniemi
+ */
+public final class Directions {
+
+    /**
+     * Mask with all directions.
+     */
+    public static final int ALL = 0xFF;
+
+    /**
+     * Change in x-coordinate for each direction.
+     */
+    public static final int[] DX = new int[]{0, 1, 0, -1, 1, 1, -1, -1};
+
+    /**
+     * Change in y-coordinate for each direction.
+     */
+    public static final int[] DY = new int[]{1, 0, -1, 0, 1, -1, -1, 1};
+
+    /**
+     * Cost of moving one step to each direction.
+     */
+    public static final double[] COST = new double[]{1, 1, 1, 1, Math.sqrt(2), Math.sqrt(2), Math.sqrt(2), Math.sqrt(2)};
+
+    // Direction number for (dx, dy) at (dy + 1) * 3 + dx + 1
+    private static final int[] INDEX = new int[]{6, 2, 5, 3, -1, 1, 7, 0, 4};
+
+    /**
+     * Directions jump point search needs to check after moving to direction
+     * d. Forced neighbours come from the straight directions since corners
+     * can't be cut.
+     */
+    public static final int[] PRUNED = new int[8];
+
+    static {
+        for (int d = 0; d < 8; d++) {
+            int dx = DX[d];
+            int dy = DY[d];
+            int mask = 0;
+            if (dx != 0 && dy != 0) {
+                mask |= bit(dx, 0) | bit(dx, dy) | bit(0, dy);
+            } else if (dx != 0) {
+                mask |= bit(dx, 1) | bit(dx, 0) | bit(dx, -1) | bit(0, -1) | bit(0, 1);
+            } else {
+                mask |= bit(-1, dy) | bit(0, dy) | bit(1, dy) | bit(-1, 0) | bit(1, 0);
+            }
+            PRUNED[d] = mask;
+        }
+    }
+
+    private Directions() {
+    }
+
+    /**
+     * Gets direction number of a normalised direction.
+     *
+     * @param dx Direction in x-axis, -1, 0 or 1.
+     * @param dy Direction in y-axis, -1, 0 or 1.
+     * @return Direction number or -1 if both directions are 0.
+     */
+    public static int index(int dx, int dy) {
+        return INDEX[(dy + 1) * 3 + dx + 1];
+    }
+
+    /**
+     * Checks if direction is diagonal.
+     *
+     * @param d Direction number.
+     * @return True for diagonal directions.
+     */
+    public static boolean isDiagonal(int d) {
+        return d >= 4;
+    }
+
+    private static int bit(int dx, int dy) {
+        return 1 << index(dx, dy);
+    }
+}
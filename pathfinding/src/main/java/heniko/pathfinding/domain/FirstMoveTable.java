@@ -0,0 +1,358 @@
+package heniko.pathfinding.domain;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.stream.IntStream;
+
+/**
+ * Compressed path database. For every source node table stores the first move
+ * of a shortest path to every target node. Targets are ordered by Morton code
+ * (bits of x and y interleaved) so nearby targets are next to each other and
+ * usually share the first move. Each source has a row of runs where a run is
+ * the Morton code of its first target and the move used for all targets until
+ * the next run. When a target has several optimal first moves any of them can
+ * be used, so a run is only broken when no move is optimal for all of its
+ * targets. Walls can't be targets so they are left in whatever run they fall
+ * in.
+ *
+ * Table is read from buffers so it can be used straight from a memory-mapped
+ * file, see FirstMoveTableFile.
+ *
+ * @author Niko Hernesniemi
+ */
+public class FirstMoveTable {
+
+    /**
+     * Move stored for targets that can't be reached.
+     */
+    public static final int NO_MOVE = 8;
+
+    private final int width;
+    private final int height;
+    // Runs of source cell c are from offsets[c] to offsets[c + 1]
+    private final IntBuffer offsets;
+    private final IntBuffer runStarts;
+    private final ByteBuffer runMoves;
+
+    /**
+     * Constructor for FirstMoveTable with existing runs.
+     *
+     * @param width Width of the map
+     * @param height Height of the map
+     * @param offsets Index of the first run of each source, width * height + 1
+     * values
+     * @param runStarts Morton code of the first target of each run
+     * @param runMoves Direction number of each run, see Directions
+     * @throws IllegalArgumentException Buffers have wrong sizes.
+     */
+    public FirstMoveTable(int width, int height, IntBuffer offsets, IntBuffer runStarts, ByteBuffer runMoves) throws IllegalArgumentException {
+        if (offsets.limit() != width * height + 1
+                || runStarts.limit() != runMoves.limit()
+                || offsets.get(width * height) != runStarts.limit()) {
+            throw new IllegalArgumentException();
+        }
+        this.width = width;
+        this.height = height;
+        this.offsets = offsets;
+        this.runStarts = runStarts;
+        this.runMoves = runMoves;
+    }
+
+    /**
+     * Builds first move table for the map. Dijkstra's algorithm is run from
+     * every empty node and the searches are run in parallel. Building takes
+     * time proportional to the square of the number of nodes so this is meant
+     * for maps that don't change.
+     *
+     * @param map Map.
+     * @return New FirstMoveTable.
+     * @throws IllegalArgumentException Map is too large for 32-bit Morton
+     * codes.
+     */
+    public static FirstMoveTable build(GridMap map) throws IllegalArgumentException {
+        int w = map.getWidth();
+        int h = map.getHeight();
+        if (w > 1 << 15 || h > 1 << 15) {
+            throw new IllegalArgumentException();
+        }
+        int n = w * h;
+        int[] order = mortonOrder(w, h);
+        int[][] rowStarts = new int[n][];
+        byte[][] rowMoves = new byte[n][];
+        ThreadLocal<Search> searches = ThreadLocal.withInitial(() -> new Search(n));
+
+        IntStream.range(0, n).parallel().forEach(source -> {
+            if (map.isWall(source % w, source / w)) {
+                rowStarts[source] = new int[0];
+                rowMoves[source] = new byte[0];
+                return;
+            }
+            Search search = searches.get();
+            search.run(map, source);
+            compress(map, order, search.firstMoves, source, rowStarts, rowMoves);
+        });
+
+        int[] offsets = new int[n + 1];
+        for (int cell = 0; cell < n; cell++) {
+            offsets[cell + 1] = offsets[cell] + rowStarts[cell].length;
+        }
+        int[] starts = new int[offsets[n]];
+        byte[] moves = new byte[offsets[n]];
+        for (int cell = 0; cell < n; cell++) {
+            System.arraycopy(rowStarts[cell], 0, starts, offsets[cell], rowStarts[cell].length);
+            System.arraycopy(rowMoves[cell], 0, moves, offsets[cell], rowMoves[cell].length);
+        }
+        return new FirstMoveTable(w, h, IntBuffer.wrap(offsets), IntBuffer.wrap(starts), ByteBuffer.wrap(moves));
+    }
+
+    /**
+     * Gets width of the map table was built for.
+     *
+     * @return Width of the map.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Gets height of the map table was built for.
+     *
+     * @return Height of the map.
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Gets the number of runs in all rows.
+     *
+     * @return Number of runs.
+     */
+    public int getRunCount() {
+        return runStarts.limit();
+    }
+
+    /**
+     * Gets run offsets of the rows. Used for saving the table.
+     *
+     * @return Offsets.
+     */
+    public IntBuffer getOffsets() {
+        return offsets.duplicate();
+    }
+
+    /**
+     * Gets Morton codes where runs start. Used for saving the table.
+     *
+     * @return Run starts.
+     */
+    public IntBuffer getRunStarts() {
+        return runStarts.duplicate();
+    }
+
+    /**
+     * Gets moves of the runs. Used for saving the table.
+     *
+     * @return Run moves.
+     */
+    public ByteBuffer getRunMoves() {
+        return runMoves.duplicate();
+    }
+
+    /**
+     * Gets first move of a shortest path. Result is not meaningful if target
+     * is a wall.
+     *
+     * @param source Cell id of the source (x + y * width).
+     * @param target Cell id of the target.
+     * @return Direction number, NO_MOVE if target can't be reached or -1 if
+     * source is a wall.
+     */
+    public int getMove(int source, int target) {
+        int lo = offsets.get(source);
+        int hi = offsets.get(source + 1) - 1;
+        if (hi < lo) {
+            return -1;
+        }
+        int code = morton(target % width, target / width);
+        // Last run that starts at or before the code. First run of a row
+        // always starts from 0.
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (runStarts.get(mid) <= code) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return runMoves.get(lo);
+    }
+
+    /**
+     * Calculates Morton code of the node by interleaving bits of x and y.
+     *
+     * @param x x-coordinate.
+     * @param y y-coordinate.
+     * @return Morton code.
+     */
+    public static int morton(int x, int y) {
+        return spread(x) | (spread(y) << 1);
+    }
+
+    private static int spread(int v) {
+        // Moves bit i of v to bit 2i
+        v &= 0xFFFF;
+        v = (v | (v << 8)) & 0x00FF00FF;
+        v = (v | (v << 4)) & 0x0F0F0F0F;
+        v = (v | (v << 2)) & 0x33333333;
+        v = (v | (v << 1)) & 0x55555555;
+        return v;
+    }
+
+    private static int compact(int v) {
+        // Moves bit 2i of v to bit i
+        v &= 0x55555555;
+        v = (v | (v >>> 1)) & 0x33333333;
+        v = (v | (v >>> 2)) & 0x0F0F0F0F;
+        v = (v | (v >>> 4)) & 0x00FF00FF;
+        v = (v | (v >>> 8)) & 0x0000FFFF;
+        return v;
+    }
+
+    /**
+     * Gets cells of the map sorted by Morton code. Codes are walked over the
+     * smallest power of two square that covers the map.
+     */
+    private static int[] mortonOrder(int w, int h) {
+        int side = 1;
+        while (side < w || side < h) {
+            side <<= 1;
+        }
+        int[] order = new int[w * h];
+        int size = 0;
+        for (long code = 0; code < (long) side * side; code++) {
+            int x = compact((int) code);
+            int y = compact((int) (code >>> 1));
+            if (x < w && y < h) {
+                order[size++] = x + y * w;
+            }
+        }
+        return order;
+    }
+
+    private static void compress(GridMap map, int[] order, byte[] firstMoves, int source, int[][] rowStarts, byte[][] rowMoves) {
+        int w = map.getWidth();
+        int[] starts = new int[16];
+        byte[] moves = new byte[16];
+        int size = 0;
+        // Moves that are optimal for every target of the current run
+        int runMask = 0;
+        for (int target : order) {
+            int x = target % w;
+            int y = target / w;
+            // Walls and source itself are never asked so they can have any
+            // move
+            if (target == source || map.isWall(x, y)) {
+                continue;
+            }
+            int mask = firstMoves[target] & 0xFF;
+            if (mask == 0) {
+                // Unreachable targets share their own run
+                mask = 1 << NO_MOVE;
+            }
+            if (size > 0 && (runMask & mask) != 0) {
+                runMask &= mask;
+                continue;
+            }
+            if (size > 0) {
+                moves[size - 1] = moveOf(runMask);
+            }
+            if (size == starts.length) {
+                int[] longerStarts = new int[size * 2];
+                byte[] longerMoves = new byte[size * 2];
+                System.arraycopy(starts, 0, longerStarts, 0, size);
+                System.arraycopy(moves, 0, longerMoves, 0, size);
+                starts = longerStarts;
+                moves = longerMoves;
+            }
+            starts[size] = size == 0 ? 0 : morton(x, y);
+            runMask = mask;
+            size++;
+        }
+        if (size == 0) {
+            // Every other node is a wall
+            starts[0] = 0;
+            runMask = 1 << NO_MOVE;
+            size = 1;
+        }
+        moves[size - 1] = moveOf(runMask);
+        int[] usedStarts = new int[size];
+        byte[] usedMoves = new byte[size];
+        System.arraycopy(starts, 0, usedStarts, 0, size);
+        System.arraycopy(moves, 0, usedMoves, 0, size);
+        rowStarts[source] = usedStarts;
+        rowMoves[source] = usedMoves;
+    }
+
+    private static byte moveOf(int mask) {
+        return (byte) Integer.numberOfTrailingZeros(mask);
+    }
+
+    /**
+     * Dijkstra's algorithm that remembers every first move that starts a
+     * shortest path to each node as a bit mask of directions. Knowing all of
+     * them lets runs continue over ties, which are common on open areas.
+     * Arrays are reused between sources of the same thread.
+     */
+    private static final class Search {
+
+        private static final double EPSILON = 1e-9;
+        private final double[] dist;
+        private final byte[] firstMoves;
+        private final CellHeap heap;
+
+        Search(int n) {
+            dist = new double[n];
+            firstMoves = new byte[n];
+            heap = new CellHeap();
+        }
+
+        void run(GridMap map, int source) {
+            int w = map.getWidth();
+            for (int cell = 0; cell < dist.length; cell++) {
+                dist[cell] = Double.POSITIVE_INFINITY;
+                firstMoves[cell] = 0;
+            }
+            heap.clear();
+            dist[source] = 0;
+            heap.add(source, 0);
+
+            while (!heap.isEmpty()) {
+                double d = heap.peekPriority();
+                int cell = heap.poll();
+                if (d > dist[cell]) {
+                    continue;
+                }
+                int x = cell % w;
+                int y = cell / w;
+                int mask = map.getNeighbourMask(x, y);
+                while (mask != 0) {
+                    int dir = Integer.numberOfTrailingZeros(mask);
+                    mask &= mask - 1;
+                    int nCell = (x + Directions.DX[dir]) + (y + Directions.DY[dir]) * w;
+                    double nd = d + Directions.COST[dir];
+                    byte moves = cell == source ? (byte) (1 << dir) : firstMoves[cell];
+                    // Lengths are sums of 1 and sqrt(2) so equal lengths can
+                    // differ by rounding
+                    if (nd < dist[nCell] - EPSILON) {
+                        dist[nCell] = nd;
+                        firstMoves[nCell] = moves;
+                        heap.add(nCell, nd);
+                    } else if (nd <= dist[nCell] + EPSILON) {
+                        firstMoves[nCell] |= moves;
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package heniko.pathfinding.domain;
+
+/**
+ * Information about walls stored as bits. Each row (y-coordinate) of the map
+ * takes ceil(width / 64) long words and all rows are stored in one flat array.
+ * Bit x % 64 of word x / 64 is set if node (x, y) is a wall.
+ *
+ * @author Niko Hernesniemi
+ */
+public class GridMap {
+
+    private final int width;
+    private final int height;
+    private final int wordsPerRow;
+    private final long[] words;
+    // Built when first needed and kept in sync by setWall
+    private volatile GridMap transposed;
+
+    /**
+     * Constructor for GridMap. All nodes will be empty.
+     *
+     * @param width Size of the map in x-axis
+     * @param height Size of the map in y-axis
+     */
+    public GridMap(int width, int height) {
+        this(width, height, new long[((width + 63) >>> 6) * height]);
+    }
+
+    /**
+     * Constructor for subclasses that store the walls in some other way. If
+     * words is null subclass has to override isWall(), rowWord() and
+     * setWall().
+     *
+     * @param width Size of the map in x-axis
+     * @param height Size of the map in y-axis
+     * @param words Row words of the map or null
+     */
+    protected GridMap(int width, int height, long[] words) {
+        this.width = width;
+        this.height = height;
+        this.wordsPerRow = (width + 63) >>> 6;
+        this.words = words;
+    }
+
+    /**
+     * Creates GridMap from boolean array.
+     *
+     * @param isWall Information about walls, isWall[x][y] is true for walls
+     * @param width Size of the map in x-axis
+     * @param height Size of the map in y-axis
+     * @return New GridMap.
+     */
+    public static GridMap fromArray(boolean[][] isWall, int width, int height) {
+        GridMap map = new GridMap(width, height);
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                if (isWall[x][y]) {
+                    map.setWall(x, y, true);
+                }
+            }
+        }
+        return map;
+    }
+
+    /**
+     * Gets width of the map.
+     *
+     * @return Size of the map in x-axis.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Gets height of the map.
+     *
+     * @return Size of the map in y-axis.
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Gets the number of long words used for each row.
+     *
+     * @return Words per row.
+     */
+    public int getWordsPerRow() {
+        return wordsPerRow;
+    }
+
+    /**
+     * Checks if given node is inside the map.
+     *
+     * @param x x-coordinate.
+     * @param y y-coordinate.
+     * @return True if node is inside the map.
+     */
+    public boolean isInside(int x, int y) {
+        return !(x < 0 || y < 0 || x >= width || y >= height);
+    }
+
+    /**
+     * Checks if node is a wall. Coordinates are not checked.
+     *
+     * @param x x-coordinate.
+     * @param y y-coordinate.
+     * @return True if node is a wall.
+     */
+    public boolean isWall(int x, int y) {
+        // Shift uses only the lowest 6 bits of x
+        return (words[y * wordsPerRow + (x >>> 6)] & (1L << x)) != 0;
+    }
+
+    /**
+     * Gets word of the row y that contains node x. Bit i of the word tells if
+     * node (x - x % 64 + i, y) is a wall. Bits outside the map are 0.
+     *
+     * @param y y-coordinate of the row.
+     * @param x x-coordinate of any node in the word.
+     * @return 64 nodes of the row as bits.
+     */
+    public long rowWord(int y, int x) {
+        return words[y * wordsPerRow + (x >>> 6)];
+    }
+
+    /**
+     * Gets directions node can move to as bits, see Directions. Corners can't
+     * be cut so diagonal move is possible only if both straight moves next to
+     * it are possible. Node itself is not checked.
+     *
+     * @param x x-coordinate.
+     * @param y y-coordinate.
+     * @return Neighbour mask.
+     */
+    public int getNeighbourMask(int x, int y) {
+        int mask = 0;
+        if (y + 1 < height && !isWall(x, y + 1)) {
+            mask |= 1;
+        }
+        if (x + 1 < width && !isWall(x + 1, y)) {
+            mask |= 2;
+        }
+        if (y > 0 && !isWall(x, y - 1)) {
+            mask |= 4;
+        }
+        if (x > 0 && !isWall(x - 1, y)) {
+            mask |= 8;
+        }
+        if ((mask & 3) == 3 && !isWall(x + 1, y + 1)) {
+            mask |= 16;
+        }
+        if ((mask & 6) == 6 && !isWall(x + 1, y - 1)) {
+            mask |= 32;
+        }
+        if ((mask & 12) == 12 && !isWall(x - 1, y - 1)) {
+            mask |= 64;
+        }
+        if ((mask & 9) == 9 && !isWall(x - 1, y + 1)) {
+            mask |= 128;
+        }
+        return mask;
+    }
+
+    /**
+     * Changes node to wall or empty.
+     *
+     * @param x x-coordinate.
+     * @param y y-coordinate.
+     * @param wall True for wall and false for empty.
+     */
+    public void setWall(int x, int y, boolean wall) {
+        int i = y * wordsPerRow + (x >>> 6);
+        if (wall) {
+            words[i] |= 1L << x;
+        } else {
+            words[i] &= ~(1L << x);
+        }
+        GridMap t = transposed;
+        if (t != null) {
+            t.setWall(y, x, wall);
+        }
+    }
+
+    /**
+     * Gets transposed copy of the map where node (x, y) is at (y, x). Columns
+     * of this map are rows of the copy so they can be scanned with rowWord().
+     * Copy is made once and later changes are made to both maps.
+     *
+     * @return Transposed map.
+     */
+    public GridMap transposed() {
+        GridMap t = transposed;
+        if (t == null) {
+            t = new GridMap(height, width);
+            for (int y = 0; y < height; y++) {
+                for (int i = 0; i < wordsPerRow; i++) {
+                    long word = rowWord(y, i << 6);
+                    while (word != 0) {
+                        t.setWall(y, (i << 6) + Long.numberOfTrailingZeros(word), true);
+                        word &= word - 1;
+                    }
+                }
+            }
+            transposed = t;
+        }
+        return t;
+    }
+
+    /**
+     * Calculates checksum of the walls. Files made from the map can store it
+     * to notice if the map has changed.
+     *
+     * @return Checksum of the map.
+     */
+    public long checksum() {
+        // 64-bit FNV-1a over size and all row words
+        long hash = 0xcbf29ce484222325L;
+        hash = (hash ^ width) * 0x100000001b3L;
+        hash = (hash ^ height) * 0x100000001b3L;
+        for (int y = 0; y < height; y++) {
+            for (int i = 0; i < wordsPerRow; i++) {
+                hash = (hash ^ rowWord(y, i << 6)) * 0x100000001b3L;
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Creates boolean array of the walls.
+     *
+     * @return Array where isWall[x][y] is true for walls.
+     */
+    public boolean[][] toArray() {
+        boolean[][] isWall = new boolean[width][height];
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                isWall[x][y] = isWall(x, y);
+            }
+        }
+        return isWall;
+    }
+}
@@ -0,0 +1,293 @@
+package heniko.pathfinding.domain;
+
+import heniko.pathfinding.util.ColouredNode;
+import heniko.pathfinding.util.Node;
+
+/**
+ * {@inheritDoc} This implementation uses hierarchical pathfinding (HPA*). A*
+ * is first run on the abstract graph of ClusterGraph where start and end are
+ * connected to the nodes of their clusters. Found abstract path is then
+ * refined to a full path with A* restricted to one cluster at a time.
+ *
+ * Paths can only cross borders at entrances so found path is not always the
+ * shortest possible, but it is usually close to it.
+ *
+ * @author Niko Hernesniemi
+ */
+public final class HPAStar extends Pathfinder {
+
+    private final ClusterGraph clusters;
+    // Distances from start and end to the nodes of their clusters
+    private double[] startDistances;
+    private double[] endDistances;
+
+    /**
+     * Constructor for HPA* pathfinding algorithm.
+     *
+     * @param start Start node
+     * @param end End node
+     * @param map Information about walls for algorithm
+     * @param clusters Abstract graph built from the same map
+     * @param changes Logger for keeping track of the changes needed in order to
+     * visualise the algorithm
+     * @param heuristic Heuristic for calculating h-value of the node
+     * @throws IllegalArgumentException Abstract graph was built for different
+     * map.
+     */
+    public HPAStar(Node start, Node end, GridMap map, ClusterGraph clusters, List<ColouredNode> changes, Heuristic heuristic) throws IllegalArgumentException {
+        super(start, end, map, changes, heuristic);
+        if (clusters.getMap() != map) {
+            throw new IllegalArgumentException();
+        }
+        this.clusters = clusters;
+    }
+
+    /**
+     * Constructor for HPA* pathfinding algorithm. Changes are logged to
+     * change log.
+     *
+     * @param start Start node
+     * @param end End node
+     * @param map Information about walls for algorithm
+     * @param clusters Abstract graph built from the same map
+     * @param changeLog Log for keeping track of the changes needed in order
+     * to visualise the algorithm
+     * @param heuristic Heuristic for calculating h-value of the node
+     * @throws IllegalArgumentException Abstract graph was built for different
+     * map.
+     */
+    public HPAStar(Node start, Node end, GridMap map, ClusterGraph clusters, ChangeLog changeLog, Heuristic heuristic) throws IllegalArgumentException {
+        super(start, end, map, changeLog, heuristic);
+        if (clusters.getMap() != map) {
+            throw new IllegalArgumentException();
+        }
+        this.clusters = clusters;
+    }
+
+    /**
+     * Constructor for HPA* pathfinding algorithm. HPAStar constructed with
+     * this constructor will not have change logger.
+     *
+     * @param start Start node
+     * @param end End node
+     * @param map Information about walls for algorithm
+     * @param clusters Abstract graph built from the same map
+     * @param heuristic Heuristic for calculating h-value of the node
+     * @throws IllegalArgumentException Abstract graph was built for different
+     * map.
+     */
+    public HPAStar(Node start, Node end, GridMap map, ClusterGraph clusters, Heuristic heuristic) throws IllegalArgumentException {
+        this(start, end, map, clusters, new List<>(), heuristic);
+        this.logging = false;
+    }
+
+    /**
+     * {@inheritDoc} HPA* pathfinding algorithm will be used. Path length is
+     * the length of the refined path.
+     */
+    @Override
+    protected List<Node> search() {
+        if (isKnownUnreachable()) {
+            return new List<>();
+        }
+        // Abstract search and the segments of the refinement use the same
+        // workspace so arrays for the whole map are allocated at most once
+        SearchWorkspace ws = borrowWorkspace();
+        List<Node> waypoints = solveAbstract(ws);
+        if (waypoints.isEmpty()) {
+            return waypoints;
+        }
+        return refine(waypoints, ws);
+    }
+
+    /**
+     * Finds path on the abstract graph without refining it. Path length will
+     * be the length of the abstract path.
+     *
+     * @return Start, abstract nodes on the way and end, or empty list if there
+     * is no path.
+     */
+    public List<Node> solveAbstract() {
+        return solveAbstract(borrowWorkspace());
+    }
+
+    private List<Node> solveAbstract(SearchWorkspace ws) {
+        OpenList openList = ws.getHeap();
+        int startCell = toCell(start.getX(), start.getY());
+        int endCell = toCell(end.getX(), end.getY());
+
+        // Abstract search can't enter walls so there is no path to wall
+        if (map.isWall(end.getX(), end.getY())) {
+            return new List<>();
+        }
+        startDistances = clusters.distancesInCluster(clusters.getCluster(start.getX(), start.getY()), startCell);
+        endDistances = clusters.distancesInCluster(clusters.getCluster(end.getX(), end.getY()), endCell);
+
+        ws.setG(startCell, 0);
+        ws.setParent(startCell, -1);
+        ws.open(startCell);
+        countGenerated();
+        openList.add(startCell, heuristic.getHValue(start.getX(), start.getY(), end.getX(), end.getY()));
+
+        while (!openList.isEmpty()) {
+            int cCell = openList.poll();
+            if (ws.isClosed(cCell)) {
+                stalePops++;
+                continue;
+            }
+            logChange(cellX(cCell), cellY(cCell), 6);
+            ws.close(cCell);
+            expandedCount++;
+
+            if (cCell == endCell) {
+                pathLength = ws.getG(cCell);
+                peakOpenListSize = openList.getPeakSize();
+                return reconstructPath(ws, endCell);
+            }
+            expand(ws, openList, cCell, startCell, endCell);
+        }
+        peakOpenListSize = openList.getPeakSize();
+        return new List<>();
+    }
+
+    /**
+     * Refines abstract path to a full path. Consecutive nodes are either in
+     * the same cluster or on different sides of a border. Nodes expanded by
+     * the refinement are added to the expanded nodes of the abstract search,
+     * and nodes generated by it to the statistics if they are collected.
+     *
+     * @param waypoints Path found by solveAbstract().
+     * @return Full path.
+     */
+    public List<Node> refine(List<Node> waypoints) {
+        // Statistics of the abstract search are kept
+        int abstractStalePops = stalePops;
+        int abstractPeak = peakOpenListSize;
+        int abstractExpanded = expandedCount;
+        SearchWorkspace ws = borrowWorkspace();
+        stalePops = abstractStalePops;
+        peakOpenListSize = abstractPeak;
+        expandedCount = abstractExpanded;
+        return refine(waypoints, ws);
+    }
+
+    /**
+     * Refines abstract path with A* segments that reuse the given workspace.
+     */
+    private List<Node> refine(List<Node> waypoints, SearchWorkspace ws) {
+        enterPhase(SearchStats.REFINE);
+        List<Node> path = new List<>();
+        path.add(waypoints.get(0));
+        double length = 0;
+        int expanded = expandedCount;
+        SearchStats segmentStats = stats != null ? new SearchStats() : null;
+        for (int i = 1; i < waypoints.size(); i++) {
+            Node a = waypoints.get(i - 1);
+            Node b = waypoints.get(i);
+            int cluster = clusters.getCluster(a.getX(), a.getY());
+            if (cluster != clusters.getCluster(b.getX(), b.getY())) {
+                path.add(b);
+                length += 1;
+                continue;
+            }
+            AStar segment = new AStar(a, b, map, new DiagonalHeuristic());
+            segment.setWorkspace(ws);
+            segment.setBounds(clusters.minX(cluster), clusters.minY(cluster), clusters.maxX(cluster), clusters.maxY(cluster));
+            segment.setStats(segmentStats);
+            List<Node> part = segment.solve();
+            if (segmentStats != null) {
+                stats.accumulate(segmentStats);
+            }
+            for (int j = 1; j < part.size(); j++) {
+                path.add(part.get(j));
+            }
+            length += segment.getPathLength();
+            expanded += segment.getExpandedCount();
+        }
+        pathLength = length;
+        expandedCount = expanded;
+        return path;
+    }
+
+    private void expand(SearchWorkspace ws, OpenList openList, int cCell, int startCell, int endCell) {
+        int cx = cellX(cCell);
+        int cy = cellY(cCell);
+        int cluster = clusters.getCluster(cx, cy);
+        int endCluster = clusters.getCluster(end.getX(), end.getY());
+        int[] nodes = clusters.getNodes(cluster);
+
+        if (cCell == startCell) {
+            for (int j = 0; j < nodes.length; j++) {
+                relax(ws, openList, cCell, nodes[j], startDistances[local(cluster, nodes[j])]);
+            }
+            if (cluster == endCluster) {
+                relax(ws, openList, cCell, endCell, startDistances[local(cluster, endCell)]);
+            }
+        }
+
+        int i = clusters.indexOf(cluster, cCell);
+        if (i == -1) {
+            return;
+        }
+        for (int j = 0; j < nodes.length; j++) {
+            if (j != i) {
+                relax(ws, openList, cCell, nodes[j], clusters.getDistance(cluster, i, j));
+            }
+        }
+        int[] links = clusters.getLinks(cluster);
+        for (int p = 0; p < links.length; p += 2) {
+            if (links[p] == i) {
+                relax(ws, openList, cCell, links[p + 1], 1);
+            }
+        }
+        if (cluster == endCluster) {
+            relax(ws, openList, cCell, endCell, endDistances[local(cluster, cCell)]);
+        }
+    }
+
+    private void relax(SearchWorkspace ws, OpenList openList, int cCell, int nCell, double cost) {
+        if (cost == Double.POSITIVE_INFINITY || ws.isClosed(nCell)) {
+            return;
+        }
+        int nx = cellX(nCell);
+        int ny = cellY(nCell);
+        double ng = ws.getG(cCell) + cost;
+        boolean opened = ws.isOpened(nCell);
+
+        if (!opened) {
+            logChange(nx, ny, 5);
+        }
+
+        if (!opened || ng < ws.getG(nCell)) {
+            ws.setG(nCell, ng);
+            ws.setParent(nCell, cCell);
+            ws.open(nCell);
+            if (opened) {
+                countPush();
+            } else {
+                countGenerated();
+            }
+            openList.add(nCell, ng + heuristic.getHValue(nx, ny, end.getX(), end.getY()));
+        }
+    }
+
+    /**
+     * Index of the cell in the distances returned by distancesInCluster().
+     */
+    private int local(int cluster, int cell) {
+        int width = clusters.maxX(cluster) - clusters.minX(cluster) + 1;
+        return (cellX(cell) - clusters.minX(cluster)) + (cellY(cell) - clusters.minY(cluster)) * width;
+    }
+
+    private List<Node> reconstructPath(SearchWorkspace ws, int endCell) {
+        enterPhase(SearchStats.PATH);
+        List<Node> path = new List<>();
+        int current = endCell;
+        while (current != -1) {
+            path.add(new Node(cellX(current), cellY(current)));
+            current = ws.getParent(current);
+        }
+        path.reverse();
+        return path;
+    }
+}
@@ -0,0 +1,277 @@
+package heniko.pathfinding.domain;
+
+/**
+ * Priority queue for cell ids where every cell can be in the heap at most
+ * once. Position of each cell in the heap is stored so priority of a cell
+ * that is already in the heap can be decreased instead of adding another
+ * entry for it.
+ *
+ * @author Niko Hernesniemi
+ */
+public class IndexedCellHeap implements OpenList {
+
+    private int[] cells;
+    private double[] priorities;
+    // Position of each cell in the heap or -1 if cell is not in the heap
+    private final int[] position;
+    private int size;
+    private int peakSize;
+
+    /**
+     * Constructor for IndexedCellHeap.
+     *
+     * @param numberOfCells Number of different cell ids. Cell ids have to be
+     * between 0 and numberOfCells - 1.
+     */
+    public IndexedCellHeap(int numberOfCells) {
+        this.cells = new int[32];
+        this.priorities = new double[32];
+        this.position = new int[numberOfCells];
+        for (int i = 0; i < numberOfCells; i++) {
+            position[i] = -1;
+        }
+        this.size = 0;
+        this.peakSize = 0;
+    }
+
+    /**
+     * Gets the number of cells in heap.
+     *
+     * @return Number of cells.
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks if heap is empty.
+     *
+     * @return True if heap is empty.
+     */
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Gets the largest size heap has had since it was created or cleared.
+     *
+     * @return Peak size.
+     */
+    @Override
+    public int getPeakSize() {
+        return peakSize;
+    }
+
+    /**
+     * Removes all cells from the heap. Takes time proportional to the number
+     * of cells still in the heap.
+     */
+    @Override
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            position[cells[i]] = -1;
+        }
+        size = 0;
+        peakSize = 0;
+    }
+
+    /**
+     * Checks if cell is in the heap.
+     *
+     * @param cell Cell id.
+     * @return True if cell is in the heap.
+     */
+    public boolean contains(int cell) {
+        return position[cell] != -1;
+    }
+
+    /**
+     * Gets current priority of cell in the heap.
+     *
+     * @param cell Cell id.
+     * @return Priority of the cell.
+     * @throws IllegalArgumentException Cell is not in the heap.
+     */
+    public double getPriority(int cell) throws IllegalArgumentException {
+        if (!contains(cell)) {
+            throw new IllegalArgumentException();
+        }
+        return priorities[position[cell]];
+    }
+
+    /**
+     * Returns priority of the highest priority cell.
+     *
+     * @return Lowest priority value in heap.
+     * @throws IndexOutOfBoundsException Heap is empty.
+     */
+    @Override
+    public double peekPriority() throws IndexOutOfBoundsException {
+        if (isEmpty()) {
+            throw new IndexOutOfBoundsException();
+        }
+        return priorities[0];
+    }
+
+    /**
+     * Returns the highest priority cell and removes it from the heap.
+     *
+     * @return Highest priority cell or -1 if heap is empty.
+     */
+    @Override
+    public int poll() {
+        if (isEmpty()) {
+            return -1;
+        }
+        int res = cells[0];
+        position[res] = -1;
+        size--;
+        if (size > 0) {
+            shiftDown(0, cells[size], priorities[size]);
+        }
+        return res;
+    }
+
+    /**
+     * Adds cell to the heap. If cell is already in the heap its priority will
+     * be decreased if the new priority is lower. Higher priority values are
+     * ignored.
+     *
+     * @param cell Cell id.
+     * @param priority Priority of the cell, lower value is handled first.
+     */
+    @Override
+    public void add(int cell, double priority) {
+        if (contains(cell)) {
+            if (priority < priorities[position[cell]]) {
+                shiftUp(position[cell], cell, priority);
+            }
+            return;
+        }
+        if (size == cells.length) {
+            grow();
+        }
+        size++;
+        if (size > peakSize) {
+            peakSize = size;
+        }
+        shiftUp(size - 1, cell, priority);
+    }
+
+    /**
+     * Decreases priority of a cell that is in the heap.
+     *
+     * @param cell Cell id.
+     * @param newPriority New priority. Has to be lower or equal to the
+     * current one.
+     * @throws IllegalArgumentException Cell is not in the heap or new
+     * priority is higher than the current one.
+     */
+    public void decreaseKey(int cell, double newPriority) throws IllegalArgumentException {
+        if (!contains(cell) || newPriority > priorities[position[cell]]) {
+            throw new IllegalArgumentException();
+        }
+        shiftUp(position[cell], cell, newPriority);
+    }
+
+    /**
+     * Sets priority of a cell. Unlike add() the priority can also be
+     * increased. Cell is added if it is not in the heap.
+     *
+     * @param cell Cell id.
+     * @param priority New priority of the cell.
+     */
+    public void update(int cell, double priority) {
+        if (!contains(cell)) {
+            add(cell, priority);
+            return;
+        }
+        int i = position[cell];
+        if (priority < priorities[i]) {
+            shiftUp(i, cell, priority);
+        } else {
+            shiftDown(i, cell, priority);
+        }
+    }
+
+    /**
+     * Removes cell from the heap. Nothing happens if cell is not in the heap.
+     *
+     * @param cell Cell id.
+     */
+    public void remove(int cell) {
+        if (!contains(cell)) {
+            return;
+        }
+        int i = position[cell];
+        position[cell] = -1;
+        size--;
+        if (i == size) {
+            return;
+        }
+        // Last cell takes the place of the removed one and can move either
+        // way
+        int last = cells[size];
+        double lastPriority = priorities[size];
+        if (i > 0 && lastPriority < priorities[(i - 1) >>> 1]) {
+            shiftUp(i, last, lastPriority);
+        } else {
+            shiftDown(i, last, lastPriority);
+        }
+    }
+
+    private void shiftUp(int i, int cell, double priority) {
+        while (i > 0) {
+            int parentPos = (i - 1) >>> 1;
+            if (priority >= priorities[parentPos]) {
+                break;
+            }
+            move(parentPos, i);
+            i = parentPos;
+        }
+        place(i, cell, priority);
+    }
+
+    private void shiftDown(int i, int cell, double priority) {
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if (right < size && priorities[right] < priorities[child]) {
+                child = right;
+            }
+            if (priority <= priorities[child]) {
+                break;
+            }
+            move(child, i);
+            i = child;
+        }
+        place(i, cell, priority);
+    }
+
+    private void move(int from, int to) {
+        cells[to] = cells[from];
+        priorities[to] = priorities[from];
+        position[cells[to]] = to;
+    }
+
+    private void place(int i, int cell, double priority) {
+        cells[i] = cell;
+        priorities[i] = priority;
+        position[cell] = i;
+    }
+
+    private void grow() {
+        int newSize = cells.length * 2;
+        int[] newCells = new int[newSize];
+        double[] newPriorities = new double[newSize];
+        for (int i = 0; i < size; i++) {
+            newCells[i] = cells[i];
+            newPriorities[i] = priorities[i];
+        }
+        cells = newCells;
+        priorities = newPriorities;
+    }
+}
@@ -2,7 +2,6 @@ package heniko.pathfinding.domain;
 
 import heniko.pathfinding.util.ColouredNode;
 import heniko.pathfinding.util.Node;
-import heniko.pathfinding.util.PriorityNode;
 
 /**
  * {@inheritDoc} This implementation uses jump point search.
@@ -11,6 +10,48 @@ import heniko.pathfinding.util.PriorityNode;
  */
 public final class JPS extends Pathfinder {
 
+    /**
+     * Constructor for jump point search pathfinding algorithm.
+     *
+     * @param start Start node
+     * @param end End node
+     * @param map Information about walls for algorithm
+     * @param changes Logger for keeping track of the changes needed in order to
+     * visualise the algorithm
+     * @param heuristic Heuristic for calculating h-value of the node
+     */
+    public JPS(Node start, Node end, GridMap map, List<ColouredNode> changes, Heuristic heuristic) {
+        super(start, end, map, changes, heuristic);
+    }
+
+    /**
+     * Constructor for jump point search pathfinding algorithm.
+     * Changes are logged to change log.
+     *
+     * @param start Start node
+     * @param end End node
+     * @param map Information about walls for algorithm
+     * @param changeLog Log for keeping track of the changes needed in order
+     * to visualise the algorithm
+     * @param heuristic Heuristic for calculating h-value of the node
+     */
+    public JPS(Node start, Node end, GridMap map, ChangeLog changeLog, Heuristic heuristic) {
+        super(start, end, map, changeLog, heuristic);
+    }
+
+    /**
+     * Constructor for jump point search pathfinding algorithm. JPS constructed
+     * with this constructor will not have change logger.
+     *
+     * @param start Start node
+     * @param end End node
+     * @param map Information about walls for algorithm
+     * @param heuristic Heuristic for calculating h-value of the node
+     */
+    public JPS(Node start, Node end, GridMap map, Heuristic heuristic) {
+        super(start, end, map, heuristic);
+    }
+
     /**
      * Constructor for jump point search pathfinding algorithm.
      *
@@ -46,91 +87,103 @@ public final class JPS extends Pathfinder {
      * {@inheritDoc} Jump point search pathfinding algorithm will be used.
      */
     @Override
-    public List<Node> solve() {
+    protected List<Node> search() {
+        if (isKnownUnreachable()) {
+            return new List<>();
+        }
         Heuristic jumpCostHeuristic = new DiagonalHeuristic();
-        boolean[][] opened = new boolean[sizeX][sizeY];
-        boolean[][] closed = new boolean[sizeX][sizeY];
-        NodeHeap openList = new NodeHeap();
-        Node[][] parent = new Node[sizeX][sizeY];
-        double[][] gScore = new double[sizeX][sizeY];
+        SearchWorkspace ws = borrowWorkspace();
+        OpenList openList = ws.getHeap();
+        int startCell = toCell(start.getX(), start.getY());
 
-        gScore[start.getX()][start.getY()] = 0;
-        opened[start.getX()][start.getY()] = true;
-        openList.add(new PriorityNode(start.getX(), start.getY(), heuristic.getHValue(start.getX(), start.getY(), end.getX(), end.getY())));
+        ws.setG(startCell, 0);
+        ws.setParent(startCell, -1);
+        ws.open(startCell);
+        countGenerated();
+        openList.add(startCell, heuristic.getHValue(start.getX(), start.getY(), end.getX(), end.getY()));
 
         while (!openList.isEmpty()) {
-            PriorityNode current = openList.poll();
+            int cCell = openList.poll();
 
-            int cx = current.getX();
-            int cy = current.getY();
+            int cx = cellX(cCell);
+            int cy = cellY(cCell);
 
-            if (closed[cx][cy]) {
+            if (ws.isClosed(cCell)) {
+                stalePops++;
                 continue;
             }
 
             logChange(cx, cy, 6);
 
-            closed[cx][cy] = true;
+            ws.close(cCell);
+            expandedCount++;
 
             if (cx == end.getX() && cy == end.getY()) {
-                pathLength = gScore[end.getX()][end.getY()];
-                return reconstructPath(parent);
+                pathLength = ws.getG(cCell);
+                peakOpenListSize = openList.getPeakSize();
+                return reconstructJumpPath(ws);
             }
 
-            List<Node> adjList = getAdjList(cx, cy, parent);
-            for (int i = 0; i < adjList.size(); i++) {
-                Node neighbor = adjList.get(i);
-                int nx = neighbor.getX();
-                int ny = neighbor.getY();
+            int mask = getPrunedMask(cx, cy, ws);
+            while (mask != 0) {
+                int d = Integer.numberOfTrailingZeros(mask);
+                mask &= mask - 1;
+                int nx = cx + Directions.DX[d];
+                int ny = cy + Directions.DY[d];
 
-                Node jp = jump(nx, ny, cx, cy);
+                int jCell = jump(nx, ny, cx, cy);
 
-                if (jp != null) {
-                    int jx = jp.getX();
-                    int jy = jp.getY();
+                if (jCell != -1) {
+                    int jx = cellX(jCell);
+                    int jy = cellY(jCell);
 
-                    if (closed[nx][ny]) {
+                    if (ws.isClosed(toCell(nx, ny))) {
                         continue;
                     }
 
-                    double jg = gScore[cx][cy] + jumpCostHeuristic.getHValue(cx, cy, jx, jy);
+                    double jg = ws.getG(cCell) + jumpCostHeuristic.getHValue(cx, cy, jx, jy);
+                    boolean opened = ws.isOpened(jCell);
 
-                    if (!opened[jx][jy]) {
+                    if (!opened) {
                         logChange(jx, jy, 5);
                     }
 
-                    if (!opened[jx][jy] || jg < gScore[jx][jy]) {
-                        gScore[jx][jy] = jg;
+                    if (!opened || jg < ws.getG(jCell)) {
+                        ws.setG(jCell, jg);
                         double jh = heuristic.getHValue(jx, jy, end.getX(), end.getY());
-                        parent[jx][jy] = new Node(cx, cy);
-                        opened[jx][jy] = true;
+                        ws.setParent(jCell, cCell);
+                        ws.open(jCell);
+                        if (opened) {
+                            countPush();
+                        } else {
+                            countGenerated();
+                        }
                         /*
                         Optimization to problem reported in peer review 1.
                         Based on performance testing this wouldn't actually
                         have that big impact to running time of the algorithm.
                         
                         if (jx == end.getX() && jy == end.getY()) {
-                            pathLength = gScore[end.getX()][end.getY()];
-                            return reconstructPath(parent);
+                            pathLength = ws.getG(jCell);
+                            return reconstructJumpPath(ws);
                         }
                         */
-                        openList.add(new PriorityNode(jx, jy, jg + jh));
+                        openList.add(jCell, jg + jh);
                     }
                 }
             }
         }
+        peakOpenListSize = openList.getPeakSize();
         return new List<>();
     }
 
-    private Node jump(int x, int y, int px, int py) {
-
-        // Check that it is possible to travel from parent to current
-        if (!hasEdge(px, py, x, y)) {
-            return null;
-        }
-
-        logChange(x, y, 7);
-
+    /**
+     * Finds next jump point when moving from (px, py) to (x, y) and onwards to
+     * the same direction.
+     *
+     * @return Cell id of the jump point or -1 if there is none.
+     */
+    private int jump(int x, int y, int px, int py) {
         /*
         Node will be jump point if:
         It is the ending
@@ -145,24 +198,74 @@ public final class JPS extends Pathfinder {
         | |C| |
         | | | |
 
-        For diagonals we need to do horizontal and vertical checks with jump()
+        For diagonals we need to do horizontal and vertical checks
         |P| |#| |
         | |C| |1|
         |#| | | |
         C is forced JP because of node 1
+
+        Scanning is done with loops instead of recursion so long jumps don't
+        need a stack frame for each node.
          */
-        if (end.getX() == x && end.getY() == y) {
-            return new Node(x, y);
-        }
-        // Directions
+        countJump();
         int dx = x - px;
         int dy = y - py;
 
         if (dx != 0 && dy != 0) {
-            if (jump(x + dx, y, x, y) != null || jump(x, y + dy, x, y) != null) {
-                return new Node(x, y);
+            return jumpDiagonal(x, y, dx, dy);
+        }
+        // Straight edge also needs walkable source. This only matters if start
+        // is inside a wall since later sources are always walkable.
+        if (map.isWall(px, py)) {
+            return -1;
+        }
+        if (dx != 0) {
+            return jumpHorizontal(x, y, dx);
+        }
+        return jumpVertical(x, y, dy);
+    }
+
+    private int jumpDiagonal(int x, int y, int dx, int dy) {
+        int ex = end.getX();
+        int ey = end.getY();
+        int from = x;
+        int jump = -1;
+        while (true) {
+            // Check that it is possible to travel from previous to current
+            if (!isInsideGraph(x, y) || map.isWall(x - dx, y) || map.isWall(x, y - dy) || map.isWall(x, y)) {
+                break;
+            }
+            logChange(x, y, 7);
+            if (x == ex && y == ey) {
+                jump = toCell(x, y);
+                break;
+            }
+            if (jumpHorizontal(x + dx, y, dx) != -1 || jumpVertical(x, y + dy, dy) != -1) {
+                jump = toCell(x, y);
+                break;
+            }
+            x += dx;
+            y += dy;
+        }
+        // Scanned cells are counted once per jump from its length
+        countScanned((x - from) * dx + (jump == -1 ? 0 : 1));
+        return jump;
+    }
+
+    private int jumpHorizontal(int x, int y, int dx) {
+        int ex = end.getX();
+        int ey = end.getY();
+        int from = x;
+        int jump = -1;
+        while (true) {
+            if (x < 0 || x >= sizeX || map.isWall(x, y)) {
+                break;
+            }
+            logChange(x, y, 7);
+            if (x == ex && y == ey) {
+                jump = toCell(x, y);
+                break;
             }
-        } else if (dx != 0) {
             /*
             x, y is JP if there is wall over parent and no wall over current
             |#|?| |
@@ -174,164 +277,78 @@ public final class JPS extends Pathfinder {
             |P|C| |
             |#|?| |
              */
-
-            boolean topForcedJP = isInsideGraph(x, y + 1) && isWall[x - dx][y + 1] && !isWall[x][y + 1];
-            boolean bottomForcedJP = isInsideGraph(x, y - 1) && isWall[x - dx][y - 1] && !isWall[x][y - 1];
-
-            if (topForcedJP || bottomForcedJP) {
-                return new Node(x, y);
+            if (y + 1 < sizeY && map.isWall(x - dx, y + 1) && !map.isWall(x, y + 1)) {
+                jump = toCell(x, y);
+                break;
             }
-        } else if (dy != 0) {
-            boolean leftForcedJP = isInsideGraph(x + 1, y) && isWall[x + 1][y - dy] && !isWall[x + 1][y];
-            boolean rightForcedJP = isInsideGraph(x - 1, y) && isWall[x - 1][y - dy] && !isWall[x - 1][y];
-
-            if (leftForcedJP || rightForcedJP) {
-                return new Node(x, y);
+            if (y > 0 && map.isWall(x - dx, y - 1) && !map.isWall(x, y - 1)) {
+                jump = toCell(x, y);
+                break;
             }
+            x += dx;
         }
-
-        // Explore deeper if current is not JP
-        return jump(x + dx, y + dy, x, y);
+        countScanned((x - from) * dx + (jump == -1 ? 0 : 1));
+        return jump;
     }
 
-    private List<Node> getAdjList(int x, int y, Node[][] parent) {
-        // For start we need all adjacent nodes.
-        if (parent[x][y] == null) {
-            return super.getAdjList(x, y);
-        }
-
-        List<Node> al = new List<>();
-
-        // Normalized directions in x and y axis
-        int dx = getNormalizedDirection(parent[x][y].getX(), x);
-        int dy = getNormalizedDirection(parent[x][y].getY(), y);
-
-        if (dx != 0 && dy != 0) {
-            /* Diagonal direction
-            Adj list should be:
-            dx = 1, dy = 1
-            | |1|2|
-            | |/|3|
-            | | | |
-            OR
-            dx = -1, dy = -1
-            | | | |
-            |3|/| |
-            |2|1| |
-            OR
-            dx = -1, dy = 1
-            |2|1| |
-            |3|\| |
-            | | | |
-            OR
-            dx = 1, dy = -1
-            | | | |
-            | |\|3|
-            | |1|2|
-            1 & 3 need to both have edge for 2 to have edge
-             */
-            // 1: x + dx, y
-            if (hasEdge(x, y, x + dx, y)) {
-                al.add(new Node(x + dx, y));
+    private int jumpVertical(int x, int y, int dy) {
+        int ex = end.getX();
+        int ey = end.getY();
+        int from = y;
+        int jump = -1;
+        while (true) {
+            if (y < 0 || y >= sizeY || map.isWall(x, y)) {
+                break;
             }
-            // 2: x +dx, y + dy
-            if (hasEdge(x, y, x + dx, y + dy)) {
-                al.add(new Node(x + dx, y + dy));
+            logChange(x, y, 7);
+            if (x == ex && y == ey) {
+                jump = toCell(x, y);
+                break;
             }
-            // 3: x, y + dy
-            if (hasEdge(x, y, x, y + dy)) {
-                al.add(new Node(x, y + dy));
+            if (x + 1 < sizeX && map.isWall(x + 1, y - dy) && !map.isWall(x + 1, y)) {
+                jump = toCell(x, y);
+                break;
             }
-
-        } else if (dx != 0) {
-            /* Horizontal direction
-            Adj list should be:
-            dx = 1, dy = 0
-            | |5 |1|
-            | |->|2|
-            | |4 |3|
-            OR
-            dx = -1, dy = 0
-            |1|5 | |
-            |2|<-| |
-            |3|4 | |
-             */
-            // 1: x + dx, y + 1
-            if (hasEdge(x, y, x + dx, y + 1)) {
-                al.add(new Node(x + dx, y + 1));
-            }
-            // 2: x + dx, y
-            if (hasEdge(x, y, x + dx, y)) {
-                al.add(new Node(x + dx, y));
-            }
-            // 3: x + dx, y - 1
-            if (hasEdge(x, y, x + dx, y - 1)) {
-                al.add(new Node(x + dx, y - 1));
-            }
-            // 4: x, y - 1
-            if (hasEdge(x, y, x, y - 1)) {
-                al.add(new Node(x, y - 1));
-            }
-            // 5: x, y + 1
-            if (hasEdge(x, y, x, y + 1)) {
-                al.add(new Node(x, y + 1));
-            }
-        } else if (dy != 0) {
-            /* Vertical direction
-            |1|2|3|
-            |4|^|5|
-            | | | |
-             */
-            // 1: x - 1, y + dy
-            if (hasEdge(x, y, x - 1, y + dy)) {
-                al.add(new Node(x - 1, y + dy));
-            }
-            // 2: x, y + dy
-            if (hasEdge(x, y, x, y + dy)) {
-                al.add(new Node(x, y + dy));
-            }
-            // 3: x + 1, y + dy
-            if (hasEdge(x, y, x + 1, y + dy)) {
-                al.add(new Node(x + 1, y + dy));
-            }
-            // 4: x - 1, y
-            if (hasEdge(x, y, x - 1, y)) {
-                al.add(new Node(x - 1, y));
-            }
-            // 5: x + 1, y
-            if (hasEdge(x, y, x + 1, y)) {
-                al.add(new Node(x + 1, y));
+            if (x > 0 && map.isWall(x - 1, y - dy) && !map.isWall(x - 1, y)) {
+                jump = toCell(x, y);
+                break;
             }
+            y += dy;
         }
-
-        return al;
+        countScanned((y - from) * dy + (jump == -1 ? 0 : 1));
+        return jump;
     }
 
-    private List<Node> reconstructPath(Node[][] parent) {
-        List<Node> path = new List<>();
-        Node current = end;
-        Node next = parent[end.getX()][end.getY()];
-        while (next != null) {
-            // Add current to path
-            path.add(current);
-            // Get direction to next node
-            int dx = getNormalizedDirection(current.getX(), next.getX());
-            int dy = getNormalizedDirection(current.getY(), next.getY());
-            // Add all nodes between current and next to path
-            int x = current.getX();
-            int y = current.getY();
-            while (x != next.getX() || y != next.getY()) {
-                x += dx;
-                y += dy;
-                path.add(new Node(x, y));
-            }
-            // current = next, next = parent of current
-            current = next;
-            next = parent[current.getX()][current.getY()];
+    private int getPrunedMask(int x, int y, SearchWorkspace ws) {
+        int parent = ws.getParent(toCell(x, y));
+        // For start we need all adjacent nodes.
+        if (parent == -1) {
+            return getNeighbourMask(x, y);
         }
-        // Add start to path since it will not be added in loop
-        path.add(start);
-        path.reverse();
-        return path;
+
+        // Normalized directions in x and y axis
+        int dx = getNormalizedDirection(cellX(parent), x);
+        int dy = getNormalizedDirection(cellY(parent), y);
+
+        /*
+        Diagonal direction, dx = 1, dy = 1
+        | |1|2|
+        | |/|3|
+        | | | |
+        1 & 3 need to both have edge for 2 to have edge
+
+        Horizontal direction, dx = 1, dy = 0
+        | |5 |1|
+        | |->|2|
+        | |4 |3|
+
+        Vertical direction, dx = 0, dy = 1
+        |1|2|3|
+        |4|^|5|
+        | | | |
+        Other directions are mirrored. Neighbour mask takes care of walls and
+        corners.
+         */
+        return getNeighbourMask(x, y) & Directions.PRUNED[Directions.index(dx, dy)];
     }
 }
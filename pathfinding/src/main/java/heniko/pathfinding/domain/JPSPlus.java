@@ -0,0 +1,191 @@
+package heniko.pathfinding.domain;
+
+import heniko.pathfinding.util.ColouredNode;
+import heniko.pathfinding.util.Node;
+
+/**
+ * {@inheritDoc} This implementation uses JPS+. Jump points are read from
+ * precomputed JumpTable instead of scanning the map so the map must not change
+ * after the table has been built. Found jump points are the same as with JPS.
+ *
+ * @author Niko Hernesniemi
+ */
+public final class JPSPlus extends Pathfinder {
+
+    private final JumpTable table;
+
+    /**
+     * Constructor for JPS+ pathfinding algorithm.
+     *
+     * @param start Start node
+     * @param end End node
+     * @param map Information about walls for algorithm
+     * @param table Jump table built from the same map
+     * @param changes Logger for keeping track of the changes needed in order to
+     * visualise the algorithm
+     * @param heuristic Heuristic for calculating h-value of the node
+     * @throws IllegalArgumentException Table was built for different size of
+     * map.
+     */
+    public JPSPlus(Node start, Node end, GridMap map, JumpTable table, List<ColouredNode> changes, Heuristic heuristic) throws IllegalArgumentException {
+        super(start, end, map, changes, heuristic);
+        if (table.getWidth() != sizeX || table.getHeight() != sizeY) {
+            throw new IllegalArgumentException();
+        }
+        this.table = table;
+    }
+
+    /**
+     * Constructor for JPS+ pathfinding algorithm. JPSPlus constructed with
+     * this constructor will not have change logger.
+     *
+     * @param start Start node
+     * @param end End node
+     * @param map Information about walls for algorithm
+     * @param table Jump table built from the same map
+     * @param heuristic Heuristic for calculating h-value of the node
+     * @throws IllegalArgumentException Table was built for different size of
+     * map.
+     */
+    public JPSPlus(Node start, Node end, GridMap map, JumpTable table, Heuristic heuristic) throws IllegalArgumentException {
+        this(start, end, map, table, new List<>(), heuristic);
+        this.logging = false;
+    }
+
+    /**
+     * {@inheritDoc} JPS+ pathfinding algorithm will be used.
+     */
+    @Override
+    protected List<Node> search() {
+        if (isKnownUnreachable()) {
+            return new List<>();
+        }
+        Heuristic jumpCostHeuristic = new DiagonalHeuristic();
+        SearchWorkspace ws = borrowWorkspace();
+        OpenList openList = ws.getHeap();
+        int startCell = toCell(start.getX(), start.getY());
+
+        ws.setG(startCell, 0);
+        ws.setParent(startCell, -1);
+        ws.open(startCell);
+        countGenerated();
+        openList.add(startCell, heuristic.getHValue(start.getX(), start.getY(), end.getX(), end.getY()));
+
+        while (!openList.isEmpty()) {
+            int cCell = openList.poll();
+
+            int cx = cellX(cCell);
+            int cy = cellY(cCell);
+
+            if (ws.isClosed(cCell)) {
+                stalePops++;
+                continue;
+            }
+
+            logChange(cx, cy, 6);
+
+            ws.close(cCell);
+            expandedCount++;
+
+            if (cx == end.getX() && cy == end.getY()) {
+                pathLength = ws.getG(cCell);
+                peakOpenListSize = openList.getPeakSize();
+                return reconstructJumpPath(ws);
+            }
+
+            // Table has 0 for blocked directions so walls don't need to be
+            // checked here
+            int parent = ws.getParent(cCell);
+            int dirs = parent == -1 ? Directions.ALL
+                    : Directions.PRUNED[Directions.index(getNormalizedDirection(cellX(parent), cx), getNormalizedDirection(cellY(parent), cy))];
+            while (dirs != 0) {
+                int d = Integer.numberOfTrailingZeros(dirs);
+                dirs &= dirs - 1;
+
+                int steps = jumpSteps(cCell, cx, cy, d);
+                if (steps == 0 || ws.isClosed(toCell(cx + Directions.DX[d], cy + Directions.DY[d]))) {
+                    continue;
+                }
+                int jx = cx + Directions.DX[d] * steps;
+                int jy = cy + Directions.DY[d] * steps;
+                int jCell = toCell(jx, jy);
+
+                double jg = ws.getG(cCell) + jumpCostHeuristic.getHValue(cx, cy, jx, jy);
+                boolean opened = ws.isOpened(jCell);
+
+                if (!opened) {
+                    logChange(jx, jy, 5);
+                }
+
+                if (!opened || jg < ws.getG(jCell)) {
+                    ws.setG(jCell, jg);
+                    double jh = heuristic.getHValue(jx, jy, end.getX(), end.getY());
+                    ws.setParent(jCell, cCell);
+                    ws.open(jCell);
+                    if (opened) {
+                        countPush();
+                    } else {
+                        countGenerated();
+                    }
+                    openList.add(jCell, jg + jh);
+                }
+            }
+        }
+        peakOpenListSize = openList.getPeakSize();
+        return new List<>();
+    }
+
+    /**
+     * Finds next jump point to direction d. End node can't be stored in the
+     * table so it is checked here.
+     *
+     * @return Number of steps to the jump point or 0 if there is none.
+     */
+    private int jumpSteps(int cell, int x, int y, int d) {
+        countJump();
+        int dist = table.get(cell, d);
+        // Steps that can be taken before wall
+        int limit = dist > 0 ? dist : -dist;
+        int best = dist > 0 ? dist : 0;
+        int dx = Directions.DX[d];
+        int dy = Directions.DY[d];
+        int ex = end.getX();
+        int ey = end.getY();
+
+        if (!Directions.isDiagonal(d)) {
+            // Steps to end if it is on the line
+            int k = dx != 0 ? (ey == y ? (ex - x) * dx : -1) : (ex == x ? (ey - y) * dy : -1);
+            if (k > 0 && k <= limit && (best == 0 || k < best)) {
+                best = k;
+            }
+            return best;
+        }
+
+        /*
+        Diagonal node is also jump point if horizontal or vertical scan from it
+        would find the end. Only the nodes on the same row or column as the end
+        need to be checked.
+        | | | |E|
+        | | |1| |
+        | |/| | |
+        |C| | | |
+         */
+        int i = (ey - y) * dy;
+        if (i > 0 && i <= limit && (best == 0 || i < best)) {
+            int rx = x + dx * i;
+            int k = (ex - rx) * dx;
+            if (k == 0 || (k > 0 && k <= Math.abs(table.get(toCell(rx, ey), Directions.index(dx, 0))))) {
+                best = i;
+            }
+        }
+        i = (ex - x) * dx;
+        if (i > 0 && i <= limit && (best == 0 || i < best)) {
+            int ry = y + dy * i;
+            int k = (ey - ry) * dy;
+            if (k == 0 || (k > 0 && k <= Math.abs(table.get(toCell(ex, ry), Directions.index(0, dy))))) {
+                best = i;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,170 @@
+package heniko.pathfinding.domain;
+
+import java.util.stream.IntStream;
+
+/**
+ * Precomputed jump distances for JPS+. For every node and each of the eight
+ * directions table stores how far the next jump point is. Positive value n
+ * means that there is a jump point n steps away. Zero or negative value -n
+ * means that there is no jump point and n steps can be taken before a wall
+ * or the edge of the map. The end node is not known beforehand so it is
+ * handled by JPSPlus while searching.
+ *
+ * @author Niko Hernesniemi
+ */
+public class JumpTable {
+
+    private final int width;
+    private final int height;
+    // Distance of node (x, y) to direction d is at (x + y * width) * 8 + d
+    private final short[] distances;
+
+    /**
+     * Constructor for JumpTable with existing distances.
+     *
+     * @param width Width of the map
+     * @param height Height of the map
+     * @param distances Distances, 8 values for each node
+     * @throws IllegalArgumentException Distance array has wrong size.
+     */
+    public JumpTable(int width, int height, short[] distances) throws IllegalArgumentException {
+        if (distances.length != width * height * 8) {
+            throw new IllegalArgumentException();
+        }
+        this.width = width;
+        this.height = height;
+        this.distances = distances;
+    }
+
+    /**
+     * Builds jump table for the map. Rows, columns and diagonals are
+     * independent so they are processed in parallel.
+     *
+     * @param map Map.
+     * @return New JumpTable.
+     * @throws IllegalArgumentException Map is too large for the table.
+     */
+    public static JumpTable build(GridMap map) throws IllegalArgumentException {
+        int w = map.getWidth();
+        int h = map.getHeight();
+        if (w > Short.MAX_VALUE || h > Short.MAX_VALUE) {
+            throw new IllegalArgumentException();
+        }
+        JumpTable table = new JumpTable(w, h, new short[w * h * 8]);
+        // Straight directions first since diagonal jump points depend on them
+        for (int d = 0; d < 4; d++) {
+            final int dir = d;
+            if (Directions.DX[d] != 0) {
+                int startX = Directions.DX[d] > 0 ? w - 1 : 0;
+                IntStream.range(0, h).parallel().forEach(y -> table.sweep(map, dir, startX, y));
+            } else {
+                int startY = Directions.DY[d] > 0 ? h - 1 : 0;
+                IntStream.range(0, w).parallel().forEach(x -> table.sweep(map, dir, x, startY));
+            }
+        }
+        for (int d = 4; d < 8; d++) {
+            final int dir = d;
+            int endX = Directions.DX[d] > 0 ? w - 1 : 0;
+            int endY = Directions.DY[d] > 0 ? h - 1 : 0;
+            // Every diagonal ends either on the last row or the last column
+            IntStream.range(0, w + h - 1).parallel().forEach(i -> {
+                if (i < w) {
+                    table.sweep(map, dir, i, endY);
+                } else {
+                    int y = Directions.DY[dir] > 0 ? i - w : i - w + 1;
+                    table.sweep(map, dir, endX, y);
+                }
+            });
+        }
+        return table;
+    }
+
+    /**
+     * Gets width of the map table was built for.
+     *
+     * @return Width of the map.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Gets height of the map table was built for.
+     *
+     * @return Height of the map.
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Gets jump distance.
+     *
+     * @param cell Cell id (x + y * width).
+     * @param d Direction number, see Directions.
+     * @return Steps to jump point if positive, otherwise negated number of
+     * steps that can be taken.
+     */
+    public int get(int cell, int d) {
+        return distances[(cell << 3) + d];
+    }
+
+    /**
+     * Gets all distances. Used for saving the table.
+     *
+     * @return Distance array.
+     */
+    public short[] getDistances() {
+        return distances;
+    }
+
+    private void sweep(GridMap map, int d, int x, int y) {
+        // Walks backwards from the last node of the line so distance of the
+        // next node is always known
+        int dx = Directions.DX[d];
+        int dy = Directions.DY[d];
+        while (map.isInside(x, y)) {
+            int dist;
+            int nx = x + dx;
+            int ny = y + dy;
+            if (!canStep(map, x, y, dx, dy)) {
+                dist = 0;
+            } else if (isJumpPoint(map, nx, ny, dx, dy)) {
+                dist = 1;
+            } else {
+                int next = distances[((nx + ny * width) << 3) + d];
+                dist = next > 0 ? next + 1 : next - 1;
+            }
+            distances[((x + y * width) << 3) + d] = (short) dist;
+            x -= dx;
+            y -= dy;
+        }
+    }
+
+    private boolean canStep(GridMap map, int x, int y, int dx, int dy) {
+        int nx = x + dx;
+        int ny = y + dy;
+        if (!map.isInside(nx, ny) || map.isWall(nx, ny)) {
+            return false;
+        }
+        if (dx != 0 && dy != 0) {
+            // Corners can't be cut
+            return !map.isWall(nx, y) && !map.isWall(x, ny);
+        }
+        // Straight move also needs walkable source
+        return !map.isWall(x, y);
+    }
+
+    private boolean isJumpPoint(GridMap map, int x, int y, int dx, int dy) {
+        if (dx != 0 && dy != 0) {
+            // Diagonal node is jump point if straight scans find one
+            return get(x + y * width, Directions.index(dx, 0)) > 0
+                    || get(x + y * width, Directions.index(0, dy)) > 0;
+        } else if (dx != 0) {
+            return (y + 1 < height && map.isWall(x - dx, y + 1) && !map.isWall(x, y + 1))
+                    || (y > 0 && map.isWall(x - dx, y - 1) && !map.isWall(x, y - 1));
+        }
+        return (x + 1 < width && map.isWall(x + 1, y - dy) && !map.isWall(x + 1, y))
+                || (x > 0 && map.isWall(x - 1, y - dy) && !map.isWall(x - 1, y));
+    }
+}
@@ -0,0 +1,67 @@
+package heniko.pathfinding.domain;
+
+import heniko.pathfinding.util.Mathematics;
+
+/**
+ * Landmark (ALT) heuristic. For landmark L the triangle inequality gives
+ * d(s, e) &gt;= |d(L, s) - d(L, e)| where d is the length of the shortest path,
+ * so unlike diagonal distance this takes walls into account. Largest value of
+ * all landmarks and diagonal distance is used.
+ *
+ * Distances are read from LandmarkTable that must have been built from the
+ * same map.
+ *
+ * @author Niko Hernesniemi
+ */
+public class LandmarkHeuristic implements Heuristic {
+
+    private final LandmarkTable table;
+    private final Heuristic diagonal;
+
+    /**
+     * Constructor for LandmarkHeuristic.
+     *
+     * @param table Landmark table built from the map being searched
+     */
+    public LandmarkHeuristic(LandmarkTable table) {
+        this.table = table;
+        this.diagonal = new DiagonalHeuristic();
+    }
+
+    /**
+     * Gets table used by the heuristic.
+     *
+     * @return Landmark table
+     */
+    public LandmarkTable getTable() {
+        return table;
+    }
+
+    /**
+     * Calculates lower bound for the shortest path between source and
+     * destination points.
+     *
+     * @param sx Source x-coordinate
+     * @param sy Source y-coordinate
+     * @param ex Destination x-coordinate
+     * @param ey Destination y-coordinate
+     * @return Largest of diagonal distance and landmark bounds
+     */
+    @Override
+    public double getHValue(int sx, int sy, int ex, int ey) {
+        double best = diagonal.getHValue(sx, sy, ex, ey);
+        int s = sx + sy * table.getWidth();
+        int e = ex + ey * table.getWidth();
+        for (int l = 0; l < table.getLandmarkCount(); l++) {
+            double ds = table.getDistance(l, s);
+            double de = table.getDistance(l, e);
+            // Nodes the landmark can't reach give no information. Start inside
+            // a wall is one of these even if there is a path from it.
+            if (ds == Double.POSITIVE_INFINITY || de == Double.POSITIVE_INFINITY) {
+                continue;
+            }
+            best = Mathematics.max(best, Mathematics.abs(ds - de));
+        }
+        return best;
+    }
+}
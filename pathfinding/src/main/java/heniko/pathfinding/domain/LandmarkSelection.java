@@ -0,0 +1,24 @@
+package heniko.pathfinding.domain;
+
+/**
+ * Ways of choosing landmarks for LandmarkTable.
+ *
+ * @author Niko Hernesniemi
+ */
+public enum LandmarkSelection {
+
+    /**
+     * Empty nodes closest to the corners of the map. Landmarks after the
+     * first four are spread evenly around the edges.
+     */
+    CORNERS,
+    /**
+     * Each landmark is the node farthest away from the landmarks chosen
+     * before it. Only the area reachable from a random node is used.
+     */
+    FARTHEST,
+    /**
+     * Random empty nodes.
+     */
+    RANDOM
+}
@@ -0,0 +1,352 @@
+package heniko.pathfinding.domain;
+
+import heniko.pathfinding.util.Mathematics;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Precomputed shortest path distances from a few landmark nodes to every node
+ * of the map. Used by LandmarkHeuristic.
+ *
+ * Every path on the grid is made of straight and diagonal moves so its length
+ * is a + b * sqrt(2). Table stores the numbers of straight and diagonal moves
+ * as 16-bit values instead of the length so distances are exact and take the
+ * same space as float.
+ *
+ * @author Niko Hernesniemi
+ */
+public class LandmarkTable {
+
+    private static final double SQRT2 = Math.sqrt(2);
+
+    private final int width;
+    private final int height;
+    // Cell ids (x + y * width) of the landmarks
+    private final int[] landmarks;
+    // Straight moves from landmark l to node c are at (l * width * height + c)
+    // * 2 and diagonal moves right after it. Both are -1 if c is unreachable.
+    private final short[] steps;
+
+    /**
+     * Constructor for LandmarkTable with existing distances.
+     *
+     * @param width Width of the map
+     * @param height Height of the map
+     * @param landmarks Cell ids of the landmarks
+     * @param steps Straight and diagonal moves, 2 values for each landmark and
+     * node
+     * @throws IllegalArgumentException Step array has wrong size.
+     */
+    public LandmarkTable(int width, int height, int[] landmarks, short[] steps) throws IllegalArgumentException {
+        if (steps.length != (long) landmarks.length * width * height * 2) {
+            throw new IllegalArgumentException();
+        }
+        this.width = width;
+        this.height = height;
+        this.landmarks = landmarks;
+        this.steps = steps;
+    }
+
+    /**
+     * Builds landmark table for the map. Searches from different landmarks are
+     * independent so they are run in parallel, except with FARTHEST where
+     * every landmark depends on the previous ones. Fewer landmarks are used if
+     * the map doesn't have enough empty nodes.
+     *
+     * @param map Map.
+     * @param count Number of landmarks.
+     * @param selection How landmarks are chosen.
+     * @param seed Seed for random choices.
+     * @return New LandmarkTable.
+     * @throws IllegalArgumentException Count is negative or map is too large
+     * for the table.
+     */
+    public static LandmarkTable build(GridMap map, int count, LandmarkSelection selection, long seed) throws IllegalArgumentException {
+        int n = map.getWidth() * map.getHeight();
+        if (count < 0 || (long) count * n * 2 > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException();
+        }
+        if (selection == LandmarkSelection.FARTHEST) {
+            return buildFarthest(map, count, seed);
+        }
+        int[] landmarks = selection == LandmarkSelection.CORNERS
+                ? cornerLandmarks(map, count)
+                : randomLandmarks(map, count, seed);
+        short[] steps = new short[landmarks.length * n * 2];
+        IntStream.range(0, landmarks.length).parallel().forEach(l -> search(map, landmarks[l], steps, l * n * 2));
+        return new LandmarkTable(map.getWidth(), map.getHeight(), landmarks, steps);
+    }
+
+    /**
+     * Builds landmark table for the map using seed 0.
+     *
+     * @param map Map.
+     * @param count Number of landmarks.
+     * @param selection How landmarks are chosen.
+     * @return New LandmarkTable.
+     * @throws IllegalArgumentException Count is negative or map is too large
+     * for the table.
+     */
+    public static LandmarkTable build(GridMap map, int count, LandmarkSelection selection) throws IllegalArgumentException {
+        return build(map, count, selection, 0);
+    }
+
+    /**
+     * Gets width of the map table was built for.
+     *
+     * @return Width of the map.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Gets height of the map table was built for.
+     *
+     * @return Height of the map.
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Gets the number of landmarks.
+     *
+     * @return Number of landmarks.
+     */
+    public int getLandmarkCount() {
+        return landmarks.length;
+    }
+
+    /**
+     * Gets cell ids of the landmarks. Used for saving the table.
+     *
+     * @return Landmark array.
+     */
+    public int[] getLandmarks() {
+        return landmarks;
+    }
+
+    /**
+     * Gets all step counts. Used for saving the table.
+     *
+     * @return Step array.
+     */
+    public short[] getSteps() {
+        return steps;
+    }
+
+    /**
+     * Gets length of the shortest path from landmark to node.
+     *
+     * @param landmark Index of the landmark.
+     * @param cell Cell id (x + y * width).
+     * @return Distance or Double.POSITIVE_INFINITY if node can't be reached.
+     */
+    public double getDistance(int landmark, int cell) {
+        int i = (landmark * width * height + cell) << 1;
+        if (steps[i] < 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return steps[i] + steps[i + 1] * SQRT2;
+    }
+
+    private static LandmarkTable buildFarthest(GridMap map, int count, long seed) {
+        int w = map.getWidth();
+        int n = w * map.getHeight();
+        int[] landmarks = new int[count];
+        short[] steps = new short[count * n * 2];
+        int[] origin = randomLandmarks(map, 1, seed);
+        if (origin.length == 0) {
+            return new LandmarkTable(w, map.getHeight(), new int[0], new short[0]);
+        }
+
+        // First landmark is the node farthest away from a random node, after
+        // that distance to the closest landmark is used
+        short[] originSteps = new short[n * 2];
+        search(map, origin[0], originSteps, 0);
+        double[] closest = new double[n];
+        for (int cell = 0; cell < n; cell++) {
+            closest[cell] = originSteps[cell << 1] < 0 ? -1 : originSteps[cell << 1] + originSteps[(cell << 1) + 1] * SQRT2;
+        }
+        int found = 0;
+        while (found < count) {
+            int next = 0;
+            for (int cell = 1; cell < n; cell++) {
+                if (closest[cell] > closest[next]) {
+                    next = cell;
+                }
+            }
+            // Every reachable node is already a landmark
+            if (closest[next] <= 0) {
+                break;
+            }
+            landmarks[found] = next;
+            int offset = found * n * 2;
+            search(map, next, steps, offset);
+            for (int cell = 0; cell < n; cell++) {
+                int i = offset + (cell << 1);
+                double d = steps[i] < 0 ? -1 : steps[i] + steps[i + 1] * SQRT2;
+                closest[cell] = found == 0 ? d : Mathematics.min(closest[cell], d);
+            }
+            found++;
+        }
+
+        if (found < count) {
+            int[] usedLandmarks = new int[found];
+            short[] usedSteps = new short[found * n * 2];
+            System.arraycopy(landmarks, 0, usedLandmarks, 0, found);
+            System.arraycopy(steps, 0, usedSteps, 0, usedSteps.length);
+            return new LandmarkTable(w, map.getHeight(), usedLandmarks, usedSteps);
+        }
+        return new LandmarkTable(w, map.getHeight(), landmarks, steps);
+    }
+
+    private static int[] cornerLandmarks(GridMap map, int count) {
+        int w = map.getWidth();
+        int h = map.getHeight();
+        int[] found = new int[count];
+        int size = 0;
+        // Corners first, rest of the points are spread evenly on the edges
+        // going clockwise from (0, 0) halfway between corners
+        long perimeter = 2L * (w - 1) + 2L * (h - 1);
+        long[] corners = new long[]{0, w - 1, (w - 1) + (h - 1), 2L * (w - 1) + (h - 1)};
+        for (int i = 0; i < count; i++) {
+            long p = i < 4 ? corners[i]
+                    : (perimeter * (2 * (i - 4) + 1)) / (2 * (count - 4));
+            int x;
+            int y;
+            if (p < w - 1) {
+                x = (int) p;
+                y = 0;
+            } else if (p < (w - 1) + (h - 1)) {
+                x = w - 1;
+                y = (int) (p - (w - 1));
+            } else if (p < 2L * (w - 1) + (h - 1)) {
+                x = (int) (w - 1 - (p - (w - 1) - (h - 1)));
+                y = h - 1;
+            } else {
+                x = 0;
+                y = (int) (h - 1 - (p - 2L * (w - 1) - (h - 1)));
+            }
+            int cell = closestEmpty(map, x, y);
+            if (cell != -1 && !contains(found, size, cell)) {
+                found[size++] = cell;
+            }
+        }
+        int[] landmarks = new int[size];
+        System.arraycopy(found, 0, landmarks, 0, size);
+        return landmarks;
+    }
+
+    private static int[] randomLandmarks(GridMap map, int count, long seed) {
+        int w = map.getWidth();
+        int n = w * map.getHeight();
+        int empty = 0;
+        for (int cell = 0; cell < n; cell++) {
+            if (!map.isWall(cell % w, cell / w)) {
+                empty++;
+            }
+        }
+        int[] landmarks = new int[Mathematics.min(count, empty)];
+        Random random = new Random(seed);
+        int size = 0;
+        while (size < landmarks.length) {
+            int cell = random.nextInt(n);
+            if (!map.isWall(cell % w, cell / w) && !contains(landmarks, size, cell)) {
+                landmarks[size++] = cell;
+            }
+        }
+        return landmarks;
+    }
+
+    /**
+     * Finds empty node closest to (x, y) by checking squares of growing size
+     * around it.
+     *
+     * @return Cell id or -1 if the map has no empty nodes.
+     */
+    private static int closestEmpty(GridMap map, int x, int y) {
+        int w = map.getWidth();
+        int maxRadius = Mathematics.max(w, map.getHeight());
+        for (int r = 0; r < maxRadius; r++) {
+            for (int dy = -r; dy <= r; dy++) {
+                // Only the edge of the square is new
+                int step = dy == -r || dy == r ? 1 : 2 * r;
+                for (int dx = -r; dx <= r; dx += step) {
+                    int nx = x + dx;
+                    int ny = y + dy;
+                    if (map.isInside(nx, ny) && !map.isWall(nx, ny)) {
+                        return nx + ny * w;
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static boolean contains(int[] array, int size, int value) {
+        for (int i = 0; i < size; i++) {
+            if (array[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Dijkstra's algorithm from source to every node. Writes the numbers of
+     * straight and diagonal moves of the found paths starting from offset.
+     */
+    private static void search(GridMap map, int source, short[] steps, int offset) {
+        int w = map.getWidth();
+        int n = w * map.getHeight();
+        double[] dist = new double[n];
+        int[] straight = new int[n];
+        int[] diagonal = new int[n];
+        for (int cell = 0; cell < n; cell++) {
+            dist[cell] = Double.POSITIVE_INFINITY;
+        }
+        CellHeap heap = new CellHeap();
+        dist[source] = 0;
+        heap.add(source, 0);
+
+        while (!heap.isEmpty()) {
+            double d = heap.peekPriority();
+            int cell = heap.poll();
+            // Node was added again with smaller distance
+            if (d > dist[cell]) {
+                continue;
+            }
+            int x = cell % w;
+            int y = cell / w;
+            int mask = map.getNeighbourMask(x, y);
+            while (mask != 0) {
+                int dir = Integer.numberOfTrailingZeros(mask);
+                mask &= mask - 1;
+                int nCell = (x + Directions.DX[dir]) + (y + Directions.DY[dir]) * w;
+                double nd = d + Directions.COST[dir];
+                if (nd < dist[nCell]) {
+                    dist[nCell] = nd;
+                    boolean isDiagonal = Directions.isDiagonal(dir);
+                    straight[nCell] = straight[cell] + (isDiagonal ? 0 : 1);
+                    diagonal[nCell] = diagonal[cell] + (isDiagonal ? 1 : 0);
+                    heap.add(nCell, nd);
+                }
+            }
+        }
+
+        for (int cell = 0; cell < n; cell++) {
+            int i = offset + (cell << 1);
+            if (dist[cell] == Double.POSITIVE_INFINITY) {
+                steps[i] = -1;
+                steps[i + 1] = -1;
+            } else if (straight[cell] > Short.MAX_VALUE || diagonal[cell] > Short.MAX_VALUE) {
+                throw new IllegalArgumentException();
+            } else {
+                steps[i] = (short) straight[cell];
+                steps[i + 1] = (short) diagonal[cell];
+            }
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package heniko.pathfinding.domain;
+
+/**
+ * Immutable version of a map. Walls are stored in tiles of 64x64 nodes where
+ * each row of a tile is one long word. Changing a wall makes a new snapshot
+ * that copies only the tile of the changed node and shares every other tile
+ * with the old snapshot, so old snapshots stay valid and can be read by other
+ * threads without locks.
+ *
+ * Snapshot can be used anywhere a GridMap is used, but setWall() is not
+ * supported.
+ *
+ * @author Niko Hernesniemi
+ */
+public final class MapSnapshot extends GridMap {
+
+    private static final int TILE_BITS = 6;
+    private static final int TILE_SIZE = 1 << TILE_BITS;
+
+    private final long version;
+    private final int tilesX;
+    // Tile (tx, ty) is at index tx + ty * tilesX and word y % 64 of it is the
+    // row y of the tile
+    private final long[][] tiles;
+
+    private MapSnapshot(int width, int height, long version, int tilesX, long[][] tiles) {
+        super(width, height, null);
+        this.version = version;
+        this.tilesX = tilesX;
+        this.tiles = tiles;
+    }
+
+    /**
+     * Creates snapshot of the current walls of the map.
+     *
+     * @param map Map to copy.
+     * @return Snapshot with version 0.
+     */
+    public static MapSnapshot of(GridMap map) {
+        int width = map.getWidth();
+        int height = map.getHeight();
+        int tilesX = (width + TILE_SIZE - 1) >>> TILE_BITS;
+        int tilesY = (height + TILE_SIZE - 1) >>> TILE_BITS;
+        long[][] tiles = new long[tilesX * tilesY][];
+        for (int ty = 0; ty < tilesY; ty++) {
+            for (int tx = 0; tx < tilesX; tx++) {
+                long[] tile = new long[TILE_SIZE];
+                for (int i = 0; i < TILE_SIZE && (ty << TILE_BITS) + i < height; i++) {
+                    tile[i] = map.rowWord((ty << TILE_BITS) + i, tx << TILE_BITS);
+                }
+                tiles[tx + ty * tilesX] = tile;
+            }
+        }
+        return new MapSnapshot(width, height, 0, tilesX, tiles);
+    }
+
+    /**
+     * Gets version of the snapshot. Every change increases version by one.
+     *
+     * @return Version.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Makes new snapshot where node is changed. Only the tile of the node is
+     * copied. Coordinates are not checked.
+     *
+     * @param x x-coordinate.
+     * @param y y-coordinate.
+     * @param wall True for wall and false for empty.
+     * @return New snapshot, or this snapshot if node already was as wanted.
+     */
+    public MapSnapshot withWall(int x, int y, boolean wall) {
+        if (isWall(x, y) == wall) {
+            return this;
+        }
+        int t = tileIndex(x, y);
+        long[][] newTiles = new long[tiles.length][];
+        System.arraycopy(tiles, 0, newTiles, 0, tiles.length);
+        long[] tile = new long[TILE_SIZE];
+        System.arraycopy(tiles[t], 0, tile, 0, TILE_SIZE);
+        // Shift uses only the lowest 6 bits of x
+        tile[y & (TILE_SIZE - 1)] ^= 1L << x;
+        newTiles[t] = tile;
+        return new MapSnapshot(getWidth(), getHeight(), version + 1, tilesX, newTiles);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isWall(int x, int y) {
+        return (tiles[tileIndex(x, y)][y & (TILE_SIZE - 1)] & (1L << x)) != 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long rowWord(int y, int x) {
+        // Tiles are as wide as words so a word is one row of a tile
+        return tiles[tileIndex(x, y)][y & (TILE_SIZE - 1)];
+    }
+
+    /**
+     * Snapshots can't be changed, use withWall().
+     *
+     * @throws UnsupportedOperationException Always.
+     */
+    @Override
+    public void setWall(int x, int y, boolean wall) throws UnsupportedOperationException {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Checks if both snapshots use the same tile for the node. Used for
+     * testing that unchanged tiles are shared.
+     */
+    boolean sharesTile(MapSnapshot other, int x, int y) {
+        return tiles[tileIndex(x, y)] == other.tiles[tileIndex(x, y)];
+    }
+
+    private int tileIndex(int x, int y) {
+        return (x >>> TILE_BITS) + (y >>> TILE_BITS) * tilesX;
+    }
+}
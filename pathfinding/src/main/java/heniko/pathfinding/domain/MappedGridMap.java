@@ -0,0 +1,59 @@
+package heniko.pathfinding.domain;
+
+import java.nio.LongBuffer;
+
+/**
+ * GridMap that reads walls straight from a buffer, usually a memory-mapped
+ * file (see BinaryMapFile). Rows are stored like in GridMap so no walls are
+ * copied when the map is loaded. Map can't be changed, copy it to GridMap
+ * with GridMap.fromArray(map.toArray(), ...) if changes are needed.
+ *
+ * @author Niko Hernesniemi
+ */
+public final class MappedGridMap extends GridMap {
+
+    private final LongBuffer words;
+
+    /**
+     * Constructor for MappedGridMap.
+     *
+     * @param width Size of the map in x-axis
+     * @param height Size of the map in y-axis
+     * @param words Row words of the map, ceil(width / 64) words for each row
+     * @throws IllegalArgumentException Buffer has wrong size.
+     */
+    public MappedGridMap(int width, int height, LongBuffer words) throws IllegalArgumentException {
+        super(width, height, null);
+        if (words.limit() != getWordsPerRow() * height) {
+            throw new IllegalArgumentException();
+        }
+        this.words = words;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isWall(int x, int y) {
+        // Shift uses only the lowest 6 bits of x
+        return (words.get(y * getWordsPerRow() + (x >>> 6)) & (1L << x)) != 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long rowWord(int y, int x) {
+        return words.get(y * getWordsPerRow() + (x >>> 6));
+    }
+
+    /**
+     * Mapped maps can't be changed.
+     *
+     * @throws UnsupportedOperationException Always.
+     */
+    @Override
+    public void setWall(int x, int y, boolean wall) throws UnsupportedOperationException {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -0,0 +1,59 @@
+package heniko.pathfinding.domain;
+
+/**
+ * Interface for open lists of cell ids used by pathfinding algorithms.
+ *
+ * @author Niko Hernesniemi
+ */
+public interface OpenList {
+
+    /**
+     * Adds cell to open list with given priority. Implementation decides what
+     * happens if the cell is already in the list.
+     *
+     * @param cell Cell id.
+     * @param priority Priority of the cell, lower value is handled first.
+     */
+    void add(int cell, double priority);
+
+    /**
+     * Returns the highest priority cell and removes it from the list.
+     *
+     * @return Highest priority cell or -1 if list is empty.
+     */
+    int poll();
+
+    /**
+     * Returns priority of the highest priority cell.
+     *
+     * @return Lowest priority value in list.
+     * @throws IndexOutOfBoundsException List is empty.
+     */
+    double peekPriority() throws IndexOutOfBoundsException;
+
+    /**
+     * Checks if list is empty.
+     *
+     * @return True if list is empty.
+     */
+    boolean isEmpty();
+
+    /**
+     * Gets the number of entries in list.
+     *
+     * @return Number of entries.
+     */
+    int size();
+
+    /**
+     * Gets the largest size list has had since it was created or cleared.
+     *
+     * @return Peak size.
+     */
+    int getPeakSize();
+
+    /**
+     * Removes all cells from the list.
+     */
+    void clear();
+}
@@ -0,0 +1,346 @@
+package heniko.pathfinding.domain;
+
+import heniko.pathfinding.util.ColouredNode;
+import heniko.pathfinding.util.Node;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * {@inheritDoc} This implementation uses bidirectional A* where forward and
+ * backward searches run at the same time in different threads. Forward search
+ * runs in the calling thread and backward search in a thread of a pool that is
+ * shared by all parallel searches, so no thread is started for a query.
+ *
+ * Both searches publish their g values to SharedGScores so the other search
+ * can see when they meet. Shared g values and the backward workspace can be
+ * reused between queries like the workspace of the forward search. Best path
+ * length is shared and either search can stop both when it has no nodes left
+ * with f value smaller than the best length.
+ *
+ * @author Niko Hernesniemi
+ */
+public final class ParallelBidirectionalAStar extends Pathfinder {
+
+    // Threads are kept alive between queries and don't keep the program
+    // running
+    private static final ExecutorService BACKWARD_SEARCHES = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "backward-search");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private SearchWorkspace backwardWorkspace;
+    private SharedGScores sharedG;
+    private final Object meetLock = new Object();
+    private final Object changeLock = new Object();
+    private volatile double bestLength;
+    private int meetCell;
+
+    /**
+     * Constructor for parallel bidirectional A* pathfinding algorithm.
+     *
+     * @param start Start node
+     * @param end End node
+     * @param map Information about walls for algorithm
+     * @param changes Logger for keeping track of the changes needed in order to
+     * visualise the algorithm
+     * @param heuristic Heuristic for calculating h-value of the node
+     */
+    public ParallelBidirectionalAStar(Node start, Node end, GridMap map, List<ColouredNode> changes, Heuristic heuristic) {
+        super(start, end, map, changes, heuristic);
+    }
+
+    /**
+     * Constructor for parallel bidirectional A* pathfinding algorithm.
+     * Changes are logged to change log.
+     *
+     * @param start Start node
+     * @param end End node
+     * @param map Information about walls for algorithm
+     * @param changeLog Log for keeping track of the changes needed in order
+     * to visualise the algorithm
+     * @param heuristic Heuristic for calculating h-value of the node
+     */
+    public ParallelBidirectionalAStar(Node start, Node end, GridMap map, ChangeLog changeLog, Heuristic heuristic) {
+        super(start, end, map, changeLog, heuristic);
+    }
+
+    /**
+     * Constructor for parallel bidirectional A* pathfinding algorithm.
+     * ParallelBidirectionalAStar constructed with this constructor will not
+     * have change logger.
+     *
+     * @param start Start node
+     * @param end End node
+     * @param map Information about walls for algorithm
+     * @param heuristic Heuristic for calculating h-value of the node
+     */
+    public ParallelBidirectionalAStar(Node start, Node end, GridMap map, Heuristic heuristic) {
+        super(start, end, map, heuristic);
+    }
+
+    /**
+     * Sets workspace for backward search. Workspace set with setWorkspace() is
+     * used by forward search so these must be different workspaces.
+     *
+     * @param workspace Workspace made for graph of the same size.
+     * @throws IllegalArgumentException Workspace was made for graph of
+     * different size.
+     */
+    public void setBackwardWorkspace(SearchWorkspace workspace) throws IllegalArgumentException {
+        if (!workspace.fits(sizeX, sizeY)) {
+            throw new IllegalArgumentException();
+        }
+        this.backwardWorkspace = workspace;
+    }
+
+    /**
+     * Sets g values the searches publish to each other. Without them every
+     * search allocates its own.
+     *
+     * @param sharedG Shared g values made for graph of the same size.
+     * @throws IllegalArgumentException Shared g values were made for graph of
+     * different size.
+     */
+    public void setSharedGScores(SharedGScores sharedG) throws IllegalArgumentException {
+        if (!sharedG.fits(sizeX, sizeY)) {
+            throw new IllegalArgumentException();
+        }
+        this.sharedG = sharedG;
+    }
+
+    /**
+     * {@inheritDoc} Parallel bidirectional A* pathfinding algorithm will be
+     * used. Peak open list size is the sum of the peaks of both searches.
+     */
+    @Override
+    protected List<Node> search() {
+        if (isKnownUnreachable()) {
+            return new List<>();
+        }
+        SearchWorkspace fws = borrowWorkspace();
+        // Backward workspace and shared g values are part of the setup too
+        enterPhase(SearchStats.SETUP);
+        SearchWorkspace bws = backwardWorkspace != null ? backwardWorkspace : new SearchWorkspace(sizeX, sizeY);
+        bws.reset();
+        int startCell = toCell(start.getX(), start.getY());
+        int endCell = toCell(end.getX(), end.getY());
+        bestLength = Double.POSITIVE_INFINITY;
+        meetCell = -1;
+
+        // Forward search can't enter walls so there is no path to wall
+        if (map.isWall(end.getX(), end.getY())) {
+            return new List<>();
+        }
+        if (startCell == endCell) {
+            bestLength = 0;
+            meetCell = startCell;
+        }
+
+        SharedGScores shared = sharedG != null ? sharedG : new SharedGScores(sizeX, sizeY);
+        shared.reset();
+        AtomicBoolean done = new AtomicBoolean(false);
+        Side forward = new Side(fws, shared, SharedGScores.FORWARD, startCell, end, done);
+        Side backward = new Side(bws, shared, SharedGScores.BACKWARD, endCell, start, done);
+        enterPhase(SearchStats.SEARCH);
+
+        // Submitting the task publishes everything written above to it
+        Future<?> backwardSearch = BACKWARD_SEARCHES.submit(backward);
+        forward.run();
+        try {
+            backwardSearch.get();
+        } catch (InterruptedException e) {
+            done.set(true);
+            Thread.currentThread().interrupt();
+            return new List<>();
+        } catch (ExecutionException e) {
+            // Side catches its own errors so this should not happen
+            throw new RuntimeException(e.getCause());
+        }
+        if (forward.error != null || backward.error != null) {
+            throw new RuntimeException(forward.error != null ? forward.error : backward.error);
+        }
+
+        stalePops = forward.stale + backward.stale;
+        expandedCount = forward.expanded + backward.expanded;
+        if (stats != null) {
+            // Sides count to their own fields so threads don't share counters
+            stats.accumulate(forward.generated + backward.generated, forward.pushes + backward.pushes, 0, 0);
+        }
+        peakOpenListSize = fws.getHeap().getPeakSize() + bws.getHeap().getPeakSize();
+        if (meetCell == -1) {
+            return new List<>();
+        }
+        // Searches may have found shorter routes to the meeting node after it
+        // was recorded so length is taken from the final g values
+        pathLength = fws.getG(meetCell) + bws.getG(meetCell);
+        return reconstructPath(fws, bws);
+    }
+
+    private void logConcurrentChange(int x, int y, int color) {
+        if (logging) {
+            synchronized (changeLock) {
+                logChange(x, y, color);
+            }
+        }
+    }
+
+    private void offerMeeting(int cell, double length) {
+        if (length < bestLength) {
+            synchronized (meetLock) {
+                if (length < bestLength) {
+                    bestLength = length;
+                    meetCell = cell;
+                }
+            }
+        }
+    }
+
+    private List<Node> reconstructPath(SearchWorkspace fws, SearchWorkspace bws) {
+        enterPhase(SearchStats.PATH);
+        List<Node> path = new List<>();
+        // From meeting node to start with forward parents
+        int current = meetCell;
+        while (current != -1) {
+            path.add(new Node(cellX(current), cellY(current)));
+            current = fws.getParent(current);
+        }
+        path.reverse();
+        // From meeting node to end with backward parents
+        current = bws.getParent(meetCell);
+        while (current != -1) {
+            path.add(new Node(cellX(current), cellY(current)));
+            current = bws.getParent(current);
+        }
+        return path;
+    }
+
+    /**
+     * One direction of the search. Workspace and open list are used only by
+     * the thread running this side.
+     */
+    private final class Side implements Runnable {
+
+        private final SearchWorkspace ws;
+        private final OpenList openList;
+        private final SharedGScores shared;
+        private final int side;
+        private final int otherSide;
+        private final Node target;
+        private final AtomicBoolean done;
+        private final boolean reachesOther;
+        private final boolean counting;
+        private int stale;
+        private int expanded;
+        private int generated;
+        private int pushes;
+        private Throwable error;
+
+        Side(SearchWorkspace ws, SharedGScores shared, int side, int origin, Node target, AtomicBoolean done) {
+            // Searches can't enter walls. Backward search can't reach start
+            // inside a wall so running out of nodes doesn't prove anything.
+            this.reachesOther = !map.isWall(target.getX(), target.getY());
+            this.ws = ws;
+            this.openList = ws.getHeap();
+            this.shared = shared;
+            this.side = side;
+            this.otherSide = 1 - side;
+            this.target = target;
+            this.done = done;
+            this.counting = stats != null;
+            ws.setG(origin, 0);
+            ws.setParent(origin, -1);
+            ws.open(origin);
+            shared.publish(side, origin, 0);
+            generated = 1;
+            pushes = 1;
+            openList.add(origin, heuristic.getHValue(cellX(origin), cellY(origin), target.getX(), target.getY()));
+        }
+
+        @Override
+        public void run() {
+            boolean stopBoth = true;
+            try {
+                stopBoth = search();
+            } catch (RuntimeException | Error e) {
+                error = e;
+            } finally {
+                if (stopBoth) {
+                    done.set(true);
+                }
+            }
+        }
+
+        /**
+         * Runs search until it is done or the other side stops it.
+         *
+         * @return True if the other side should be stopped too.
+         */
+        private boolean search() {
+            while (!done.get()) {
+                // Running out of nodes means everything reachable from this
+                // side has been handled
+                if (openList.isEmpty()) {
+                    return reachesOther;
+                }
+                int cCell = openList.poll();
+                if (ws.isClosed(cCell)) {
+                    stale++;
+                    continue;
+                }
+                int cx = cellX(cCell);
+                int cy = cellY(cCell);
+
+                // Same stopping condition as in BidirectionalAStar, one side is
+                // enough to prove that the best path has been found
+                if (ws.getG(cCell) + heuristic.getHValue(cx, cy, target.getX(), target.getY()) >= bestLength) {
+                    return true;
+                }
+
+                logConcurrentChange(cx, cy, 6);
+                ws.close(cCell);
+                expanded++;
+                expand(cCell, cx, cy);
+            }
+            return true;
+        }
+
+        private void expand(int cCell, int cx, int cy) {
+            int mask = getNeighbourMask(cx, cy);
+            while (mask != 0) {
+                int d = Integer.numberOfTrailingZeros(mask);
+                mask &= mask - 1;
+                int nx = cx + Directions.DX[d];
+                int ny = cy + Directions.DY[d];
+
+                int result = relax(ws, openList, cCell, nx, ny, d, target);
+                if (result == CLOSED) {
+                    continue;
+                }
+                int nCell = toCell(nx, ny);
+                if (result != UNCHANGED) {
+                    if (result == GENERATED) {
+                        logConcurrentChange(nx, ny, 5);
+                    }
+                    if (counting) {
+                        pushes++;
+                        if (result == GENERATED) {
+                            generated++;
+                        }
+                    }
+                    // Publish before reading the other side. If both
+                    // searches reach the node at the same time at least one
+                    // of them sees the value of the other.
+                    shared.publish(side, nCell, ws.getG(nCell));
+                }
+
+                if (shared.isPublished(otherSide, nCell)) {
+                    offerMeeting(nCell, ws.getG(nCell) + shared.get(otherSide, nCell));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package heniko.pathfinding.domain;
+
+import heniko.pathfinding.util.Node;
+
+/**
+ * Bounded cache for paths. Paths are identified by map version, algorithm
+ * number and start and end nodes. When cache has too many entries or uses too
+ * much memory the least recently used paths are removed.
+ *
+ * Entries are kept in a hash table and in a doubly linked list where the most
+ * recently used entry is first. Methods are synchronized so the same cache
+ * can be used by many threads.
+ *
+ * @author Niko Hernesniemi
+ */
+public class PathCache {
+
+    private final int maxEntries;
+    private final long maxBytes;
+    private Entry[] table;
+    // Most recently used entry is head and least recently used is tail
+    private Entry head;
+    private Entry tail;
+    private int size;
+    private long bytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Constructor for PathCache.
+     *
+     * @param maxEntries Maximum number of paths in the cache
+     * @param maxBytes Maximum estimated memory used by the paths
+     * @throws IllegalArgumentException Limits were too low.
+     */
+    public PathCache(int maxEntries, long maxBytes) throws IllegalArgumentException {
+        if (maxEntries < 1 || maxBytes < 1) {
+            throw new IllegalArgumentException();
+        }
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.table = new Entry[16];
+    }
+
+    /**
+     * Gets cached path.
+     *
+     * @param version Version of the map
+     * @param algorithm Number of the algorithm
+     * @param start Start node
+     * @param end End node
+     * @return Cached path or null if it was not found.
+     */
+    public synchronized CachedPath get(long version, int algorithm, Node start, Node end) {
+        Entry e = find(version, algorithm, start.getX(), start.getY(), end.getX(), end.getY());
+        if (e == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        unlink(e);
+        linkFirst(e);
+        return e.path;
+    }
+
+    /**
+     * Adds path to the cache. Old path with the same key is replaced.
+     *
+     * @param version Version of the map
+     * @param algorithm Number of the algorithm
+     * @param start Start node
+     * @param end End node
+     * @param path Path to store
+     */
+    public synchronized void put(long version, int algorithm, Node start, Node end, CachedPath path) {
+        int sx = start.getX();
+        int sy = start.getY();
+        int ex = end.getX();
+        int ey = end.getY();
+        Entry e = find(version, algorithm, sx, sy, ex, ey);
+        if (e != null) {
+            remove(e);
+        }
+        e = new Entry(version, algorithm, sx, sy, ex, ey, path);
+        int i = index(e.hash, table.length);
+        e.hashNext = table[i];
+        table[i] = e;
+        linkFirst(e);
+        size++;
+        bytes += path.getSizeInBytes();
+        if (size > table.length * 3 / 4) {
+            resize();
+        }
+        // Newest entry is kept even if it alone is over the memory limit
+        while (size > 1 && (size > maxEntries || bytes > maxBytes)) {
+            remove(tail);
+            evictions++;
+        }
+    }
+
+    /**
+     * Gets path from the cache or solves and caches it if it was not found.
+     *
+     * @param pf Pathfinder for the query
+     * @param version Version of the map pathfinder uses
+     * @param algorithm Number of the algorithm pathfinder uses
+     * @return Path and its length.
+     */
+    public CachedPath solve(Pathfinder pf, long version, int algorithm) {
+        CachedPath path = get(version, algorithm, pf.getStart(), pf.getEnd());
+        if (path == null) {
+            List<Node> nodes = pf.solve();
+            path = CachedPath.encode(nodes, pf.getPathLength());
+            put(version, algorithm, pf.getStart(), pf.getEnd(), path);
+        }
+        return path;
+    }
+
+    /**
+     * Removes all paths. Statistics are not reset.
+     */
+    public synchronized void clear() {
+        table = new Entry[16];
+        head = null;
+        tail = null;
+        size = 0;
+        bytes = 0;
+    }
+
+    /**
+     * Gets the number of paths in cache.
+     *
+     * @return Number of paths.
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Gets estimated memory used by the cached paths.
+     *
+     * @return Size in bytes.
+     */
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Gets the number of times get() found the path.
+     *
+     * @return Number of hits.
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Gets the number of times get() didn't find the path.
+     *
+     * @return Number of misses.
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Gets the number of paths removed because cache was full.
+     *
+     * @return Number of evictions.
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    private Entry find(long version, int algorithm, int sx, int sy, int ex, int ey) {
+        int hash = hash(version, algorithm, sx, sy, ex, ey);
+        Entry e = table[index(hash, table.length)];
+        while (e != null) {
+            if (e.hash == hash && e.version == version && e.algorithm == algorithm
+                    && e.sx == sx && e.sy == sy && e.ex == ex && e.ey == ey) {
+                return e;
+            }
+            e = e.hashNext;
+        }
+        return null;
+    }
+
+    private void remove(Entry e) {
+        int i = index(e.hash, table.length);
+        if (table[i] == e) {
+            table[i] = e.hashNext;
+        } else {
+            Entry prev = table[i];
+            while (prev.hashNext != e) {
+                prev = prev.hashNext;
+            }
+            prev.hashNext = e.hashNext;
+        }
+        unlink(e);
+        size--;
+        bytes -= e.path.getSizeInBytes();
+    }
+
+    private void linkFirst(Entry e) {
+        e.prev = null;
+        e.next = head;
+        if (head != null) {
+            head.prev = e;
+        }
+        head = e;
+        if (tail == null) {
+            tail = e;
+        }
+    }
+
+    private void unlink(Entry e) {
+        if (e.prev != null) {
+            e.prev.next = e.next;
+        } else {
+            head = e.next;
+        }
+        if (e.next != null) {
+            e.next.prev = e.prev;
+        } else {
+            tail = e.prev;
+        }
+        e.prev = null;
+        e.next = null;
+    }
+
+    private void resize() {
+        Entry[] newTable = new Entry[table.length * 2];
+        for (Entry bucket : table) {
+            Entry e = bucket;
+            while (e != null) {
+                Entry next = e.hashNext;
+                int i = index(e.hash, newTable.length);
+                e.hashNext = newTable[i];
+                newTable[i] = e;
+                e = next;
+            }
+        }
+        table = newTable;
+    }
+
+    private static int hash(long version, int algorithm, int sx, int sy, int ex, int ey) {
+        int h = Long.hashCode(version);
+        h = h * 31 + algorithm;
+        h = h * 31 + sx;
+        h = h * 31 + sy;
+        h = h * 31 + ex;
+        h = h * 31 + ey;
+        // Spread high bits since table size is power of two
+        return h ^ (h >>> 16);
+    }
+
+    private static int index(int hash, int length) {
+        return hash & (length - 1);
+    }
+
+    private static final class Entry {
+
+        private final long version;
+        private final int algorithm;
+        private final int sx;
+        private final int sy;
+        private final int ex;
+        private final int ey;
+        private final int hash;
+        private final CachedPath path;
+        private Entry hashNext;
+        private Entry prev;
+        private Entry next;
+
+        Entry(long version, int algorithm, int sx, int sy, int ex, int ey, CachedPath path) {
+            this.version = version;
+            this.algorithm = algorithm;
+            this.sx = sx;
+            this.sy = sy;
+            this.ex = ex;
+            this.ey = ey;
+            this.hash = hash(version, algorithm, sx, sy, ex, ey);
+            this.path = path;
+        }
+    }
+}
@@ -11,41 +11,103 @@ import heniko.pathfinding.util.Node;
  */
 public abstract class Pathfinder {
 
+    // Results of relax()
+    protected static final int CLOSED = -1;
+    protected static final int UNCHANGED = 0;
+    protected static final int IMPROVED = 1;
+    protected static final int GENERATED = 2;
+
     protected final double SQRT2 = Math.sqrt(2);
     protected final Node start;
     protected final Node end;
     protected final int sizeX;
     protected final int sizeY;
-    protected final boolean[][] isWall;
+    protected final GridMap map;
     protected final List<ColouredNode> changes;
+    protected final ChangeLog changeLog;
     protected final Heuristic heuristic;
     protected double pathLength;
     protected boolean logging;
+    protected int stalePops;
+    protected int peakOpenListSize;
+    protected int expandedCount;
+    protected SearchStats stats;
+    private SearchWorkspace workspace;
+    private ComponentIndex componentIndex;
 
     /**
      * Constructor for abstract class Pathfinder.
      *
      * @param start Start node
      * @param end End node
-     * @param sizeX Size of the graph in x-axis
-     * @param sizeY Size of the boar in y-axis
-     * @param isWall Information about walls for algorithm
+     * @param map Information about walls for algorithm
      * @param changes Logger for keeping track of the changes needed in order to
      * visualise the algorithm
      * @param heuristic Heuristic for calculating h-value of the node
      */
-    public Pathfinder(Node start, Node end, int sizeX, int sizeY, boolean[][] isWall, List<ColouredNode> changes, Heuristic heuristic) {
+    public Pathfinder(Node start, Node end, GridMap map, List<ColouredNode> changes, Heuristic heuristic) {
+        this(start, end, map, changes, null, heuristic);
+    }
+
+    /**
+     * Constructor for abstract class Pathfinder. Changes are packed to ints in
+     * the change log instead of creating objects for them.
+     *
+     * @param start Start node
+     * @param end End node
+     * @param map Information about walls for algorithm
+     * @param changeLog Log for keeping track of the changes needed in order
+     * to visualise the algorithm
+     * @param heuristic Heuristic for calculating h-value of the node
+     */
+    public Pathfinder(Node start, Node end, GridMap map, ChangeLog changeLog, Heuristic heuristic) {
+        this(start, end, map, null, changeLog, heuristic);
+    }
+
+    private Pathfinder(Node start, Node end, GridMap map, List<ColouredNode> changes, ChangeLog changeLog, Heuristic heuristic) {
         this.start = start;
         this.end = end;
-        this.sizeX = sizeX;
-        this.sizeY = sizeY;
-        this.isWall = isWall;
+        this.sizeX = map.getWidth();
+        this.sizeY = map.getHeight();
+        this.map = map;
         this.changes = changes;
+        this.changeLog = changeLog;
         this.heuristic = heuristic;
         this.pathLength = 0;
         this.logging = true;
     }
 
+    /**
+     * Constructor for abstract class Pathfinder. Pathfinder constructed with
+     * this constructor will not log changes.
+     *
+     * @param start Start node
+     * @param end End node
+     * @param map Information about walls for algorithm
+     * @param heuristic Heuristic for calculating h-value of the node
+     */
+    public Pathfinder(Node start, Node end, GridMap map, Heuristic heuristic) {
+        this(start, end, map, new List<>(), heuristic);
+        this.logging = false;
+    }
+
+    /**
+     * Constructor for abstract class Pathfinder. Walls will be copied to
+     * GridMap so later changes to isWall are not seen by the algorithm.
+     *
+     * @param start Start node
+     * @param end End node
+     * @param sizeX Size of the graph in x-axis
+     * @param sizeY Size of the boar in y-axis
+     * @param isWall Information about walls for algorithm
+     * @param changes Logger for keeping track of the changes needed in order to
+     * visualise the algorithm
+     * @param heuristic Heuristic for calculating h-value of the node
+     */
+    public Pathfinder(Node start, Node end, int sizeX, int sizeY, boolean[][] isWall, List<ColouredNode> changes, Heuristic heuristic) {
+        this(start, end, GridMap.fromArray(isWall, sizeX, sizeY), changes, heuristic);
+    }
+
     /**
      * Constructor for abstract class Pathfinder. Pathfinder constructed with
      * this constructor will not log changes.
@@ -58,24 +120,82 @@ public abstract class Pathfinder {
      * @param heuristic Heuristic for calculating h-value of the node
      */
     public Pathfinder(Node start, Node end, int sizeX, int sizeY, boolean[][] isWall, Heuristic heuristic) {
-        this.start = start;
-        this.end = end;
-        this.sizeX = sizeX;
-        this.sizeY = sizeY;
-        this.isWall = isWall;
-        this.changes = new List<>();
-        this.heuristic = heuristic;
-        this.pathLength = 0;
-        this.logging = false;
+        this(start, end, GridMap.fromArray(isWall, sizeX, sizeY), heuristic);
+    }
+
+    /**
+     * Solves path from start node to end node. If statistics have been set
+     * with setStats() they are collected during the search.
+     *
+     * @return Path as a list of nodes. Contains start and end nodes. Empty list
+     * will be returned is path doesn't exist.
+     */
+    public final List<Node> solve() {
+        if (stats == null) {
+            return search();
+        }
+        stats.begin();
+        List<Node> path = search();
+        stats.finish(this);
+        return path;
     }
 
     /**
-     * Solves path from start node to end node.
+     * Searches path from start node to end node.
      *
      * @return Path as a list of nodes. Contains start and end nodes. Empty list
      * will be returned is path doesn't exist.
      */
-    public abstract List<Node> solve();
+    protected abstract List<Node> search();
+
+    /**
+     * Sets statistics that are collected during every solve(). Without
+     * statistics only expanded nodes, stale pops and peak open list size are
+     * counted.
+     *
+     * @param stats Statistics or null to stop collecting them.
+     */
+    public void setStats(SearchStats stats) {
+        this.stats = stats;
+    }
+
+    /**
+     * Gets statistics set with setStats().
+     *
+     * @return Statistics or null.
+     */
+    public SearchStats getStats() {
+        return stats;
+    }
+
+    /**
+     * Starts timing the next phase of solve() if statistics are collected.
+     *
+     * @param phase Phase, see SearchStats.
+     */
+    protected void enterPhase(int phase) {
+        if (stats != null) {
+            stats.enterPhase(phase);
+        }
+    }
+
+    /**
+     * Gets start node.
+     *
+     * @return Start node.
+     */
+    public Node getStart() {
+        return start;
+    }
+
+    /**
+     * Gets end node.
+     *
+     * @return End node.
+     */
+    public Node getEnd() {
+        return end;
+    }
 
     /**
      * Gets the path length. If no path exists returns 0. If graph isn't solved
@@ -88,69 +208,235 @@ public abstract class Pathfinder {
     }
 
     /**
-     * Gets adjacency list for given node.
+     * Gets the number of nodes taken from open list in last solve() that had
+     * already been handled.
      *
-     * @param x x-coordinate.
-     * @param y y-coordinate.
-     * @return List containing the adjacent nodes.
+     * @return Number of stale nodes.
      */
-    protected List<Node> getAdjList(int x, int y) {
-        List<Node> adjList = new List<>();
-        /*
-        Edge numbers
-        7 |  0  | 1
-        6 |node | 2
-        5 |  4  | 3
-        (For now at least) we are not going to allow skipping corners
-        so if for example 2 is a wall then 1 would not be adjacent.
+    public int getStalePops() {
+        return stalePops;
+    }
 
-        Offsets:
-        x-1,y+1|x,y+1|x+1,y+1
-        x-1,y  |node |x+1,y
-        x-1,y-1|x,y-1|x+1,y-1
-         */
-        boolean e0 = false, e2 = false, e4 = false, e6 = false;
+    /**
+     * Gets the number of nodes expanded in last solve(). Every node is
+     * counted when it is taken from the open list and handled.
+     *
+     * @return Number of expanded nodes.
+     */
+    public int getExpandedCount() {
+        return expandedCount;
+    }
 
-        // Check vertical and horizon
-        if (isInsideGraph(x, y + 1) && !isWall[x][y + 1]) {
-            e0 = true;
-        }
-        if (isInsideGraph(x + 1, y) && !isWall[x + 1][y]) {
-            e2 = true;
-        }
-        if (isInsideGraph(x, y - 1) && !isWall[x][y - 1]) {
-            e4 = true;
-        }
-        if (isInsideGraph(x - 1, y) && !isWall[x - 1][y]) {
-            e6 = true;
+    /**
+     * Gets the largest number of entries open list had in last solve().
+     *
+     * @return Peak open list size.
+     */
+    public int getPeakOpenListSize() {
+        return peakOpenListSize;
+    }
+
+    /**
+     * Sets workspace that will be reused by solve() instead of allocating new
+     * arrays for every search. Same workspace can be shared by different
+     * pathfinders as long as they are not solving at the same time.
+     *
+     * @param workspace Workspace made for graph of the same size.
+     * @throws IllegalArgumentException Workspace was made for graph of
+     * different size.
+     */
+    public void setWorkspace(SearchWorkspace workspace) throws IllegalArgumentException {
+        if (!workspace.fits(sizeX, sizeY)) {
+            throw new IllegalArgumentException();
         }
+        this.workspace = workspace;
+    }
 
-        // Add vertical and horizontal adjacent nodes
-        if (e0) {
-            adjList.add(new Node(x, y + 1));
+    /**
+     * Sets component index that is checked before searching. If start and end
+     * are in different components solve() returns empty list without
+     * searching. Index must be built from the current walls of the map.
+     *
+     * @param componentIndex Index made for graph of the same size or null.
+     * @throws IllegalArgumentException Index was made for graph of different
+     * size.
+     */
+    public void setComponentIndex(ComponentIndex componentIndex) throws IllegalArgumentException {
+        if (componentIndex != null && (componentIndex.getWidth() != sizeX || componentIndex.getHeight() != sizeY)) {
+            throw new IllegalArgumentException();
         }
-        if (e2) {
-            adjList.add(new Node(x + 1, y));
+        this.componentIndex = componentIndex;
+    }
+
+    /**
+     * Checks component index if one has been set.
+     *
+     * @return True if it is known that path doesn't exist.
+     */
+    protected boolean isKnownUnreachable() {
+        return componentIndex != null
+                && componentIndex.isUnreachable(start.getX(), start.getY(), end.getX(), end.getY());
+    }
+
+    /**
+     * Counts node that was found for the first time and added to open list if
+     * statistics are collected.
+     */
+    protected void countGenerated() {
+        if (stats != null) {
+            stats.accumulate(1, 1, 0, 0);
         }
-        if (e4) {
-            adjList.add(new Node(x, y - 1));
+    }
+
+    /**
+     * Counts entry added to open list for node that had been found before if
+     * statistics are collected.
+     */
+    protected void countPush() {
+        if (stats != null) {
+            stats.accumulate(0, 1, 0, 0);
         }
-        if (e6) {
-            adjList.add(new Node(x - 1, y));
+    }
+
+    /**
+     * Counts jump if statistics are collected.
+     */
+    protected void countJump() {
+        if (stats != null) {
+            stats.accumulate(0, 0, 1, 0);
         }
+    }
 
-        // Add diagonal adjacent nodes to list
-        if (e0 && e2 && !isWall[x + 1][y + 1]) {
-            adjList.add(new Node(x + 1, y + 1));
+    /**
+     * Counts cells that jump went through if statistics are collected.
+     *
+     * @param cells Number of scanned cells.
+     */
+    protected void countScanned(int cells) {
+        if (stats != null) {
+            stats.accumulate(0, 0, 0, cells);
         }
-        if (e2 && e4 && !isWall[x + 1][y - 1]) {
-            adjList.add(new Node(x + 1, y - 1));
+    }
+
+    /**
+     * Gets workspace for a new search. If no workspace has been set new one
+     * will be created. Also resets open list statistics and starts the search
+     * phase of the statistics.
+     *
+     * @return Workspace that has been reset.
+     */
+    protected SearchWorkspace borrowWorkspace() {
+        SearchWorkspace ws = workspace != null ? workspace : new SearchWorkspace(sizeX, sizeY);
+        ws.reset();
+        stalePops = 0;
+        peakOpenListSize = 0;
+        expandedCount = 0;
+        enterPhase(SearchStats.SEARCH);
+        return ws;
+    }
+
+    /**
+     * Packs coordinates to cell id.
+     *
+     * @param x x-coordinate.
+     * @param y y-coordinate.
+     * @return Cell id.
+     */
+    protected int toCell(int x, int y) {
+        return y * sizeX + x;
+    }
+
+    /**
+     * Gets x-coordinate of cell id.
+     *
+     * @param cell Cell id.
+     * @return x-coordinate.
+     */
+    protected int cellX(int cell) {
+        return cell % sizeX;
+    }
+
+    /**
+     * Gets y-coordinate of cell id.
+     *
+     * @param cell Cell id.
+     * @return y-coordinate.
+     */
+    protected int cellY(int cell) {
+        return cell / sizeX;
+    }
+
+    /**
+     * Gets directions that can be moved to from given node as bits. See
+     * Directions for direction numbers.
+     *
+     * @param x x-coordinate.
+     * @param y y-coordinate.
+     * @return Neighbour mask.
+     */
+    protected int getNeighbourMask(int x, int y) {
+        /*
+        (For now at least) we are not going to allow skipping corners
+        so if for example 1 is a wall then 4 would not be adjacent.
+        7 |  0  | 4
+        3 |node | 1
+        6 |  2  | 5
+         */
+        return map.getNeighbourMask(x, y);
+    }
+
+    /**
+     * Relaxes the edge from current node to its neighbour, the common step of
+     * A* and its bidirectional versions. If the neighbour is seen for the
+     * first time or the new path to it is shorter, its g value and parent are
+     * updated and it is added to the open list. Logging and statistics are
+     * left to the caller since parallel search handles them differently.
+     *
+     * @param ws Workspace of the search
+     * @param openList Open list of the search
+     * @param cCell Cell id of the current node
+     * @param nx x-coordinate of the neighbour
+     * @param ny y-coordinate of the neighbour
+     * @param d Direction from current node to the neighbour
+     * @param target Node the search is heading to
+     * @return CLOSED, UNCHANGED, IMPROVED or GENERATED.
+     */
+    protected final int relax(SearchWorkspace ws, OpenList openList, int cCell, int nx, int ny, int d, Node target) {
+        int nCell = toCell(nx, ny);
+        if (ws.isClosed(nCell)) {
+            return CLOSED;
         }
-        if (e4 && e6 && !isWall[x - 1][y - 1]) {
-            adjList.add(new Node(x - 1, y - 1));
+        // For moving vertically or horizontally the cost is 1. For diagonal
+        // moves the cost is sqrt(2).
+        double ng = ws.getG(cCell) + Directions.COST[d];
+        boolean opened = ws.isOpened(nCell);
+        // Changes are made to neighbor if this is the first time we discover
+        // it or if the new g is lower than the previously stored one.
+        if (opened && ng >= ws.getG(nCell)) {
+            return UNCHANGED;
         }
-        if (e0 && e6 && !isWall[x - 1][y + 1]) {
-            adjList.add(new Node(x - 1, y + 1));
+        ws.setG(nCell, ng);
+        ws.setParent(nCell, cCell);
+        ws.open(nCell);
+        openList.add(nCell, ng + heuristic.getHValue(nx, ny, target.getX(), target.getY()));
+        return opened ? IMPROVED : GENERATED;
+    }
+
+    /**
+     * Gets adjacency list for given node. Algorithms should prefer
+     * getNeighbourMask() since it doesn't allocate.
+     *
+     * @param x x-coordinate.
+     * @param y y-coordinate.
+     * @return List containing the adjacent nodes.
+     */
+    protected List<Node> getAdjList(int x, int y) {
+        List<Node> adjList = new List<>();
+        int mask = getNeighbourMask(x, y);
+        while (mask != 0) {
+            int d = Integer.numberOfTrailingZeros(mask);
+            mask &= mask - 1;
+            adjList.add(new Node(x + Directions.DX[d], y + Directions.DY[d]));
         }
         return adjList;
     }
@@ -185,9 +471,9 @@ public abstract class Pathfinder {
         // our destination is walkable.
         int dirX = dx - sx;
         int dirY = dy - sy;
-        boolean xWalkable = !isWall[sx + dirX][sy];
-        boolean yWalkable = !isWall[sx][sy + dirY];
-        boolean dWalkable = !isWall[dx][dy];
+        boolean xWalkable = !map.isWall(sx + dirX, sy);
+        boolean yWalkable = !map.isWall(sx, sy + dirY);
+        boolean dWalkable = !map.isWall(dx, dy);
         return xWalkable && yWalkable && dWalkable;
     }
 
@@ -214,7 +500,52 @@ public abstract class Pathfinder {
      */
     protected void logChange(int x, int y, int color) {
         if (logging) {
+            if (changeLog != null) {
+                changeLog.add(x, y, color);
+                return;
+            }
             changes.enqueue(new ColouredNode(x, y, color));
         }
     }
+
+    /**
+     * Reconstructs path when parents are jump points. Nodes between jump
+     * points are filled in.
+     *
+     * @param ws Workspace of the finished search.
+     * @return Path from start to end.
+     */
+    protected List<Node> reconstructJumpPath(SearchWorkspace ws) {
+        enterPhase(SearchStats.PATH);
+        List<Node> path = new List<>();
+        Node current = end;
+        Node next = getParentNode(ws, end);
+        while (next != null) {
+            // Add current to path
+            path.add(current);
+            // Get direction to next node
+            int dx = getNormalizedDirection(current.getX(), next.getX());
+            int dy = getNormalizedDirection(current.getY(), next.getY());
+            // Add all nodes between current and next to path
+            int x = current.getX();
+            int y = current.getY();
+            while (x != next.getX() || y != next.getY()) {
+                x += dx;
+                y += dy;
+                path.add(new Node(x, y));
+            }
+            // current = next, next = parent of current
+            current = next;
+            next = getParentNode(ws, current);
+        }
+        // Add start to path since it will not be added in loop
+        path.add(start);
+        path.reverse();
+        return path;
+    }
+
+    private Node getParentNode(SearchWorkspace ws, Node node) {
+        int parent = ws.getParent(toCell(node.getX(), node.getY()));
+        return parent == -1 ? null : new Node(cellX(parent), cellY(parent));
+    }
 }
@@ -0,0 +1,23 @@
+package heniko.pathfinding.domain;
+
+import heniko.pathfinding.util.Node;
+
+/**
+ * Interface for creating pathfinders for single queries. Used by BatchSolver
+ * so that any algorithm and heuristic can be used for batches, for example
+ * {@code (start, end, map) -> new AStar(start, end, map, new DiagonalHeuristic())}.
+ *
+ * @author Niko Hernesniemi
+ */
+public interface PathfinderFactory {
+
+    /**
+     * Creates pathfinder for one query. Pathfinder should not log changes.
+     *
+     * @param start Start node
+     * @param end End node
+     * @param map Information about walls for algorithm
+     * @return New pathfinder.
+     */
+    Pathfinder create(Node start, Node end, GridMap map);
+}
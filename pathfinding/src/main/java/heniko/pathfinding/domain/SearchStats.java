@@ -0,0 +1,202 @@
+package heniko.pathfinding.domain;
+
+/**
+ * Statistics collected by a pathfinder during solve(). Collecting is turned
+ * on by giving the pathfinder a SearchStats object with setStats(), without
+ * it pathfinders only check that they have no statistics object. Statistics
+ * are reset at the start of every solve() so they describe the last query.
+ *
+ * Time of solve() is split into phases: setup (for example getting and
+ * resetting the workspace), search, refine (HPA* makes the abstract path
+ * concrete) and path (reconstructing the path from the parents).
+ *
+ * @author Niko Hernesniemi
+ */
+public final class SearchStats {
+
+    public static final int SETUP = 0;
+    public static final int SEARCH = 1;
+    public static final int REFINE = 2;
+    public static final int PATH = 3;
+    private static final int PHASES = 4;
+
+    private int generated;
+    private int heapPushes;
+    private int jumpCalls;
+    private long scannedCells;
+    private int expanded;
+    private int stalePops;
+    private int peakOpenListSize;
+    private final long[] phaseTimes;
+    private int phase;
+    private long phaseStart;
+
+    /**
+     * Constructor for SearchStats.
+     */
+    public SearchStats() {
+        phaseTimes = new long[PHASES];
+    }
+
+    /**
+     * Resets counters and starts timing the setup phase.
+     */
+    void begin() {
+        generated = 0;
+        heapPushes = 0;
+        jumpCalls = 0;
+        scannedCells = 0;
+        expanded = 0;
+        stalePops = 0;
+        peakOpenListSize = 0;
+        for (int i = 0; i < PHASES; i++) {
+            phaseTimes[i] = 0;
+        }
+        phase = SETUP;
+        phaseStart = System.nanoTime();
+    }
+
+    /**
+     * Ends current phase and starts timing the given one.
+     *
+     * @param next Next phase
+     */
+    void enterPhase(int next) {
+        long now = System.nanoTime();
+        phaseTimes[phase] += now - phaseStart;
+        phase = next;
+        phaseStart = now;
+    }
+
+    /**
+     * Adds to the counters of the current solve(). Used for single nodes and
+     * jumps as well as for adding up statistics of searches that count to
+     * their own counters, like the segments of HPA* and the threads of
+     * parallel bidirectional A*.
+     *
+     * @param generated Generated nodes
+     * @param heapPushes Entries added to the open list
+     * @param jumpCalls Jumps
+     * @param scannedCells Cells scanned while jumping
+     */
+    void accumulate(int generated, int heapPushes, int jumpCalls, long scannedCells) {
+        this.generated += generated;
+        this.heapPushes += heapPushes;
+        this.jumpCalls += jumpCalls;
+        this.scannedCells += scannedCells;
+    }
+
+    /**
+     * Adds counters of other statistics to these.
+     *
+     * @param other Statistics of another search
+     */
+    void accumulate(SearchStats other) {
+        accumulate(other.generated, other.heapPushes, other.jumpCalls, other.scannedCells);
+    }
+
+    /**
+     * Ends current phase and copies the counters every pathfinder keeps.
+     *
+     * @param pf Pathfinder that was solved
+     */
+    void finish(Pathfinder pf) {
+        phaseTimes[phase] += System.nanoTime() - phaseStart;
+        expanded = pf.getExpandedCount();
+        stalePops = pf.getStalePops();
+        peakOpenListSize = pf.getPeakOpenListSize();
+    }
+
+    /**
+     * Gets the number of nodes taken from the open list and handled.
+     *
+     * @return Number of expanded nodes.
+     */
+    public int getExpanded() {
+        return expanded;
+    }
+
+    /**
+     * Gets the number of nodes that were found for the first time.
+     *
+     * @return Number of generated nodes.
+     */
+    public int getGenerated() {
+        return generated;
+    }
+
+    /**
+     * Gets the number of entries added to the open list. Can be larger than
+     * the number of generated nodes since nodes are added again when shorter
+     * path to them is found.
+     *
+     * @return Number of heap pushes.
+     */
+    public int getHeapPushes() {
+        return heapPushes;
+    }
+
+    /**
+     * Gets the number of nodes taken from the open list that had already been
+     * handled.
+     *
+     * @return Number of stale pops.
+     */
+    public int getStalePops() {
+        return stalePops;
+    }
+
+    /**
+     * Gets the largest number of entries open list had.
+     *
+     * @return Peak open list size.
+     */
+    public int getPeakOpenListSize() {
+        return peakOpenListSize;
+    }
+
+    /**
+     * Gets the number of jumps made by jump point searches. For JPS+ every
+     * jump is a lookup from the jump table.
+     *
+     * @return Number of jump calls.
+     */
+    public int getJumpCalls() {
+        return jumpCalls;
+    }
+
+    /**
+     * Gets the number of cells jump point searches went through while
+     * jumping. Cells of straight scans are counted once for every jump that
+     * went through them.
+     *
+     * @return Number of scanned cells.
+     */
+    public long getScannedCells() {
+        return scannedCells;
+    }
+
+    /**
+     * Gets the time spent in a phase.
+     *
+     * @param phase SETUP, SEARCH, REFINE or PATH
+     * @return Time in nanoseconds.
+     * @throws IndexOutOfBoundsException Unknown phase.
+     */
+    public long getPhaseTime(int phase) throws IndexOutOfBoundsException {
+        return phaseTimes[phase];
+    }
+
+    /**
+     * Gets the time of the whole solve().
+     *
+     * @return Time in nanoseconds.
+     */
+    public long getTotalTime() {
+        long total = 0;
+        for (long time : phaseTimes) {
+            total += time;
+        }
+        return total;
+    }
+}
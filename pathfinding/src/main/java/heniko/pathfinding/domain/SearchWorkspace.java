@@ -0,0 +1,187 @@
+package heniko.pathfinding.domain;
+
+/**
+ * Reusable per-node state for pathfinding algorithms. Nodes are identified by
+ * cell ids (x + y * sizeX). Workspace can be borrowed by multiple queries on
+ * the same graph so that arrays don't have to be allocated and zeroed for
+ * every search.
+ *
+ * Instead of clearing arrays between searches every node stores the
+ * generation it was last touched in. Starting a new search only increments
+ * the current generation which makes all old values invalid.
+ *
+ * @author Niko Hernesniemi
+ */
+public class SearchWorkspace {
+
+    private final int sizeX;
+    private final int sizeY;
+    // Stamp 2 * generation = opened, 2 * generation + 1 = closed. Anything
+    // lower was written in an earlier search.
+    private final int[] stamp;
+    private final int[] parent;
+    private final double[] gScore;
+    private final OpenList heap;
+    private int generation;
+
+    /**
+     * Constructor for SearchWorkspace.
+     *
+     * @param sizeX Size of the graph in x-axis
+     * @param sizeY Size of the graph in y-axis
+     * @param indexedHeap True if open list should be IndexedCellHeap that
+     * keeps at most one entry per node. Otherwise CellHeap will be used.
+     */
+    public SearchWorkspace(int sizeX, int sizeY, boolean indexedHeap) {
+        this.sizeX = sizeX;
+        this.sizeY = sizeY;
+        this.stamp = new int[sizeX * sizeY];
+        this.parent = new int[sizeX * sizeY];
+        this.gScore = new double[sizeX * sizeY];
+        this.heap = indexedHeap ? new IndexedCellHeap(sizeX * sizeY) : new CellHeap();
+        this.generation = 0;
+    }
+
+    /**
+     * Constructor for SearchWorkspace. Open list will be CellHeap.
+     *
+     * @param sizeX Size of the graph in x-axis
+     * @param sizeY Size of the graph in y-axis
+     */
+    public SearchWorkspace(int sizeX, int sizeY) {
+        this(sizeX, sizeY, false);
+    }
+
+    /**
+     * Gets width of the graph workspace was made for.
+     *
+     * @return Width of the graph.
+     */
+    public int getSizeX() {
+        return sizeX;
+    }
+
+    /**
+     * Gets height of the graph workspace was made for.
+     *
+     * @return Height of the graph.
+     */
+    public int getSizeY() {
+        return sizeY;
+    }
+
+    /**
+     * Checks if workspace can be used for graph of given size.
+     *
+     * @param sizeX Size of the graph in x-axis
+     * @param sizeY Size of the graph in y-axis
+     * @return True if sizes match.
+     */
+    public boolean fits(int sizeX, int sizeY) {
+        return this.sizeX == sizeX && this.sizeY == sizeY;
+    }
+
+    /**
+     * Starts a new search. All nodes will be unopened and heap will be empty
+     * after this.
+     */
+    public void reset() {
+        heap.clear();
+        generation++;
+        // Stamps are 2 * generation + 1 so generation has to stay under 2^30.
+        // When it would overflow we clear the stamps once and start over.
+        if (generation >= (1 << 30)) {
+            for (int i = 0; i < stamp.length; i++) {
+                stamp[i] = 0;
+            }
+            generation = 1;
+        }
+    }
+
+    /**
+     * Gets heap for open list. Heap keeps its arrays between searches.
+     *
+     * @return Heap of cell ids.
+     */
+    public OpenList getHeap() {
+        return heap;
+    }
+
+    /**
+     * Checks if node has been opened during current search.
+     *
+     * @param cell Cell id.
+     * @return True if node is opened or closed.
+     */
+    public boolean isOpened(int cell) {
+        return stamp[cell] >= generation << 1;
+    }
+
+    /**
+     * Marks node as opened.
+     *
+     * @param cell Cell id.
+     */
+    public void open(int cell) {
+        stamp[cell] = generation << 1;
+    }
+
+    /**
+     * Checks if node has been closed during current search.
+     *
+     * @param cell Cell id.
+     * @return True if node is closed.
+     */
+    public boolean isClosed(int cell) {
+        return stamp[cell] == (generation << 1) + 1;
+    }
+
+    /**
+     * Marks node as closed.
+     *
+     * @param cell Cell id.
+     */
+    public void close(int cell) {
+        stamp[cell] = (generation << 1) + 1;
+    }
+
+    /**
+     * Gets g value of the node. Only valid if node is opened.
+     *
+     * @param cell Cell id.
+     * @return Current g value.
+     */
+    public double getG(int cell) {
+        return gScore[cell];
+    }
+
+    /**
+     * Sets g value of the node.
+     *
+     * @param cell Cell id.
+     * @param g New g value.
+     */
+    public void setG(int cell, double g) {
+        gScore[cell] = g;
+    }
+
+    /**
+     * Gets parent of the node. Only valid if node is opened.
+     *
+     * @param cell Cell id.
+     * @return Cell id of the parent or -1 if node has no parent.
+     */
+    public int getParent(int cell) {
+        return parent[cell];
+    }
+
+    /**
+     * Sets parent of the node.
+     *
+     * @param cell Cell id.
+     * @param parentCell Cell id of the parent or -1 for no parent.
+     */
+    public void setParent(int cell, int parentCell) {
+        parent[cell] = parentCell;
+    }
+}
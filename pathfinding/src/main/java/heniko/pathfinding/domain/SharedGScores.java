@@ -0,0 +1,109 @@
+package heniko.pathfinding.domain;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Reusable g values that the two searches of parallel bidirectional A*
+ * publish to each other. Like SearchWorkspace, arrays are allocated once and
+ * every published value is stamped with the generation of the search, so
+ * starting a new search only increments the generation.
+ *
+ * Forward and backward values are in separate arrays so the threads don't
+ * write to the same cache lines. Value is written before its stamp, so a
+ * reader that sees the stamp of the current search also sees a g value
+ * published in the current search.
+ *
+ * @author Niko Hernesniemi
+ */
+public class SharedGScores {
+
+    public static final int FORWARD = 0;
+    public static final int BACKWARD = 1;
+
+    private final int sizeX;
+    private final int sizeY;
+    private final AtomicLongArray[] values;
+    private final AtomicIntegerArray[] stamps;
+    // Written only between searches, threads of the search see it because
+    // they are started after reset()
+    private int generation;
+
+    /**
+     * Constructor for SharedGScores.
+     *
+     * @param sizeX Size of the graph in x-axis
+     * @param sizeY Size of the graph in y-axis
+     */
+    public SharedGScores(int sizeX, int sizeY) {
+        this.sizeX = sizeX;
+        this.sizeY = sizeY;
+        this.values = new AtomicLongArray[]{new AtomicLongArray(sizeX * sizeY), new AtomicLongArray(sizeX * sizeY)};
+        this.stamps = new AtomicIntegerArray[]{new AtomicIntegerArray(sizeX * sizeY), new AtomicIntegerArray(sizeX * sizeY)};
+        this.generation = 0;
+    }
+
+    /**
+     * Checks if g values can be used for graph of given size.
+     *
+     * @param sizeX Size of the graph in x-axis
+     * @param sizeY Size of the graph in y-axis
+     * @return True if sizes match.
+     */
+    public boolean fits(int sizeX, int sizeY) {
+        return this.sizeX == sizeX && this.sizeY == sizeY;
+    }
+
+    /**
+     * Starts a new search. No node has published g value after this. Must not
+     * be called while a search is using the values.
+     */
+    public void reset() {
+        generation++;
+        // When generation would overflow stamps are cleared once and
+        // generations start over
+        if (generation == Integer.MAX_VALUE) {
+            for (AtomicIntegerArray stamp : stamps) {
+                for (int i = 0; i < stamp.length(); i++) {
+                    stamp.set(i, 0);
+                }
+            }
+            generation = 1;
+        }
+    }
+
+    /**
+     * Publishes g value of the node.
+     *
+     * @param side FORWARD or BACKWARD
+     * @param cell Cell id.
+     * @param g New g value.
+     */
+    public void publish(int side, int cell, double g) {
+        values[side].set(cell, Double.doubleToRawLongBits(g));
+        stamps[side].set(cell, generation);
+    }
+
+    /**
+     * Checks if side has published g value of the node in the current search.
+     *
+     * @param side FORWARD or BACKWARD
+     * @param cell Cell id.
+     * @return True if node has g value.
+     */
+    public boolean isPublished(int side, int cell) {
+        return stamps[side].get(cell) == generation;
+    }
+
+    /**
+     * Gets published g value of the node. Only valid if isPublished() was
+     * true.
+     *
+     * @param side FORWARD or BACKWARD
+     * @param cell Cell id.
+     * @return Published g value.
+     */
+    public double get(int side, int cell) {
+        return Double.longBitsToDouble(values[side].get(cell));
+    }
+}
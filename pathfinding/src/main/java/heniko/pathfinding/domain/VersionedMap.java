@@ -0,0 +1,53 @@
+package heniko.pathfinding.domain;
+
+/**
+ * Map that can be changed while other threads search it. Every change
+ * publishes a new MapSnapshot and a query pins the snapshot it gets from
+ * snapshot(), so it sees the same walls from start to finish. Reading needs
+ * no locks. Changes are made one at a time.
+ *
+ * @author Niko Hernesniemi
+ */
+public class VersionedMap {
+
+    private volatile MapSnapshot current;
+
+    /**
+     * Constructor for VersionedMap.
+     *
+     * @param map Walls of the first version, map is copied
+     */
+    public VersionedMap(GridMap map) {
+        this.current = MapSnapshot.of(map);
+    }
+
+    /**
+     * Gets the newest snapshot. Snapshot never changes so it can be searched
+     * while the map is changed.
+     *
+     * @return Current snapshot.
+     */
+    public MapSnapshot snapshot() {
+        return current;
+    }
+
+    /**
+     * Gets version of the newest snapshot.
+     *
+     * @return Version.
+     */
+    public long getVersion() {
+        return current.getVersion();
+    }
+
+    /**
+     * Changes node to wall or empty by publishing a new snapshot.
+     *
+     * @param x x-coordinate.
+     * @param y y-coordinate.
+     * @param wall True for wall and false for empty.
+     */
+    public synchronized void setWall(int x, int y, boolean wall) {
+        current = current.withWall(x, y, wall);
+    }
+}
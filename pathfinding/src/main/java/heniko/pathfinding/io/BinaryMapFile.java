@@ -0,0 +1,175 @@
+package heniko.pathfinding.io;
+
+import heniko.pathfinding.domain.GridMap;
+import heniko.pathfinding.domain.MappedGridMap;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Utility for storing maps in binary format. Loading memory-maps the file so
+ * it takes almost no time even for large maps, walls are read from the file
+ * only when they are needed and processes that load the same map share the
+ * pages. Checksum of the map is verified only if asked, since that reads the
+ * whole map.
+ *
+ * File starts with header (magic number, version, width, height and checksum
+ * of the map) followed by the row words of the map as little-endian 64-bit
+ * values, see GridMap. Bits past the width in the last word of each row must
+ * be 0 since searches like block JPS read whole words.
+ *
+ * @author Niko Hernesniemi
+ */
+public final class BinaryMapFile {
+
+    private static final int MAGIC = 0x474D4150; // "GMAP"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = SidecarFile.HEADER_SIZE;
+
+    private BinaryMapFile() {
+    }
+
+    /**
+     * Gets binary file of the map file.
+     *
+     * @param mapFile Map file.
+     * @return Binary map file, for example "x.map" -> "x.map.bin".
+     */
+    public static File binaryFile(File mapFile) {
+        return new File(mapFile.getPath() + ".bin");
+    }
+
+    /**
+     * Saves map in binary format.
+     *
+     * @param map Map.
+     * @param file File to save to.
+     * @throws IOException Writing failed.
+     */
+    public static void save(GridMap map, File file) throws IOException {
+        int words = map.getWordsPerRow() * map.getHeight();
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + words * 8);
+        SidecarFile.putHeader(buffer, MAGIC, VERSION, map);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        for (int y = 0; y < map.getHeight(); y++) {
+            for (int i = 0; i < map.getWordsPerRow(); i++) {
+                buffer.putLong(map.rowWord(y, i << 6));
+            }
+        }
+        buffer.rewind();
+        try (FileChannel channel = new FileOutputStream(file).getChannel()) {
+            SidecarFile.writeFully(channel, buffer);
+        }
+    }
+
+    /**
+     * Loads map by memory-mapping the file. Checksum in the header is not
+     * verified, so only the header and the last word of every row are read.
+     *
+     * @param file Binary map file.
+     * @return Map that reads walls from the file.
+     * @throws IOException Reading failed or file is not a valid binary map
+     * file.
+     */
+    public static MappedGridMap load(File file) throws IOException {
+        return load(file, false);
+    }
+
+    /**
+     * Loads map by memory-mapping the file. Padding bits of the rows are
+     * always checked, which reads the last word of every row.
+     *
+     * @param file Binary map file.
+     * @param verifyChecksum True if checksum in the header should be
+     * verified, which reads every word of the map once
+     * @return Map that reads walls from the file.
+     * @throws IOException Reading failed or file is not a valid binary map
+     * file.
+     */
+    public static MappedGridMap load(File file, boolean verifyChecksum) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+                FileChannel channel = raf.getChannel()) {
+            long size = channel.size();
+            if (size < HEADER_SIZE) {
+                throw new IOException("Not a binary map file: " + file);
+            }
+            // Mapping stays valid after the channel has been closed
+            MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (!SidecarFile.hasMagic(data, MAGIC, VERSION)) {
+                throw new IOException("Not a binary map file: " + file);
+            }
+            int width = data.getInt();
+            int height = data.getInt();
+            long checksum = data.getLong();
+            long words = (long) ((width + 63) >>> 6) * height;
+            if (width < 0 || height < 0 || size != HEADER_SIZE + words * 8) {
+                throw new IOException("Broken binary map file: " + file);
+            }
+            data.position(HEADER_SIZE);
+            ByteBuffer rows = data.slice().order(ByteOrder.LITTLE_ENDIAN);
+            MappedGridMap map = new MappedGridMap(width, height, rows.asLongBuffer());
+            if (!hasZeroPadding(map)) {
+                throw new IOException("Broken binary map file, walls outside the map: " + file);
+            }
+            if (verifyChecksum && map.checksum() != checksum) {
+                throw new IOException("Broken binary map file, wrong checksum: " + file);
+            }
+            return map;
+        }
+    }
+
+    /**
+     * Checks that bits past the width are 0 in the last word of every row.
+     */
+    private static boolean hasZeroPadding(GridMap map) {
+        int used = map.getWidth() & 63;
+        if (used == 0) {
+            return true;
+        }
+        long padding = -1L << used;
+        int lastX = map.getWidth() - 1;
+        for (int y = 0; y < map.getHeight(); y++) {
+            if ((map.rowWord(y, lastX) & padding) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Converts map from Moving AI format to binary format.
+     *
+     * @param mapFile Map file in Moving AI format.
+     * @param file File to save to.
+     * @throws IOException Reading or writing failed.
+     */
+    public static void convert(File mapFile, File file) throws IOException {
+        MapReader mr = new MapReader(mapFile);
+        if (mr.getGridMap() == null) {
+            throw new IOException("Could not read map: " + mapFile);
+        }
+        save(mr.getGridMap(), file);
+    }
+
+    /**
+     * Loads binary file of the map. If the binary file doesn't exist, is
+     * older than the map file or is broken it will be converted first.
+     *
+     * @param mapFile Map file in Moving AI format.
+     * @return Map that reads walls from the binary file.
+     * @throws IOException Reading or writing failed.
+     */
+    public static MappedGridMap loadOrConvert(File mapFile) throws IOException {
+        return SidecarFile.loadOrBuild(binaryFile(mapFile),
+                file -> file.lastModified() >= mapFile.lastModified() ? load(file) : null,
+                file -> {
+                    convert(mapFile, file);
+                    return load(file);
+                });
+    }
+}
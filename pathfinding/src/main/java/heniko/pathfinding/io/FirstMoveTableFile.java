@@ -0,0 +1,138 @@
+package heniko.pathfinding.io;
+
+import heniko.pathfinding.domain.FirstMoveTable;
+import heniko.pathfinding.domain.GridMap;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Utility for saving first move tables next to the map file. Tables are
+ * loaded by memory-mapping the file so even large tables are ready to use
+ * right away and only the parts that are used are read from the disk.
+ *
+ * File starts with header (magic number, version, width, height, checksum of
+ * the map and the number of runs) followed by the row offsets and run starts
+ * as 32-bit values and the run moves as bytes. File is not used if the header
+ * doesn't match the map.
+ *
+ * @author Niko Hernesniemi
+ */
+public final class FirstMoveTableFile {
+
+    private static final int MAGIC = 0x43504442; // "CPDB"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = SidecarFile.HEADER_SIZE + 4;
+
+    private FirstMoveTableFile() {
+    }
+
+    /**
+     * Gets sidecar file of the map file.
+     *
+     * @param mapFile Map file.
+     * @return File for the table, for example "x.map" -> "x.map.cpd".
+     */
+    public static File sidecarFile(File mapFile) {
+        return new File(mapFile.getPath() + ".cpd");
+    }
+
+    /**
+     * Saves first move table.
+     *
+     * @param table First move table.
+     * @param map Map the table was built from.
+     * @param file File to save to.
+     * @throws IOException Writing failed.
+     */
+    public static void save(FirstMoveTable table, GridMap map, File file) throws IOException {
+        IntBuffer offsets = table.getOffsets();
+        IntBuffer runStarts = table.getRunStarts();
+        ByteBuffer runMoves = table.getRunMoves();
+        offsets.rewind();
+        runStarts.rewind();
+        runMoves.rewind();
+        int runs = table.getRunCount();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE + offsets.limit() * 4);
+        SidecarFile.putHeader(header, MAGIC, VERSION, map);
+        header.putInt(runs);
+        header.asIntBuffer().put(offsets);
+        header.rewind();
+        ByteBuffer starts = ByteBuffer.allocate(runs * 4);
+        starts.asIntBuffer().put(runStarts);
+        try (FileChannel channel = new FileOutputStream(file).getChannel()) {
+            SidecarFile.writeFully(channel, header);
+            SidecarFile.writeFully(channel, starts);
+            SidecarFile.writeFully(channel, runMoves);
+        }
+    }
+
+    /**
+     * Loads first move table by memory-mapping the file.
+     *
+     * @param file File to load from.
+     * @param map Map the table should belong to.
+     * @return First move table or null if file was made for different map or
+     * version.
+     * @throws IOException Reading failed.
+     */
+    public static FirstMoveTable load(File file, GridMap map) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+                FileChannel channel = raf.getChannel()) {
+            long size = channel.size();
+            // Buffers are indexed with ints so larger files can't be tables
+            if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+                return null;
+            }
+            // Mapping stays valid after the channel has been closed
+            MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (!SidecarFile.hasHeader(data, MAGIC, VERSION, map)) {
+                return null;
+            }
+            int runs = data.getInt();
+            long offsetBytes = ((long) map.getWidth() * map.getHeight() + 1) * 4;
+            if (runs < 0 || size != HEADER_SIZE + offsetBytes + runs * 5L) {
+                return null;
+            }
+            // Sizes are checked above so every part fits in an int
+            int startsPosition = (int) (HEADER_SIZE + offsetBytes);
+            IntBuffer offsets = slice(data, HEADER_SIZE, (int) offsetBytes).asIntBuffer();
+            IntBuffer runStarts = slice(data, startsPosition, runs * 4).asIntBuffer();
+            ByteBuffer runMoves = slice(data, startsPosition + runs * 4, runs);
+            try {
+                return new FirstMoveTable(map.getWidth(), map.getHeight(), offsets, runStarts, runMoves);
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Loads first move table from the sidecar file of the map. If the file
+     * doesn't exist, is broken or is outdated table will be built and saved.
+     *
+     * @param mapFile Map file.
+     * @param map Map read from the file.
+     * @return First move table for the map.
+     * @throws IOException Reading or writing the sidecar file failed.
+     */
+    public static FirstMoveTable loadOrBuild(File mapFile, GridMap map) throws IOException {
+        return SidecarFile.loadOrBuild(sidecarFile(mapFile), file -> load(file, map), file -> {
+            FirstMoveTable table = FirstMoveTable.build(map);
+            save(table, map, file);
+            return table;
+        });
+    }
+
+    private static ByteBuffer slice(ByteBuffer data, int position, int length) {
+        ByteBuffer view = data.duplicate();
+        view.position(position);
+        view.limit(position + length);
+        return view.slice();
+    }
+}
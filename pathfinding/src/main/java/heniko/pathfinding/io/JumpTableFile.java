@@ -0,0 +1,103 @@
+package heniko.pathfinding.io;
+
+import heniko.pathfinding.domain.GridMap;
+import heniko.pathfinding.domain.JumpTable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Utility for saving JPS+ jump tables next to the map file so they don't have
+ * to be built again every time the map is loaded.
+ *
+ * File starts with header (magic number, version, width, height and checksum
+ * of the map) followed by the distances as 16-bit values. File is not used if
+ * the header doesn't match the map.
+ *
+ * @author Niko Hernesniemi
+ */
+public final class JumpTableFile {
+
+    private static final int MAGIC = 0x4A505350; // "JPSP"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = SidecarFile.HEADER_SIZE;
+
+    private JumpTableFile() {
+    }
+
+    /**
+     * Gets sidecar file of the map file.
+     *
+     * @param mapFile Map file.
+     * @return File for the jump table, for example "x.map" -> "x.map.jps".
+     */
+    public static File sidecarFile(File mapFile) {
+        return new File(mapFile.getPath() + ".jps");
+    }
+
+    /**
+     * Saves jump table.
+     *
+     * @param table Jump table.
+     * @param map Map the table was built from.
+     * @param file File to save to.
+     * @throws IOException Writing failed.
+     */
+    public static void save(JumpTable table, GridMap map, File file) throws IOException {
+        short[] distances = table.getDistances();
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + distances.length * 2);
+        SidecarFile.putHeader(buffer, MAGIC, VERSION, map);
+        buffer.asShortBuffer().put(distances);
+        buffer.rewind();
+        try (FileChannel channel = new FileOutputStream(file).getChannel()) {
+            SidecarFile.writeFully(channel, buffer);
+        }
+    }
+
+    /**
+     * Loads jump table.
+     *
+     * @param file File to load from.
+     * @param map Map the table should belong to.
+     * @return Jump table or null if file was made for different map or
+     * version.
+     * @throws IOException Reading failed.
+     */
+    public static JumpTable load(File file, GridMap map) throws IOException {
+        try (FileChannel channel = new FileInputStream(file).getChannel()) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            SidecarFile.readFully(channel, header);
+            if (!SidecarFile.hasHeader(header, MAGIC, VERSION, map)) {
+                return null;
+            }
+            short[] distances = new short[map.getWidth() * map.getHeight() * 8];
+            if (channel.size() != HEADER_SIZE + distances.length * 2L) {
+                return null;
+            }
+            ByteBuffer data = ByteBuffer.allocate(distances.length * 2);
+            SidecarFile.readFully(channel, data);
+            data.asShortBuffer().get(distances);
+            return new JumpTable(map.getWidth(), map.getHeight(), distances);
+        }
+    }
+
+    /**
+     * Loads jump table from the sidecar file of the map. If the file doesn't
+     * exist, is broken or is outdated table will be built and saved.
+     *
+     * @param mapFile Map file.
+     * @param map Map read from the file.
+     * @return Jump table for the map.
+     * @throws IOException Reading or writing the sidecar file failed.
+     */
+    public static JumpTable loadOrBuild(File mapFile, GridMap map) throws IOException {
+        return SidecarFile.loadOrBuild(sidecarFile(mapFile), file -> load(file, map), file -> {
+            JumpTable table = JumpTable.build(map);
+            save(table, map, file);
+            return table;
+        });
+    }
+}
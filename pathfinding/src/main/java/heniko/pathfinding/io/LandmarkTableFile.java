@@ -0,0 +1,130 @@
+package heniko.pathfinding.io;
+
+import heniko.pathfinding.domain.GridMap;
+import heniko.pathfinding.domain.LandmarkSelection;
+import heniko.pathfinding.domain.LandmarkTable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Utility for saving landmark tables next to the map file so they don't have
+ * to be built again every time the map is loaded.
+ *
+ * File starts with header (magic number, version, width, height, checksum of
+ * the map, landmark selection, requested number of landmarks and the number
+ * of landmarks found) followed by the landmark cell ids as 32-bit values and
+ * the step counts as 16-bit values. File is not used if the header doesn't
+ * match the map, selection and requested number of landmarks. Selections can
+ * find fewer landmarks than requested, so the requested number is stored
+ * separately.
+ *
+ * @author Niko Hernesniemi
+ */
+public final class LandmarkTableFile {
+
+    private static final int MAGIC = 0x414C544C; // "ALTL"
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = SidecarFile.HEADER_SIZE + 12;
+
+    private LandmarkTableFile() {
+    }
+
+    /**
+     * Gets sidecar file of the map file.
+     *
+     * @param mapFile Map file.
+     * @return File for the landmark table, for example "x.map" -> "x.map.alt".
+     */
+    public static File sidecarFile(File mapFile) {
+        return new File(mapFile.getPath() + ".alt");
+    }
+
+    /**
+     * Saves landmark table.
+     *
+     * @param table Landmark table.
+     * @param map Map the table was built from.
+     * @param count Number of landmarks requested when the table was built.
+     * @param selection How landmarks were chosen.
+     * @param file File to save to.
+     * @throws IOException Writing failed.
+     */
+    public static void save(LandmarkTable table, GridMap map, int count, LandmarkSelection selection, File file) throws IOException {
+        int[] landmarks = table.getLandmarks();
+        short[] steps = table.getSteps();
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + landmarks.length * 4 + steps.length * 2);
+        SidecarFile.putHeader(buffer, MAGIC, VERSION, map);
+        buffer.putInt(selection.ordinal());
+        buffer.putInt(count);
+        buffer.putInt(landmarks.length);
+        for (int landmark : landmarks) {
+            buffer.putInt(landmark);
+        }
+        buffer.asShortBuffer().put(steps);
+        buffer.rewind();
+        try (FileChannel channel = new FileOutputStream(file).getChannel()) {
+            SidecarFile.writeFully(channel, buffer);
+        }
+    }
+
+    /**
+     * Loads landmark table.
+     *
+     * @param file File to load from.
+     * @param map Map the table should belong to.
+     * @param count Number of landmarks requested.
+     * @param selection How landmarks should be chosen.
+     * @return Landmark table or null if file was made for different map,
+     * version, selection or number of landmarks.
+     * @throws IOException Reading failed.
+     */
+    public static LandmarkTable load(File file, GridMap map, int count, LandmarkSelection selection) throws IOException {
+        try (FileChannel channel = new FileInputStream(file).getChannel()) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            SidecarFile.readFully(channel, header);
+            if (!SidecarFile.hasHeader(header, MAGIC, VERSION, map)
+                    || header.getInt() != selection.ordinal()
+                    || header.getInt() != count) {
+                return null;
+            }
+            int found = header.getInt();
+            long n = (long) map.getWidth() * map.getHeight();
+            if (found < 0 || found > count || channel.size() != HEADER_SIZE + found * 4L + found * n * 4) {
+                return null;
+            }
+            ByteBuffer data = ByteBuffer.allocate((int) (channel.size() - HEADER_SIZE));
+            SidecarFile.readFully(channel, data);
+            int[] landmarks = new int[found];
+            for (int i = 0; i < found; i++) {
+                landmarks[i] = data.getInt();
+            }
+            short[] steps = new short[(int) (found * n * 2)];
+            data.asShortBuffer().get(steps);
+            return new LandmarkTable(map.getWidth(), map.getHeight(), landmarks, steps);
+        }
+    }
+
+    /**
+     * Loads landmark table from the sidecar file of the map. If the file
+     * doesn't exist, is broken, is outdated or was built with different
+     * selection or number of landmarks table will be built and saved.
+     *
+     * @param mapFile Map file.
+     * @param map Map read from the file.
+     * @param count Number of landmarks.
+     * @param selection How landmarks are chosen if table has to be built.
+     * @return Landmark table for the map.
+     * @throws IOException Reading or writing the sidecar file failed.
+     */
+    public static LandmarkTable loadOrBuild(File mapFile, GridMap map, int count, LandmarkSelection selection) throws IOException {
+        return SidecarFile.loadOrBuild(sidecarFile(mapFile), file -> load(file, map, count, selection), file -> {
+            LandmarkTable table = LandmarkTable.build(map, count, selection);
+            save(table, map, count, selection, file);
+            return table;
+        });
+    }
+}
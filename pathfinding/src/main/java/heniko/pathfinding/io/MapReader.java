@@ -1,22 +1,32 @@
 package heniko.pathfinding.io;
 
-import java.io.BufferedReader;
+import heniko.pathfinding.domain.GridMap;
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
-import java.util.ArrayList;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.IntStream;
 
 /**
  * Utility for reading maps. Information about map format
  * https://movingai.com/benchmarks/formats.html.
  *
+ * File is memory-mapped and walls are parsed straight from the bytes without
+ * making strings of the lines. Large maps are parsed in parallel.
+ *
  * @author Niko Hernesniemi
  */
 public class MapReader {
 
+    // Maps with less nodes are parsed in one thread
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+
     private int height;
     private int width;
     private boolean[][] map;
+    private GridMap gridMap;
 
     /**
      * Reads and parses map.
@@ -32,7 +42,8 @@ public class MapReader {
     }
 
     /**
-     * Gets height of the map.
+     * Gets height of the map, the same as getGridMap().getHeight(). Line i of
+     * the file is x-coordinate i so this is the width in the file header.
      *
      * @return Height of the map.
      */
@@ -41,7 +52,8 @@ public class MapReader {
     }
 
     /**
-     * Gets width of the map.
+     * Gets width of the map, the same as getGridMap().getWidth(). Line i of
+     * the file is x-coordinate i so this is the height in the file header.
      *
      * @return Width of the map.
      */
@@ -50,52 +62,165 @@ public class MapReader {
     }
 
     /**
-     * Gets map.
+     * Gets map. Array is made from the GridMap when it is first needed.
      *
      * @return Map.
      */
     public boolean[][] getMap() {
+        if (map == null && gridMap != null) {
+            map = gridMap.toArray();
+        }
         return map;
     }
 
-    private ArrayList<String> readLines(File file) throws IOException {
-        FileReader fr = new FileReader(file);
-        BufferedReader br = new BufferedReader(fr);
+    /**
+     * Gets map as GridMap. Walls are in the same positions as in getMap(),
+     * line i of the map in the file is x-coordinate i.
+     *
+     * @return Map.
+     */
+    public GridMap getGridMap() {
+        return gridMap;
+    }
 
-        ArrayList<String> res = new ArrayList<>();
-        String line;
+    /**
+     * Checks if terrain character can't be walked through. Passable terrain
+     * is '.', 'G' and 'S' (swamp), everything else ('@', 'O', 'T' for trees
+     * and 'W' for water) is a wall.
+     *
+     * @param c Terrain character.
+     * @return True if terrain is a wall.
+     */
+    public static boolean isWallTerrain(int c) {
+        return c != '.' && c != 'G' && c != 'S';
+    }
 
-        while ((line = br.readLine()) != null) {
-            res.add(line);
+    private void readMap(File file) throws IOException {
+        ByteBuffer data;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+                FileChannel channel = raf.getChannel()) {
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
         }
 
-        return res;
-    }
+        // Read begin lines of the map, "type", "height", "width" and "map"
+        int position = 0;
+        int h = -1;
+        int w = -1;
+        while (true) {
+            int end = lineEnd(data, position);
+            if (end == position && end >= data.limit()) {
+                throw new IOException("Map data is missing: " + file);
+            }
+            String line = new String(bytes(data, position, end), StandardCharsets.US_ASCII).trim();
+            position = nextLine(data, end);
+            if (line.equals("map")) {
+                break;
+            }
+            String[] parts = line.split(" ");
+            try {
+                if (parts[0].equals("height")) {
+                    h = Integer.parseInt(parts[1]);
+                } else if (parts[0].equals("width")) {
+                    w = Integer.parseInt(parts[1]);
+                }
+            } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                throw new IOException("Bad map header line \"" + line + "\": " + file);
+            }
+        }
+        if (h < 0 || w < 0) {
+            throw new IOException("Map size is missing: " + file);
+        }
 
-    private void readMap(File file) throws IOException {
-        ArrayList<String> lines = readLines(file);
-
-        // Read begin lines of the map
-        String mapType = lines.get(0);
-        String heightS = lines.get(1);
-        String widthS = lines.get(2);
-
-        // Parse map size
-        height = Integer.parseInt(heightS.split(" ")[1]);
-        width = Integer.parseInt(widthS.split(" ")[1]);
-
-        //Read map
-        map = new boolean[width][height];
-        for (int i = 0; i < height; i++) {
-            // First line of the map is 4
-            char[] charray = lines.get(i + 4).toCharArray();
-            for (int j = 0; j < width; j++) {
-                // If terrain is not passable
-                if (charray[j] == '@' || charray[j] == 'O') {
-                    // Mark spot as wall
-                    map[i][j] = true;
+        // Lines can end with "\n" or "\r\n" so starts of the lines are found
+        // first and then lines can be parsed in any order. Rows have w
+        // characters so line break is searched only after them, too short
+        // rows are noticed when they are parsed.
+        int[] rowStarts = new int[h];
+        for (int i = 0; i < h; i++) {
+            if (position >= data.limit()) {
+                throw new IOException("Map has less than " + h + " rows: " + file);
+            }
+            rowStarts[i] = position;
+            position = nextLine(data, lineEnd(data, Math.min(position + w, data.limit())));
+        }
+
+        // Line i is column x = i of the map so GridMap is as wide as there
+        // are lines. Each task handles 64 lines so tasks never write the same
+        // word of the map.
+        GridMap parsed = new GridMap(h, w);
+        IntStream chunks = IntStream.range(0, (h + 63) >>> 6);
+        if ((long) w * h >= PARALLEL_THRESHOLD) {
+            chunks = chunks.parallel();
+        }
+        final int mapWidth = w;
+        final int mapHeight = h;
+        boolean complete = chunks.allMatch(chunk -> {
+            // Rows are copied from the file to one array per task
+            ByteBuffer view = data.duplicate();
+            byte[] row = new byte[mapWidth];
+            for (int i = chunk << 6; i < Math.min(mapHeight, (chunk + 1) << 6); i++) {
+                if (rowStarts[i] + mapWidth > view.limit()) {
+                    return false;
+                }
+                view.position(rowStarts[i]);
+                view.get(row);
+                if (!parseRow(row, i, parsed)) {
+                    return false;
                 }
             }
+            return true;
+        });
+        if (!complete) {
+            throw new IOException("Map has too short rows: " + file);
+        }
+        // Sizes of the file header are swapped like the coordinates
+        width = h;
+        height = w;
+        gridMap = parsed;
+    }
+
+    private static boolean parseRow(byte[] row, int i, GridMap parsed) {
+        for (int j = 0; j < row.length; j++) {
+            int c = row[j];
+            if (c == '\n' || c == '\r') {
+                return false;
+            }
+            // If terrain is not passable mark spot as wall
+            if (isWallTerrain(c)) {
+                parsed.setWall(i, j, true);
+            }
         }
+        return true;
+    }
+
+    /**
+     * Finds position of the line break that ends the line, or end of data.
+     */
+    private static int lineEnd(ByteBuffer data, int position) {
+        while (position < data.limit() && data.get(position) != '\n' && data.get(position) != '\r') {
+            position++;
+        }
+        return position;
+    }
+
+    /**
+     * Skips line break at the position.
+     */
+    private static int nextLine(ByteBuffer data, int position) {
+        if (position < data.limit() && data.get(position) == '\r') {
+            position++;
+        }
+        if (position < data.limit() && data.get(position) == '\n') {
+            position++;
+        }
+        return position;
+    }
+
+    private static byte[] bytes(ByteBuffer data, int start, int end) {
+        byte[] res = new byte[end - start];
+        for (int i = start; i < end; i++) {
+            res[i - start] = data.get(i);
+        }
+        return res;
     }
 }
@@ -0,0 +1,70 @@
+package heniko.pathfinding.io;
+
+import heniko.pathfinding.util.Node;
+import heniko.pathfinding.util.Scenario;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+
+/**
+ * Utility for reading Moving AI scenario files. Information about the format
+ * https://movingai.com/benchmarks/formats.html.
+ *
+ * Scenario files use x for the column and y for the line of the map, but
+ * MapReader uses the line as x-coordinate, so coordinates are swapped to
+ * match the maps read with MapReader.
+ *
+ * @author Niko Hernesniemi
+ */
+public class ScenarioReader {
+
+    private final ArrayList<Scenario> scenarios;
+
+    /**
+     * Reads and parses scenario file.
+     *
+     * @param file Scenario file.
+     */
+    public ScenarioReader(File file) {
+        scenarios = new ArrayList<>();
+        try {
+            readScenarios(file);
+        } catch (IOException e) {
+            System.out.println(e.getMessage());
+        }
+    }
+
+    /**
+     * Gets scenarios in the order they are in the file.
+     *
+     * @return Scenarios.
+     */
+    public ArrayList<Scenario> getScenarios() {
+        return scenarios;
+    }
+
+    private void readScenarios(File file) throws IOException {
+        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                // Columns are bucket, map, map width, map height, start x,
+                // start y, goal x, goal y and optimal length
+                String[] parts = line.trim().split("\\s+");
+                if (parts.length < 9) {
+                    // Version line or empty line
+                    continue;
+                }
+                try {
+                    int bucket = Integer.parseInt(parts[0]);
+                    Node start = new Node(Integer.parseInt(parts[5]), Integer.parseInt(parts[4]));
+                    Node end = new Node(Integer.parseInt(parts[7]), Integer.parseInt(parts[6]));
+                    scenarios.add(new Scenario(bucket, start, end, Double.parseDouble(parts[8])));
+                } catch (NumberFormatException e) {
+                    throw new IOException("Bad scenario line \"" + line + "\": " + file);
+                }
+            }
+        }
+    }
+}
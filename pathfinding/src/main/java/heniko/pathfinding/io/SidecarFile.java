@@ -0,0 +1,141 @@
+package heniko.pathfinding.io;
+
+import heniko.pathfinding.domain.GridMap;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Parts shared by the files that are saved next to the map file. Every file
+ * starts with the same header (magic number, version, width, height and
+ * checksum of the map) and is replaced when it can't be used. Files add their
+ * own header fields and data after this header.
+ *
+ * @author Niko Hernesniemi
+ */
+final class SidecarFile {
+
+    static final int HEADER_SIZE = 24;
+
+    /**
+     * Reads file.
+     *
+     * @param <T> Type of the loaded data
+     */
+    interface Loader<T> {
+
+        /**
+         * Loads data from the file.
+         *
+         * @param file File to load from.
+         * @return Loaded data or null if file can't be used.
+         * @throws IOException Reading failed or file is broken.
+         */
+        T load(File file) throws IOException;
+    }
+
+    /**
+     * Makes data and writes it to the file.
+     *
+     * @param <T> Type of the data
+     */
+    interface Builder<T> {
+
+        /**
+         * Builds data and saves it to the file.
+         *
+         * @param file File to save to.
+         * @return Built data.
+         * @throws IOException Writing failed.
+         */
+        T build(File file) throws IOException;
+    }
+
+    private SidecarFile() {
+    }
+
+    /**
+     * Writes header for the map.
+     *
+     * @param buffer Buffer positioned at the start of the file
+     * @param magic Magic number of the file type
+     * @param version Version of the file type
+     * @param map Map the file is made for
+     */
+    static void putHeader(ByteBuffer buffer, int magic, int version, GridMap map) {
+        buffer.putInt(magic);
+        buffer.putInt(version);
+        buffer.putInt(map.getWidth());
+        buffer.putInt(map.getHeight());
+        buffer.putLong(map.checksum());
+    }
+
+    /**
+     * Reads magic number and version.
+     *
+     * @param buffer Buffer positioned at the start of the file
+     * @param magic Magic number of the file type
+     * @param version Version of the file type
+     * @return True if both match.
+     */
+    static boolean hasMagic(ByteBuffer buffer, int magic, int version) {
+        return buffer.getInt() == magic && buffer.getInt() == version;
+    }
+
+    /**
+     * Reads header and checks that file was made for the map.
+     *
+     * @param buffer Buffer positioned at the start of the file
+     * @param magic Magic number of the file type
+     * @param version Version of the file type
+     * @param map Map the file should belong to
+     * @return True if the whole header matches.
+     */
+    static boolean hasHeader(ByteBuffer buffer, int magic, int version, GridMap map) {
+        return hasMagic(buffer, magic, version)
+                && buffer.getInt() == map.getWidth()
+                && buffer.getInt() == map.getHeight()
+                && buffer.getLong() == map.checksum();
+    }
+
+    /**
+     * Loads the file, or builds and saves the data if the file doesn't exist,
+     * can't be used or is broken.
+     *
+     * @param <T> Type of the data
+     * @param file Sidecar file.
+     * @param loader Reads the file.
+     * @param builder Builds the data and saves it to the file.
+     * @return Loaded or built data.
+     * @throws IOException Writing the file failed.
+     */
+    static <T> T loadOrBuild(File file, Loader<T> loader, Builder<T> builder) throws IOException {
+        if (file.isFile()) {
+            try {
+                T data = loader.load(file);
+                if (data != null) {
+                    return data;
+                }
+            } catch (IOException e) {
+                // Broken file will be replaced below
+            }
+        }
+        return builder.build(file);
+    }
+
+    static void readFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new IOException("Unexpected end of file");
+            }
+        }
+        buffer.flip();
+    }
+
+    static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
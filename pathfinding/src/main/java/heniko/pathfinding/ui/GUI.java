@@ -96,12 +96,22 @@ public class GUI extends Application {
         RadioButton euclideanAStarButton = new RadioButton("Euclidean dinstance A*");
         RadioButton diagonalAStarButton = new RadioButton("Diagonal distance A*");
         RadioButton jpsButton = new RadioButton("JPS");
+        RadioButton blockJpsButton = new RadioButton("Block JPS");
+        RadioButton bidirectionalButton = new RadioButton("Bidirectional A*");
+        RadioButton parallelBidirectionalButton = new RadioButton("Parallel bidirectional A*");
+        RadioButton hpaButton = new RadioButton("HPA*");
+        RadioButton dStarLiteButton = new RadioButton("D* Lite");
         ToggleGroup algorithmGroup = new ToggleGroup();
 
         djikstraButton.setToggleGroup(algorithmGroup);
         euclideanAStarButton.setToggleGroup(algorithmGroup);
         diagonalAStarButton.setToggleGroup(algorithmGroup);
         jpsButton.setToggleGroup(algorithmGroup);
+        blockJpsButton.setToggleGroup(algorithmGroup);
+        bidirectionalButton.setToggleGroup(algorithmGroup);
+        parallelBidirectionalButton.setToggleGroup(algorithmGroup);
+        hpaButton.setToggleGroup(algorithmGroup);
+        dStarLiteButton.setToggleGroup(algorithmGroup);
 
         djikstraButton.setSelected(true);
 
@@ -109,6 +119,11 @@ public class GUI extends Application {
         euclideanAStarButton.setUserData(1);
         diagonalAStarButton.setUserData(2);
         jpsButton.setUserData(3);
+        blockJpsButton.setUserData(4);
+        bidirectionalButton.setUserData(5);
+        parallelBidirectionalButton.setUserData(6);
+        hpaButton.setUserData(7);
+        dStarLiteButton.setUserData(8);
 
         algorithmGroup.selectedToggleProperty().addListener((observable, oldValue, newValue) -> {
             int value = Integer.parseInt(newValue.getUserData().toString());
@@ -166,6 +181,11 @@ public class GUI extends Application {
                 euclideanAStarButton,
                 diagonalAStarButton,
                 jpsButton,
+                blockJpsButton,
+                bidirectionalButton,
+                parallelBidirectionalButton,
+                hpaButton,
+                dStarLiteButton,
                 solveButton,
                 cleanButton);
         HBox root = new HBox(canvas, menuItems);
@@ -0,0 +1,67 @@
+package heniko.pathfinding.util;
+
+/**
+ * One query of a Moving AI scenario file with the length of the shortest
+ * path.
+ *
+ * @author Niko Hernesniemi
+ */
+public class Scenario {
+
+    private final int bucket;
+    private final Node start;
+    private final Node end;
+    private final double optimalLength;
+
+    /**
+     * Constructor for Scenario.
+     *
+     * @param bucket Bucket of the query, queries of the same bucket have
+     * about the same length
+     * @param start Start node
+     * @param end End node
+     * @param optimalLength Length of the shortest path
+     */
+    public Scenario(int bucket, Node start, Node end, double optimalLength) {
+        this.bucket = bucket;
+        this.start = start;
+        this.end = end;
+        this.optimalLength = optimalLength;
+    }
+
+    /**
+     * Gets bucket of the query.
+     *
+     * @return Bucket
+     */
+    public int getBucket() {
+        return bucket;
+    }
+
+    /**
+     * Gets start node.
+     *
+     * @return Start node
+     */
+    public Node getStart() {
+        return start;
+    }
+
+    /**
+     * Gets end node.
+     *
+     * @return End node
+     */
+    public Node getEnd() {
+        return end;
+    }
+
+    /**
+     * Gets length of the shortest path.
+     *
+     * @return Optimal length
+     */
+    public double getOptimalLength() {
+        return optimalLength;
+    }
+}
@@ -0,0 +1,118 @@
+package heniko.pathfinding.util;
+
+import heniko.pathfinding.domain.GridMap;
+import heniko.pathfinding.domain.Pathfinder;
+import heniko.pathfinding.domain.PathfinderFactory;
+import java.util.ArrayList;
+
+/**
+ * Runs every query of a scenario file with an algorithm and reports time and
+ * expanded nodes for each bucket. Path lengths are checked against the
+ * lengths in the scenario file.
+ *
+ * @author Niko Hernesniemi
+ */
+public class ScenarioRunner {
+
+    private static final double NANO_TO_MILLI = 1000000;
+    // Scenario files have lengths with 8 decimals
+    private static final double TOLERANCE = 1e-4;
+
+    private final GridMap map;
+    private final ArrayList<Scenario> scenarios;
+    private int wrongLengths;
+
+    /**
+     * Constructor for ScenarioRunner.
+     *
+     * @param map Map of the scenarios
+     * @param scenarios Scenarios to run
+     */
+    public ScenarioRunner(GridMap map, ArrayList<Scenario> scenarios) {
+        this.map = map;
+        this.scenarios = scenarios;
+    }
+
+    /**
+     * Runs all scenarios and returns results as markdown table. Length is
+     * wrong if it differs from the optimal length, or for algorithms that
+     * don't always find the shortest path if it is shorter than the optimal
+     * length or path is not found.
+     *
+     * @param name Name of the algorithm
+     * @param factory Creates pathfinder for each scenario
+     * @param optimal True if algorithm should find the shortest paths
+     * @return Lines of the table.
+     */
+    public ArrayList<String> run(String name, PathfinderFactory factory, boolean optimal) {
+        int buckets = 0;
+        for (Scenario scenario : scenarios) {
+            buckets = Math.max(buckets, scenario.getBucket() + 1);
+        }
+        int[] queries = new int[buckets];
+        long[] totalTime = new long[buckets];
+        long[] maxTime = new long[buckets];
+        long[] totalExpanded = new long[buckets];
+        int[] maxExpanded = new int[buckets];
+        int[] wrong = new int[buckets];
+        double[] totalRatio = new double[buckets];
+
+        for (Scenario scenario : scenarios) {
+            int b = scenario.getBucket();
+            Pathfinder pf = factory.create(scenario.getStart(), scenario.getEnd(), map);
+            long t = System.nanoTime();
+            boolean found = !pf.solve().isEmpty();
+            t = System.nanoTime() - t;
+
+            double optimalLength = scenario.getOptimalLength();
+            double length = pf.getPathLength();
+            boolean ok;
+            if (optimal) {
+                ok = found && Math.abs(length - optimalLength) <= TOLERANCE;
+            } else {
+                ok = found && length >= optimalLength - TOLERANCE;
+            }
+            queries[b]++;
+            totalTime[b] += t;
+            maxTime[b] = Math.max(maxTime[b], t);
+            totalExpanded[b] += pf.getExpandedCount();
+            maxExpanded[b] = Math.max(maxExpanded[b], pf.getExpandedCount());
+            if (!ok) {
+                wrong[b]++;
+            }
+            totalRatio[b] += optimalLength > 0 ? length / optimalLength : 1;
+        }
+
+        ArrayList<String> lines = new ArrayList<>();
+        lines.add(String.format("| %s bucket | Queries | Average time (ms) | Max time (ms) | Average expanded | Max expanded | Length / optimal | Wrong lengths |",
+                name));
+        lines.add("|---|---|---|---|---|---|---|---|");
+        wrongLengths = 0;
+        for (int b = 0; b < buckets; b++) {
+            if (queries[b] == 0) {
+                continue;
+            }
+            wrongLengths += wrong[b];
+            lines.add(String.format("| %d | %d | %.5f | %.5f | %.1f | %d | %.5f | %d |",
+                    b,
+                    queries[b],
+                    totalTime[b] / NANO_TO_MILLI / queries[b],
+                    maxTime[b] / NANO_TO_MILLI,
+                    (double) totalExpanded[b] / queries[b],
+                    maxExpanded[b],
+                    totalRatio[b] / queries[b],
+                    wrong[b]
+            ));
+        }
+        return lines;
+    }
+
+    /**
+     * Gets the number of wrong path lengths in last run().
+     *
+     * @return Number of wrong lengths.
+     */
+    public int getWrongLengths() {
+        return wrongLengths;
+    }
+}
@@ -1,15 +1,47 @@
 package heniko.pathfinding.util;
 
 import heniko.pathfinding.domain.AStar;
+import heniko.pathfinding.domain.BatchResult;
+import heniko.pathfinding.domain.BatchSolver;
+import heniko.pathfinding.domain.BidirectionalAStar;
+import heniko.pathfinding.domain.BlockJPS;
+import heniko.pathfinding.domain.CPDPathfinder;
+import heniko.pathfinding.domain.ClusterGraph;
+import heniko.pathfinding.domain.ComponentIndex;
+import heniko.pathfinding.domain.DStarLite;
 import heniko.pathfinding.domain.DiagonalHeuristic;
 import heniko.pathfinding.domain.DjikstraHeuristic;
 import heniko.pathfinding.domain.EuclideanHeuristic;
+import heniko.pathfinding.domain.FirstMoveTable;
+import heniko.pathfinding.domain.GridMap;
+import heniko.pathfinding.domain.HPAStar;
 import heniko.pathfinding.domain.JPS;
+import heniko.pathfinding.domain.JPSPlus;
+import heniko.pathfinding.domain.JumpTable;
+import heniko.pathfinding.domain.LandmarkHeuristic;
+import heniko.pathfinding.domain.LandmarkSelection;
+import heniko.pathfinding.domain.LandmarkTable;
+import heniko.pathfinding.domain.MapSnapshot;
+import heniko.pathfinding.domain.MappedGridMap;
+import heniko.pathfinding.domain.ParallelBidirectionalAStar;
 import heniko.pathfinding.domain.Pathfinder;
+import heniko.pathfinding.domain.PathfinderFactory;
+import heniko.pathfinding.domain.SearchWorkspace;
+import heniko.pathfinding.domain.SharedGScores;
+import heniko.pathfinding.io.BinaryMapFile;
+import heniko.pathfinding.io.FirstMoveTableFile;
+import heniko.pathfinding.io.JumpTableFile;
+import heniko.pathfinding.io.LandmarkTableFile;
 import heniko.pathfinding.io.MapReader;
+import heniko.pathfinding.io.ScenarioReader;
 import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Locale;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Performance tester for algorithms and data structures.
@@ -19,23 +51,134 @@ import java.util.Random;
 public class Tester {
 
     private static final long NANO_TO_MILLI = 1000000;
+    private static final long BYTES_TO_KILO = 1024;
+    // Keys of the algorithms for --algorithms and their names in results.
+    // HPA* is only run with scenarios since it needs a cluster graph.
+    private static final String[][] ALGORITHMS = {
+        {"djikstra", "Djikstra's algorithm"},
+        {"euclidean", "Euclidean distance A*"},
+        {"diagonal", "Diagonal distance A*"},
+        {"jps", "Jump point search"},
+        {"blockjps", "Block JPS"},
+        {"bidirectional", "Bidirectional A*"},
+        {"parallel", "Parallel bidirectional A*"},
+        {"hpa", "HPA*"}
+    };
+    // Columns of CSV and JSON output, times are in milliseconds
+    private static final String[] RESULT_COLUMNS = {
+        "section", "benchmark", "name", "samples", "mean", "std", "min",
+        "p50", "p90", "p99", "p99.9", "max"
+    };
+    private static final int TEXT_COLUMNS = 3;
     private final ArrayList<String> lines;
+    // Time statistics for CSV and JSON output, see printTimeStatistics()
+    private final ArrayList<String[]> results;
+    private String section;
+    private String benchmark;
+    private int iterations;
+    private int warmup;
+    private String format;
+    private ArrayList<File> maps;
+    private ArrayList<String> algorithms;
 
     /**
      * Runs all performance tests and prints results.
      */
     public Tester() {
         lines = new ArrayList<>();
+        results = new ArrayList<>();
+        section = "";
+        benchmark = "";
+        iterations = 100;
+        warmup = 10;
+        format = "markdown";
+    }
+
+    /**
+     * Performance tester with options from command line. Options are --maps
+     * (map files separated with commas, only these maps are tested),
+     * --iterations (timed runs of each test), --warmup (runs before the timed
+     * runs), --algorithms (keys separated with commas: djikstra, euclidean,
+     * diagonal, jps, blockjps, bidirectional, parallel and hpa) and --format
+     * (markdown, csv or json).
+     *
+     * @param args Options and their values.
+     * @throws IllegalArgumentException Unknown option or bad value.
+     */
+    public Tester(String[] args) throws IllegalArgumentException {
+        this();
+        for (int i = 0; i < args.length; i += 2) {
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing value for " + args[i]);
+            }
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--maps":
+                    maps = new ArrayList<>();
+                    for (String name : value.split(",")) {
+                        maps.add(new File(name));
+                    }
+                    break;
+                case "--iterations":
+                    iterations = parseCount(args[i], value, 1);
+                    break;
+                case "--warmup":
+                    warmup = parseCount(args[i], value, 0);
+                    break;
+                case "--algorithms":
+                    algorithms = new ArrayList<>();
+                    for (String key : value.split(",")) {
+                        if (algorithmName(key) == null) {
+                            throw new IllegalArgumentException("Unknown algorithm: " + key);
+                        }
+                        algorithms.add(key);
+                    }
+                    break;
+                case "--format":
+                    if (!value.equals("markdown") && !value.equals("csv") && !value.equals("json")) {
+                        throw new IllegalArgumentException("Unknown format: " + value);
+                    }
+                    format = value;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+    }
+
+    private static int parseCount(String option, String value, int min) throws IllegalArgumentException {
+        try {
+            int count = Integer.parseInt(value);
+            if (count >= min) {
+                return count;
+            }
+        } catch (NumberFormatException e) {
+            // Same message as for too small values
+        }
+        throw new IllegalArgumentException(option + " needs a number that is at least " + min);
     }
 
     public void test() {
+        if (maps != null) {
+            for (File mapFile : maps) {
+                testMapFile(mapFile);
+            }
+            output();
+            return;
+        }
         int width, height;
         Node start, end;
-        int numberOfTests = 100;
+        int numberOfTests = iterations;
         MapReader mr;
         
+        // Map loading test
+        lines.add("");
+        section = "Map loading";
+        testMapLoading(new File("./data"), 10);
+        
         // Berlin_0_1024 test
         lines.add("");
+        section = "Berlin_0_1024 (Has path)";
         mr = new MapReader(new File("./data/Berlin_0_1024.map"));
         width = mr.getWidth();
         height = mr.getHeight();
@@ -43,10 +186,15 @@ public class Tester {
         // to make sure we don't have our start or end inside walls.
         start = new Node(5,5);
         end = new Node(width - 6, height - 6);
-        testMap("Berlin_0_1024 (Has path)", mr.getMap(), width, height, numberOfTests, start, end);
+        testMap("Berlin_0_1024 (Has path)", mr.getGridMap(), numberOfTests, start, end);
+        testJumpTable(new File("./data/Berlin_0_1024.map"), mr.getGridMap(), numberOfTests, start, end);
+        testHPAStar(mr.getGridMap(), numberOfTests, start, end);
+        testSnapshots(mr.getGridMap(), numberOfTests, start, end);
+        testBinaryMap(new File("./data/Berlin_0_1024.map"), numberOfTests, start, end);
         
         // Berlin_0_1024 test without possible path
         lines.add("");
+        section = "Berlin_0_1024 (No path)";
         mr = new MapReader(new File("./data/Berlin_0_1024.map"));
         width = mr.getWidth();
         height = mr.getHeight();
@@ -54,33 +202,55 @@ public class Tester {
         // to make sure we don't have our start or end inside walls.
         start = new Node(5, height - 6);
         end = new Node(width - 6, 5);
-        testMap("Berlin_0_1024 (No path)", mr.getMap(), width, height, numberOfTests, start, end);
+        testMap("Berlin_0_1024 (No path)", mr.getGridMap(), numberOfTests, start, end);
+        testComponentIndex(mr.getGridMap(), numberOfTests, start, end);
         
         // 16room_001 test
         lines.add("");
+        section = "16room_001";
         mr = new MapReader(new File("./data/16room_001.map"));
         width = mr.getWidth();
         height = mr.getHeight();
         start = new Node(5,5);
         end = new Node(width - 6, height - 6);
-        testMap("16room_001", mr.getMap(), width, height, numberOfTests, start, end);
+        testMap("16room_001", mr.getGridMap(), numberOfTests, start, end);
+        testOpenLists(mr.getGridMap(), numberOfTests, start, end);
+        testBatchSolver(mr.getGridMap(), 200);
+        testLandmarks(new File("./data/16room_001.map"), mr.getGridMap(), numberOfTests, start, end);
+        testFirstMoveTable(mr.getGridMap(), numberOfTests);
         
         // 64room_009 test
         lines.add("");
+        section = "64room_009";
         mr = new MapReader(new File("./data/64room_009.map"));
         width = mr.getWidth();
         height = mr.getHeight();
         start = new Node(5,5);
         end = new Node(width - 6, height - 6);
-        testMap("64room_009", mr.getMap(), width, height, numberOfTests, start, end);
+        testMap("64room_009", mr.getGridMap(), numberOfTests, start, end);
+        testJumpTable(new File("./data/64room_009.map"), mr.getGridMap(), numberOfTests, start, end);
+        testOpenLists(mr.getGridMap(), numberOfTests, start, end);
+        testLandmarks(new File("./data/64room_009.map"), mr.getGridMap(), numberOfTests, start, end);
+        testDStarLite(mr.getGridMap(), numberOfTests, start, end);
         
         // Empty map test
         lines.add("");
+        section = "Empty";
         width = 1024;
         height = 1024;
         start = new Node(0,0);
         end = new Node(width - 1, height -1);
-        testMap("Empty", new boolean[width][height], width, height, numberOfTests, start, end);
+        testMap("Empty", new GridMap(width, height), numberOfTests, start, end);
+        
+        // Moving AI scenarios, "x.map.scen" next to the map "x.map"
+        for (File mapFile : mapFiles(new File("./data"))) {
+            File scenarioFile = new File(mapFile.getPath() + ".scen");
+            if (scenarioFile.isFile()) {
+                lines.add("");
+                section = mapFile.getName();
+                testScenarios(mapFile.getName(), new MapReader(mapFile).getGridMap(), scenarioFile);
+            }
+        }
         
         /*
         // sqrt test
@@ -88,15 +258,162 @@ public class Tester {
         testAndPrintSqrt();
         lines.add("");
         */
-        for (String line : lines) {
-            System.out.println(line);
+        output();
+    }
+
+    /*
+    Tests one map given with --maps between nodes near opposite corners, and
+    its scenarios if the map has them.
+     */
+    private void testMapFile(File mapFile) {
+        MapReader mr = new MapReader(mapFile);
+        GridMap map = mr.getGridMap();
+        if (map == null) {
+            return;
+        }
+        lines.add("");
+        section = mapFile.getName();
+        // Moving AI maps have walls on the edges, small maps are tested
+        // from corner to corner.
+        int margin = Math.min(map.getWidth(), map.getHeight()) > 12 ? 5 : 0;
+        Node start = new Node(margin, margin);
+        Node end = new Node(map.getWidth() - 1 - margin, map.getHeight() - 1 - margin);
+        testMap(mapFile.getName(), map, iterations, start, end);
+        File scenarioFile = new File(mapFile.getPath() + ".scen");
+        if (scenarioFile.isFile()) {
+            lines.add("");
+            testScenarios(mapFile.getName(), map, scenarioFile);
+        }
+    }
+
+    /**
+     * Runs all queries of Moving AI scenario file and prints results.
+     *
+     * @param mapFile Map file in Moving AI format.
+     * @param scenarioFile Scenario file of the map.
+     */
+    public void testScenarios(File mapFile, File scenarioFile) {
+        MapReader mr = new MapReader(mapFile);
+        if (mr.getGridMap() != null) {
+            section = mapFile.getName();
+            testScenarios(mapFile.getName(), mr.getGridMap(), scenarioFile);
+        }
+        output();
+    }
+
+    /*
+    Prints markdown lines or time statistics as CSV or JSON.
+     */
+    private void output() {
+        if (format.equals("csv")) {
+            System.out.println(String.join(",", RESULT_COLUMNS));
+            for (String[] row : results) {
+                String[] fields = new String[row.length];
+                for (int i = 0; i < row.length; i++) {
+                    fields[i] = csvField(row[i]);
+                }
+                System.out.println(String.join(",", fields));
+            }
+        } else if (format.equals("json")) {
+            System.out.println("[");
+            for (int r = 0; r < results.size(); r++) {
+                String[] row = results.get(r);
+                StringBuilder sb = new StringBuilder("  {");
+                for (int i = 0; i < row.length; i++) {
+                    if (i > 0) {
+                        sb.append(", ");
+                    }
+                    sb.append('"').append(RESULT_COLUMNS[i]).append("\": ");
+                    // Text columns are first, others are numbers
+                    sb.append(i < TEXT_COLUMNS ? jsonString(row[i]) : row[i]);
+                }
+                sb.append(r + 1 < results.size() ? "}," : "}");
+                System.out.println(sb);
+            }
+            System.out.println("]");
+        } else {
+            for (String line : lines) {
+                System.out.println(line);
+            }
+        }
+    }
+
+    private static String csvField(String value) {
+        if (value.contains(",") || value.contains("\"")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+
+    private static String jsonString(String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    private static String algorithmName(String key) {
+        for (String[] algorithm : ALGORITHMS) {
+            if (algorithm[0].equals(key)) {
+                return algorithm[1];
+            }
+        }
+        return null;
+    }
+
+    private boolean isSelected(String key) {
+        return algorithms == null || algorithms.contains(key);
+    }
+
+    /*
+    Factories for the algorithms of testMap and scenarios.
+     */
+    private static PathfinderFactory algorithmFactory(String key, ClusterGraph clusters) {
+        switch (key) {
+            case "djikstra":
+                return (s, e, m) -> new AStar(s, e, m, new DjikstraHeuristic());
+            case "euclidean":
+                return (s, e, m) -> new AStar(s, e, m, new EuclideanHeuristic());
+            case "diagonal":
+                return (s, e, m) -> new AStar(s, e, m, new DiagonalHeuristic());
+            case "jps":
+                return (s, e, m) -> new JPS(s, e, m, new EuclideanHeuristic());
+            case "blockjps":
+                return (s, e, m) -> new BlockJPS(s, e, m, new EuclideanHeuristic());
+            case "bidirectional":
+                return (s, e, m) -> new BidirectionalAStar(s, e, m, new DiagonalHeuristic());
+            case "parallel":
+                return parallelFactory();
+            default:
+                return (s, e, m) -> new HPAStar(s, e, m, clusters, new DiagonalHeuristic());
         }
     }
 
+    /*
+    Parallel search reuses its workspaces and shared g values for queries on
+    maps of the same size so queries don't allocate arrays for the whole map.
+     */
+    private static PathfinderFactory parallelFactory() {
+        SearchWorkspace[] workspaces = new SearchWorkspace[2];
+        SharedGScores[] shared = new SharedGScores[1];
+        return (s, e, m) -> {
+            if (shared[0] == null || !shared[0].fits(m.getWidth(), m.getHeight())) {
+                workspaces[0] = new SearchWorkspace(m.getWidth(), m.getHeight());
+                workspaces[1] = new SearchWorkspace(m.getWidth(), m.getHeight());
+                shared[0] = new SharedGScores(m.getWidth(), m.getHeight());
+            }
+            ParallelBidirectionalAStar pf = new ParallelBidirectionalAStar(s, e, m, new DiagonalHeuristic());
+            pf.setWorkspace(workspaces[0]);
+            pf.setBackwardWorkspace(workspaces[1]);
+            pf.setSharedGScores(shared[0]);
+            return pf;
+        };
+    }
+
     /*
     Useful methods for all tests
      */
     private double getStd(long[] times, double mean) {
+        if (times.length < 2) {
+            return 0;
+        }
         double s = 0;
         for (long time : times) {
             s += Math.pow(time - mean, 2);
@@ -132,82 +449,685 @@ public class Tester {
         return max;
     }
 
+    /*
+    Nearest-rank percentile of sorted times.
+     */
+    private long getPercentile(long[] sorted, double percentile) {
+        int rank = (int) Math.ceil(percentile / 100 * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
     private void printTimeStatistics(long[] times, String name) {
         double avg = getAverage(times);
         double std = getStd(times, avg);
         long max = getMax(times);
         long min = getMin(times);
+        long[] sorted = times.clone();
+        Arrays.sort(sorted);
+        double p50 = (double) getPercentile(sorted, 50) / NANO_TO_MILLI;
+        double p90 = (double) getPercentile(sorted, 90) / NANO_TO_MILLI;
+        double p99 = (double) getPercentile(sorted, 99) / NANO_TO_MILLI;
+        double p999 = (double) getPercentile(sorted, 99.9) / NANO_TO_MILLI;
 
-        lines.add(String.format("| %s | %.5f | %.5f | %.5f | %.5f |",
+        lines.add(String.format("| %s | %.5f | %.5f | %.5f | %.5f | %.5f | %.5f | %.5f | %.5f |",
                 name,
                 avg / NANO_TO_MILLI,
                 std / NANO_TO_MILLI,
                 (double) max / NANO_TO_MILLI,
-                (double) min / NANO_TO_MILLI
+                (double) min / NANO_TO_MILLI,
+                p50,
+                p90,
+                p99,
+                p999
         ));
+        results.add(new String[]{
+            section,
+            benchmark,
+            name,
+            Integer.toString(times.length),
+            String.format(Locale.ROOT, "%.5f", avg / NANO_TO_MILLI),
+            String.format(Locale.ROOT, "%.5f", std / NANO_TO_MILLI),
+            String.format(Locale.ROOT, "%.5f", (double) min / NANO_TO_MILLI),
+            String.format(Locale.ROOT, "%.5f", p50),
+            String.format(Locale.ROOT, "%.5f", p90),
+            String.format(Locale.ROOT, "%.5f", p99),
+            String.format(Locale.ROOT, "%.5f", p999),
+            String.format(Locale.ROOT, "%.5f", (double) max / NANO_TO_MILLI)
+        });
     }
 
     private void printStatisticsHeader(String headerText) {
-        lines.add(String.format("| %s | Average time (ms) | Standard deviation (ms) | Max time (ms) | Min time (ms) |",
+        lines.add(String.format("| %s | Average time (ms) | Standard deviation (ms) | Max time (ms) | Min time (ms) | P50 (ms) | P90 (ms) | P99 (ms) | P99.9 (ms) |",
                 headerText
         ));
-        lines.add("|---|---|---|---|---|");
+        lines.add("|---|---|---|---|---|---|---|---|---|");
     }
 
     /*
     Benchmarking different pathfinding algorithms
      */
-    private void testMap(String mapName, boolean[][] isWall, int width, int height, int numberOfTests, Node start, Node end) {
+    private void testMap(String mapName, GridMap map, int numberOfTests, Node start, Node end) {
+        benchmark = "Algorithms";
         // Print path lengths for each algorithm
         lines.add("## Statistics for each pathfinding algorithm in map: " + mapName);
         lines.add("");
         lines.add("| Algorithm | Path length |");
         lines.add("|---|---|");
-        // Djikstra
-        Pathfinder pf;
-        pf = new AStar(start, end, width, height, isWall, new DjikstraHeuristic());
-        pf.solve();
-        lines.add("| Djikstra's algorithm | " + pf.getPathLength() + " |");
-        // AStar euclidean
-        pf = new AStar(start, end, width, height, isWall, new EuclideanHeuristic());
-        pf.solve();
-        lines.add("| Euclidean distance A* |" + pf.getPathLength() + " |");
-        // Astar diagonal
-        pf = new AStar(start, end, width, height, isWall, new DiagonalHeuristic());
-        pf.solve();
-        lines.add("| Diagonal distance A* |" + pf.getPathLength() + " |");
-        // Jump point search
-        pf = new JPS(start, end, width, height, isWall, new EuclideanHeuristic());
-        pf.solve();
-        lines.add("| Jump point search |" + pf.getPathLength() + " |");
+        for (String[] algorithm : ALGORITHMS) {
+            if (algorithm[0].equals("hpa") || !isSelected(algorithm[0])) {
+                continue;
+            }
+            Pathfinder pf = algorithmFactory(algorithm[0], null).create(start, end, map);
+            pf.solve();
+            lines.add("| " + algorithm[1] + " | " + pf.getPathLength() + " |");
+        }
 
         // Actual performance testing starts here
-        long[] djikstraRes = new long[numberOfTests];
-        long[] eucRes = new long[numberOfTests];
-        long[] diagRes = new long[numberOfTests];
-        long[] jpsRes = new long[numberOfTests];
+        lines.add("");
+        printStatisticsHeader("Algorithm");
+        for (String[] algorithm : ALGORITHMS) {
+            if (algorithm[0].equals("hpa") || !isSelected(algorithm[0])) {
+                continue;
+            }
+            long[] res = measure(algorithmFactory(algorithm[0], null), map, numberOfTests, start, end);
+            printTimeStatistics(res, algorithm[1]);
+        }
 
-        for (int i = 0; i < numberOfTests; i++) {
-            // Djikstra's algorithm
-            pf = new AStar(start, end, width, height, isWall, new DjikstraHeuristic());
-            djikstraRes[i] = timeToSolve(pf);
-            // AStar euclidean
-            pf = new AStar(start, end, width, height, isWall, new EuclideanHeuristic());
-            eucRes[i] = timeToSolve(pf);
-            // Astar diagonal
-            pf = new AStar(start, end, width, height, isWall, new DiagonalHeuristic());
-            diagRes[i] = timeToSolve(pf);
-            // Jump point search
-            pf = new JPS(start, end, width, height, isWall, new EuclideanHeuristic());
-            jpsRes[i] = timeToSolve(pf);
+        testAllocation(map, 10, start, end);
+    }
+
+    /*
+    Benchmarking memory allocated by single query with and without reusing
+    SearchWorkspace.
+     */
+    private void testAllocation(GridMap map, int numberOfTests, Node start, Node end) {
+        if (allocatedBytes() < 0) {
+            // Allocation counters are not supported by this JVM
+            return;
+        }
+        SearchWorkspace ws = new SearchWorkspace(map.getWidth(), map.getHeight());
+
+        lines.add("");
+        lines.add("| Algorithm | Allocated per query (KB) | Allocated per query with reused workspace (KB) |");
+        lines.add("|---|---|---|");
+        lines.add(String.format("| Djikstra's algorithm | %d | %d |",
+                allocationPerQuery(new AStar(start, end, map, new DjikstraHeuristic()), null, numberOfTests),
+                allocationPerQuery(new AStar(start, end, map, new DjikstraHeuristic()), ws, numberOfTests)
+        ));
+        lines.add(String.format("| Euclidean distance A* | %d | %d |",
+                allocationPerQuery(new AStar(start, end, map, new EuclideanHeuristic()), null, numberOfTests),
+                allocationPerQuery(new AStar(start, end, map, new EuclideanHeuristic()), ws, numberOfTests)
+        ));
+        lines.add(String.format("| Jump point search | %d | %d |",
+                allocationPerQuery(new JPS(start, end, map, new EuclideanHeuristic()), null, numberOfTests),
+                allocationPerQuery(new JPS(start, end, map, new EuclideanHeuristic()), ws, numberOfTests)
+        ));
+    }
+
+    /*
+    Benchmarking JPS+ preprocessing and comparing its queries to JPS.
+     */
+    private void testJumpTable(File mapFile, GridMap map, int numberOfTests, Node start, Node end) {
+        benchmark = "JPS+";
+        long t = System.nanoTime();
+        JumpTable table = JumpTable.build(map);
+        long buildTime = System.nanoTime() - t;
+        long loadTime;
+        try {
+            JumpTableFile.save(table, map, JumpTableFile.sidecarFile(mapFile));
+            t = System.nanoTime();
+            table = JumpTableFile.loadOrBuild(mapFile, map);
+            loadTime = System.nanoTime() - t;
+        } catch (IOException e) {
+            System.out.println(e.getMessage());
+            return;
         }
 
+        JumpTable jumps = table;
+        long[] jpsRes = measure((s, e, m) -> new JPS(s, e, m, new EuclideanHeuristic()), map, numberOfTests, start, end);
+        long[] jpsPlusRes = measure((s, e, m) -> new JPSPlus(s, e, m, jumps, new EuclideanHeuristic()), map, numberOfTests, start, end);
+
+        lines.add("");
+        lines.add(String.format("JPS+ table built in %.5f ms and loaded from sidecar file in %.5f ms",
+                (double) buildTime / NANO_TO_MILLI,
+                (double) loadTime / NANO_TO_MILLI
+        ));
         lines.add("");
         printStatisticsHeader("Algorithm");
-        printTimeStatistics(djikstraRes, "Djikstra's algorithm");
-        printTimeStatistics(eucRes, "Euclidean distance A*");
-        printTimeStatistics(diagRes, "Diagonal distance A*");
         printTimeStatistics(jpsRes, "Jump point search");
+        printTimeStatistics(jpsPlusRes, "JPS+");
+    }
+
+    /*
+    Benchmarking landmark preprocessing with different landmark selections and
+    comparing A* with landmark heuristic to A* with diagonal distance.
+     */
+    private void testLandmarks(File mapFile, GridMap map, int numberOfTests, Node start, Node end) {
+        benchmark = "Landmarks";
+        int landmarks = 8;
+        lines.add("");
+        lines.add(String.format("| Selection of %d landmarks | Build time (ms) |", landmarks));
+        lines.add("|---|---|");
+        for (LandmarkSelection selection : LandmarkSelection.values()) {
+            long t = System.nanoTime();
+            LandmarkTable.build(map, landmarks, selection);
+            lines.add(String.format("| %s | %.5f |", selection, (double) (System.nanoTime() - t) / NANO_TO_MILLI));
+        }
+
+        LandmarkTable table;
+        long loadTime;
+        try {
+            LandmarkTableFile.loadOrBuild(mapFile, map, landmarks, LandmarkSelection.FARTHEST);
+            long t = System.nanoTime();
+            table = LandmarkTableFile.loadOrBuild(mapFile, map, landmarks, LandmarkSelection.FARTHEST);
+            loadTime = System.nanoTime() - t;
+        } catch (IOException e) {
+            System.out.println(e.getMessage());
+            return;
+        }
+
+        LandmarkHeuristic heuristic = new LandmarkHeuristic(table);
+        long[] diagonalRes = measure((s, e, m) -> new AStar(s, e, m, new DiagonalHeuristic()), map, numberOfTests, start, end);
+        long[] landmarkRes = measure((s, e, m) -> new AStar(s, e, m, heuristic), map, numberOfTests, start, end);
+
+        lines.add("");
+        lines.add(String.format("Landmark table loaded from sidecar file in %.5f ms", (double) loadTime / NANO_TO_MILLI));
+        lines.add("");
+        printStatisticsHeader("Algorithm");
+        printTimeStatistics(diagonalRes, "Diagonal distance A*");
+        printTimeStatistics(landmarkRes, "Landmark A* (FARTHEST)");
+    }
+
+    /*
+    Benchmarking parsing of all maps in the data folder.
+     */
+    private void testMapLoading(File folder, int numberOfLoads) {
+        benchmark = "Map loading";
+        File[] files = mapFiles(folder);
+        if (files.length == 0) {
+            return;
+        }
+        printStatisticsHeader("Map loading");
+        for (File file : files) {
+            long[] res = new long[numberOfLoads];
+            // Negative rounds are warmup and not recorded
+            for (int i = -warmup; i < numberOfLoads; i++) {
+                long t = System.nanoTime();
+                new MapReader(file);
+                if (i >= 0) {
+                    res[i] = System.nanoTime() - t;
+                }
+            }
+            printTimeStatistics(res, file.getName());
+        }
+    }
+
+    /*
+    Benchmarking loading the map from text and from memory-mapped binary file
+    and searching both.
+     */
+    private void testBinaryMap(File mapFile, int numberOfTests, Node start, Node end) {
+        benchmark = "Binary map";
+        int loads = 10;
+        long[] textRes = new long[loads];
+        long[] binaryRes = new long[loads];
+        long[] verifiedRes = new long[loads];
+        MapReader mr = null;
+        MappedGridMap mapped = null;
+        try {
+            BinaryMapFile.loadOrConvert(mapFile);
+            // Negative rounds are warmup and not recorded
+            for (int i = -warmup; i < loads; i++) {
+                long t = System.nanoTime();
+                mr = new MapReader(mapFile);
+                long text = System.nanoTime() - t;
+                t = System.nanoTime();
+                mapped = BinaryMapFile.load(BinaryMapFile.binaryFile(mapFile));
+                long binary = System.nanoTime() - t;
+                t = System.nanoTime();
+                BinaryMapFile.load(BinaryMapFile.binaryFile(mapFile), true);
+                long verified = System.nanoTime() - t;
+                if (i >= 0) {
+                    textRes[i] = text;
+                    binaryRes[i] = binary;
+                    verifiedRes[i] = verified;
+                }
+            }
+        } catch (IOException e) {
+            System.out.println(e.getMessage());
+            return;
+        }
+
+        PathfinderFactory diagonal = (s, e, m) -> new AStar(s, e, m, new DiagonalHeuristic());
+        long[] textMapRes = measure(diagonal, mr.getGridMap(), numberOfTests, start, end);
+        long[] mappedRes = measure(diagonal, mapped, numberOfTests, start, end);
+
+        lines.add("");
+        printStatisticsHeader("Map loading");
+        printTimeStatistics(textRes, "MapReader (text)");
+        printTimeStatistics(binaryRes, "BinaryMapFile (memory-mapped)");
+        printTimeStatistics(verifiedRes, "BinaryMapFile (memory-mapped, checksum verified)");
+        lines.add("");
+        printStatisticsHeader("Algorithm");
+        printTimeStatistics(textMapRes, "Diagonal distance A* (GridMap)");
+        printTimeStatistics(mappedRes, "Diagonal distance A* (MappedGridMap)");
+    }
+
+    /*
+    Benchmarking copy-on-write snapshots. Making a new version after one
+    change is compared to copying the whole map, and searching a snapshot to
+    searching the map itself.
+     */
+    private void testSnapshots(GridMap map, int numberOfTests, Node start, Node end) {
+        benchmark = "Snapshots";
+        Random r = new Random(1);
+        long[] copyRes = new long[numberOfTests];
+        long[] editRes = new long[numberOfTests];
+        MapSnapshot snapshot = MapSnapshot.of(map);
+        // Negative rounds are warmup and not recorded
+        for (int i = -warmup; i < numberOfTests; i++) {
+            int x = r.nextInt(map.getWidth());
+            int y = r.nextInt(map.getHeight());
+            long t = System.nanoTime();
+            MapSnapshot.of(map);
+            long copy = System.nanoTime() - t;
+            t = System.nanoTime();
+            snapshot.withWall(x, y, !snapshot.isWall(x, y));
+            long edit = System.nanoTime() - t;
+            if (i >= 0) {
+                copyRes[i] = copy;
+                editRes[i] = edit;
+            }
+        }
+
+        PathfinderFactory diagonal = (s, e, m) -> new AStar(s, e, m, new DiagonalHeuristic());
+        long[] mapRes = measure(diagonal, map, numberOfTests, start, end);
+        long[] snapshotRes = measure(diagonal, snapshot, numberOfTests, start, end);
+
+        lines.add("");
+        printStatisticsHeader("Map version");
+        printTimeStatistics(copyRes, "Copy of the whole map");
+        printTimeStatistics(editRes, "Snapshot with one node changed");
+        lines.add("");
+        printStatisticsHeader("Algorithm");
+        printTimeStatistics(mapRes, "Diagonal distance A* (GridMap)");
+        printTimeStatistics(snapshotRes, "Diagonal distance A* (MapSnapshot)");
+    }
+
+    /*
+    Benchmarking D* Lite replanning after one wall changes against A* that
+    searches again from scratch.
+     */
+    private void testDStarLite(GridMap map, int numberOfTests, Node start, Node end) {
+        benchmark = "D* Lite";
+        for (int i = 0; i < warmup; i++) {
+            DStarLite warm = new DStarLite(map, new DiagonalHeuristic());
+            warm.setStart(start.getX(), start.getY());
+            warm.setEnd(end.getX(), end.getY());
+            warm.solve();
+        }
+        DStarLite dStarLite = new DStarLite(map, new DiagonalHeuristic());
+        dStarLite.setStart(start.getX(), start.getY());
+        dStarLite.setEnd(end.getX(), end.getY());
+        long t = System.nanoTime();
+        dStarLite.solve();
+        long firstTime = System.nanoTime() - t;
+        int firstExpanded = dStarLite.getExpandedCount();
+
+        Random r = new Random(1);
+        long[] aStarRes = new long[numberOfTests];
+        long[] repairRes = new long[numberOfTests];
+        long expanded = 0;
+        // Negative rounds are warmup and not recorded
+        for (int i = -warmup; i < numberOfTests; i++) {
+            int x, y;
+            do {
+                x = r.nextInt(map.getWidth());
+                y = r.nextInt(map.getHeight());
+            } while ((x == start.getX() && y == start.getY()) || (x == end.getX() && y == end.getY()));
+            map.setWall(x, y, !map.isWall(x, y));
+            t = System.nanoTime();
+            dStarLite.updateNode(x, y);
+            dStarLite.solve();
+            long repair = System.nanoTime() - t;
+            long aStar = timeToSolve(new AStar(start, end, map, new DiagonalHeuristic()));
+            if (i >= 0) {
+                repairRes[i] = repair;
+                aStarRes[i] = aStar;
+                expanded += dStarLite.getExpandedCount();
+            }
+            // Change is undone so that the next tests use the original map
+            map.setWall(x, y, !map.isWall(x, y));
+            dStarLite.updateNode(x, y);
+        }
+
+        lines.add("");
+        lines.add(String.format("D* Lite first search %.5f ms with %d expanded nodes, repairs expanded %d nodes on average",
+                (double) firstTime / NANO_TO_MILLI,
+                firstExpanded,
+                expanded / numberOfTests
+        ));
+        lines.add("");
+        printStatisticsHeader("Algorithm");
+        printTimeStatistics(aStarRes, "Diagonal distance A* (from scratch)");
+        printTimeStatistics(repairRes, "D* Lite (one wall changed)");
+    }
+
+    /*
+    Benchmarking compressed path database on the top left corner of the map.
+    Table grows with the square of the number of nodes so whole maps of the
+    tests would take too long to build.
+     */
+    private void testFirstMoveTable(GridMap map, int numberOfTests) {
+        benchmark = "Compressed path database";
+        int size = Math.min(64, Math.min(map.getWidth(), map.getHeight()));
+        GridMap crop = new GridMap(size, size);
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                crop.setWall(x, y, map.isWall(x, y));
+            }
+        }
+        Node start = new Node(5, 5);
+        Node end = new Node(size - 6, size - 6);
+
+        long t = System.nanoTime();
+        FirstMoveTable built = FirstMoveTable.build(crop);
+        long buildTime = System.nanoTime() - t;
+
+        FirstMoveTable table;
+        long loadTime;
+        long fileSize;
+        try {
+            File file = File.createTempFile("pathfinding", ".cpd");
+            file.deleteOnExit();
+            FirstMoveTableFile.save(built, crop, file);
+            fileSize = file.length();
+            t = System.nanoTime();
+            table = FirstMoveTableFile.load(file, crop);
+            loadTime = System.nanoTime() - t;
+        } catch (IOException e) {
+            System.out.println(e.getMessage());
+            return;
+        }
+
+        FirstMoveTable moves = table;
+        long[] aStarRes = measure((s, e, m) -> new AStar(s, e, m, new DiagonalHeuristic()), crop, numberOfTests, start, end);
+        long[] cpdRes = measure((s, e, m) -> new CPDPathfinder(s, e, m, moves), crop, numberOfTests, start, end);
+
+        lines.add("");
+        lines.add(String.format("First move table of %dx%d area with %d runs built in %.5f ms, %d kB file mapped in %.5f ms",
+                size,
+                size,
+                table.getRunCount(),
+                (double) buildTime / NANO_TO_MILLI,
+                fileSize / BYTES_TO_KILO,
+                (double) loadTime / NANO_TO_MILLI
+        ));
+        lines.add("");
+        printStatisticsHeader("Algorithm");
+        printTimeStatistics(aStarRes, "Diagonal distance A*");
+        printTimeStatistics(cpdRes, "Compressed path database");
+    }
+
+    /*
+    Benchmarking HPA* preprocessing, updates and queries against A*.
+     */
+    private void testHPAStar(GridMap map, int numberOfTests, Node start, Node end) {
+        benchmark = "HPA*";
+        int clusterSize = 32;
+        long t = System.nanoTime();
+        ClusterGraph clusters = ClusterGraph.build(map, clusterSize);
+        long buildTime = System.nanoTime() - t;
+
+        // Toggling one node twice rebuilds its cluster twice
+        int x = map.getWidth() / 2;
+        int y = map.getHeight() / 2;
+        t = System.nanoTime();
+        for (int i = 0; i < 2; i++) {
+            map.setWall(x, y, !map.isWall(x, y));
+            clusters.update(x, y);
+        }
+        long updateTime = (System.nanoTime() - t) / 2;
+
+        long[] aStarRes = measure((s, e, m) -> new AStar(s, e, m, new DiagonalHeuristic()), map, numberOfTests, start, end);
+        long[] hpaRes = measure((s, e, m) -> new HPAStar(s, e, m, clusters, new DiagonalHeuristic()), map, numberOfTests, start, end);
+        long[] abstractRes = new long[numberOfTests];
+        // Negative rounds are warmup and not recorded
+        for (int i = -warmup; i < numberOfTests; i++) {
+            HPAStar hpa = new HPAStar(start, end, map, clusters, new DiagonalHeuristic());
+            long s = System.nanoTime();
+            hpa.solveAbstract();
+            if (i >= 0) {
+                abstractRes[i] = System.nanoTime() - s;
+            }
+        }
+        Pathfinder aStar = new AStar(start, end, map, new DiagonalHeuristic());
+        aStar.solve();
+        Pathfinder hpa = new HPAStar(start, end, map, clusters, new DiagonalHeuristic());
+        hpa.solve();
+
+        lines.add("");
+        lines.add(String.format("HPA* with %d clusters of %dx%d and %d abstract nodes built in %.5f ms, one node updated in %.5f ms",
+                clusters.getClusterCount(),
+                clusterSize,
+                clusterSize,
+                clusters.getNodeCount(),
+                (double) buildTime / NANO_TO_MILLI,
+                (double) updateTime / NANO_TO_MILLI
+        ));
+        lines.add(String.format("Path length: A* %.5f, HPA* %.5f", aStar.getPathLength(), hpa.getPathLength()));
+        lines.add("");
+        printStatisticsHeader("Algorithm");
+        printTimeStatistics(aStarRes, "Diagonal distance A*");
+        printTimeStatistics(hpaRes, "HPA* (refined)");
+        printTimeStatistics(abstractRes, "HPA* (abstract path only)");
+    }
+
+    /*
+    Running Moving AI scenarios and checking path lengths against the optimal
+    lengths of the scenario file.
+     */
+    private void testScenarios(String mapName, GridMap map, File scenarioFile) {
+        ArrayList<Scenario> scenarios = new ScenarioReader(scenarioFile).getScenarios();
+        ScenarioRunner runner = new ScenarioRunner(map, scenarios);
+        ClusterGraph clusters = isSelected("hpa") ? ClusterGraph.build(map, 32) : null;
+
+        lines.add("## Scenarios of map: " + mapName);
+        lines.add("");
+        lines.add(scenarios.size() + " queries from " + scenarioFile.getName());
+        for (String key : new String[]{"diagonal", "jps", "blockjps", "bidirectional", "hpa"}) {
+            if (isSelected(key)) {
+                // HPA* paths are not always the shortest
+                runScenarios(runner, algorithmName(key), algorithmFactory(key, clusters), !key.equals("hpa"));
+            }
+        }
+    }
+
+    private void runScenarios(ScenarioRunner runner, String name, PathfinderFactory factory, boolean optimal) {
+        lines.add("");
+        lines.addAll(runner.run(name, factory, optimal));
+        lines.add("");
+        lines.add(name + " wrong path lengths: " + runner.getWrongLengths());
+    }
+
+    /*
+    Benchmarking component labelling and queries that check it before
+    searching.
+     */
+    private void testComponentIndex(GridMap map, int numberOfTests, Node start, Node end) {
+        benchmark = "Component index";
+        long t = System.nanoTime();
+        ComponentIndex index = ComponentIndex.build(map);
+        long buildTime = System.nanoTime() - t;
+
+        long[] aStarRes = measure((s, e, m) -> new AStar(s, e, m, new DiagonalHeuristic()), map, numberOfTests, start, end);
+        long[] aStarIndexRes = measure((s, e, m) -> {
+            Pathfinder pf = new AStar(s, e, m, new DiagonalHeuristic());
+            pf.setComponentIndex(index);
+            return pf;
+        }, map, numberOfTests, start, end);
+        long[] jpsRes = measure((s, e, m) -> new JPS(s, e, m, new EuclideanHeuristic()), map, numberOfTests, start, end);
+        long[] jpsIndexRes = measure((s, e, m) -> {
+            Pathfinder pf = new JPS(s, e, m, new EuclideanHeuristic());
+            pf.setComponentIndex(index);
+            return pf;
+        }, map, numberOfTests, start, end);
+
+        lines.add("");
+        lines.add(String.format("Component index with %d components built in %.5f ms",
+                index.getComponentCount(),
+                (double) buildTime / NANO_TO_MILLI
+        ));
+        lines.add("");
+        printStatisticsHeader("Algorithm");
+        printTimeStatistics(aStarRes, "Diagonal distance A*");
+        printTimeStatistics(aStarIndexRes, "Diagonal distance A* with component index");
+        printTimeStatistics(jpsRes, "Jump point search");
+        printTimeStatistics(jpsIndexRes, "Jump point search with component index");
+    }
+
+    /*
+    Comparing solving random queries one by one to solving them as a batch
+    with BatchSolver.
+     */
+    private void testBatchSolver(GridMap map, int numberOfQueries) {
+        Random rnd = new Random(42);
+        Node[] starts = new Node[numberOfQueries];
+        Node[] ends = new Node[numberOfQueries];
+        for (int i = 0; i < numberOfQueries; i++) {
+            starts[i] = randomEmptyNode(map, rnd);
+            ends[i] = randomEmptyNode(map, rnd);
+        }
+        PathfinderFactory factory = (s, e, m) -> new AStar(s, e, m, new DiagonalHeuristic());
+        BatchSolver solver = new BatchSolver(map, factory);
+
+        // Warmup solves the first queries both ways without timing
+        int warmupQueries = Math.min(warmup, numberOfQueries);
+        for (int i = 0; i < warmupQueries; i++) {
+            factory.create(starts[i], ends[i], map).solve();
+        }
+        solver.solve(Arrays.copyOf(starts, warmupQueries), Arrays.copyOf(ends, warmupQueries));
+
+        long t = System.nanoTime();
+        for (int i = 0; i < numberOfQueries; i++) {
+            factory.create(starts[i], ends[i], map).solve();
+        }
+        long sequential = System.nanoTime() - t;
+
+        t = System.nanoTime();
+        BatchResult result = solver.solve(starts, ends);
+        long batch = System.nanoTime() - t;
+
+        lines.add("");
+        lines.add(String.format("| %d random queries with diagonal distance A* | Total time (ms) | Queries per second |", result.size()));
+        lines.add("|---|---|---|");
+        lines.add(String.format("| One by one | %.5f | %.1f |",
+                (double) sequential / NANO_TO_MILLI,
+                numberOfQueries * 1e9 / sequential
+        ));
+        lines.add(String.format("| BatchSolver (%d threads) | %.5f | %.1f |",
+                ForkJoinPool.commonPool().getParallelism(),
+                (double) batch / NANO_TO_MILLI,
+                numberOfQueries * 1e9 / batch
+        ));
+    }
+
+    private Node randomEmptyNode(GridMap map, Random rnd) {
+        while (true) {
+            int x = rnd.nextInt(map.getWidth());
+            int y = rnd.nextInt(map.getHeight());
+            if (!map.isWall(x, y)) {
+                return new Node(x, y);
+            }
+        }
+    }
+
+    /*
+    Comparing CellHeap that adds duplicate entries to IndexedCellHeap that
+    decreases priority of the existing entry.
+     */
+    private void testOpenLists(GridMap map, int numberOfTests, Node start, Node end) {
+        SearchWorkspace lazy = new SearchWorkspace(map.getWidth(), map.getHeight(), false);
+        SearchWorkspace indexed = new SearchWorkspace(map.getWidth(), map.getHeight(), true);
+
+        lines.add("");
+        lines.add("| Algorithm | Open list | Peak open list size | Stale pops | Average time (ms) |");
+        lines.add("|---|---|---|---|---|");
+        compareOpenList("Djikstra's algorithm", new AStar(start, end, map, new DjikstraHeuristic()), lazy, indexed, numberOfTests);
+        compareOpenList("Euclidean distance A*", new AStar(start, end, map, new EuclideanHeuristic()), lazy, indexed, numberOfTests);
+        compareOpenList("Diagonal distance A*", new AStar(start, end, map, new DiagonalHeuristic()), lazy, indexed, numberOfTests);
+        compareOpenList("Jump point search", new JPS(start, end, map, new EuclideanHeuristic()), lazy, indexed, numberOfTests);
+    }
+
+    private void compareOpenList(String name, Pathfinder pf, SearchWorkspace lazy, SearchWorkspace indexed, int numberOfTests) {
+        SearchWorkspace[] workspaces = new SearchWorkspace[]{lazy, indexed};
+        String[] names = new String[]{"CellHeap", "IndexedCellHeap"};
+        for (int i = 0; i < workspaces.length; i++) {
+            pf.setWorkspace(workspaces[i]);
+            long[] times = measure(pf, numberOfTests);
+            lines.add(String.format("| %s | %s | %d | %d | %.5f |",
+                    name,
+                    names[i],
+                    pf.getPeakOpenListSize(),
+                    pf.getStalePops(),
+                    getAverage(times) / NANO_TO_MILLI
+            ));
+        }
+    }
+
+    private long allocationPerQuery(Pathfinder pf, SearchWorkspace ws, int numberOfTests) {
+        if (ws != null) {
+            pf.setWorkspace(ws);
+        }
+        long before = allocatedBytes();
+        for (int i = 0; i < numberOfTests; i++) {
+            pf.solve();
+        }
+        long after = allocatedBytes();
+        return (after - before) / numberOfTests / BYTES_TO_KILO;
+    }
+
+    private long allocatedBytes() {
+        // Thread allocation counter is HotSpot specific, -1 = not supported
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    private File[] mapFiles(File folder) {
+        File[] files = folder.listFiles((dir, name) -> name.endsWith(".map"));
+        return files == null ? new File[0] : files;
+    }
+
+    /*
+    Solves the query warmup times without timing so JIT has compiled the
+    algorithm before the timed runs.
+     */
+    private long[] measure(PathfinderFactory factory, GridMap map, int numberOfTests, Node start, Node end) {
+        for (int i = 0; i < warmup; i++) {
+            factory.create(start, end, map).solve();
+        }
+        long[] res = new long[numberOfTests];
+        for (int i = 0; i < numberOfTests; i++) {
+            res[i] = timeToSolve(factory.create(start, end, map));
+        }
+        return res;
+    }
+
+    /*
+    Same as above for one pathfinder that is solved again on every run.
+     */
+    private long[] measure(Pathfinder pf, int numberOfTests) {
+        for (int i = 0; i < warmup; i++) {
+            pf.solve();
+        }
+        long[] res = new long[numberOfTests];
+        for (int i = 0; i < numberOfTests; i++) {
+            res[i] = timeToSolve(pf);
+        }
+        return res;
     }
 
     private long timeToSolve(Pathfinder pf) {
@@ -224,12 +1144,17 @@ public class Tester {
     Benchmarking My implementation of sqrt against Java Math.sqrt.
      */
     private void testAndPrintSqrt() {
+        benchmark = "Sqrt";
         int runs = 100;
         int iters = 1000000;
 
         long[] resultsJava = new long[runs];
         long[] resultsOwn = new long[runs];
 
+        for (int i = 0; i < warmup; i++) {
+            testJavaSqrt(iters);
+            testOwnSqrt(iters);
+        }
         for (int i = 0; i < runs; i++) {
             resultsJava[i] = testJavaSqrt(iters);
             resultsOwn[i] = testOwnSqrt(iters);
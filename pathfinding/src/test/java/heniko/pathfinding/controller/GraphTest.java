@@ -1,5 +1,11 @@
 package heniko.pathfinding.controller;
 
+import heniko.pathfinding.domain.AStar;
+import heniko.pathfinding.domain.DjikstraHeuristic;
+import heniko.pathfinding.domain.MapSnapshot;
+import heniko.pathfinding.domain.PathCache;
+import heniko.pathfinding.domain.Pathfinder;
+import heniko.pathfinding.util.Node;
 import org.junit.Test;
 import static org.junit.Assert.*;
 import org.junit.Before;
@@ -118,4 +124,83 @@ public class GraphTest {
         g.changeNode(g.getEndX(), g.getEndY(), 0);
         assertEquals(guiState[g.getEndX()][g.getEndY()], 2);
     }
+
+    @Test
+    public void mapFollowsChangesTest() {
+        g.changeNode(2, 2, 3);
+        assertTrue(g.getMap().isWall(2, 2));
+        g.changeNode(2, 2, 0);
+        assertFalse(g.getMap().isWall(2, 2));
+        g.changeNode(1, 1, 3);
+        g.changeNode(1, 1, 1);
+        assertFalse(g.getMap().isWall(1, 1));
+    }
+
+    @Test
+    public void pathCacheTest() {
+        PathCache cache = new PathCache(10, 1 << 20);
+        g.setPathCache(cache);
+        g.solve(1);
+        g.solve(1);
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.size());
+        // Changing walls makes new version and clears the cache
+        long version = g.getMapVersion();
+        g.changeNode(1, 1, 3);
+        assertEquals(version + 1, g.getMapVersion());
+        assertEquals(0, cache.size());
+        // Setting wall again doesn't change anything
+        g.changeNode(1, 1, 3);
+        assertEquals(version + 1, g.getMapVersion());
+        g.solve(1);
+        assertEquals(1, cache.getHits());
+    }
+
+    @Test
+    public void dStarLiteFollowsChangesTest() {
+        g.solve(8);
+        // 3 diagonal and 2 straight moves from (0, 0) to (3, 5)
+        assertEquals(2 + 3 * Math.sqrt(2), g.getDStarLite().getPathLength(), 1e-9);
+        g.changeNode(1, 1, 3);
+        g.changeNode(2, 2, 3);
+        g.changeNode(0, 2, 1);
+        g.solve(8);
+        Pathfinder pf = new AStar(new Node(0, 2), new Node(3, 5), g.getMap(), new DjikstraHeuristic());
+        pf.solve();
+        assertEquals(pf.getPathLength(), g.getDStarLite().getPathLength(), 1e-9);
+    }
+
+    @Test
+    public void snapshotTest() {
+        MapSnapshot snapshot = g.getSnapshot();
+        g.changeNode(2, 2, 3);
+        assertFalse(snapshot.isWall(2, 2));
+        assertTrue(g.getSnapshot().isWall(2, 2));
+        assertEquals(g.getMap().checksum(), g.getSnapshot().checksum());
+    }
+
+    @Test
+    public void visualisationTickTest() {
+        g.changeNode(1, 1, 3);
+        g.solve(2);
+        // Search is drawn first and the path after it
+        int ticks = 0;
+        boolean pathDrawn = false;
+        while (!pathDrawn && ticks < 1000) {
+            g.visualisationTick();
+            ticks++;
+            for (int x = 0; x < sizeX; x++) {
+                for (int y = 0; y < sizeY; y++) {
+                    pathDrawn |= guiState[x][y] == 4;
+                }
+            }
+        }
+        assertTrue(pathDrawn);
+        assertTrue(ticks > 1);
+        assertEquals(1, guiState[0][0]);
+        assertEquals(2, guiState[sizeX - 1][sizeY - 1]);
+        assertEquals(3, guiState[1][1]);
+        g.clean();
+        assertEquals(0, guiState[2][2]);
+    }
 }
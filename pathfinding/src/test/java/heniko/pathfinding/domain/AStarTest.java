@@ -58,4 +58,32 @@ public class AStarTest {
         euc.solve();
         assertTrue(Math.abs(wanted - euc.getPathLength()) < 0.01);
     }
+
+    @Test
+    public void boundsTest() {
+        // Same obstacle as above, path around it leaves the bounds
+        GridMap map = new GridMap(6, 6);
+        for (int y = 0; y < 5; y++) {
+            map.setWall(3, y, true);
+        }
+        AStar bounded = new AStar(new Node(0, 0), new Node(5, 0), map, new DiagonalHeuristic());
+        bounded.setBounds(0, 0, 5, 4);
+        assertTrue(bounded.solve().isEmpty());
+        bounded = new AStar(new Node(0, 0), new Node(2, 4), map, new DiagonalHeuristic());
+        bounded.setBounds(0, 0, 2, 4);
+        assertFalse(bounded.solve().isEmpty());
+        assertEquals(2 * Math.sqrt(2) + 2, bounded.getPathLength(), 1e-9);
+    }
+
+    @Test
+    public void expandedCountTest() {
+        GridMap map = new GridMap(10, 10);
+        AStar djikstra = new AStar(new Node(0, 0), new Node(9, 9), map, new DjikstraHeuristic());
+        djikstra.solve();
+        AStar diag = new AStar(new Node(0, 0), new Node(9, 9), map, new DiagonalHeuristic());
+        diag.solve();
+        assertTrue(diag.getExpandedCount() > 0);
+        assertTrue(diag.getExpandedCount() < djikstra.getExpandedCount());
+        assertTrue(djikstra.getExpandedCount() <= 100);
+    }
 }
@@ -0,0 +1,93 @@
+package heniko.pathfinding.domain;
+
+import heniko.pathfinding.util.Node;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for BatchSolver.
+ *
+ * @author Niko Hernesniemi
+ */
+public class BatchSolverTest {
+
+    @Test
+    public void sameAsSingleQueriesTest() {
+        Random r = new Random(1337);
+        GridMap map = TestMaps.randomMap(40, 40, 1337);
+        int n = 100;
+        Node[] starts = new Node[n];
+        Node[] ends = new Node[n];
+        for (int i = 0; i < n; i++) {
+            starts[i] = new Node(r.nextInt(40), r.nextInt(40));
+            ends[i] = new Node(r.nextInt(40), r.nextInt(40));
+        }
+        PathfinderFactory factory = (s, e, m) -> new AStar(s, e, m, new DiagonalHeuristic());
+        BatchResult result = new BatchSolver(map, factory, new ForkJoinPool(4)).solve(starts, ends);
+
+        assertEquals(n, result.size());
+        for (int i = 0; i < n; i++) {
+            Pathfinder pf = factory.create(starts[i], ends[i], map);
+            List<Node> path = pf.solve();
+            assertEquals(path.size(), result.getPath(i).size());
+            assertEquals(pf.getPathLength(), result.getLength(i), 0);
+        }
+    }
+
+    @Test
+    public void reusedSolverTest() {
+        // Workspaces returned by the first batch are used by the second one
+        Random r = new Random(42);
+        GridMap map = new GridMap(30, 30);
+        for (int i = 0; i < 200; i++) {
+            map.setWall(r.nextInt(30), r.nextInt(30), true);
+        }
+        int n = 50;
+        Node[] starts = new Node[n];
+        Node[] ends = new Node[n];
+        for (int i = 0; i < n; i++) {
+            starts[i] = new Node(r.nextInt(30), r.nextInt(30));
+            ends[i] = new Node(r.nextInt(30), r.nextInt(30));
+        }
+        BatchSolver solver = new BatchSolver(map, (s, e, m) -> new JPS(s, e, m, new EuclideanHeuristic()), new ForkJoinPool(3));
+        BatchResult first = solver.solve(starts, ends);
+        BatchResult second = solver.solve(starts, ends);
+        for (int i = 0; i < n; i++) {
+            assertEquals(first.getPath(i).size(), second.getPath(i).size());
+            assertEquals(first.getLength(i), second.getLength(i), 0);
+        }
+    }
+
+    @Test
+    public void versionedMapTest() {
+        GridMap map = new GridMap(10, 10);
+        VersionedMap versionedMap = new VersionedMap(map);
+        BatchSolver solver = new BatchSolver(versionedMap, (s, e, m) -> new AStar(s, e, m, new DiagonalHeuristic()), new ForkJoinPool(2));
+        Node[] starts = new Node[]{new Node(0, 0)};
+        Node[] ends = new Node[]{new Node(9, 0)};
+        assertEquals(9, solver.solve(starts, ends).getLength(0), 1e-9);
+        // Next batch searches the newest snapshot
+        for (int y = 0; y < 9; y++) {
+            versionedMap.setWall(5, y, true);
+        }
+        BatchResult result = solver.solve(starts, ends);
+        Pathfinder pf = new AStar(starts[0], ends[0], versionedMap.snapshot(), new DiagonalHeuristic());
+        pf.solve();
+        assertEquals(pf.getPathLength(), result.getLength(0), 1e-9);
+        assertTrue(result.getLength(0) > 9);
+    }
+
+    @Test
+    public void emptyBatchTest() {
+        BatchSolver solver = new BatchSolver(new GridMap(5, 5), (s, e, m) -> new JPS(s, e, m, new EuclideanHeuristic()));
+        assertEquals(0, solver.solve(new Node[0], new Node[0]).size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void differentLengthsTest() {
+        BatchSolver solver = new BatchSolver(new GridMap(5, 5), (s, e, m) -> new JPS(s, e, m, new EuclideanHeuristic()));
+        solver.solve(new Node[1], new Node[2]);
+    }
+}
@@ -0,0 +1,72 @@
+package heniko.pathfinding.domain;
+
+import heniko.pathfinding.util.Node;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for bidirectional A*.
+ *
+ * @author Niko Hernesniemi
+ */
+public class BidirectionalAStarTest {
+
+    @Test
+    public void smallStraightPathTest() {
+        GridMap map = new GridMap(6, 6);
+        BidirectionalAStar pf = new BidirectionalAStar(new Node(0, 0), new Node(5, 5), map, new List<>(), new DiagonalHeuristic());
+        List<Node> path = pf.solve();
+        assertEquals(6, path.size());
+        assertEquals(0, path.get(0).getX());
+        assertEquals(5, path.get(5).getY());
+        assertEquals(7.07106, pf.getPathLength(), 0.01);
+    }
+
+    @Test
+    public void smallGraphWithObstacles() {
+        GridMap map = new GridMap(6, 6);
+        for (int y = 0; y < 5; y++) {
+            map.setWall(3, y, true);
+        }
+        BidirectionalAStar pf = new BidirectionalAStar(new Node(0, 0), new Node(5, 0), map, new DiagonalHeuristic());
+        pf.solve();
+        assertEquals(13.2426, pf.getPathLength(), 0.01);
+    }
+
+    @Test
+    public void noPathTest() {
+        // End is inside a small closed area
+        GridMap map = new GridMap(20, 20);
+        for (int i = 14; i < 19; i++) {
+            map.setWall(i, 14, true);
+            map.setWall(i, 18, true);
+            map.setWall(14, i, true);
+            map.setWall(18, i, true);
+        }
+        BidirectionalAStar pf = new BidirectionalAStar(new Node(0, 0), new Node(16, 16), map, new DiagonalHeuristic());
+        assertEquals(0, pf.solve().size());
+        assertEquals(0, pf.getPathLength(), 0);
+        // Backward search stops after 9 nodes so open lists stay small
+        assertTrue(pf.getPeakOpenListSize() < 30);
+    }
+
+    @Test
+    public void endInsideWallTest() {
+        GridMap map = new GridMap(5, 5);
+        map.setWall(4, 4, true);
+        BidirectionalAStar pf = new BidirectionalAStar(new Node(0, 0), new Node(4, 4), map, new DiagonalHeuristic());
+        assertEquals(0, pf.solve().size());
+    }
+
+    @Test
+    public void startIsEndTest() {
+        BidirectionalAStar pf = new BidirectionalAStar(new Node(2, 2), new Node(2, 2), new GridMap(5, 5), new DiagonalHeuristic());
+        assertEquals(1, pf.solve().size());
+        assertEquals(0, pf.getPathLength(), 0);
+    }
+
+    @Test
+    public void sameLengthAsAStarTest() {
+        TestMaps.assertSameLengthAsAStar((s, e, m) -> new BidirectionalAStar(s, e, m, new EuclideanHeuristic()), 30, 30, 3, 1337, 50);
+    }
+}
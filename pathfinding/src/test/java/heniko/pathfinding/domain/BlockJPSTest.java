@@ -0,0 +1,61 @@
+package heniko.pathfinding.domain;
+
+import heniko.pathfinding.util.Node;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for block-based jump point search.
+ *
+ * @author Niko Hernesniemi
+ */
+public class BlockJPSTest {
+
+    @Test
+    public void smallStraightPathTest() {
+        GridMap map = new GridMap(6, 6);
+        Node start = new Node(0, 0);
+        Node end = new Node(5, 5);
+        double wanted = 7.07106;
+
+        BlockJPS jps = new BlockJPS(start, end, map, new List<>(), new EuclideanHeuristic());
+        jps.solve();
+        assertTrue(Math.abs(wanted - jps.getPathLength()) < 0.01);
+    }
+
+    @Test
+    public void smallGraphWithObstacles() {
+        GridMap map = new GridMap(6, 6);
+        for (int y = 0; y < 5; y++) {
+            map.setWall(3, y, true);
+        }
+        Node start = new Node(0, 0);
+        Node end = new Node(5, 0);
+        double wanted = 13.2426;
+
+        BlockJPS jps = new BlockJPS(start, end, map, new List<>(), new EuclideanHeuristic());
+        jps.solve();
+        assertTrue(Math.abs(wanted - jps.getPathLength()) < 0.01);
+    }
+
+    @Test
+    public void longCorridorTest() {
+        // Corridor crosses several row words in both directions
+        GridMap map = new GridMap(300, 3);
+        for (int x = 0; x < 300; x++) {
+            map.setWall(x, 0, true);
+            map.setWall(x, 2, true);
+        }
+        BlockJPS jps = new BlockJPS(new Node(299, 1), new Node(1, 1), map, new EuclideanHeuristic());
+        jps.solve();
+        assertEquals(298, jps.getPathLength(), 0.0001);
+    }
+
+    @Test
+    public void sameLengthAsAStarTest() {
+        // Widths around the block size of 64 nodes
+        for (int width : new int[]{1, 63, 64, 65, 150}) {
+            TestMaps.assertSameLengthAsAStar((s, e, m) -> new BlockJPS(s, e, m, new EuclideanHeuristic()), width, 151 - width, 4, width, 10);
+        }
+    }
+}
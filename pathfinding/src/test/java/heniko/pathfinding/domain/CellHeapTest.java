@@ -0,0 +1,99 @@
+package heniko.pathfinding.domain;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for CellHeap.
+ *
+ * @author Niko Hernesniemi
+ */
+public class CellHeapTest {
+
+    CellHeap heap;
+
+    @Before
+    public void setUp() {
+        this.heap = new CellHeap(2);
+    }
+
+    @Test
+    public void addTest() {
+        assertEquals(0, heap.size());
+        assertTrue(heap.isEmpty());
+        heap.add(3, 0.0);
+        assertEquals(1, heap.size());
+        assertTrue(!heap.isEmpty());
+    }
+
+    @Test
+    public void peekTest() {
+        heap.add(1, 12);
+        heap.add(2, 2);
+        heap.add(3, 8);
+        assertEquals(2, heap.peek());
+        assertEquals(2, heap.peekPriority(), 0.0001);
+        assertEquals(3, heap.size());
+    }
+
+    @Test
+    public void pollTest() {
+        heap.add(1, 12);
+        heap.add(2, 2);
+        heap.add(3, 8);
+        assertEquals(2, heap.poll());
+        assertEquals(3, heap.poll());
+        assertEquals(1, heap.poll());
+        assertEquals(-1, heap.poll());
+    }
+
+    @Test
+    public void extendedPollTest() {
+        heap.add(12, 12);
+        heap.add(2, 2);
+        heap.add(8, 8);
+        assertEquals(2, heap.poll());
+        heap.add(11, 11);
+        heap.add(65, 65);
+        assertEquals(8, heap.poll());
+        assertEquals(11, heap.poll());
+        heap.add(1, 1);
+        assertEquals(1, heap.poll());
+        heap.add(7, 7);
+        assertEquals(7, heap.poll());
+        assertEquals(12, heap.poll());
+        assertEquals(65, heap.poll());
+        assertTrue(heap.isEmpty());
+    }
+
+    @Test
+    public void manyCellsComeOutSortedTest() {
+        for (int i = 0; i < 1000; i++) {
+            heap.add(i, (i * 7919) % 1000);
+        }
+        double previous = -1;
+        while (!heap.isEmpty()) {
+            double priority = heap.peekPriority();
+            assertTrue(previous <= priority);
+            previous = priority;
+            heap.poll();
+        }
+    }
+
+    @Test
+    public void clearTest() {
+        heap.add(1, 1);
+        heap.add(2, 2);
+        heap.clear();
+        assertTrue(heap.isEmpty());
+        heap.add(3, 3);
+        assertEquals(3, heap.poll());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void tooSmallInitialSizeTest() {
+        new CellHeap(0);
+    }
+}
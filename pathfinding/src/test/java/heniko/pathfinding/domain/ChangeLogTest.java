@@ -0,0 +1,210 @@
+package heniko.pathfinding.domain;
+
+import heniko.pathfinding.util.ColouredNode;
+import heniko.pathfinding.util.Node;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for ChangeLog.
+ *
+ * @author Niko Hernesniemi
+ */
+public class ChangeLogTest {
+
+    @Test
+    public void packTest() {
+        int change = ChangeLog.pack(ChangeLog.MAX_COORDINATE, 7, 15);
+        assertEquals(ChangeLog.MAX_COORDINATE, ChangeLog.getX(change));
+        assertEquals(7, ChangeLog.getY(change));
+        assertEquals(15, ChangeLog.getColor(change));
+        change = ChangeLog.pack(3, ChangeLog.MAX_COORDINATE, 0);
+        assertEquals(3, ChangeLog.getX(change));
+        assertEquals(ChangeLog.MAX_COORDINATE, ChangeLog.getY(change));
+        assertEquals(0, ChangeLog.getColor(change));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void tooLargeCoordinateTest() {
+        new ChangeLog().add(ChangeLog.MAX_COORDINATE + 1, 0, 5);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownPolicyTest() {
+        new ChangeLog(10, 3);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void pollEmptyTest() {
+        new ChangeLog().poll();
+    }
+
+    @Test
+    public void orderTest() {
+        ChangeLog log = new ChangeLog(1000, ChangeLog.DROP_NEWEST);
+        // Buffer grows past its initial size and wraps around
+        for (int i = 0; i < 100; i++) {
+            log.add(i, i + 1, i % 16);
+        }
+        for (int i = 0; i < 50; i++) {
+            assertEquals(ChangeLog.pack(i, i + 1, i % 16), log.poll());
+        }
+        for (int i = 100; i < 300; i++) {
+            log.add(i, i + 1, i % 16);
+        }
+        assertEquals(250, log.size());
+        int[] batch = new int[64];
+        int next = 50;
+        while (!log.isEmpty()) {
+            int count = log.drain(batch);
+            assertTrue(count > 0);
+            for (int i = 0; i < count; i++) {
+                assertEquals(ChangeLog.pack(next, next + 1, next % 16), batch[i]);
+                next++;
+            }
+        }
+        assertEquals(300, next);
+        assertEquals(0, log.getDropped());
+    }
+
+    @Test
+    public void dropOldestTest() {
+        ChangeLog log = new ChangeLog(10, ChangeLog.DROP_OLDEST);
+        for (int i = 0; i < 25; i++) {
+            log.add(i, 0, 5);
+        }
+        assertEquals(10, log.size());
+        assertEquals(15, log.getDropped());
+        for (int i = 15; i < 25; i++) {
+            assertEquals(i, ChangeLog.getX(log.poll()));
+        }
+    }
+
+    @Test
+    public void dropNewestTest() {
+        ChangeLog log = new ChangeLog(10, ChangeLog.DROP_NEWEST);
+        for (int i = 0; i < 25; i++) {
+            log.add(i, 0, 5);
+        }
+        assertEquals(10, log.size());
+        assertEquals(15, log.getDropped());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i, ChangeLog.getX(log.poll()));
+        }
+    }
+
+    @Test
+    public void sampleTest() {
+        ChangeLog log = new ChangeLog(16, ChangeLog.SAMPLE);
+        for (int i = 0; i < 1000; i++) {
+            log.add(i, 0, 5);
+        }
+        assertTrue(log.size() <= 16);
+        assertTrue(log.getSamplingStep() > 1);
+        assertEquals(1000, log.size() + log.getDropped());
+        // Sampled changes are still in order and cover the whole search
+        int previous = -1;
+        int last = 0;
+        while (!log.isEmpty()) {
+            last = ChangeLog.getX(log.poll());
+            assertTrue(last > previous);
+            previous = last;
+        }
+        assertTrue(last >= 1000 - 2 * 64);
+        log.clear();
+        assertEquals(1, log.getSamplingStep());
+    }
+
+    @Test
+    public void coalescingTest() {
+        ChangeLog log = new ChangeLog();
+        log.setCoalescing(4, 3);
+        log.add(1, 2, 5);
+        log.add(1, 2, 5);
+        log.add(1, 2, 6);
+        log.add(1, 2, 5);
+        log.add(3, 2, 5);
+        assertEquals(4, log.size());
+        assertEquals(0, log.getDropped());
+        log.clear();
+        log.add(1, 2, 5);
+        assertEquals(1, log.size());
+    }
+
+    @Test
+    public void droppedChangeIsNotCoalescedTest() {
+        ChangeLog log = new ChangeLog(2, ChangeLog.DROP_NEWEST);
+        log.setCoalescing(4, 3);
+        log.add(0, 0, 5);
+        log.add(1, 0, 5);
+        log.add(2, 0, 5);
+        assertEquals(1, log.getDropped());
+        log.poll();
+        // Dropped change was never shown so it is logged again
+        log.add(2, 0, 5);
+        assertEquals(2, log.size());
+        log.poll();
+        assertEquals(ChangeLog.pack(2, 0, 5), log.poll());
+    }
+
+    @Test
+    public void evictedChangeIsNotCoalescedTest() {
+        ChangeLog log = new ChangeLog(4, ChangeLog.DROP_OLDEST);
+        log.setCoalescing(8, 1);
+        for (int x = 0; x < 6; x++) {
+            log.add(x, 0, 5);
+        }
+        // Change of node 0 was overwritten, so it is logged again and only
+        // the repeated one is coalesced
+        log.add(0, 0, 5);
+        log.add(0, 0, 5);
+        assertEquals(4, log.size());
+        assertEquals(3, log.getDropped());
+        int last = 0;
+        while (!log.isEmpty()) {
+            last = log.poll();
+        }
+        assertEquals(ChangeLog.pack(0, 0, 5), last);
+    }
+
+    @Test
+    public void sampledOutChangeIsNotCoalescedTest() {
+        ChangeLog log = new ChangeLog(4, ChangeLog.SAMPLE);
+        log.setCoalescing(8, 1);
+        for (int x = 0; x < 5; x++) {
+            log.add(x, 0, 5);
+        }
+        // Sampling kept nodes 0, 2 and 4, every second change is logged now
+        assertEquals(2, log.getSamplingStep());
+        log.add(6, 0, 5);
+        log.add(1, 0, 5);
+        assertEquals(4, log.size());
+        int last = 0;
+        while (!log.isEmpty()) {
+            last = log.poll();
+        }
+        assertEquals(ChangeLog.pack(1, 0, 5), last);
+    }
+
+    @Test
+    public void sameChangesAsListTest() {
+        Random r = new Random(3);
+        GridMap map = new GridMap(40, 30);
+        for (int i = 0; i < 250; i++) {
+            map.setWall(r.nextInt(40), r.nextInt(30), true);
+        }
+        map.setWall(0, 0, false);
+        map.setWall(39, 29, false);
+        List<ColouredNode> changes = new List<>();
+        ChangeLog log = new ChangeLog(1 << 16, ChangeLog.DROP_NEWEST);
+        new AStar(new Node(0, 0), new Node(39, 29), map, changes, new DiagonalHeuristic()).solve();
+        new AStar(new Node(0, 0), new Node(39, 29), map, log, new DiagonalHeuristic()).solve();
+        assertTrue(changes.size() > 0);
+        assertEquals(changes.size(), log.size());
+        while (!changes.isEmpty()) {
+            ColouredNode change = changes.dequeue();
+            assertEquals(ChangeLog.pack(change.getX(), change.getY(), change.getColor()), log.poll());
+        }
+    }
+}
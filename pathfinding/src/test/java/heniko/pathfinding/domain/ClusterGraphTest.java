@@ -0,0 +1,78 @@
+package heniko.pathfinding.domain;
+
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for ClusterGraph.
+ *
+ * @author Niko Hernesniemi
+ */
+public class ClusterGraphTest {
+
+    @Test
+    public void longEntranceHasTwoPairsTest() {
+        // Two clusters next to each other, whole border is one entrance
+        GridMap map = new GridMap(16, 8);
+        ClusterGraph graph = ClusterGraph.build(map, 8);
+        assertEquals(2, graph.getClusterCount());
+        assertArrayEquals(new int[]{7, 7 + 7 * 16}, graph.getNodes(0));
+        assertArrayEquals(new int[]{8, 8 + 7 * 16}, graph.getNodes(1));
+        assertEquals(7, graph.getDistance(0, 0, 1), 1e-9);
+    }
+
+    @Test
+    public void shortEntranceHasOnePairTest() {
+        GridMap map = new GridMap(16, 8);
+        for (int y = 3; y < 8; y++) {
+            map.setWall(8, y, true);
+        }
+        ClusterGraph graph = ClusterGraph.build(map, 8);
+        // Open rows are 0-2 so the pair is in the middle
+        assertArrayEquals(new int[]{7 + 16}, graph.getNodes(0));
+        assertArrayEquals(new int[]{0, 8 + 16}, graph.getLinks(0));
+    }
+
+    @Test
+    public void unreachableInsideClusterTest() {
+        // Middle cluster is split in two by a wall
+        GridMap map = new GridMap(24, 8);
+        for (int y = 0; y < 8; y++) {
+            map.setWall(12, y, true);
+        }
+        ClusterGraph graph = ClusterGraph.build(map, 8);
+        assertArrayEquals(new int[]{8, 8 + 7 * 24, 15, 15 + 7 * 24}, graph.getNodes(1));
+        assertEquals(7, graph.getDistance(1, 0, 1), 1e-9);
+        assertEquals(Double.POSITIVE_INFINITY, graph.getDistance(1, 0, 2), 0);
+    }
+
+    @Test
+    public void updateSameAsBuildTest() {
+        GridMap map = TestMaps.randomMap(50, 37, 11);
+        ClusterGraph graph = ClusterGraph.build(map, 8);
+        Random r = new Random(3);
+        for (int i = 0; i < 300; i++) {
+            int x = r.nextInt(50);
+            int y = r.nextInt(37);
+            map.setWall(x, y, !map.isWall(x, y));
+            graph.update(x, y);
+        }
+        ClusterGraph fresh = ClusterGraph.build(map, 8);
+        for (int c = 0; c < graph.getClusterCount(); c++) {
+            assertArrayEquals(fresh.getNodes(c), graph.getNodes(c));
+            assertArrayEquals(fresh.getLinks(c), graph.getLinks(c));
+            int k = graph.getNodes(c).length;
+            for (int i = 0; i < k; i++) {
+                for (int j = 0; j < k; j++) {
+                    assertEquals(fresh.getDistance(c, i, j), graph.getDistance(c, i, j), 0);
+                }
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void zeroClusterSizeTest() {
+        ClusterGraph.build(new GridMap(5, 5), 0);
+    }
+}
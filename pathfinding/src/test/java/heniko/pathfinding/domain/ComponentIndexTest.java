@@ -0,0 +1,113 @@
+package heniko.pathfinding.domain;
+
+import heniko.pathfinding.util.Node;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for ComponentIndex.
+ *
+ * @author Niko Hernesniemi
+ */
+public class ComponentIndexTest {
+
+    @Test
+    public void wallLineSeparatesComponentsTest() {
+        GridMap map = new GridMap(10, 10);
+        for (int y = 0; y < 10; y++) {
+            map.setWall(5, y, true);
+        }
+        ComponentIndex index = ComponentIndex.build(map);
+        assertEquals(2, index.getComponentCount());
+        assertEquals(-1, index.getComponent(5, 3));
+        assertEquals(index.getComponent(0, 0), index.getComponent(4, 9));
+        assertNotEquals(index.getComponent(0, 0), index.getComponent(9, 9));
+        assertTrue(index.isUnreachable(0, 0, 9, 9));
+        assertFalse(index.isUnreachable(0, 0, 4, 9));
+    }
+
+    @Test
+    public void diagonalGapDoesNotConnectTest() {
+        /*
+        |1|#|
+        |#|2|
+         */
+        GridMap map = new GridMap(2, 2);
+        map.setWall(1, 0, true);
+        map.setWall(0, 1, true);
+        ComponentIndex index = ComponentIndex.build(map);
+        assertEquals(2, index.getComponentCount());
+        assertTrue(index.isUnreachable(0, 0, 1, 1));
+    }
+
+    @Test
+    public void wallEndIsUnreachableTest() {
+        GridMap map = new GridMap(5, 5);
+        map.setWall(2, 2, true);
+        assertTrue(ComponentIndex.build(map).isUnreachable(0, 0, 2, 2));
+    }
+
+    @Test
+    public void wallStartIsNotKnownTest() {
+        GridMap map = new GridMap(5, 5);
+        map.setWall(2, 2, true);
+        assertFalse(ComponentIndex.build(map).isUnreachable(2, 2, 0, 0));
+    }
+
+    @Test
+    public void sameStartAndEndTest() {
+        GridMap map = new GridMap(5, 5);
+        map.setWall(2, 2, true);
+        assertFalse(ComponentIndex.build(map).isUnreachable(2, 2, 2, 2));
+    }
+
+    @Test
+    public void snakeOverManyStripesTest() {
+        // Single corridor going back and forth over every row
+        GridMap map = new GridMap(20, 199);
+        for (int y = 1; y < 199; y += 2) {
+            for (int x = 0; x < 20; x++) {
+                map.setWall(x, y, true);
+            }
+            map.setWall(y % 4 == 1 ? 19 : 0, y, false);
+        }
+        ComponentIndex index = ComponentIndex.build(map);
+        assertEquals(1, index.getComponentCount());
+        assertFalse(index.isUnreachable(0, 0, 0, 198));
+    }
+
+    @Test
+    public void sameAsSearchOnRandomMapTest() {
+        Random r = new Random(1337);
+        GridMap map = TestMaps.randomMap(30, 120, 1337, 3);
+        ComponentIndex index = ComponentIndex.build(map);
+        for (int i = 0; i < 200; i++) {
+            Node start = new Node(r.nextInt(30), r.nextInt(120));
+            Node end = new Node(r.nextInt(30), r.nextInt(120));
+            if (map.isWall(start.getX(), start.getY())) {
+                continue;
+            }
+            boolean found = !new AStar(start, end, map, new DiagonalHeuristic()).solve().isEmpty();
+            assertEquals(found, !index.isUnreachable(start.getX(), start.getY(), end.getX(), end.getY()));
+        }
+    }
+
+    @Test
+    public void pathfinderUsesIndexTest() {
+        GridMap map = new GridMap(10, 10);
+        for (int y = 0; y < 10; y++) {
+            map.setWall(5, y, true);
+        }
+        Pathfinder pf = new JPS(new Node(0, 0), new Node(9, 9), map, new EuclideanHeuristic());
+        pf.setComponentIndex(ComponentIndex.build(map));
+        assertTrue(pf.solve().isEmpty());
+        assertEquals(0, pf.getPeakOpenListSize());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void wrongSizeTest() {
+        Pathfinder pf = new AStar(new Node(0, 0), new Node(1, 1), new GridMap(5, 5), new DiagonalHeuristic());
+        pf.setComponentIndex(ComponentIndex.build(new GridMap(6, 5)));
+    }
+}
@@ -0,0 +1,141 @@
+package heniko.pathfinding.domain;
+
+import heniko.pathfinding.util.ColouredNode;
+import heniko.pathfinding.util.Node;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for DStarLite.
+ *
+ * @author Niko Hernesniemi
+ */
+public class DStarLiteTest {
+
+    private double dijkstraLength(GridMap map, int sx, int sy, int ex, int ey) {
+        Pathfinder pf = new AStar(new Node(sx, sy), new Node(ex, ey), map, new DjikstraHeuristic());
+        List<Node> path = pf.solve();
+        return path.isEmpty() ? -1 : pf.getPathLength();
+    }
+
+    private double length(DStarLite dStarLite) {
+        return dStarLite.solve().isEmpty() ? -1 : dStarLite.getPathLength();
+    }
+
+    @Test
+    public void emptyMapTest() {
+        GridMap map = new GridMap(10, 10);
+        DStarLite dStarLite = new DStarLite(map, new DiagonalHeuristic());
+        List<Node> path = dStarLite.solve();
+        assertEquals(10, path.size());
+        assertEquals(9 * Math.sqrt(2), dStarLite.getPathLength(), 1e-9);
+    }
+
+    @Test
+    public void sameStartAndEndTest() {
+        GridMap map = new GridMap(5, 5);
+        DStarLite dStarLite = new DStarLite(map, new DiagonalHeuristic());
+        dStarLite.setStart(2, 2);
+        dStarLite.setEnd(2, 2);
+        assertEquals(1, dStarLite.solve().size());
+        assertEquals(0, dStarLite.getPathLength(), 0);
+    }
+
+    @Test
+    public void repairsAfterWallChangesTest() {
+        Random r = new Random(3);
+        int size = 30;
+        GridMap map = new GridMap(size, size);
+        DStarLite dStarLite = new DStarLite(map, new DiagonalHeuristic());
+        dStarLite.setStart(0, 0);
+        dStarLite.setEnd(size - 1, size - 1);
+        for (int i = 0; i < 300; i++) {
+            int x = r.nextInt(size);
+            int y = r.nextInt(size);
+            if ((x == 0 && y == 0) || (x == size - 1 && y == size - 1)) {
+                continue;
+            }
+            map.setWall(x, y, !map.isWall(x, y));
+            dStarLite.updateNode(x, y);
+            if (i % 10 == 0) {
+                assertEquals(dijkstraLength(map, 0, 0, size - 1, size - 1), length(dStarLite), 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void movingStartTest() {
+        Random r = new Random(5);
+        int size = 25;
+        GridMap map = new GridMap(size, size);
+        for (int i = 0; i < 150; i++) {
+            map.setWall(r.nextInt(size), r.nextInt(size), true);
+        }
+        map.setWall(size - 1, size - 1, false);
+        DStarLite dStarLite = new DStarLite(map, new DiagonalHeuristic());
+        dStarLite.setEnd(size - 1, size - 1);
+        for (int i = 0; i < 40; i++) {
+            int sx = r.nextInt(size);
+            int sy = r.nextInt(size);
+            int wx = r.nextInt(size);
+            int wy = r.nextInt(size);
+            if (wx != size - 1 || wy != size - 1) {
+                map.setWall(wx, wy, !map.isWall(wx, wy));
+                dStarLite.updateNode(wx, wy);
+            }
+            if (map.isWall(sx, sy)) {
+                continue;
+            }
+            dStarLite.setStart(sx, sy);
+            assertEquals(dijkstraLength(map, sx, sy, size - 1, size - 1), length(dStarLite), 1e-9);
+        }
+    }
+
+    @Test
+    public void closingAndOpeningPassageTest() {
+        GridMap map = new GridMap(9, 9);
+        for (int y = 0; y < 9; y++) {
+            map.setWall(4, y, y != 4);
+        }
+        DStarLite dStarLite = new DStarLite(map, new DiagonalHeuristic());
+        assertFalse(dStarLite.solve().isEmpty());
+        int firstExpanded = dStarLite.getExpandedCount();
+
+        map.setWall(4, 4, true);
+        dStarLite.updateNode(4, 4);
+        assertTrue(dStarLite.solve().isEmpty());
+
+        map.setWall(4, 4, false);
+        dStarLite.updateNode(4, 4);
+        assertFalse(dStarLite.solve().isEmpty());
+        assertEquals(dijkstraLength(map, 0, 0, 8, 8), dStarLite.getPathLength(), 1e-9);
+        assertTrue(firstExpanded > 0);
+    }
+
+    @Test
+    public void smallChangeIsRepairedLocallyTest() {
+        GridMap map = new GridMap(100, 100);
+        DStarLite dStarLite = new DStarLite(map, new DiagonalHeuristic());
+        dStarLite.setStart(0, 50);
+        dStarLite.setEnd(99, 50);
+        dStarLite.solve();
+        int firstExpanded = dStarLite.getExpandedCount();
+        // Wall far away from the path changes nothing
+        map.setWall(50, 5, true);
+        dStarLite.updateNode(50, 5);
+        dStarLite.solve();
+        assertTrue(dStarLite.getExpandedCount() < firstExpanded / 10);
+        assertEquals(99, dStarLite.getPathLength(), 1e-9);
+    }
+
+    @Test
+    public void logsChangesTest() {
+        GridMap map = new GridMap(5, 5);
+        DStarLite dStarLite = new DStarLite(map, new DiagonalHeuristic());
+        List<ColouredNode> changes = new List<>();
+        dStarLite.setChanges(changes);
+        dStarLite.solve();
+        assertFalse(changes.isEmpty());
+    }
+}
@@ -0,0 +1,100 @@
+package heniko.pathfinding.domain;
+
+import heniko.pathfinding.util.Node;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for FirstMoveTable and CPDPathfinder.
+ *
+ * @author Niko Hernesniemi
+ */
+public class FirstMoveTableTest {
+
+    @Test
+    public void mortonTest() {
+        assertEquals(0, FirstMoveTable.morton(0, 0));
+        assertEquals(1, FirstMoveTable.morton(1, 0));
+        assertEquals(2, FirstMoveTable.morton(0, 1));
+        assertEquals(3, FirstMoveTable.morton(1, 1));
+        assertEquals(4, FirstMoveTable.morton(2, 0));
+        assertEquals(0xFFFFFFFF, FirstMoveTable.morton(0xFFFF, 0xFFFF));
+    }
+
+    @Test
+    public void sameLengthAsDijkstraTest() {
+        for (long seed = 0; seed < 3; seed++) {
+            GridMap map = TestMaps.randomMap(21, 17, seed);
+            FirstMoveTable table = FirstMoveTable.build(map);
+            Random r = new Random(seed);
+            for (int i = 0; i < 200; i++) {
+                Node start = new Node(r.nextInt(21), r.nextInt(17));
+                Node end = new Node(r.nextInt(21), r.nextInt(17));
+                if (map.isWall(start.getX(), start.getY())) {
+                    continue;
+                }
+                Pathfinder dijkstra = new AStar(start, end, map, new DjikstraHeuristic());
+                Pathfinder cpd = new CPDPathfinder(start, end, map, table);
+                List<Node> expected = dijkstra.solve();
+                List<Node> path = cpd.solve();
+                assertEquals(expected.isEmpty(), path.isEmpty());
+                assertEquals(dijkstra.getPathLength(), cpd.getPathLength(), 1e-9);
+                if (!path.isEmpty()) {
+                    Node first = path.get(0);
+                    Node last = path.get(path.size() - 1);
+                    assertEquals(start.getX(), first.getX());
+                    assertEquals(start.getY(), first.getY());
+                    assertEquals(end.getX(), last.getX());
+                    assertEquals(end.getY(), last.getY());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void unreachableTest() {
+        GridMap map = new GridMap(7, 7);
+        for (int y = 0; y < 7; y++) {
+            map.setWall(3, y, true);
+        }
+        FirstMoveTable table = FirstMoveTable.build(map);
+        assertEquals(FirstMoveTable.NO_MOVE, table.getMove(0, 6));
+        assertTrue(new CPDPathfinder(new Node(0, 0), new Node(6, 6), map, table).solve().isEmpty());
+    }
+
+    @Test
+    public void unreachableTargetsShareRunTest() {
+        GridMap map = new GridMap(8, 8);
+        map.setWall(1, 0, true);
+        map.setWall(0, 1, true);
+        map.setWall(1, 1, true);
+        FirstMoveTable table = FirstMoveTable.build(map);
+        assertEquals(1, table.getOffsets().get(1) - table.getOffsets().get(0));
+        assertEquals(FirstMoveTable.NO_MOVE, table.getMove(0, 63));
+    }
+
+    @Test
+    public void wallSourceTest() {
+        GridMap map = new GridMap(5, 5);
+        map.setWall(2, 2, true);
+        FirstMoveTable table = FirstMoveTable.build(map);
+        assertEquals(-1, table.getMove(2 + 2 * 5, 0));
+        assertTrue(new CPDPathfinder(new Node(2, 2), new Node(0, 0), map, table).solve().isEmpty());
+    }
+
+    @Test
+    public void openMapIsCompressedTest() {
+        GridMap map = new GridMap(32, 32);
+        FirstMoveTable table = FirstMoveTable.build(map);
+        // Without compression every source would have a run for each target
+        assertTrue(table.getRunCount() < 32 * 32 * 32);
+        assertEquals(Directions.index(1, 1), table.getMove(0, 31 + 31 * 32));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void wrongMapSizeTest() {
+        FirstMoveTable table = FirstMoveTable.build(new GridMap(4, 4));
+        new CPDPathfinder(new Node(0, 0), new Node(1, 1), new GridMap(5, 4), table);
+    }
+}
@@ -0,0 +1,115 @@
+package heniko.pathfinding.domain;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for GridMap.
+ *
+ * @author Niko Hernesniemi
+ */
+public class GridMapTest {
+
+    GridMap map;
+
+    @Before
+    public void setUp() {
+        map = new GridMap(100, 3);
+    }
+
+    @Test
+    public void sizeTest() {
+        assertEquals(100, map.getWidth());
+        assertEquals(3, map.getHeight());
+        assertEquals(2, map.getWordsPerRow());
+    }
+
+    @Test
+    public void setWallTest() {
+        assertFalse(map.isWall(70, 1));
+        map.setWall(70, 1, true);
+        assertTrue(map.isWall(70, 1));
+        // Other rows and words are not affected
+        assertFalse(map.isWall(70, 0));
+        assertFalse(map.isWall(70, 2));
+        assertFalse(map.isWall(6, 1));
+        map.setWall(70, 1, false);
+        assertFalse(map.isWall(70, 1));
+    }
+
+    @Test
+    public void rowWordTest() {
+        map.setWall(0, 2, true);
+        map.setWall(63, 2, true);
+        map.setWall(64, 2, true);
+        assertEquals(1L | (1L << 63), map.rowWord(2, 10));
+        assertEquals(1L, map.rowWord(2, 99));
+        assertEquals(0L, map.rowWord(1, 10));
+    }
+
+    @Test
+    public void arrayConversionTest() {
+        boolean[][] isWall = new boolean[100][3];
+        isWall[5][0] = true;
+        isWall[99][2] = true;
+        GridMap converted = GridMap.fromArray(isWall, 100, 3);
+        assertTrue(converted.isWall(5, 0));
+        assertTrue(converted.isWall(99, 2));
+        assertFalse(converted.isWall(5, 1));
+        boolean[][] back = converted.toArray();
+        assertTrue(back[5][0]);
+        assertTrue(back[99][2]);
+        assertFalse(back[0][0]);
+    }
+
+    @Test
+    public void isInsideTest() {
+        assertTrue(map.isInside(0, 0));
+        assertTrue(map.isInside(99, 2));
+        assertFalse(map.isInside(100, 0));
+        assertFalse(map.isInside(0, -1));
+    }
+
+    @Test
+    public void neighbourMaskTest() {
+        GridMap small = new GridMap(3, 3);
+        // All directions are open in the middle
+        assertEquals(Directions.ALL, small.getNeighbourMask(1, 1));
+        // Only up, right and up-right from corner
+        assertEquals(1 | 2 | 16, small.getNeighbourMask(0, 0));
+        // Wall on the right blocks right, up-right and down-right
+        small.setWall(2, 1, true);
+        int mask = small.getNeighbourMask(1, 1);
+        assertEquals(0, mask & (1 << Directions.index(1, 0)));
+        assertEquals(0, mask & (1 << Directions.index(1, 1)));
+        assertEquals(0, mask & (1 << Directions.index(1, -1)));
+        assertTrue((mask & (1 << Directions.index(-1, 1))) != 0);
+    }
+
+    @Test
+    public void directionTablesTest() {
+        for (int d = 0; d < 8; d++) {
+            assertEquals(d, Directions.index(Directions.DX[d], Directions.DY[d]));
+            assertEquals(d >= 4, Directions.isDiagonal(d));
+        }
+        assertEquals(-1, Directions.index(0, 0));
+    }
+
+    @Test
+    public void transposedTest() {
+        GridMap map = new GridMap(70, 3);
+        map.setWall(65, 1, true);
+        GridMap t = map.transposed();
+        assertEquals(3, t.getWidth());
+        assertEquals(70, t.getHeight());
+        assertTrue(t.isWall(1, 65));
+        // Later changes are made to the copy too
+        map.setWall(2, 0, true);
+        map.setWall(65, 1, false);
+        assertTrue(t.isWall(0, 2));
+        assertFalse(t.isWall(1, 65));
+    }
+}
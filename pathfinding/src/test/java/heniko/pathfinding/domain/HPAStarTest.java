@@ -0,0 +1,107 @@
+package heniko.pathfinding.domain;
+
+import heniko.pathfinding.util.Node;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for HPAStar.
+ *
+ * @author Niko Hernesniemi
+ */
+public class HPAStarTest {
+
+    private void assertValidPath(GridMap map, List<Node> path, Node start, Node end) {
+        assertEquals(start.getX(), path.get(0).getX());
+        assertEquals(start.getY(), path.get(0).getY());
+        assertEquals(end.getX(), path.get(path.size() - 1).getX());
+        assertEquals(end.getY(), path.get(path.size() - 1).getY());
+        for (int i = 1; i < path.size(); i++) {
+            Node a = path.get(i - 1);
+            Node b = path.get(i);
+            int d = Directions.index(b.getX() - a.getX(), b.getY() - a.getY());
+            assertTrue((map.getNeighbourMask(a.getX(), a.getY()) & (1 << d)) != 0);
+        }
+    }
+
+    @Test
+    public void findsPathWhenDjikstraDoesTest() {
+        GridMap map = TestMaps.randomMap(60, 45, 21, 5);
+        ClusterGraph clusters = ClusterGraph.build(map, 10);
+        Random r = new Random(8);
+        for (int i = 0; i < 100; i++) {
+            Node start = new Node(r.nextInt(60), r.nextInt(45));
+            Node end = new Node(r.nextInt(60), r.nextInt(45));
+            if (map.isWall(start.getX(), start.getY())) {
+                continue;
+            }
+            Pathfinder djikstra = new AStar(start, end, map, new DjikstraHeuristic());
+            HPAStar hpa = new HPAStar(start, end, map, clusters, new DiagonalHeuristic());
+            List<Node> expected = djikstra.solve();
+            List<Node> path = hpa.solve();
+            assertEquals(expected.isEmpty(), path.isEmpty());
+            if (!path.isEmpty()) {
+                assertValidPath(map, path, start, end);
+                assertTrue(hpa.getPathLength() >= djikstra.getPathLength() - 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void abstractLengthIsRefinedLengthTest() {
+        GridMap map = TestMaps.randomMap(40, 40, 5, 5);
+        ClusterGraph clusters = ClusterGraph.build(map, 8);
+        Node start = new Node(1, 1);
+        Node end = new Node(38, 37);
+        map.setWall(1, 1, false);
+        map.setWall(38, 37, false);
+        clusters.update(1, 1);
+        clusters.update(38, 37);
+        HPAStar hpa = new HPAStar(start, end, map, clusters, new DiagonalHeuristic());
+        List<Node> waypoints = hpa.solveAbstract();
+        double abstractLength = hpa.getPathLength();
+        hpa.refine(waypoints);
+        assertEquals(abstractLength, hpa.getPathLength(), 1e-9);
+    }
+
+    @Test
+    public void followsUpdatedWallsTest() {
+        GridMap map = new GridMap(20, 20);
+        ClusterGraph clusters = ClusterGraph.build(map, 5);
+        // Wall across the map with a gap at the bottom
+        for (int y = 0; y < 19; y++) {
+            map.setWall(10, y, true);
+            clusters.update(10, y);
+        }
+        Node start = new Node(0, 0);
+        Node end = new Node(19, 0);
+        List<Node> path = new HPAStar(start, end, map, clusters, new DiagonalHeuristic()).solve();
+        assertValidPath(map, path, start, end);
+
+        map.setWall(10, 19, true);
+        clusters.update(10, 19);
+        assertTrue(new HPAStar(start, end, map, clusters, new DiagonalHeuristic()).solve().isEmpty());
+    }
+
+    @Test
+    public void sameStartAndEndTest() {
+        GridMap map = new GridMap(10, 10);
+        HPAStar hpa = new HPAStar(new Node(3, 3), new Node(3, 3), map, ClusterGraph.build(map, 4), new DiagonalHeuristic());
+        assertEquals(1, hpa.solve().size());
+        assertEquals(0, hpa.getPathLength(), 0);
+    }
+
+    @Test
+    public void wallEndTest() {
+        GridMap map = new GridMap(10, 10);
+        map.setWall(8, 8, true);
+        HPAStar hpa = new HPAStar(new Node(0, 0), new Node(8, 8), map, ClusterGraph.build(map, 4), new DiagonalHeuristic());
+        assertTrue(hpa.solve().isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void differentMapTest() {
+        new HPAStar(new Node(0, 0), new Node(1, 1), new GridMap(5, 5), ClusterGraph.build(new GridMap(5, 5), 2), new DiagonalHeuristic());
+    }
+}
@@ -0,0 +1,152 @@
+package heniko.pathfinding.domain;
+
+import heniko.pathfinding.util.Node;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for IndexedCellHeap.
+ *
+ * @author Niko Hernesniemi
+ */
+public class IndexedCellHeapTest {
+
+    IndexedCellHeap heap;
+
+    @Before
+    public void setUp() {
+        this.heap = new IndexedCellHeap(100);
+    }
+
+    @Test
+    public void addTest() {
+        assertTrue(heap.isEmpty());
+        heap.add(3, 1.0);
+        assertEquals(1, heap.size());
+        assertTrue(heap.contains(3));
+        assertFalse(heap.contains(4));
+    }
+
+    @Test
+    public void sameCellIsAddedOnlyOnceTest() {
+        heap.add(3, 5.0);
+        heap.add(3, 2.0);
+        heap.add(3, 9.0);
+        assertEquals(1, heap.size());
+        assertEquals(2.0, heap.getPriority(3), 0.0001);
+        assertEquals(3, heap.poll());
+        assertTrue(heap.isEmpty());
+        assertFalse(heap.contains(3));
+    }
+
+    @Test
+    public void decreaseKeyTest() {
+        heap.add(1, 12);
+        heap.add(2, 2);
+        heap.add(3, 8);
+        heap.decreaseKey(1, 1);
+        assertEquals(1, heap.poll());
+        assertEquals(2, heap.poll());
+        assertEquals(3, heap.poll());
+        assertEquals(-1, heap.poll());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void decreaseKeyOfMissingCellTest() {
+        heap.decreaseKey(1, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void increaseKeyTest() {
+        heap.add(1, 1);
+        heap.decreaseKey(1, 2);
+    }
+
+    @Test
+    public void manyCellsComeOutSortedTest() {
+        for (int i = 0; i < 100; i++) {
+            heap.add(i, (i * 37) % 100 + 100);
+        }
+        for (int i = 0; i < 100; i += 3) {
+            heap.decreaseKey(i, (i * 53) % 100);
+        }
+        double previous = -1;
+        int count = 0;
+        while (!heap.isEmpty()) {
+            double priority = heap.peekPriority();
+            assertTrue(previous <= priority);
+            previous = priority;
+            heap.poll();
+            count++;
+        }
+        assertEquals(100, count);
+        assertEquals(100, heap.getPeakSize());
+    }
+
+    @Test
+    public void updateTest() {
+        heap.update(1, 1);
+        heap.update(2, 2);
+        heap.update(3, 3);
+        heap.update(1, 5);
+        heap.update(3, 0);
+        assertEquals(3, heap.size());
+        assertEquals(3, heap.poll());
+        assertEquals(2, heap.poll());
+        assertEquals(1, heap.poll());
+    }
+
+    @Test
+    public void removeTest() {
+        for (int i = 0; i < 50; i++) {
+            heap.add(i, (i * 37) % 50);
+        }
+        for (int i = 0; i < 50; i += 2) {
+            heap.remove(i);
+        }
+        heap.remove(99);
+        assertEquals(25, heap.size());
+        assertFalse(heap.contains(0));
+        double previous = -1;
+        while (!heap.isEmpty()) {
+            double priority = heap.peekPriority();
+            assertTrue(previous <= priority);
+            previous = priority;
+            assertEquals(1, heap.poll() % 2);
+        }
+    }
+
+    @Test
+    public void clearTest() {
+        heap.add(1, 1);
+        heap.add(2, 2);
+        heap.clear();
+        assertTrue(heap.isEmpty());
+        assertFalse(heap.contains(1));
+        assertEquals(0, heap.getPeakSize());
+    }
+
+    @Test
+    public void solversHaveNoStalePopsTest() {
+        int sizeX = 6;
+        int sizeY = 6;
+        boolean[][] isWall = new boolean[sizeX][sizeY];
+        for (int y = 0; y < 5; y++) {
+            isWall[3][y] = true;
+        }
+        SearchWorkspace ws = new SearchWorkspace(sizeX, sizeY, true);
+        AStar astar = new AStar(new Node(0, 0), new Node(5, 0), sizeX, sizeY, isWall, new DjikstraHeuristic());
+        astar.setWorkspace(ws);
+        astar.solve();
+        assertEquals(13.2426, astar.getPathLength(), 0.01);
+        assertEquals(0, astar.getStalePops());
+        JPS jps = new JPS(new Node(0, 0), new Node(5, 0), sizeX, sizeY, isWall, new EuclideanHeuristic());
+        jps.setWorkspace(ws);
+        jps.solve();
+        assertEquals(13.2426, jps.getPathLength(), 0.01);
+        assertEquals(0, jps.getStalePops());
+    }
+}
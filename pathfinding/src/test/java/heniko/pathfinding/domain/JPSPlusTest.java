@@ -0,0 +1,60 @@
+package heniko.pathfinding.domain;
+
+import heniko.pathfinding.util.Node;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for JPS+.
+ *
+ * @author Niko Hernesniemi
+ */
+public class JPSPlusTest {
+
+    @Test
+    public void smallStraightPathTest() {
+        GridMap map = new GridMap(6, 6);
+        Node start = new Node(0, 0);
+        Node end = new Node(5, 5);
+        double wanted = 7.07106;
+
+        JPSPlus jps = new JPSPlus(start, end, map, JumpTable.build(map), new List<>(), new EuclideanHeuristic());
+        jps.solve();
+        assertTrue(Math.abs(wanted - jps.getPathLength()) < 0.01);
+    }
+
+    @Test
+    public void smallGraphWithObstacles() {
+        GridMap map = new GridMap(6, 6);
+        for (int y = 0; y < 5; y++) {
+            map.setWall(3, y, true);
+        }
+        Node start = new Node(0, 0);
+        Node end = new Node(5, 0);
+        double wanted = 13.2426;
+
+        JPSPlus jps = new JPSPlus(start, end, map, JumpTable.build(map), new List<>(), new EuclideanHeuristic());
+        jps.solve();
+        assertTrue(Math.abs(wanted - jps.getPathLength()) < 0.01);
+    }
+
+    @Test
+    public void noPathTest() {
+        GridMap map = new GridMap(6, 6);
+        for (int y = 0; y < 6; y++) {
+            map.setWall(3, y, true);
+        }
+        JPSPlus jps = new JPSPlus(new Node(0, 0), new Node(5, 0), map, JumpTable.build(map), new EuclideanHeuristic());
+        assertEquals(0, jps.solve().size());
+    }
+
+    @Test
+    public void sameLengthAsAStarTest() {
+        TestMaps.assertSameLengthAsAStar((s, e, m) -> new JPSPlus(s, e, m, JumpTable.build(m), new EuclideanHeuristic()), 20, 20, 4, 1337, 50);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void wrongTableTest() {
+        new JPSPlus(new Node(0, 0), new Node(1, 1), new GridMap(4, 4), JumpTable.build(new GridMap(5, 4)), new EuclideanHeuristic());
+    }
+}
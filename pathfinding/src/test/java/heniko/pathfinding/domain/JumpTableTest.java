@@ -0,0 +1,68 @@
+package heniko.pathfinding.domain;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for JumpTable.
+ *
+ * @author Niko Hernesniemi
+ */
+public class JumpTableTest {
+
+    @Test
+    public void emptyMapTest() {
+        GridMap map = new GridMap(5, 4);
+        JumpTable table = JumpTable.build(map);
+        // No jump points so distances are steps to the edge
+        int cell = 1 + 2 * 5;
+        assertEquals(-1, table.get(cell, Directions.index(0, 1)));
+        assertEquals(-3, table.get(cell, Directions.index(1, 0)));
+        assertEquals(-2, table.get(cell, Directions.index(0, -1)));
+        assertEquals(-1, table.get(cell, Directions.index(-1, 0)));
+        assertEquals(-1, table.get(cell, Directions.index(1, 1)));
+        assertEquals(-1, table.get(cell, Directions.index(-1, -1)));
+    }
+
+    @Test
+    public void wallStopsTest() {
+        GridMap map = new GridMap(6, 1);
+        map.setWall(4, 0, true);
+        JumpTable table = JumpTable.build(map);
+        assertEquals(-3, table.get(0, Directions.index(1, 0)));
+        assertEquals(0, table.get(3, Directions.index(1, 0)));
+        // Straight moves from wall are not possible
+        assertEquals(0, table.get(4, Directions.index(-1, 0)));
+    }
+
+    @Test
+    public void forcedNeighbourTest() {
+        /*
+        | | |#| | |
+        |S| | | | |
+        | | | | | |
+        Moving right from S, node (3, 1) has forced neighbour (3, 2)
+         */
+        GridMap map = new GridMap(5, 3);
+        map.setWall(2, 2, true);
+        JumpTable table = JumpTable.build(map);
+        assertEquals(3, table.get(1 * 5, Directions.index(1, 0)));
+        assertEquals(2, table.get(1 + 1 * 5, Directions.index(1, 0)));
+        // Diagonal from (0, 0) reaches (1, 1) which has jump point to the right
+        assertEquals(1, table.get(0, Directions.index(1, 1)));
+    }
+
+    @Test
+    public void diagonalCornerTest() {
+        GridMap map = new GridMap(3, 3);
+        map.setWall(1, 0, true);
+        JumpTable table = JumpTable.build(map);
+        // Corners can't be cut
+        assertEquals(0, table.get(0, Directions.index(1, 1)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void wrongSizeTest() {
+        new JumpTable(2, 2, new short[4]);
+    }
+}
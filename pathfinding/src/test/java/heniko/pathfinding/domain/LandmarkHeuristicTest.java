@@ -0,0 +1,55 @@
+package heniko.pathfinding.domain;
+
+import heniko.pathfinding.util.Node;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for LandmarkHeuristic.
+ *
+ * @author Niko Hernesniemi
+ */
+public class LandmarkHeuristicTest {
+
+    @Test
+    public void wallMakesValueLargerTest() {
+        /*
+        Wall between nodes so the path has to go around it.
+        |S|#| |
+        | |#| |
+        | | | |
+        | |#|E|
+         */
+        GridMap map = new GridMap(3, 4);
+        map.setWall(1, 0, true);
+        map.setWall(1, 1, true);
+        map.setWall(1, 3, true);
+        LandmarkTable table = LandmarkTable.build(map, 4, LandmarkSelection.CORNERS);
+        Heuristic h = new LandmarkHeuristic(table);
+        double diagonal = new DiagonalHeuristic().getHValue(0, 0, 2, 0);
+        assertEquals(2, diagonal, 1e-9);
+        // Start is a landmark so the value is the real length
+        assertEquals(6, h.getHValue(0, 0, 2, 0), 1e-9);
+    }
+
+    @Test
+    public void sameLengthsAsDjikstraTest() {
+        Random r = new Random(1234);
+        GridMap map = new GridMap(40, 40);
+        for (int x = 0; x < 40; x++) {
+            for (int y = 0; y < 40; y++) {
+                map.setWall(x, y, r.nextInt(3) == 0);
+            }
+        }
+        Heuristic h = new LandmarkHeuristic(LandmarkTable.build(map, 6, LandmarkSelection.FARTHEST));
+        for (int i = 0; i < 100; i++) {
+            Node start = new Node(r.nextInt(40), r.nextInt(40));
+            Node end = new Node(r.nextInt(40), r.nextInt(40));
+            Pathfinder djikstra = new AStar(start, end, map, new DjikstraHeuristic());
+            Pathfinder alt = new AStar(start, end, map, h);
+            assertEquals(djikstra.solve().isEmpty(), alt.solve().isEmpty());
+            assertEquals(djikstra.getPathLength(), alt.getPathLength(), 1e-9);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package heniko.pathfinding.domain;
+
+import heniko.pathfinding.util.Node;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for LandmarkTable.
+ *
+ * @author Niko Hernesniemi
+ */
+public class LandmarkTableTest {
+
+    @Test
+    public void cornersOfEmptyMapTest() {
+        LandmarkTable table = LandmarkTable.build(new GridMap(10, 6), 4, LandmarkSelection.CORNERS);
+        assertEquals(4, table.getLandmarkCount());
+        assertArrayEquals(new int[]{0, 9, 9 + 5 * 10, 5 * 10}, table.getLandmarks());
+        // 4 diagonal and 5 straight moves from (0, 0) to (9, 4)
+        assertEquals(5 + 4 * Math.sqrt(2), table.getDistance(0, 9 + 4 * 10), 1e-9);
+    }
+
+    @Test
+    public void cornerInsideWallTest() {
+        GridMap map = new GridMap(5, 5);
+        map.setWall(0, 0, true);
+        LandmarkTable table = LandmarkTable.build(map, 1, LandmarkSelection.CORNERS);
+        int landmark = table.getLandmarks()[0];
+        assertFalse(map.isWall(landmark % 5, landmark / 5));
+        assertEquals(Double.POSITIVE_INFINITY, table.getDistance(0, 0), 0);
+    }
+
+    @Test
+    public void distancesAreShortestPathsTest() {
+        GridMap map = TestMaps.randomMap(25, 25, 7);
+        for (LandmarkSelection selection : LandmarkSelection.values()) {
+            LandmarkTable table = LandmarkTable.build(map, 3, selection, 5);
+            for (int l = 0; l < table.getLandmarkCount(); l++) {
+                int landmark = table.getLandmarks()[l];
+                Node start = new Node(landmark % 25, landmark / 25);
+                for (int cell = 0; cell < 25 * 25; cell += 7) {
+                    Pathfinder pf = new AStar(start, new Node(cell % 25, cell / 25), map, new DjikstraHeuristic());
+                    if (pf.solve().isEmpty()) {
+                        assertEquals(Double.POSITIVE_INFINITY, table.getDistance(l, cell), 0);
+                    } else {
+                        assertEquals(pf.getPathLength(), table.getDistance(l, cell), 1e-9);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void farthestLandmarksTest() {
+        // Landmarks of a corridor are its ends
+        GridMap map = new GridMap(20, 1);
+        LandmarkTable table = LandmarkTable.build(map, 2, LandmarkSelection.FARTHEST, 3);
+        int[] landmarks = table.getLandmarks();
+        assertEquals(2, landmarks.length);
+        assertEquals(19, Math.max(landmarks[0], landmarks[1]));
+        assertEquals(0, Math.min(landmarks[0], landmarks[1]));
+    }
+
+    @Test
+    public void notEnoughEmptyNodesTest() {
+        GridMap map = new GridMap(3, 3);
+        for (int x = 0; x < 3; x++) {
+            for (int y = 0; y < 3; y++) {
+                map.setWall(x, y, x != 1 || y != 1);
+            }
+        }
+        for (LandmarkSelection selection : LandmarkSelection.values()) {
+            assertTrue(LandmarkTable.build(map, 4, selection).getLandmarkCount() <= 1);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void wrongSizeTest() {
+        new LandmarkTable(5, 5, new int[1], new short[10]);
+    }
+}
@@ -0,0 +1,64 @@
+package heniko.pathfinding.domain;
+
+import heniko.pathfinding.util.Node;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for MapSnapshot.
+ *
+ * @author Niko Hernesniemi
+ */
+public class MapSnapshotTest {
+
+    @Test
+    public void sameWallsAsMapTest() {
+        GridMap map = TestMaps.randomMap(150, 70, 1);
+        MapSnapshot snapshot = MapSnapshot.of(map);
+        assertEquals(0, snapshot.getVersion());
+        for (int x = 0; x < 150; x++) {
+            for (int y = 0; y < 70; y++) {
+                assertEquals(map.isWall(x, y), snapshot.isWall(x, y));
+                assertEquals(map.getNeighbourMask(x, y), snapshot.getNeighbourMask(x, y));
+            }
+        }
+        assertEquals(map.checksum(), snapshot.checksum());
+    }
+
+    @Test
+    public void withWallMakesNewVersionTest() {
+        GridMap map = TestMaps.randomMap(200, 200, 2);
+        MapSnapshot old = MapSnapshot.of(map);
+        boolean wall = old.isWall(130, 70);
+        MapSnapshot changed = old.withWall(130, 70, !wall);
+        assertEquals(1, changed.getVersion());
+        assertEquals(wall, old.isWall(130, 70));
+        assertEquals(!wall, changed.isWall(130, 70));
+        // Only the tile of the changed node is copied
+        assertFalse(old.sharesTile(changed, 130, 70));
+        assertTrue(old.sharesTile(changed, 0, 0));
+        assertTrue(old.sharesTile(changed, 199, 199));
+        assertSame(changed, changed.withWall(130, 70, !wall));
+    }
+
+    @Test
+    public void searchOnSnapshotTest() {
+        GridMap map = TestMaps.randomMap(40, 40, 3);
+        map.setWall(0, 0, false);
+        map.setWall(39, 39, false);
+        MapSnapshot snapshot = MapSnapshot.of(map);
+        Pathfinder a = new AStar(new Node(0, 0), new Node(39, 39), map, new DiagonalHeuristic());
+        Pathfinder b = new AStar(new Node(0, 0), new Node(39, 39), snapshot, new DiagonalHeuristic());
+        a.solve();
+        b.solve();
+        assertEquals(a.getPathLength(), b.getPathLength(), 1e-9);
+        b = new JPS(new Node(0, 0), new Node(39, 39), snapshot, new EuclideanHeuristic());
+        b.solve();
+        assertEquals(a.getPathLength(), b.getPathLength(), 1e-9);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void setWallTest() {
+        MapSnapshot.of(new GridMap(5, 5)).setWall(1, 1, true);
+    }
+}
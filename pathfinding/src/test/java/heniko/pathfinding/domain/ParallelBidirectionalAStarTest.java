@@ -0,0 +1,122 @@
+package heniko.pathfinding.domain;
+
+import heniko.pathfinding.util.Node;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for parallel bidirectional A*.
+ *
+ * @author Niko Hernesniemi
+ */
+public class ParallelBidirectionalAStarTest {
+
+    @Test
+    public void smallStraightPathTest() {
+        GridMap map = new GridMap(6, 6);
+        ParallelBidirectionalAStar pf = new ParallelBidirectionalAStar(new Node(0, 0), new Node(5, 5), map, new List<>(), new DiagonalHeuristic());
+        List<Node> path = pf.solve();
+        assertEquals(6, path.size());
+        assertEquals(0, path.get(0).getX());
+        assertEquals(5, path.get(5).getY());
+        assertEquals(7.07106, pf.getPathLength(), 0.01);
+    }
+
+    @Test
+    public void smallGraphWithObstacles() {
+        GridMap map = new GridMap(6, 6);
+        for (int y = 0; y < 5; y++) {
+            map.setWall(3, y, true);
+        }
+        ParallelBidirectionalAStar pf = new ParallelBidirectionalAStar(new Node(0, 0), new Node(5, 0), map, new DiagonalHeuristic());
+        pf.solve();
+        assertEquals(13.2426, pf.getPathLength(), 0.01);
+    }
+
+    @Test
+    public void noPathTest() {
+        // End is inside a small closed area
+        GridMap map = new GridMap(20, 20);
+        for (int i = 14; i < 19; i++) {
+            map.setWall(i, 14, true);
+            map.setWall(i, 18, true);
+            map.setWall(14, i, true);
+            map.setWall(18, i, true);
+        }
+        ParallelBidirectionalAStar pf = new ParallelBidirectionalAStar(new Node(0, 0), new Node(16, 16), map, new DiagonalHeuristic());
+        assertEquals(0, pf.solve().size());
+        assertEquals(0, pf.getPathLength(), 0);
+    }
+
+    @Test
+    public void endInsideWallTest() {
+        GridMap map = new GridMap(5, 5);
+        map.setWall(4, 4, true);
+        ParallelBidirectionalAStar pf = new ParallelBidirectionalAStar(new Node(0, 0), new Node(4, 4), map, new DiagonalHeuristic());
+        assertEquals(0, pf.solve().size());
+    }
+
+    @Test
+    public void startIsEndTest() {
+        ParallelBidirectionalAStar pf = new ParallelBidirectionalAStar(new Node(2, 2), new Node(2, 2), new GridMap(5, 5), new DiagonalHeuristic());
+        assertEquals(1, pf.solve().size());
+        assertEquals(0, pf.getPathLength(), 0);
+    }
+
+    @Test
+    public void sameLengthAsAStarTest() {
+        TestMaps.assertSameLengthAsAStar((s, e, m) -> new ParallelBidirectionalAStar(s, e, m, new EuclideanHeuristic()), 30, 30, 3, 1337, 50);
+    }
+
+    @Test
+    public void validPathTest() {
+        GridMap map = new GridMap(40, 40);
+        for (int y = 0; y < 35; y++) {
+            map.setWall(20, y, true);
+        }
+        ParallelBidirectionalAStar pf = new ParallelBidirectionalAStar(new Node(0, 0), new Node(39, 0), map, new DiagonalHeuristic());
+        List<Node> path = pf.solve();
+        assertEquals(0, path.get(0).getX());
+        assertEquals(39, path.get(path.size() - 1).getX());
+        double length = 0;
+        for (int i = 1; i < path.size(); i++) {
+            int dx = Math.abs(path.get(i).getX() - path.get(i - 1).getX());
+            int dy = Math.abs(path.get(i).getY() - path.get(i - 1).getY());
+            assertTrue(dx <= 1 && dy <= 1 && dx + dy > 0);
+            assertFalse(map.isWall(path.get(i).getX(), path.get(i).getY()));
+            length += dx + dy == 2 ? Math.sqrt(2) : 1;
+        }
+        assertEquals(pf.getPathLength(), length, 0.0001);
+    }
+
+    @Test
+    public void reusedWorkspacesTest() {
+        Random r = new Random(7);
+        GridMap map = new GridMap(30, 30);
+        for (int i = 0; i < 250; i++) {
+            map.setWall(r.nextInt(30), r.nextInt(30), true);
+        }
+        SearchWorkspace fws = new SearchWorkspace(30, 30);
+        SearchWorkspace bws = new SearchWorkspace(30, 30);
+        SharedGScores shared = new SharedGScores(30, 30);
+        for (int i = 0; i < 50; i++) {
+            Node start = new Node(r.nextInt(30), r.nextInt(30));
+            Node end = new Node(r.nextInt(30), r.nextInt(30));
+            AStar aStar = new AStar(start, end, map, new DiagonalHeuristic());
+            ParallelBidirectionalAStar pf = new ParallelBidirectionalAStar(start, end, map, new DiagonalHeuristic());
+            pf.setWorkspace(fws);
+            pf.setBackwardWorkspace(bws);
+            pf.setSharedGScores(shared);
+            // Values published in earlier searches must not be seen
+            assertEquals(aStar.solve().size() == 0, pf.solve().size() == 0);
+            assertEquals(aStar.getPathLength(), pf.getPathLength(), 0.0001);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void wrongSizeSharedGScoresTest() {
+        ParallelBidirectionalAStar pf = new ParallelBidirectionalAStar(new Node(0, 0), new Node(4, 4), new GridMap(5, 5), new DiagonalHeuristic());
+        pf.setSharedGScores(new SharedGScores(5, 6));
+    }
+}
@@ -0,0 +1,104 @@
+package heniko.pathfinding.domain;
+
+import heniko.pathfinding.util.Node;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for PathCache and CachedPath.
+ *
+ * @author Niko Hernesniemi
+ */
+public class PathCacheTest {
+
+    private CachedPath path(int length) {
+        List<Node> nodes = new List<>();
+        for (int i = 0; i < length; i++) {
+            nodes.add(new Node(i, 0));
+        }
+        return CachedPath.encode(nodes, length - 1);
+    }
+
+    @Test
+    public void encodeDecodeTest() {
+        List<Node> nodes = new List<>();
+        nodes.add(new Node(3, 3));
+        nodes.add(new Node(4, 4));
+        nodes.add(new Node(4, 4));
+        nodes.add(new Node(3, 3));
+        nodes.add(new Node(3, 2));
+        nodes.add(new Node(2, 2));
+        CachedPath cp = CachedPath.encode(nodes, 5.5);
+        List<Node> decoded = cp.toList();
+        assertEquals(nodes.size(), decoded.size());
+        for (int i = 0; i < nodes.size(); i++) {
+            assertEquals(nodes.get(i).getX(), decoded.get(i).getX());
+            assertEquals(nodes.get(i).getY(), decoded.get(i).getY());
+        }
+        assertEquals(5.5, cp.getLength(), 0);
+        assertEquals(0, CachedPath.encode(new List<>(), 0).toList().size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void longStepTest() {
+        List<Node> nodes = new List<>();
+        nodes.add(new Node(0, 0));
+        nodes.add(new Node(2, 0));
+        CachedPath.encode(nodes, 2);
+    }
+
+    @Test
+    public void hitAndMissTest() {
+        PathCache cache = new PathCache(10, 1 << 20);
+        Node a = new Node(0, 0);
+        Node b = new Node(5, 0);
+        assertNull(cache.get(0, 1, a, b));
+        cache.put(0, 1, a, b, path(6));
+        assertEquals(6, cache.get(0, 1, a, b).size());
+        // Different version, algorithm or direction is a different path
+        assertNull(cache.get(1, 1, a, b));
+        assertNull(cache.get(0, 2, a, b));
+        assertNull(cache.get(0, 1, b, a));
+        assertEquals(1, cache.getHits());
+        assertEquals(4, cache.getMisses());
+    }
+
+    @Test
+    public void leastRecentlyUsedIsEvictedTest() {
+        PathCache cache = new PathCache(3, 1 << 20);
+        for (int i = 0; i < 3; i++) {
+            cache.put(0, 0, new Node(i, 0), new Node(0, 0), path(2));
+        }
+        // Use the oldest one so the second oldest will be removed
+        assertNotNull(cache.get(0, 0, new Node(0, 0), new Node(0, 0)));
+        cache.put(0, 0, new Node(3, 0), new Node(0, 0), path(2));
+        assertEquals(3, cache.size());
+        assertEquals(1, cache.getEvictions());
+        assertNotNull(cache.get(0, 0, new Node(0, 0), new Node(0, 0)));
+        assertNull(cache.get(0, 0, new Node(1, 0), new Node(0, 0)));
+    }
+
+    @Test
+    public void memoryLimitTest() {
+        long pathBytes = path(100).getSizeInBytes();
+        PathCache cache = new PathCache(1000, pathBytes * 5);
+        for (int i = 0; i < 100; i++) {
+            cache.put(0, 0, new Node(i, 0), new Node(0, 0), path(100));
+        }
+        assertEquals(5, cache.size());
+        assertTrue(cache.getBytes() <= pathBytes * 5);
+    }
+
+    @Test
+    public void solveTest() {
+        PathCache cache = new PathCache(10, 1 << 20);
+        GridMap map = new GridMap(10, 10);
+        Pathfinder pf = new AStar(new Node(0, 0), new Node(9, 9), map, new DiagonalHeuristic());
+        CachedPath first = cache.solve(pf, 0, 2);
+        CachedPath second = cache.solve(pf, 0, 2);
+        assertSame(first, second);
+        assertEquals(10, second.size());
+        assertEquals(9 * Math.sqrt(2), second.getLength(), 0.0001);
+        assertEquals(1, cache.getHits());
+    }
+}
@@ -0,0 +1,112 @@
+package heniko.pathfinding.domain;
+
+import heniko.pathfinding.util.Node;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for search statistics.
+ *
+ * @author Niko Hernesniemi
+ */
+public class SearchStatsTest {
+
+    /*
+    Random map where the corners used as start and end are free
+     */
+    private GridMap openCornersMap(int seed) {
+        GridMap map = TestMaps.randomMap(60, 40, seed, 5);
+        map.setWall(0, 0, false);
+        map.setWall(59, 39, false);
+        return map;
+    }
+
+    private void assertConsistent(Pathfinder pf) {
+        SearchStats stats = pf.getStats();
+        assertEquals(pf.getExpandedCount(), stats.getExpanded());
+        assertEquals(pf.getStalePops(), stats.getStalePops());
+        assertEquals(pf.getPeakOpenListSize(), stats.getPeakOpenListSize());
+        assertTrue(stats.getGenerated() > 0);
+        assertTrue(stats.getHeapPushes() >= stats.getGenerated());
+        long phases = 0;
+        for (int phase = SearchStats.SETUP; phase <= SearchStats.PATH; phase++) {
+            assertTrue(stats.getPhaseTime(phase) >= 0);
+            phases += stats.getPhaseTime(phase);
+        }
+        assertEquals(phases, stats.getTotalTime());
+    }
+
+    @Test
+    public void aStarTest() {
+        GridMap map = openCornersMap(1);
+        Pathfinder pf = new AStar(new Node(0, 0), new Node(59, 39), map, new DiagonalHeuristic());
+        pf.setStats(new SearchStats());
+        assertFalse(pf.solve().isEmpty());
+        assertConsistent(pf);
+        SearchStats stats = pf.getStats();
+        // Every popped node was pushed
+        assertTrue(stats.getHeapPushes() >= stats.getExpanded() + stats.getStalePops());
+        assertEquals(0, stats.getJumpCalls());
+        assertEquals(0, stats.getScannedCells());
+        assertTrue(stats.getPhaseTime(SearchStats.SEARCH) > 0);
+    }
+
+    @Test
+    public void statsAreResetTest() {
+        GridMap map = openCornersMap(2);
+        SearchStats stats = new SearchStats();
+        Pathfinder pf = new AStar(new Node(0, 0), new Node(59, 39), map, new DjikstraHeuristic());
+        pf.setStats(stats);
+        pf.solve();
+        int generated = stats.getGenerated();
+        pf.solve();
+        assertEquals(generated, stats.getGenerated());
+    }
+
+    @Test
+    public void jumpPointSearchTest() {
+        GridMap map = openCornersMap(3);
+        Pathfinder[] pfs = new Pathfinder[]{
+            new JPS(new Node(0, 0), new Node(59, 39), map, new EuclideanHeuristic()),
+            new BlockJPS(new Node(0, 0), new Node(59, 39), map, new EuclideanHeuristic())
+        };
+        for (Pathfinder pf : pfs) {
+            pf.setStats(new SearchStats());
+            pf.solve();
+            assertConsistent(pf);
+            assertTrue(pf.getStats().getJumpCalls() > 0);
+            assertTrue(pf.getStats().getScannedCells() > 0);
+        }
+        // Both do the same jumps, block JPS only scans faster
+        assertEquals(pfs[0].getStats().getJumpCalls(), pfs[1].getStats().getJumpCalls());
+        assertEquals(pfs[0].getStats().getScannedCells(), pfs[1].getStats().getScannedCells());
+    }
+
+    @Test
+    public void otherPathfindersTest() {
+        GridMap map = openCornersMap(1);
+        Node start = new Node(0, 0);
+        Node end = new Node(59, 39);
+        Pathfinder[] pfs = new Pathfinder[]{
+            new BidirectionalAStar(start, end, map, new DiagonalHeuristic()),
+            new ParallelBidirectionalAStar(start, end, map, new DiagonalHeuristic()),
+            new HPAStar(start, end, map, ClusterGraph.build(map, 16), new DiagonalHeuristic()),
+            new JPSPlus(start, end, map, JumpTable.build(map), new EuclideanHeuristic())
+        };
+        for (Pathfinder pf : pfs) {
+            pf.setStats(new SearchStats());
+            assertFalse(pf.solve().isEmpty());
+            assertConsistent(pf);
+        }
+        assertTrue(pfs[2].getStats().getPhaseTime(SearchStats.REFINE) > 0);
+        assertTrue(pfs[3].getStats().getJumpCalls() > 0);
+    }
+
+    @Test
+    public void noStatsTest() {
+        Pathfinder pf = new AStar(new Node(0, 0), new Node(59, 39), openCornersMap(5), new DiagonalHeuristic());
+        assertNull(pf.getStats());
+        assertFalse(pf.solve().isEmpty());
+        assertTrue(pf.getExpandedCount() > 0);
+    }
+}
@@ -0,0 +1,85 @@
+package heniko.pathfinding.domain;
+
+import heniko.pathfinding.util.Node;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for SearchWorkspace.
+ *
+ * @author Niko Hernesniemi
+ */
+public class SearchWorkspaceTest {
+
+    SearchWorkspace ws;
+
+    @Before
+    public void setUp() {
+        ws = new SearchWorkspace(4, 3);
+        ws.reset();
+    }
+
+    @Test
+    public void openAndCloseTest() {
+        assertFalse(ws.isOpened(5));
+        assertFalse(ws.isClosed(5));
+        ws.open(5);
+        assertTrue(ws.isOpened(5));
+        assertFalse(ws.isClosed(5));
+        ws.close(5);
+        assertTrue(ws.isOpened(5));
+        assertTrue(ws.isClosed(5));
+    }
+
+    @Test
+    public void resetClearsStateTest() {
+        ws.open(1);
+        ws.close(2);
+        ws.setG(1, 3.5);
+        ws.setParent(1, 2);
+        ws.reset();
+        assertFalse(ws.isOpened(1));
+        assertFalse(ws.isOpened(2));
+        assertFalse(ws.isClosed(2));
+        // Values are kept but they are only valid for opened nodes
+        ws.open(1);
+        assertEquals(3.5, ws.getG(1), 0.0001);
+        assertEquals(2, ws.getParent(1));
+    }
+
+    @Test
+    public void fitsTest() {
+        assertTrue(ws.fits(4, 3));
+        assertFalse(ws.fits(3, 4));
+    }
+
+    @Test
+    public void reusedWorkspaceGivesSamePathTest() {
+        int sizeX = 6;
+        int sizeY = 6;
+        boolean[][] isWall = new boolean[sizeX][sizeY];
+        for (int y = 0; y < 5; y++) {
+            isWall[3][y] = true;
+        }
+        SearchWorkspace shared = new SearchWorkspace(sizeX, sizeY);
+        for (int i = 0; i < 3; i++) {
+            AStar astar = new AStar(new Node(0, 0), new Node(5, 0), sizeX, sizeY, isWall, new DiagonalHeuristic());
+            astar.setWorkspace(shared);
+            astar.solve();
+            assertEquals(13.2426, astar.getPathLength(), 0.01);
+            JPS jps = new JPS(new Node(0, 0), new Node(5, 0), sizeX, sizeY, isWall, new EuclideanHeuristic());
+            jps.setWorkspace(shared);
+            jps.solve();
+            assertEquals(13.2426, jps.getPathLength(), 0.01);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void wrongSizeWorkspaceTest() {
+        AStar astar = new AStar(new Node(0, 0), new Node(1, 1), 2, 2, new boolean[2][2], new DiagonalHeuristic());
+        astar.setWorkspace(ws);
+    }
+}
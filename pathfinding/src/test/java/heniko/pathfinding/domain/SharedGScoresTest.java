@@ -0,0 +1,42 @@
+package heniko.pathfinding.domain;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for SharedGScores.
+ *
+ * @author Niko Hernesniemi
+ */
+public class SharedGScoresTest {
+
+    @Test
+    public void publishTest() {
+        SharedGScores shared = new SharedGScores(4, 3);
+        shared.reset();
+        assertFalse(shared.isPublished(SharedGScores.FORWARD, 5));
+        shared.publish(SharedGScores.FORWARD, 5, 2.5);
+        assertTrue(shared.isPublished(SharedGScores.FORWARD, 5));
+        assertEquals(2.5, shared.get(SharedGScores.FORWARD, 5), 0);
+        // Sides have their own values
+        assertFalse(shared.isPublished(SharedGScores.BACKWARD, 5));
+    }
+
+    @Test
+    public void resetTest() {
+        SharedGScores shared = new SharedGScores(4, 3);
+        shared.reset();
+        shared.publish(SharedGScores.BACKWARD, 11, 1);
+        shared.reset();
+        assertFalse(shared.isPublished(SharedGScores.BACKWARD, 11));
+        shared.publish(SharedGScores.BACKWARD, 11, 3);
+        assertEquals(3, shared.get(SharedGScores.BACKWARD, 11), 0);
+    }
+
+    @Test
+    public void fitsTest() {
+        SharedGScores shared = new SharedGScores(4, 3);
+        assertTrue(shared.fits(4, 3));
+        assertFalse(shared.fits(3, 4));
+    }
+}
@@ -0,0 +1,76 @@
+package heniko.pathfinding.domain;
+
+import heniko.pathfinding.util.Node;
+import java.util.Random;
+import static org.junit.Assert.*;
+
+/**
+ * Maps shared by the tests.
+ *
+ * @author Niko Hernesniemi
+ */
+public final class TestMaps {
+
+    private TestMaps() {
+    }
+
+    /**
+     * Makes map where every node is a wall with probability 1 / wallOneIn.
+     *
+     * @param w Width of the map
+     * @param h Height of the map
+     * @param seed Seed of the random walls
+     * @param wallOneIn One node out of this many is a wall on average
+     * @return Random map.
+     */
+    public static GridMap randomMap(int w, int h, long seed, int wallOneIn) {
+        Random r = new Random(seed);
+        GridMap map = new GridMap(w, h);
+        for (int x = 0; x < w; x++) {
+            for (int y = 0; y < h; y++) {
+                map.setWall(x, y, r.nextInt(wallOneIn) == 0);
+            }
+        }
+        return map;
+    }
+
+    /**
+     * Makes map where every fourth node is a wall on average.
+     *
+     * @param w Width of the map
+     * @param h Height of the map
+     * @param seed Seed of the random walls
+     * @return Random map.
+     */
+    public static GridMap randomMap(int w, int h, long seed) {
+        return randomMap(w, h, seed, 4);
+    }
+
+    /**
+     * Solves queries between random free nodes, each on its own random map,
+     * and checks that pathfinder finds path when A* does and that the paths
+     * have the same length.
+     *
+     * @param factory Pathfinder to test
+     * @param w Width of the maps
+     * @param h Height of the maps
+     * @param wallOneIn One node out of this many is a wall on average
+     * @param seed Seed of the maps and queries
+     * @param queries Number of queries
+     */
+    static void assertSameLengthAsAStar(PathfinderFactory factory, int w, int h, int wallOneIn, long seed, int queries) {
+        Random r = new Random(seed);
+        for (int i = 0; i < queries; i++) {
+            GridMap map = randomMap(w, h, r.nextLong(), wallOneIn);
+            Node start = new Node(r.nextInt(w), r.nextInt(h));
+            Node end = new Node(r.nextInt(w), r.nextInt(h));
+            map.setWall(start.getX(), start.getY(), false);
+            map.setWall(end.getX(), end.getY(), false);
+
+            AStar aStar = new AStar(start, end, map, new DiagonalHeuristic());
+            Pathfinder pf = factory.create(start, end, map);
+            assertEquals(aStar.solve().isEmpty(), pf.solve().isEmpty());
+            assertEquals(aStar.getPathLength(), pf.getPathLength(), 0.0001);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package heniko.pathfinding.domain;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for VersionedMap.
+ *
+ * @author Niko Hernesniemi
+ */
+public class VersionedMapTest {
+
+    @Test
+    public void snapshotsDontChangeTest() {
+        VersionedMap map = new VersionedMap(new GridMap(10, 10));
+        MapSnapshot first = map.snapshot();
+        map.setWall(3, 3, true);
+        map.setWall(3, 3, true);
+        assertEquals(1, map.getVersion());
+        assertFalse(first.isWall(3, 3));
+        assertTrue(map.snapshot().isWall(3, 3));
+    }
+
+    @Test
+    public void readersSeeWholeVersionsTest() throws InterruptedException {
+        int size = 128;
+        VersionedMap map = new VersionedMap(new GridMap(size, size));
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < 2000; i++) {
+                map.setWall(i % size, (i * 7) % size, i % 3 != 0);
+            }
+        });
+        writer.start();
+        boolean consistent = true;
+        while (writer.isAlive()) {
+            MapSnapshot snapshot = map.snapshot();
+            long checksum = snapshot.checksum();
+            long version = snapshot.getVersion();
+            consistent &= checksum == snapshot.checksum() && version == snapshot.getVersion();
+        }
+        writer.join();
+        assertTrue(consistent);
+    }
+}
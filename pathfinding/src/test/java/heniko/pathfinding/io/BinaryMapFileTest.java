@@ -0,0 +1,143 @@
+package heniko.pathfinding.io;
+
+import heniko.pathfinding.domain.AStar;
+import heniko.pathfinding.domain.DiagonalHeuristic;
+import heniko.pathfinding.domain.GridMap;
+import heniko.pathfinding.domain.MappedGridMap;
+import heniko.pathfinding.domain.Pathfinder;
+import heniko.pathfinding.util.Node;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for binary map files.
+ *
+ * @author Niko Hernesniemi
+ */
+public class BinaryMapFileTest {
+
+    private File tempFile(String suffix) throws IOException {
+        File file = File.createTempFile("map", suffix);
+        file.deleteOnExit();
+        return file;
+    }
+
+    @Test
+    public void saveAndLoadTest() throws IOException {
+        Random r = new Random(4);
+        GridMap map = new GridMap(100, 70);
+        for (int i = 0; i < 2000; i++) {
+            map.setWall(r.nextInt(100), r.nextInt(70), true);
+        }
+        map.setWall(0, 0, false);
+        map.setWall(99, 69, false);
+        File file = tempFile(".bin");
+        BinaryMapFile.save(map, file);
+        assertEquals(24 + 2 * 70 * 8, file.length());
+
+        MappedGridMap loaded = BinaryMapFile.load(file);
+        assertEquals(100, loaded.getWidth());
+        assertEquals(70, loaded.getHeight());
+        for (int x = 0; x < 100; x++) {
+            for (int y = 0; y < 70; y++) {
+                assertEquals(map.isWall(x, y), loaded.isWall(x, y));
+            }
+        }
+        assertEquals(map.checksum(), loaded.checksum());
+
+        Pathfinder a = new AStar(new Node(0, 0), new Node(99, 69), map, new DiagonalHeuristic());
+        Pathfinder b = new AStar(new Node(0, 0), new Node(99, 69), loaded, new DiagonalHeuristic());
+        a.solve();
+        b.solve();
+        assertEquals(a.getPathLength(), b.getPathLength(), 1e-9);
+    }
+
+    @Test
+    public void convertTest() throws IOException {
+        File mapFile = tempFile(".map");
+        try (FileWriter writer = new FileWriter(mapFile)) {
+            writer.write("type octile\nheight 3\nwidth 3\nmap\n.@.\n..T\nO..\n");
+        }
+        File file = tempFile(".bin");
+        BinaryMapFile.convert(mapFile, file);
+        GridMap expected = new MapReader(mapFile).getGridMap();
+        MappedGridMap loaded = BinaryMapFile.load(file);
+        assertEquals(expected.checksum(), loaded.checksum());
+        assertTrue(loaded.isWall(0, 1));
+    }
+
+    @Test(expected = IOException.class)
+    public void notBinaryMapTest() throws IOException {
+        File file = tempFile(".bin");
+        try (FileWriter writer = new FileWriter(file)) {
+            writer.write("type octile\nheight 3\nwidth 3\nmap\n");
+        }
+        BinaryMapFile.load(file);
+    }
+
+    @Test
+    public void wallsInPaddingTest() throws IOException {
+        File file = tempFile(".bin");
+        BinaryMapFile.save(new GridMap(70, 3), file);
+        // Set bit 10 of the second word of the last row, node x = 74 is
+        // outside the map
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(24 + 5 * 8 + 1);
+            raf.write(4);
+        }
+        try {
+            BinaryMapFile.load(file, false);
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("outside"));
+        }
+    }
+
+    @Test
+    public void wrongChecksumTest() throws IOException {
+        File file = tempFile(".bin");
+        BinaryMapFile.save(new GridMap(70, 3), file);
+        // Wall inside the map that the checksum doesn't know about
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(24);
+            raf.write(1);
+        }
+        assertTrue(BinaryMapFile.load(file).isWall(0, 0));
+        try {
+            BinaryMapFile.load(file, true);
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("checksum"));
+        }
+    }
+
+    @Test
+    public void loadOrConvertReplacesBrokenFileTest() throws IOException {
+        File mapFile = tempFile(".map");
+        try (FileWriter writer = new FileWriter(mapFile)) {
+            writer.write("type octile\nheight 3\nwidth 3\nmap\n.@.\n..T\nO..\n");
+        }
+        File file = BinaryMapFile.binaryFile(mapFile);
+        file.deleteOnExit();
+        BinaryMapFile.convert(mapFile, file);
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(24);
+            raf.write(0x7f);
+        }
+        file.setLastModified(mapFile.lastModified() + 1000);
+        MappedGridMap loaded = BinaryMapFile.loadOrConvert(mapFile);
+        assertEquals(new MapReader(mapFile).getGridMap().checksum(), loaded.checksum());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void mappedMapCantChangeTest() throws IOException {
+        File file = tempFile(".bin");
+        BinaryMapFile.save(new GridMap(5, 5), file);
+        BinaryMapFile.load(file).setWall(1, 1, true);
+    }
+}
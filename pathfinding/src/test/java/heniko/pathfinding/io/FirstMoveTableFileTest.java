@@ -0,0 +1,91 @@
+package heniko.pathfinding.io;
+
+import heniko.pathfinding.domain.FirstMoveTable;
+import heniko.pathfinding.domain.GridMap;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for saving and loading first move tables.
+ *
+ * @author Niko Hernesniemi
+ */
+public class FirstMoveTableFileTest {
+
+    @Test
+    public void saveAndLoadTest() throws IOException {
+        GridMap map = new GridMap(10, 7);
+        map.setWall(3, 3, true);
+        map.setWall(4, 5, true);
+        map.setWall(4, 4, true);
+        FirstMoveTable table = FirstMoveTable.build(map);
+        File file = File.createTempFile("moves", ".cpd");
+        file.deleteOnExit();
+
+        FirstMoveTableFile.save(table, map, file);
+        FirstMoveTable loaded = FirstMoveTableFile.load(file, map);
+        assertNotNull(loaded);
+        assertEquals(table.getRunCount(), loaded.getRunCount());
+        for (int source = 0; source < 70; source++) {
+            for (int target = 0; target < 70; target++) {
+                assertEquals(table.getMove(source, target), loaded.getMove(source, target));
+            }
+        }
+    }
+
+    @Test
+    public void changedMapTest() throws IOException {
+        GridMap map = new GridMap(10, 7);
+        File file = File.createTempFile("moves", ".cpd");
+        file.deleteOnExit();
+
+        FirstMoveTableFile.save(FirstMoveTable.build(map), map, file);
+        map.setWall(1, 1, true);
+        assertNull(FirstMoveTableFile.load(file, map));
+    }
+
+    @Test
+    public void loadOrBuildRebuildsStaleFileTest() throws IOException {
+        File mapFile = File.createTempFile("moves", ".map");
+        mapFile.deleteOnExit();
+        File file = FirstMoveTableFile.sidecarFile(mapFile);
+        file.deleteOnExit();
+        GridMap map = new GridMap(8, 6);
+
+        // Missing table is built and saved
+        FirstMoveTable built = FirstMoveTableFile.loadOrBuild(mapFile, map);
+        assertTrue(file.isFile());
+        assertNotNull(FirstMoveTableFile.load(file, map));
+
+        // Table of the old map is replaced
+        map.setWall(2, 2, true);
+        map.setWall(2, 3, true);
+        assertNull(FirstMoveTableFile.load(file, map));
+        FirstMoveTable rebuilt = FirstMoveTableFile.loadOrBuild(mapFile, map);
+        FirstMoveTable expected = FirstMoveTable.build(map);
+        FirstMoveTable loaded = FirstMoveTableFile.load(file, map);
+        assertNotNull(loaded);
+        for (int source = 0; source < 48; source++) {
+            for (int target = 0; target < 48; target++) {
+                assertEquals(expected.getMove(source, target), rebuilt.getMove(source, target));
+                assertEquals(expected.getMove(source, target), loaded.getMove(source, target));
+            }
+        }
+        assertTrue(built.getRunCount() > 0);
+    }
+
+    @Test
+    public void truncatedFileTest() throws IOException {
+        GridMap map = new GridMap(10, 7);
+        File file = File.createTempFile("moves", ".cpd");
+        file.deleteOnExit();
+        FirstMoveTableFile.save(FirstMoveTable.build(map), map, file);
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() - 3);
+        }
+        assertNull(FirstMoveTableFile.load(file, map));
+    }
+}
@@ -0,0 +1,42 @@
+package heniko.pathfinding.io;
+
+import heniko.pathfinding.domain.GridMap;
+import heniko.pathfinding.domain.JumpTable;
+import java.io.File;
+import java.io.IOException;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for saving and loading jump tables.
+ *
+ * @author Niko Hernesniemi
+ */
+public class JumpTableFileTest {
+
+    @Test
+    public void saveAndLoadTest() throws IOException {
+        GridMap map = new GridMap(10, 7);
+        map.setWall(3, 3, true);
+        map.setWall(4, 5, true);
+        JumpTable table = JumpTable.build(map);
+        File file = File.createTempFile("jumptable", ".jps");
+        file.deleteOnExit();
+
+        JumpTableFile.save(table, map, file);
+        JumpTable loaded = JumpTableFile.load(file, map);
+        assertNotNull(loaded);
+        assertArrayEquals(table.getDistances(), loaded.getDistances());
+    }
+
+    @Test
+    public void changedMapTest() throws IOException {
+        GridMap map = new GridMap(10, 7);
+        File file = File.createTempFile("jumptable", ".jps");
+        file.deleteOnExit();
+
+        JumpTableFile.save(JumpTable.build(map), map, file);
+        map.setWall(1, 1, true);
+        assertNull(JumpTableFile.load(file, map));
+    }
+}
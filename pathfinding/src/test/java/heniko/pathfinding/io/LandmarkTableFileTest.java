@@ -0,0 +1,79 @@
+package heniko.pathfinding.io;
+
+import heniko.pathfinding.domain.GridMap;
+import heniko.pathfinding.domain.LandmarkSelection;
+import heniko.pathfinding.domain.LandmarkTable;
+import java.io.File;
+import java.io.IOException;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for saving and loading landmark tables.
+ *
+ * @author Niko Hernesniemi
+ */
+public class LandmarkTableFileTest {
+
+    @Test
+    public void saveAndLoadTest() throws IOException {
+        GridMap map = new GridMap(10, 7);
+        map.setWall(3, 3, true);
+        map.setWall(4, 5, true);
+        LandmarkTable table = LandmarkTable.build(map, 3, LandmarkSelection.RANDOM);
+        File file = File.createTempFile("landmarks", ".alt");
+        file.deleteOnExit();
+
+        LandmarkTableFile.save(table, map, 3, LandmarkSelection.RANDOM, file);
+        LandmarkTable loaded = LandmarkTableFile.load(file, map, 3, LandmarkSelection.RANDOM);
+        assertNotNull(loaded);
+        assertArrayEquals(table.getLandmarks(), loaded.getLandmarks());
+        assertArrayEquals(table.getSteps(), loaded.getSteps());
+    }
+
+    @Test
+    public void changedMapTest() throws IOException {
+        GridMap map = new GridMap(10, 7);
+        File file = File.createTempFile("landmarks", ".alt");
+        file.deleteOnExit();
+
+        LandmarkTableFile.save(LandmarkTable.build(map, 2, LandmarkSelection.CORNERS), map, 2, LandmarkSelection.CORNERS, file);
+        map.setWall(1, 1, true);
+        assertNull(LandmarkTableFile.load(file, map, 2, LandmarkSelection.CORNERS));
+    }
+
+    @Test
+    public void otherSelectionOrCountTest() throws IOException {
+        GridMap map = new GridMap(10, 7);
+        File file = File.createTempFile("landmarks", ".alt");
+        file.deleteOnExit();
+
+        LandmarkTableFile.save(LandmarkTable.build(map, 2, LandmarkSelection.FARTHEST), map, 2, LandmarkSelection.FARTHEST, file);
+        assertNull(LandmarkTableFile.load(file, map, 2, LandmarkSelection.CORNERS));
+        assertNull(LandmarkTableFile.load(file, map, 3, LandmarkSelection.FARTHEST));
+        assertNotNull(LandmarkTableFile.load(file, map, 2, LandmarkSelection.FARTHEST));
+    }
+
+    @Test
+    public void fewerLandmarksThanRequestedTest() throws IOException {
+        // Only one empty node so only one landmark can be found
+        GridMap map = new GridMap(3, 3);
+        for (int x = 0; x < 3; x++) {
+            for (int y = 0; y < 3; y++) {
+                map.setWall(x, y, x != 1 || y != 1);
+            }
+        }
+        File mapFile = File.createTempFile("landmarks", ".map");
+        mapFile.deleteOnExit();
+        File file = LandmarkTableFile.sidecarFile(mapFile);
+        file.deleteOnExit();
+
+        LandmarkTable table = LandmarkTableFile.loadOrBuild(mapFile, map, 4, LandmarkSelection.CORNERS);
+        assertTrue(table.getLandmarkCount() < 4);
+        long modified = file.lastModified();
+        file.setLastModified(modified - 10000);
+        LandmarkTableFile.loadOrBuild(mapFile, map, 4, LandmarkSelection.CORNERS);
+        // File was used instead of building and saving the table again
+        assertEquals(modified - 10000, file.lastModified());
+    }
+}
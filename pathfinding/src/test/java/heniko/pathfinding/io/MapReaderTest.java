@@ -0,0 +1,100 @@
+package heniko.pathfinding.io;
+
+import heniko.pathfinding.domain.GridMap;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for MapReader.
+ *
+ * @author Niko Hernesniemi
+ */
+public class MapReaderTest {
+
+    private File mapFile(String content) throws IOException {
+        File file = File.createTempFile("map", ".map");
+        file.deleteOnExit();
+        try (FileWriter writer = new FileWriter(file)) {
+            writer.write(content);
+        }
+        return file;
+    }
+
+    @Test
+    public void terrainTest() throws IOException {
+        MapReader mr = new MapReader(mapFile("type octile\nheight 2\nwidth 4\nmap\n.GS@\nOTW.\n"));
+        GridMap map = mr.getGridMap();
+        // Sizes are the sizes of the GridMap, line of the file is x-coordinate
+        assertEquals(4, mr.getHeight());
+        assertEquals(2, mr.getWidth());
+        assertEquals(map.getWidth(), mr.getWidth());
+        assertEquals(map.getHeight(), mr.getHeight());
+        boolean[] first = {false, false, false, true};
+        boolean[] second = {true, true, true, false};
+        for (int j = 0; j < 4; j++) {
+            // Line of the file is x-coordinate
+            assertEquals(first[j], map.isWall(0, j));
+            assertEquals(second[j], map.isWall(1, j));
+            assertEquals(first[j], mr.getMap()[0][j]);
+        }
+    }
+
+    @Test
+    public void windowsLineBreaksTest() throws IOException {
+        MapReader unix = new MapReader(mapFile("type octile\nheight 3\nwidth 3\nmap\n.@.\n..T\n@..\n"));
+        MapReader windows = new MapReader(mapFile("type octile\r\nheight 3\r\nwidth 3\r\nmap\r\n.@.\r\n..T\r\n@..\r\n"));
+        assertEquals(unix.getGridMap().checksum(), windows.getGridMap().checksum());
+    }
+
+    @Test
+    public void largeMapTest() throws IOException {
+        // Large enough to be parsed in parallel
+        int size = 300;
+        StringBuilder sb = new StringBuilder("type octile\nheight 300\nwidth 300\nmap\n");
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                sb.append((i * 31 + j * 17) % 5 == 0 ? '@' : '.');
+            }
+            sb.append('\n');
+        }
+        GridMap map = new MapReader(mapFile(sb.toString())).getGridMap();
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                assertEquals((i * 31 + j * 17) % 5 == 0, map.isWall(i, j));
+            }
+        }
+    }
+
+    @Test
+    public void brokenMapTest() throws IOException {
+        assertNull(new MapReader(mapFile("type octile\nheight 3\nwidth 3\nmap\n...\n..\n...\n")).getGridMap());
+        assertNull(new MapReader(mapFile("type octile\nheight 3\nwidth 3\nmap\n...\n")).getGridMap());
+        assertNull(new MapReader(mapFile("type octile\nheight x\nwidth 3\nmap\n")).getGridMap());
+        assertNull(new MapReader(new File("no_such_file.map")).getGridMap());
+    }
+
+    @Test
+    public void nonSquareMapTest() throws IOException {
+        StringBuilder sb = new StringBuilder("type octile\nheight 10\nwidth 30\nmap\n");
+        for (int i = 0; i < 10; i++) {
+            for (int j = 0; j < 30; j++) {
+                sb.append(i == 0 || j == 0 || i == 9 || j == 29 ? '@' : '.');
+            }
+            sb.append('\n');
+        }
+        MapReader mr = new MapReader(mapFile(sb.toString()));
+        GridMap map = mr.getGridMap();
+        assertEquals(10, mr.getWidth());
+        assertEquals(30, mr.getHeight());
+        assertEquals(map.getWidth(), mr.getWidth());
+        assertEquals(map.getHeight(), mr.getHeight());
+        assertEquals(10, mr.getMap().length);
+        assertEquals(30, mr.getMap()[0].length);
+        // Nodes used by Tester are inside the map and not walls
+        assertFalse(map.isWall(mr.getWidth() - 2, mr.getHeight() - 2));
+        assertTrue(map.isWall(mr.getWidth() - 1, mr.getHeight() - 1));
+    }
+}
@@ -0,0 +1,57 @@
+package heniko.pathfinding.io;
+
+import heniko.pathfinding.util.Scenario;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for reading scenario files.
+ *
+ * @author Niko Hernesniemi
+ */
+public class ScenarioReaderTest {
+
+    private File write(String text) throws IOException {
+        File file = File.createTempFile("map", ".scen");
+        file.deleteOnExit();
+        try (FileWriter fw = new FileWriter(file)) {
+            fw.write(text);
+        }
+        return file;
+    }
+
+    @Test
+    public void readTest() throws IOException {
+        File file = write("version 1\n"
+                + "0\tmaps/test.map\t20\t10\t1\t2\t3\t4\t2.82842712\n"
+                + "3\tmaps/test.map\t20\t10\t19\t9\t0\t0\t22.72792206\r\n");
+        ArrayList<Scenario> scenarios = new ScenarioReader(file).getScenarios();
+        assertEquals(2, scenarios.size());
+
+        Scenario first = scenarios.get(0);
+        assertEquals(0, first.getBucket());
+        // Column is y and line is x like in MapReader
+        assertEquals(2, first.getStart().getX());
+        assertEquals(1, first.getStart().getY());
+        assertEquals(4, first.getEnd().getX());
+        assertEquals(3, first.getEnd().getY());
+        assertEquals(2.82842712, first.getOptimalLength(), 1e-9);
+
+        Scenario second = scenarios.get(1);
+        assertEquals(3, second.getBucket());
+        assertEquals(9, second.getStart().getX());
+        assertEquals(19, second.getStart().getY());
+        assertEquals(22.72792206, second.getOptimalLength(), 1e-9);
+    }
+
+    @Test
+    public void badFileTest() throws IOException {
+        File file = write("version 1\n0\tmaps/test.map\t20\t10\ta\t2\t3\t4\t2.8\n");
+        assertTrue(new ScenarioReader(file).getScenarios().isEmpty());
+        assertTrue(new ScenarioReader(new File("missing.scen")).getScenarios().isEmpty());
+    }
+}
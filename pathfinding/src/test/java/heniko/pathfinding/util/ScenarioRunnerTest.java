@@ -0,0 +1,71 @@
+package heniko.pathfinding.util;
+
+import heniko.pathfinding.domain.AStar;
+import heniko.pathfinding.domain.BidirectionalAStar;
+import heniko.pathfinding.domain.DiagonalHeuristic;
+import heniko.pathfinding.domain.DjikstraHeuristic;
+import heniko.pathfinding.domain.GridMap;
+import heniko.pathfinding.domain.Pathfinder;
+import heniko.pathfinding.domain.TestMaps;
+import java.util.ArrayList;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for running scenarios.
+ *
+ * @author Niko Hernesniemi
+ */
+public class ScenarioRunnerTest {
+
+    /*
+    Scenarios with optimal lengths from Djikstra's algorithm
+     */
+    private ArrayList<Scenario> scenarios(GridMap map, Random r) {
+        ArrayList<Scenario> scenarios = new ArrayList<>();
+        while (scenarios.size() < 40) {
+            Node start = new Node(r.nextInt(40), r.nextInt(30));
+            Node end = new Node(r.nextInt(40), r.nextInt(30));
+            Pathfinder pf = new AStar(start, end, map, new DjikstraHeuristic());
+            if (pf.solve().isEmpty()) {
+                continue;
+            }
+            scenarios.add(new Scenario(scenarios.size() / 10, start, end, pf.getPathLength()));
+        }
+        return scenarios;
+    }
+
+    @Test
+    public void optimalLengthsTest() {
+        Random r = new Random(8);
+        GridMap map = TestMaps.randomMap(40, 30, r.nextLong(), 5);
+        ScenarioRunner runner = new ScenarioRunner(map, scenarios(map, r));
+
+        ArrayList<String> table = runner.run("A*", (s, e, m) -> new AStar(s, e, m, new DiagonalHeuristic()), true);
+        assertEquals(0, runner.getWrongLengths());
+        // Header, separator and four buckets
+        assertEquals(6, table.size());
+
+        runner.run("Bidirectional A*", (s, e, m) -> new BidirectionalAStar(s, e, m, new DiagonalHeuristic()), true);
+        assertEquals(0, runner.getWrongLengths());
+    }
+
+    @Test
+    public void wrongLengthTest() {
+        Random r = new Random(9);
+        GridMap map = TestMaps.randomMap(40, 30, r.nextLong(), 5);
+        ArrayList<Scenario> scenarios = scenarios(map, r);
+        Scenario first = scenarios.get(0);
+        scenarios.set(0, new Scenario(0, first.getStart(), first.getEnd(), first.getOptimalLength() + 1));
+        Scenario second = scenarios.get(1);
+        scenarios.set(1, new Scenario(0, second.getStart(), second.getEnd(), second.getOptimalLength() - 1));
+        ScenarioRunner runner = new ScenarioRunner(map, scenarios);
+
+        runner.run("A*", (s, e, m) -> new AStar(s, e, m, new DiagonalHeuristic()), true);
+        assertEquals(2, runner.getWrongLengths());
+        // Longer paths are allowed for algorithms that are not optimal
+        runner.run("A*", (s, e, m) -> new AStar(s, e, m, new DiagonalHeuristic()), false);
+        assertEquals(1, runner.getWrongLengths());
+    }
+}